@@ -0,0 +1,30 @@
+package io.github.albi.vehicles.adapters.persistence.vehicle;
+
+import io.github.albi.vehicles.benchmarks.Fixtures;
+import io.github.albi.vehicles.domain.vehicle.Vehicle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Entity to domain mapping, done once per row of every search and export. Lives in the mapper's package. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VehicleMapperBenchmark {
+
+    private VehicleEntity entity;
+
+    @Setup
+    public void setUp() {
+        entity = new VehicleEntity(42L, Fixtures.VIN, "CAR", "Honda", "Accord", 2003,
+                "PETROL", "Silver", "AB-123-CD");
+    }
+
+    @Benchmark
+    public Vehicle toDomain() {
+        return VehicleMapper.toDomain(entity);
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.albi.vehicles.adapters.web.vehicle;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.github.albi.vehicles.adapters.web.vehicle.dto.VehicleResponse;
+import io.github.albi.vehicles.benchmarks.Fixtures;
+import io.github.albi.vehicles.domain.vehicle.Vehicle;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Domain to DTO to JSON, the tail of every read request. Lives in the controller's package. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VehicleResponseBenchmark {
+
+    private final Vehicle vehicle = Fixtures.vehicle(42L);
+
+    @State(Scope.Thread)
+    public static class Page {
+        @Param({"1", "100", "10000"})
+        public int size;
+
+        List<VehicleResponse> responses;
+        ObjectWriter writer;
+        final OutputStream sink = OutputStream.nullOutputStream();
+
+        @Setup
+        public void setUp() {
+            responses = Fixtures.vehicles(size).stream().map(VehicleController::toResponse).toList();
+            // Spring MVC's defaults, as used by MappingJackson2HttpMessageConverter
+            ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+            writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, VehicleResponse.class))
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+    }
+
+    @Benchmark
+    public VehicleResponse toResponse() {
+        return VehicleController.toResponse(vehicle);
+    }
+
+    @Benchmark
+    public void serializeList(Page page) throws IOException {
+        page.writer.writeValue(page.sink, page.responses);
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.albi.vehicles.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@code java -jar benchmarks/target/benchmarks.jar [jmh options] [regex]}.
+ *
+ * <p>Same command line as JMH's own {@code Main}, but the GC profiler is always on,
+ * so every result comes with {@code gc.alloc.rate.norm} (bytes allocated per op)
+ * next to the ops/s score.</p>
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws Exception {
+        var cli = new CommandLineOptions(args);
+        var options = new OptionsBuilder()
+                .parent(cli)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.albi.vehicles.benchmarks;
+
+import io.github.albi.vehicles.domain.vehicle.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Value-object construction done for every request and every mapped row. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DomainBenchmark {
+
+    private String vin = Fixtures.VIN;
+    private String vinRaw = Fixtures.VIN_RAW;
+    private Vin parsedVin = new Vin(Fixtures.VIN);
+
+    @Benchmark
+    public Vin vinNormalized() {
+        return new Vin(vin);
+    }
+
+    @Benchmark
+    public Vin vinNeedsNormalizing() {
+        return new Vin(vinRaw);
+    }
+
+    @Benchmark
+    public Vin vinChecked() {
+        return Vin.checked(vin);
+    }
+
+    @Benchmark
+    public LegacyVin legacyVinNormalized() {
+        return new LegacyVin(vin);
+    }
+
+    @Benchmark
+    public LegacyVin legacyVinNeedsNormalizing() {
+        return new LegacyVin(vinRaw);
+    }
+
+    @Benchmark
+    public Vehicle vehicleConstructor() {
+        return new Vehicle(new VehicleId(42L), parsedVin, VehicleType.CAR, "Honda", "Accord", 2003,
+                FuelType.PETROL, " Silver ", "ab-123-cd");
+    }
+}
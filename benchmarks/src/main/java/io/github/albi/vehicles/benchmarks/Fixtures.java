@@ -0,0 +1,28 @@
+package io.github.albi.vehicles.benchmarks;
+
+import io.github.albi.vehicles.domain.vehicle.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Realistic inputs shared by the benchmarks. */
+public final class Fixtures {
+
+    /** Already normalized: what the database hands back. */
+    public static final String VIN = "1HGCM82633A004352";
+    /** What clients send: padded and lower case. */
+    public static final String VIN_RAW = "  1hgcm82633a004352 ";
+
+    private Fixtures() {}
+
+    public static Vehicle vehicle(long id) {
+        return new Vehicle(new VehicleId(id), new Vin(VIN), VehicleType.CAR, "Honda", "Accord", 2003,
+                FuelType.PETROL, "Silver", "AB-123-CD");
+    }
+
+    public static List<Vehicle> vehicles(int n) {
+        var list = new ArrayList<Vehicle>(n);
+        for (int i = 1; i <= n; i++) list.add(vehicle(i));
+        return list;
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.albi.vehicles.benchmarks;
+
+import java.util.Objects;
+
+/** Regex-based {@code Vin} validation as it was before the table-driven rewrite; baseline only. */
+public final class LegacyVin {
+    private static final String PATTERN = "^[A-HJ-NPR-Z0-9]{17}$";
+
+    private final String value;
+
+    public LegacyVin(String value) {
+        Objects.requireNonNull(value, "vin is required");
+        var v = value.trim().toUpperCase();
+        if (!v.matches(PATTERN)) {
+            throw new IllegalArgumentException("Invalid VIN: must be 17 chars A-HJ-NPR-Z0-9");
+        }
+        this.value = v;
+    }
+
+    public String value() { return value; }
+}
@@ -0,0 +1,120 @@
+package io.github.albi.vehicles.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * {@code java -cp benchmarks/target/benchmarks.jar io.github.albi.vehicles.benchmarks.LoadTest
+ * <base-url> <path>[,<path>...] [clients=200] [seconds=30] [warmup-seconds=5]}.
+ *
+ * <p>Closed-loop HTTP load against a running service: every client sends its next GET
+ * as soon as the previous one returns, cycling through the given paths. Used to compare
+ * the default (platform thread) and {@code virtual-threads} profiles under the same
+ * load; prints throughput, latency percentiles and the status codes seen.</p>
+ */
+public final class LoadTest {
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: LoadTest <base-url> <path>[,<path>...] [clients] [seconds] [warmup-seconds]");
+            System.exit(2);
+        }
+        var base = args[0].replaceAll("/+$", "");
+        var paths = args[1].split(",");
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        var duration = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 30);
+        var warmup = Duration.ofSeconds(args.length > 4 ? Long.parseLong(args[4]) : 5);
+
+        var requests = Arrays.stream(paths)
+                .map(p -> HttpRequest.newBuilder(URI.create(base + p)).timeout(Duration.ofSeconds(30)).GET().build())
+                .toList();
+        try (var http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            run(http, requests, clients, warmup);
+            var result = run(http, requests, clients, duration);
+            System.out.printf("clients=%d duration=%ds paths=%s%n", clients, duration.toSeconds(), String.join(",", paths));
+            System.out.println(result.report(duration));
+        }
+    }
+
+    private static Result run(HttpClient http, List<HttpRequest> requests, int clients, Duration duration)
+            throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        var futures = new ArrayList<Future<Client>>(clients);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                final int offset = c;
+                futures.add(executor.submit(() -> new Client().run(http, requests, offset, deadline)));
+            }
+        }
+        var result = new Result();
+        for (var f : futures) result.add(f.get());
+        return result;
+    }
+
+    /** One closed-loop client; keeps its own latencies so clients never contend. */
+    private static final class Client {
+        long[] latencies = new long[1024];
+        int count;
+        final Map<String, Integer> statuses = new TreeMap<>();
+
+        Client run(HttpClient http, List<HttpRequest> requests, int offset, long deadline) {
+            for (int i = offset; System.nanoTime() < deadline; i++) {
+                var request = requests.get(i % requests.size());
+                long start = System.nanoTime();
+                String status;
+                try {
+                    status = String.valueOf(http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+                } catch (Exception e) {
+                    status = e.getClass().getSimpleName();
+                }
+                if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+                latencies[count++] = System.nanoTime() - start;
+                statuses.merge(status, 1, Integer::sum);
+            }
+            return this;
+        }
+    }
+
+    private static final class Result {
+        final List<long[]> parts = new ArrayList<>();
+        final Map<String, Integer> statuses = new TreeMap<>();
+        int total;
+
+        void add(Client c) {
+            parts.add(Arrays.copyOf(c.latencies, c.count));
+            total += c.count;
+            c.statuses.forEach((k, v) -> statuses.merge(k, v, Integer::sum));
+        }
+
+        String report(Duration duration) {
+            var all = new long[total];
+            int at = 0;
+            for (var p : parts) {
+                System.arraycopy(p, 0, all, at, p.length);
+                at += p.length;
+            }
+            Arrays.sort(all);
+            return String.format("requests=%d throughput=%.0f req/s p50=%s p90=%s p99=%s max=%s statuses=%s",
+                    total, total / (double) duration.toSeconds(),
+                    ms(all, 0.50), ms(all, 0.90), ms(all, 0.99), ms(all, 1.0), statuses);
+        }
+
+        private static String ms(long[] sorted, double quantile) {
+            if (sorted.length == 0) return "-";
+            int i = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+            return String.format("%.1fms", sorted[Math.max(0, i)] / 1e6);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.albi.vehicles.benchmarks;
+
+import io.github.albi.vehicles.adapters.metrics.vehicle.TimedVehicleRepository;
+import io.github.albi.vehicles.domain.vehicle.*;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Cost of the {@code vehicles.repository} timers: the same in-memory repository
+ * called directly and through {@link TimedVehicleRepository} on a Prometheus registry.
+ * The difference is what every repository call pays in production.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    private final VehicleRepository plain = new InMemoryRepository();
+    private final VehicleRepository timed =
+            new TimedVehicleRepository(plain, new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+    private final VehicleId id = new VehicleId(42L);
+    private final VehicleFilter filter = new VehicleFilter("Honda", "Accord", null, null, null, null, null);
+
+    @Benchmark
+    public Optional<Vehicle> findById() {
+        return plain.findById(id);
+    }
+
+    @Benchmark
+    public Optional<Vehicle> findByIdTimed() {
+        return timed.findById(id);
+    }
+
+    @Benchmark
+    public VehiclePage search() {
+        return plain.search(filter, VehicleSort.ID, null, 50);
+    }
+
+    /** Also derives the filter tag and records the rows summary. */
+    @Benchmark
+    public VehiclePage searchTimed() {
+        return timed.search(filter, VehicleSort.ID, null, 50);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public VehiclePage searchTimedContended() {
+        return timed.search(filter, VehicleSort.ID, null, 50);
+    }
+
+    /** Answers from constants, so only the decorator's own work is measured. */
+    private static final class InMemoryRepository implements VehicleRepository {
+        private final Optional<Vehicle> vehicle = Optional.of(Fixtures.vehicle(42L));
+        private final VehiclePage page = new VehiclePage(Fixtures.vehicles(50), null);
+
+        @Override public Optional<Vehicle> findById(VehicleId id) { return vehicle; }
+        @Override public Optional<VehicleVersion> findVersionById(VehicleId id) { return Optional.empty(); }
+        @Override public Optional<Vehicle> findByVin(Vin vin) { return vehicle; }
+        @Override public Optional<Vehicle> findByRegistrationNumber(String registrationNumber) { return vehicle; }
+        @Override public List<Vehicle> findAll(List<VehicleKey> keys) { return List.of(); }
+        @Override public VehiclePage search(VehicleFilter f, VehicleSort s, VehicleCursor a, int limit) { return page; }
+        @Override public void exportAll(VehicleFilter f, Consumer<? super Vehicle> sink) {}
+        @Override public VehicleFacets facets(VehicleFilter f) { throw new UnsupportedOperationException(); }
+        @Override public List<String> suggest(VehicleTextField field, String prefix, int limit) { return List.of(); }
+        @Override public List<VehicleChange> changesSince(long since, int limit) { return List.of(); }
+        @Override public Vehicle create(Vin vin, VehicleType type, String make, String model, Integer year,
+                                        FuelType fuelType, String color, String registrationNumber) {
+            throw new UnsupportedOperationException();
+        }
+        @Override public List<VehicleUpsertResult> upsertAll(List<VehicleDraft> drafts) { return List.of(); }
+        @Override public Optional<Vehicle> update(VehicleId id, Long expectedVersion, Vin vin, VehicleType type,
+                                                  String make, String model, Integer year, FuelType fuelType,
+                                                  String color, String registrationNumber) {
+            return Optional.empty();
+        }
+        @Override public boolean delete(VehicleId id, Long expectedVersion) { return false; }
+    }
+}
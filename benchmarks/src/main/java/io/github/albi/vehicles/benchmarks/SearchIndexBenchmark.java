@@ -0,0 +1,70 @@
+package io.github.albi.vehicles.benchmarks;
+
+import io.github.albi.vehicles.adapters.index.vehicle.VehicleBitmapIndex;
+import io.github.albi.vehicles.domain.vehicle.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding one page of 20 in the bitmap search index over a million vehicles: the part of
+ * an indexed search that replaces the database's filter and sort (the page is then read by id).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchIndexBenchmark {
+
+    private static final int PAGE = 20;
+
+    @Param("1000000")
+    public int vehicles;
+
+    private VehicleBitmapIndex index;
+    private VehicleFilter typeFuelYear;
+    private VehicleFilter makeFuel;
+    private VehicleFilter modelPrefix;
+    private VehicleCursor deepInYear;
+
+    @Setup
+    public void setUp() {
+        index = new VehicleBitmapIndex();
+        var random = new Random(42);
+        var types = VehicleType.values();
+        var fuels = FuelType.values();
+        for (int id = 1; id <= vehicles; id++) {
+            index.put(new Vehicle(new VehicleId((long) id), new Vin(Fixtures.VIN), types[random.nextInt(types.length)],
+                    "Make" + random.nextInt(40), "Model" + random.nextInt(400), 1990 + random.nextInt(36),
+                    fuels[random.nextInt(fuels.length)], null, null));
+        }
+        index.markCaughtUp();
+        typeFuelYear = new VehicleFilter(null, null, 2020, VehicleType.CAR, FuelType.PETROL, null, null);
+        makeFuel = new VehicleFilter("make7", null, null, null, FuelType.DIESEL, null, null);
+        modelPrefix = new VehicleFilter(null, "model12", null, VehicleType.SUV, null, null, null, TextMatch.PREFIX);
+        deepInYear = new VehicleCursor(VehicleSort.MODEL_YEAR, "2010", vehicles / 2);
+    }
+
+    @Benchmark
+    public VehicleBitmapIndex.Hits typeFuelYearById() {
+        return index.matching(typeFuelYear, VehicleSort.ID, null, PAGE + 1);
+    }
+
+    @Benchmark
+    public VehicleBitmapIndex.Hits makeFuelByYear() {
+        return index.matching(makeFuel, VehicleSort.MODEL_YEAR, null, PAGE + 1);
+    }
+
+    @Benchmark
+    public VehicleBitmapIndex.Hits makeFuelByYearFromCursor() {
+        return index.matching(makeFuel, VehicleSort.MODEL_YEAR, deepInYear, PAGE + 1);
+    }
+
+    @Benchmark
+    public VehicleBitmapIndex.Hits modelPrefixAndType() {
+        return index.matching(modelPrefix, VehicleSort.ID, null, PAGE + 1);
+    }
+}
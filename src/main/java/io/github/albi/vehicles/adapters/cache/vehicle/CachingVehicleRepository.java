@@ -0,0 +1,212 @@
+package io.github.albi.vehicles.adapters.cache.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache in front of another {@link VehicleRepository}.
+ *
+ * <p>Only point lookups are cached (including a search by VIN or plate, which is one);
+ * filtered searches and export always go to the delegate.
+ * Every write invalidates after the delegate returned (i.e. after its transaction
+ * committed) and drops the entry under its old keys as well as the new ones, so a
+ * vehicle that changed VIN or plate is not found under the old value.</p>
+ *
+ * <p>The same keys are then published on the {@link VehicleInvalidationBus} so
+ * that other nodes (whose caches subscribe to it) drop their copies too.</p>
+ *
+ * <p>A miss on a key the cache {@link VehicleCache#recentlyInvalidated recently invalidated}
+ * is refilled through {@link FreshReads}, and so is one that loads a vehicle whose id was
+ * (found by its old plate, say). Every other miss reads wherever the delegate reads.</p>
+ */
+public final class CachingVehicleRepository implements VehicleRepository {
+
+    private final VehicleRepository delegate;
+    private final VehicleCache cache;
+    private final VehicleInvalidationBus bus;
+    private final FreshReads freshReads;
+
+    /** Single node: nothing to tell anyone else. */
+    public CachingVehicleRepository(VehicleRepository delegate, VehicleCache cache) {
+        this(delegate, cache, new InMemoryVehicleInvalidationBus());
+    }
+
+    public CachingVehicleRepository(VehicleRepository delegate, VehicleCache cache, VehicleInvalidationBus bus) {
+        this(delegate, cache, bus, FreshReads.ALWAYS);
+    }
+
+    public CachingVehicleRepository(VehicleRepository delegate, VehicleCache cache, VehicleInvalidationBus bus,
+                                    FreshReads freshReads) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.cache = Objects.requireNonNull(cache);
+        this.bus = Objects.requireNonNull(bus);
+        this.freshReads = Objects.requireNonNull(freshReads);
+    }
+
+    @Override
+    public Optional<Vehicle> findById(VehicleId id) {
+        var cached = cache.getById(id);
+        return cached.isPresent() ? cached : load(VehicleKey.of(id), () -> delegate.findById(id));
+    }
+
+    /** A cached vehicle already knows its version; otherwise ask the delegate without caching anything. */
+    @Override
+    public Optional<VehicleVersion> findVersionById(VehicleId id) {
+        var cached = cache.getById(id);
+        return cached.isPresent()
+                ? cached.map(v -> new VehicleVersion(v.version(), v.updatedAt()))
+                : delegate.findVersionById(id);
+    }
+
+    @Override
+    public Optional<Vehicle> findByVin(Vin vin) {
+        var cached = cache.getByVin(vin);
+        return cached.isPresent() ? cached : load(VehicleKey.of(vin), () -> delegate.findByVin(vin));
+    }
+
+    @Override
+    public Optional<Vehicle> findByRegistrationNumber(String registrationNumber) {
+        var cached = cache.getByRegistrationNumber(registrationNumber);
+        return cached.isPresent() ? cached : load(VehicleKey.ofRegistrationNumber(registrationNumber),
+                () -> delegate.findByRegistrationNumber(registrationNumber));
+    }
+
+    /** Keys the cache can answer are answered from it; the rest go to the delegate in one call, and are cached. */
+    @Override
+    public List<Vehicle> findAll(List<VehicleKey> keys) {
+        var found = new LinkedHashMap<VehicleId, Vehicle>();
+        var misses = new ArrayList<VehicleKey>();
+        for (var key : keys) {
+            var cached = cached(key);
+            if (cached.isPresent()) found.putIfAbsent(cached.get().id(), cached.get());
+            else misses.add(key);
+        }
+        if (!misses.isEmpty()) {
+            long epoch = cache.epoch();
+            boolean fresh = misses.stream().anyMatch(cache::recentlyInvalidated);
+            var loaded = fresh ? freshReads.read(() -> delegate.findAll(misses)) : delegate.findAll(misses);
+            if (!fresh && loaded.stream().anyMatch(v -> cache.recentlyInvalidated(VehicleKey.of(v.id())))) {
+                loaded = freshReads.read(() -> delegate.findAll(misses));
+            }
+            for (var v : loaded) {
+                cache.putIfUnchanged(v, epoch);
+                found.putIfAbsent(v.id(), v);
+            }
+        }
+        return List.copyOf(found.values());
+    }
+
+    @Override
+    public VehiclePage search(VehicleFilter filter, VehicleSort sort, VehicleCursor after, int limit) {
+        // a VIN or plate filter is a point lookup (see the JPA adapter), so answer it from the cache
+        if (filter.hasVin()) {
+            var vin = canonicalVin(filter.vin());
+            if (vin != null) return single(findByVin(vin));
+        } else if (filter.hasRegistrationNumber()) {
+            return single(findByRegistrationNumber(filter.registrationNumber()));
+        }
+        return delegate.search(filter, sort, after, limit);
+    }
+
+    @Override
+    public void exportAll(VehicleFilter filter, Consumer<? super Vehicle> sink) {
+        delegate.exportAll(filter, sink);
+    }
+
+    @Override
+    public List<String> suggest(VehicleTextField field, String prefix, int limit) {
+        return delegate.suggest(field, prefix, limit);
+    }
+
+    @Override
+    public VehicleFacets facets(VehicleFilter filter) {
+        return delegate.facets(filter);
+    }
+
+    @Override
+    public List<VehicleChange> changesSince(long since, int limit) {
+        return delegate.changesSince(since, limit);
+    }
+
+    @Override
+    public Vehicle create(Vin vin, VehicleType type, String make, String model, Integer year,
+                          FuelType fuelType, String color, String registrationNumber) {
+        var created = delegate.create(vin, type, make, model, year, fuelType, color, registrationNumber);
+        cache.invalidateKeys(vin, registrationNumber);
+        bus.publish(List.of(new VehicleInvalidation(created.id(), vin, registrationNumber)));
+        return created;
+    }
+
+    @Override
+    public List<VehicleUpsertResult> upsertAll(List<VehicleDraft> drafts) {
+        var results = delegate.upsertAll(drafts);
+        var invalidations = new ArrayList<VehicleInvalidation>(drafts.size());
+        for (int i = 0; i < drafts.size(); i++) {
+            var d = drafts.get(i);
+            var id = results.get(i).id();
+            if (id != null) cache.invalidate(id);
+            cache.invalidateKeys(d.vin(), d.registrationNumber());
+            invalidations.add(new VehicleInvalidation(id, d.vin(), d.registrationNumber()));
+        }
+        bus.publish(invalidations);
+        return results;
+    }
+
+    @Override
+    public Optional<Vehicle> update(VehicleId id, Long expectedVersion, Vin vin, VehicleType type, String make,
+                                    String model, Integer year, FuelType fuelType, String color,
+                                    String registrationNumber) {
+        var updated = delegate.update(id, expectedVersion, vin, type, make, model, year, fuelType, color,
+                registrationNumber);
+        cache.invalidate(id); // also unlinks the old VIN/plate pointers
+        cache.invalidateKeys(vin, registrationNumber);
+        if (updated.isPresent()) bus.publish(List.of(new VehicleInvalidation(id, vin, registrationNumber)));
+        return updated;
+    }
+
+    @Override
+    public boolean delete(VehicleId id, Long expectedVersion) {
+        boolean deleted = delegate.delete(id, expectedVersion);
+        cache.invalidate(id);
+        if (deleted) bus.publish(List.of(new VehicleInvalidation(id, null, null)));
+        return deleted;
+    }
+
+    private Optional<Vehicle> load(VehicleKey key, Supplier<Optional<Vehicle>> loader) {
+        long epoch = cache.epoch();
+        boolean fresh = cache.recentlyInvalidated(key);
+        var loaded = fresh ? freshReads.read(loader) : loader.get();
+        if (!fresh && loaded.isPresent() && cache.recentlyInvalidated(VehicleKey.of(loaded.get().id()))) {
+            loaded = freshReads.read(loader); // found under a key nobody wrote, as a vehicle somebody did
+        }
+        loaded.ifPresent(v -> cache.putIfUnchanged(v, epoch));
+        return loaded;
+    }
+
+    private Optional<Vehicle> cached(VehicleKey key) {
+        if (key.id() != null) return cache.getById(key.id());
+        if (key.vin() != null) return cache.getByVin(key.vin());
+        return cache.getByRegistrationNumber(key.registrationNumber());
+    }
+
+    private static VehiclePage single(Optional<Vehicle> v) {
+        return v.map(x -> new VehiclePage(List.of(x), null)).orElse(VehiclePage.empty());
+    }
+
+    /** Only VINs already in stored form; anything else keeps the delegate's exact-match semantics. */
+    private static Vin canonicalVin(String raw) {
+        try {
+            var vin = new Vin(raw);
+            return vin.value().equals(raw) ? vin : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.albi.vehicles.adapters.cache.vehicle;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Locale;
+
+/**
+ * Publishes {@link CoalescingVehicleRepository} counters as
+ * {@code vehicles.repository.coalesced{lookup}} and {@code vehicles.repository.coalesced.timeouts}.
+ */
+public final class CoalescingMetrics implements MeterBinder {
+
+    private final CoalescingVehicleRepository repository;
+
+    public CoalescingMetrics(CoalescingVehicleRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (var lookup : CoalescingVehicleRepository.Lookup.values()) {
+            FunctionCounter.builder("vehicles.repository.coalesced", repository, r -> r.coalesced(lookup))
+                    .description("Lookups answered by an identical query already in flight")
+                    .tags("lookup", lookup.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        FunctionCounter.builder("vehicles.repository.coalesced.timeouts", repository,
+                        CoalescingVehicleRepository::timeouts)
+                .description("Lookups that gave up waiting for the identical query in flight")
+                .register(registry);
+    }
+}
@@ -0,0 +1,211 @@
+package io.github.albi.vehicles.adapters.cache.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.*;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight point lookups in front of another {@link VehicleRepository}: concurrent
+ * callers asking for the same id, VIN or plate share the one query already running for
+ * it and all get its result, or its exception. Everything else goes straight through.
+ *
+ * <p>A caller that joined waits at most {@code timeout} and then fails with the same
+ * {@link SQLTransientConnectionException} an exhausted pool throws (answered with 503):
+ * a lookup that slow means the database is saturated, and more queries would not help.</p>
+ *
+ * <p>A lookup only joins a query started in the same generation: every write through
+ * this repository, and every change of {@code epoch}, starts a new one. So a read that
+ * follows a write never gets a result read before it, and with {@link VehicleCache#epoch()}
+ * as the epoch a joined result is never older than the cache's {@code putIfUnchanged}
+ * snapshot.</p>
+ */
+public final class CoalescingVehicleRepository implements VehicleRepository {
+
+    public enum Lookup { ID, VERSION, VIN, REGISTRATION }
+
+    private record Flight(Lookup lookup, Object key, long generation) {}
+
+    private final VehicleRepository delegate;
+    private final Duration timeout;
+    private final LongSupplier epoch;
+    private final AtomicLong writes = new AtomicLong();
+    private final ConcurrentHashMap<Flight, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Map<Lookup, LongAdder> coalesced = new EnumMap<>(Lookup.class);
+    private final LongAdder timeouts = new LongAdder();
+
+    /** Without a cache: only this repository's own writes start a new generation. */
+    public CoalescingVehicleRepository(VehicleRepository delegate, Duration timeout) {
+        this(delegate, timeout, () -> 0);
+    }
+
+    public CoalescingVehicleRepository(VehicleRepository delegate, Duration timeout, LongSupplier epoch) {
+        if (timeout.isNegative() || timeout.isZero()) throw new IllegalArgumentException("timeout must be positive");
+        this.delegate = Objects.requireNonNull(delegate);
+        this.timeout = timeout;
+        this.epoch = Objects.requireNonNull(epoch);
+        for (var lookup : Lookup.values()) coalesced.put(lookup, new LongAdder());
+    }
+
+    @Override
+    public Optional<Vehicle> findById(VehicleId id) {
+        return coalesce(Lookup.ID, id, () -> delegate.findById(id));
+    }
+
+    @Override
+    public Optional<VehicleVersion> findVersionById(VehicleId id) {
+        return coalesce(Lookup.VERSION, id, () -> delegate.findVersionById(id));
+    }
+
+    @Override
+    public Optional<Vehicle> findByVin(Vin vin) {
+        return coalesce(Lookup.VIN, vin, () -> delegate.findByVin(vin));
+    }
+
+    @Override
+    public Optional<Vehicle> findByRegistrationNumber(String registrationNumber) {
+        // the delegate compares plates case-insensitively, so "ab123" and "AB123" are the same lookup
+        return coalesce(Lookup.REGISTRATION, registrationNumber.toUpperCase(Locale.ROOT),
+                () -> delegate.findByRegistrationNumber(registrationNumber));
+    }
+
+    @Override
+    public List<Vehicle> findAll(List<VehicleKey> keys) {
+        return delegate.findAll(keys);
+    }
+
+    @Override
+    public VehiclePage search(VehicleFilter filter, VehicleSort sort, VehicleCursor after, int limit) {
+        return delegate.search(filter, sort, after, limit);
+    }
+
+    @Override
+    public void exportAll(VehicleFilter filter, Consumer<? super Vehicle> sink) {
+        delegate.exportAll(filter, sink);
+    }
+
+    @Override
+    public VehicleFacets facets(VehicleFilter filter) {
+        return delegate.facets(filter);
+    }
+
+    @Override
+    public List<String> suggest(VehicleTextField field, String prefix, int limit) {
+        return delegate.suggest(field, prefix, limit);
+    }
+
+    @Override
+    public List<VehicleChange> changesSince(long since, int limit) {
+        return delegate.changesSince(since, limit);
+    }
+
+    @Override
+    public Vehicle create(Vin vin, VehicleType type, String make, String model, Integer year,
+                          FuelType fuelType, String color, String registrationNumber) {
+        try {
+            return delegate.create(vin, type, make, model, year, fuelType, color, registrationNumber);
+        } finally {
+            writes.incrementAndGet();
+        }
+    }
+
+    @Override
+    public List<VehicleUpsertResult> upsertAll(List<VehicleDraft> drafts) {
+        try {
+            return delegate.upsertAll(drafts);
+        } finally {
+            writes.incrementAndGet();
+        }
+    }
+
+    @Override
+    public Optional<Vehicle> update(VehicleId id, Long expectedVersion, Vin vin, VehicleType type, String make,
+                                    String model, Integer year, FuelType fuelType, String color,
+                                    String registrationNumber) {
+        try {
+            return delegate.update(id, expectedVersion, vin, type, make, model, year, fuelType, color,
+                    registrationNumber);
+        } finally {
+            writes.incrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean delete(VehicleId id, Long expectedVersion) {
+        try {
+            return delegate.delete(id, expectedVersion);
+        } finally {
+            writes.incrementAndGet();
+        }
+    }
+
+    /** Callers that got another caller's result instead of running their own query. */
+    public long coalesced(Lookup lookup) {
+        return coalesced.get(lookup).sum();
+    }
+
+    /** Callers that gave up waiting for another caller's query after {@code timeout}. */
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T coalesce(Lookup lookup, Object key, Supplier<T> query) {
+        var flight = new Flight(lookup, key, writes.get() + epoch.getAsLong());
+        var mine = new CompletableFuture<Object>();
+        var running = inFlight.putIfAbsent(flight, mine);
+        if (running != null) {
+            coalesced.get(lookup).increment();
+            return (T) await(running);
+        }
+        try {
+            T result = query.get();
+            mine.complete(result);
+            return result;
+        } catch (Throwable t) {
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(flight, mine);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> running) {
+        try {
+            return running.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            // the running query's own exception, so every caller fails the way it would have alone
+            if (e.getCause() instanceof RuntimeException r) throw r;
+            if (e.getCause() instanceof Error err) throw err;
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw unavailable("No result within " + timeout.toMillis() + " ms from the identical lookup in flight", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw unavailable("Interrupted while waiting for the identical lookup in flight", e);
+        }
+    }
+
+    private static DataAccessResourceFailureException unavailable(String message, Exception cause) {
+        return new DataAccessResourceFailureException(message, new SQLTransientConnectionException(message, cause));
+    }
+}
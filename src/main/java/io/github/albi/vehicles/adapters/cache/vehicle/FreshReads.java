@@ -0,0 +1,18 @@
+package io.github.albi.vehicles.adapters.cache.vehicle;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs a read where every committed write is visible. {@link CachingVehicleRepository}
+ * refills a key through it while {@link VehicleCache#recentlyInvalidated} says the key was
+ * just written. With read replicas, that means reading from the primary, because a replica
+ * may not have replayed the write yet.
+ */
+@FunctionalInterface
+public interface FreshReads {
+
+    /** A single database: every read already sees every commit. */
+    FreshReads ALWAYS = Supplier::get;
+
+    <T> T read(Supplier<T> read);
+}
@@ -0,0 +1,23 @@
+package io.github.albi.vehicles.adapters.cache.vehicle;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/** Synchronous in-process bus: a single node, or several caches sharing one JVM in tests. */
+public final class InMemoryVehicleInvalidationBus implements VehicleInvalidationBus {
+
+    private final List<Consumer<VehicleInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(List<VehicleInvalidation> invalidations) {
+        for (var i : invalidations) {
+            for (var l : listeners) l.accept(i);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<VehicleInvalidation> listener) {
+        listeners.add(listener);
+    }
+}
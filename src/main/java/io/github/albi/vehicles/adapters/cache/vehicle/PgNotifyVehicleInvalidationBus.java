@@ -0,0 +1,171 @@
+package io.github.albi.vehicles.adapters.cache.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.VehicleId;
+import io.github.albi.vehicles.domain.vehicle.Vin;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * {@link VehicleInvalidationBus} over Postgres {@code LISTEN/NOTIFY}.
+ *
+ * <p>Publishing is one {@code select pg_notify(..) from unnest(..)} round trip per
+ * write; larger batches than {@code maxKeysPerPublish} are collapsed into a single
+ * "flush everything" message, which is cheaper for everyone than thousands of keys.</p>
+ *
+ * <p>Each node holds one dedicated connection that {@code LISTEN}s on the channel
+ * from a daemon thread. It comes from {@code listenConnections}, which must not be
+ * the application pool: a connection held for the life of the process would take a
+ * pool slot (and, with virtual threads, a JDBC permit) from every request. It is
+ * {@code UNLISTEN}ed before it is closed. Notifications sent while that connection
+ * was down are lost, so every (re)connect delivers {@link VehicleInvalidation#all()} first.</p>
+ */
+public final class PgNotifyVehicleInvalidationBus implements VehicleInvalidationBus, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PgNotifyVehicleInvalidationBus.class);
+
+    private static final String FLUSH = "*";
+    private static final int POLL_MILLIS = 1_000;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final DataSource listenConnections;
+    private final JdbcTemplate jdbc;
+    private final String channel;
+    private final int maxKeysPerPublish;
+    private final List<Consumer<VehicleInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private Thread listener;
+
+    /**
+     * @param dataSource        the application pool, for publishing
+     * @param listenConnections unpooled: every {@code getConnection()} opens a new one
+     */
+    public PgNotifyVehicleInvalidationBus(DataSource dataSource, DataSource listenConnections,
+                                          String channel, int maxKeysPerPublish) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid channel name: " + channel);
+        }
+        this.listenConnections = listenConnections;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.channel = channel;
+        this.maxKeysPerPublish = maxKeysPerPublish;
+    }
+
+    @Override
+    public void publish(List<VehicleInvalidation> invalidations) {
+        if (invalidations.isEmpty()) return;
+        var payloads = invalidations.size() > maxKeysPerPublish
+                ? new String[] { FLUSH }
+                : invalidations.stream().map(PgNotifyVehicleInvalidationBus::encode).toArray(String[]::new);
+        jdbc.execute((ConnectionCallback<Void>) con -> {
+            try (var ps = con.prepareStatement("select pg_notify(?, p) from unnest(?) as p")) {
+                ps.setString(1, channel);
+                ps.setArray(2, con.createArrayOf("text", payloads));
+                ps.executeQuery().close();
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void subscribe(Consumer<VehicleInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        listener = Thread.ofPlatform().daemon().name("vehicle-cache-invalidation").start(this::listen);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (listener != null) listener.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        long backoff = 100;
+        while (running) {
+            try (var con = listenConnections.getConnection()) {
+                con.setAutoCommit(true);
+                try {
+                    try (var st = con.createStatement()) {
+                        st.execute("LISTEN " + channel);
+                    }
+                    deliver(VehicleInvalidation.all());
+                    backoff = 100;
+                    var pg = con.unwrap(PGConnection.class);
+                    while (running) {
+                        var notifications = pg.getNotifications(POLL_MILLIS);
+                        if (notifications == null) continue;
+                        for (var n : notifications) deliver(decode(n.getParameter()));
+                    }
+                } finally {
+                    unlisten(con);
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) return;
+                log.warn("Cache invalidation listener on '{}' lost its connection; retrying in {} ms", channel, backoff, e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /** Best effort: the connection may be the one that just broke. */
+    private void unlisten(Connection con) {
+        try (var st = con.createStatement()) {
+            st.execute("UNLISTEN *");
+        } catch (SQLException e) {
+            log.debug("UNLISTEN on '{}' failed; closing the connection anyway", channel, e);
+        }
+    }
+
+    private void deliver(VehicleInvalidation invalidation) {
+        for (var l : listeners) l.accept(invalidation);
+    }
+
+    /** {@code id|vin|plate}, empty for absent keys; the plate goes last since it is free text. */
+    static String encode(VehicleInvalidation i) {
+        if (i.isAll()) return FLUSH;
+        return (i.id() == null ? "" : i.id().value()) + "|"
+                + (i.vin() == null ? "" : i.vin().value()) + "|"
+                + (i.registrationNumber() == null ? "" : i.registrationNumber());
+    }
+
+    /** Anything unreadable is treated as a flush: over-invalidating is always safe. */
+    static VehicleInvalidation decode(String payload) {
+        if (payload == null || FLUSH.equals(payload)) return VehicleInvalidation.all();
+        try {
+            var parts = payload.split("\\|", 3);
+            var id = parts[0].isEmpty() ? null : new VehicleId(Long.parseLong(parts[0]));
+            var vin = parts[1].isEmpty() ? null : new Vin(parts[1]);
+            var plate = parts[2].isEmpty() ? null : parts[2];
+            return new VehicleInvalidation(id, vin, plate);
+        } catch (RuntimeException e) {
+            return VehicleInvalidation.all();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package io.github.albi.vehicles.adapters.cache.vehicle;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.github.albi.vehicles.domain.vehicle.Vehicle;
+import io.github.albi.vehicles.domain.vehicle.VehicleId;
+import io.github.albi.vehicles.domain.vehicle.VehicleKey;
+import io.github.albi.vehicles.domain.vehicle.Vin;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded (size + TTL) store of {@link Vehicle}s with three lookup keys.
+ *
+ * <p>Entries live in one Caffeine cache keyed by id; the VIN and registration
+ * indexes only point at ids. A pointer is trusted only if the entry it leads to
+ * still carries that VIN/plate, so an index can never answer with another
+ * vehicle. Evicted entries take their pointers with them.</p>
+ *
+ * <p>Reads are lock-free. Puts and invalidations share one lock together with an
+ * invalidation epoch: a loader snapshots {@link #epoch()} before reading the
+ * database and {@link #putIfUnchanged} drops its result if any invalidation
+ * happened meanwhile, so a slow read can never resurrect a value a concurrent
+ * write just invalidated.</p>
+ *
+ * <p>With {@code rememberInvalidations} set, every invalidated key is also remembered
+ * for that long (see {@link #recentlyInvalidated}), so a refill of that key can be
+ * read from somewhere that has already seen the write.</p>
+ */
+public final class VehicleCache {
+
+    public enum Index { ID, VIN, REGISTRATION }
+
+    private static final Object ALL = new Object(); // remembered by invalidateAll
+
+    private final Cache<VehicleId, Vehicle> byId;
+    private final Map<Vin, VehicleId> byVin = new ConcurrentHashMap<>();
+    private final Map<String, VehicleId> byRegistration = new ConcurrentHashMap<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicLong epoch = new AtomicLong();
+    private final Cache<Object, Boolean> recent; // null when not remembering
+
+    private final Map<Index, LongAdder> hits = counters();
+    private final Map<Index, LongAdder> misses = counters();
+
+    public VehicleCache(long maxSize, Duration ttl) {
+        this(maxSize, ttl, Duration.ZERO);
+    }
+
+    public VehicleCache(long maxSize, Duration ttl, Duration rememberInvalidations) {
+        this(maxSize, ttl, rememberInvalidations, Ticker.systemTicker());
+    }
+
+    VehicleCache(long maxSize, Duration ttl, Ticker ticker) {
+        this(maxSize, ttl, Duration.ZERO, ticker);
+    }
+
+    VehicleCache(long maxSize, Duration ttl, Duration rememberInvalidations, Ticker ticker) {
+        // bounded by time only: a key forgotten early could be refilled from a lagging replica
+        this.recent = rememberInvalidations.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(rememberInvalidations)
+                .ticker(ticker)
+                .build();
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .executor(Runnable::run) // evict + unlink pointers synchronously
+                .removalListener((VehicleId id, Vehicle v, RemovalCause cause) -> {
+                    if (v != null && cause != RemovalCause.REPLACED) unlink(id, v);
+                })
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Vehicle> getById(VehicleId id) {
+        return count(Index.ID, Optional.ofNullable(byId.getIfPresent(id)));
+    }
+
+    public Optional<Vehicle> getByVin(Vin vin) {
+        var id = byVin.get(vin);
+        var v = id == null ? null : byId.getIfPresent(id);
+        return count(Index.VIN, Optional.ofNullable(v).filter(x -> x.vin().equals(vin)));
+    }
+
+    public Optional<Vehicle> getByRegistrationNumber(String registrationNumber) {
+        var key = plateKey(registrationNumber);
+        var id = key == null ? null : byRegistration.get(key);
+        var v = id == null ? null : byId.getIfPresent(id);
+        return count(Index.REGISTRATION, Optional.ofNullable(v).filter(x -> key.equals(plateKey(x.registrationNumber()))));
+    }
+
+    /** Snapshot to pass to {@link #putIfUnchanged} after loading from the database. */
+    public long epoch() {
+        return epoch.get();
+    }
+
+    /** Caches {@code v} unless something was invalidated since {@code epochBeforeLoad}. */
+    public void putIfUnchanged(Vehicle v, long epochBeforeLoad) {
+        writeLock.lock();
+        try {
+            if (epoch.get() != epochBeforeLoad) return;
+            var previous = byId.getIfPresent(v.id());
+            if (previous != null) unlink(v.id(), previous);
+            byId.put(v.id(), v);
+            byVin.put(v.vin(), v.id());
+            var plate = plateKey(v.registrationNumber());
+            if (plate != null) byRegistration.put(plate, v.id());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Whether {@code key} (or, after {@link #invalidateAll}, any key) was invalidated within
+     * {@code rememberInvalidations}; always false when that is zero. A loader asks after taking
+     * its {@link #epoch()} snapshot: a key is remembered before the epoch moves, so an
+     * invalidation this misses also makes {@link #putIfUnchanged} drop the loaded value.
+     */
+    public boolean recentlyInvalidated(VehicleKey key) {
+        if (recent == null) return false;
+        if (recent.getIfPresent(ALL) != null) return true;
+        Object k = key.id() != null ? key.id() : key.vin() != null ? key.vin() : key.registrationNumber();
+        return recent.getIfPresent(k) != null;
+    }
+
+    public void invalidate(VehicleId id) {
+        writeLock.lock();
+        try {
+            remember(id);
+            epoch.incrementAndGet();
+            byId.invalidate(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Drops whatever entries are currently reachable through the given VIN and/or plate. */
+    public void invalidateKeys(Vin vin, String registrationNumber) {
+        var plate = plateKey(registrationNumber);
+        writeLock.lock();
+        try {
+            remember(vin);
+            remember(plate);
+            epoch.incrementAndGet();
+            if (vin != null) {
+                var id = byVin.remove(vin);
+                if (id != null) byId.invalidate(id);
+            }
+            if (plate != null) {
+                var id = byRegistration.remove(plate);
+                if (id != null) byId.invalidate(id);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Applies an invalidation received from another node (or echoed back from this one). */
+    public void apply(VehicleInvalidation invalidation) {
+        if (invalidation.isAll()) {
+            invalidateAll();
+            return;
+        }
+        if (invalidation.id() != null) invalidate(invalidation.id());
+        invalidateKeys(invalidation.vin(), invalidation.registrationNumber());
+    }
+
+    public void invalidateAll() {
+        writeLock.lock();
+        try {
+            remember(ALL);
+            epoch.incrementAndGet();
+            byId.invalidateAll();
+            byVin.clear();
+            byRegistration.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public long hits(Index index) { return hits.get(index).sum(); }
+    public long misses(Index index) { return misses.get(index).sum(); }
+    public long evictions() { return byId.stats().evictionCount(); }
+    public long size() { return byId.estimatedSize(); }
+
+    private void remember(Object key) {
+        if (recent != null && key != null) recent.put(key, Boolean.TRUE);
+    }
+
+    private void unlink(VehicleId id, Vehicle v) {
+        byVin.remove(v.vin(), id);
+        var plate = plateKey(v.registrationNumber());
+        if (plate != null) byRegistration.remove(plate, id);
+    }
+
+    private Optional<Vehicle> count(Index index, Optional<Vehicle> result) {
+        (result.isPresent() ? hits : misses).get(index).increment();
+        return result;
+    }
+
+    /** Registration lookups are case-insensitive (same as the JPA adapter). */
+    private static String plateKey(String registrationNumber) {
+        if (registrationNumber == null || registrationNumber.isBlank()) return null;
+        return registrationNumber.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static Map<Index, LongAdder> counters() {
+        var m = new java.util.EnumMap<Index, LongAdder>(Index.class);
+        for (var i : Index.values()) m.put(i, new LongAdder());
+        return m;
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.albi.vehicles.adapters.cache.vehicle;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Locale;
+
+/**
+ * Publishes {@link VehicleCache} counters as {@code vehicles.cache.requests{index,result}},
+ * {@code vehicles.cache.evictions} and {@code vehicles.cache.size}.
+ */
+public final class VehicleCacheMetrics implements MeterBinder {
+
+    private final VehicleCache cache;
+
+    public VehicleCacheMetrics(VehicleCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (var index : VehicleCache.Index.values()) {
+            var tag = index.name().toLowerCase(Locale.ROOT);
+            FunctionCounter.builder("vehicles.cache.requests", cache, c -> c.hits(index))
+                    .tags("index", tag, "result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("vehicles.cache.requests", cache, c -> c.misses(index))
+                    .tags("index", tag, "result", "miss")
+                    .register(registry);
+        }
+        FunctionCounter.builder("vehicles.cache.evictions", cache, VehicleCache::evictions)
+                .description("Entries evicted for size or TTL")
+                .register(registry);
+        Gauge.builder("vehicles.cache.size", cache, VehicleCache::size)
+                .register(registry);
+    }
+}
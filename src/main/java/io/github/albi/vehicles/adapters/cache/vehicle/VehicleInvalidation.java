@@ -0,0 +1,21 @@
+package io.github.albi.vehicles.adapters.cache.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.VehicleId;
+import io.github.albi.vehicles.domain.vehicle.Vin;
+
+/**
+ * "Forget this vehicle" message sent between nodes. Any key may be null;
+ * all three null means "forget everything" (see {@link #all()}).
+ */
+public record VehicleInvalidation(VehicleId id, Vin vin, String registrationNumber) {
+
+    private static final VehicleInvalidation ALL = new VehicleInvalidation(null, null, null);
+
+    public static VehicleInvalidation all() {
+        return ALL;
+    }
+
+    public boolean isAll() {
+        return id == null && vin == null && (registrationNumber == null || registrationNumber.isBlank());
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.albi.vehicles.adapters.cache.vehicle;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Fan-out of {@link VehicleInvalidation}s to every node, including the sender.
+ *
+ * <p>Delivery is at-most-once; an implementation that can lose messages (e.g. on
+ * reconnect) must deliver {@link VehicleInvalidation#all()} instead.</p>
+ */
+public interface VehicleInvalidationBus {
+
+    /** Called after the write committed. */
+    void publish(List<VehicleInvalidation> invalidations);
+
+    void subscribe(Consumer<VehicleInvalidation> listener);
+}
@@ -0,0 +1,11 @@
+/**
+ * In-process cache adapter for vehicles.
+ *
+ * <p>Decorates the domain {@code VehicleRepository} port with a bounded read-through
+ * cache for the point lookups (id, VIN, registration number). Writes going through
+ * the decorator invalidate the affected entries and are broadcast to the other
+ * nodes through a {@code VehicleInvalidationBus} (Postgres LISTEN/NOTIFY in production).
+ * Below the cache, {@code CoalescingVehicleRepository} lets concurrent misses for the
+ * same key share one query.
+ */
+package io.github.albi.vehicles.adapters.cache.vehicle;
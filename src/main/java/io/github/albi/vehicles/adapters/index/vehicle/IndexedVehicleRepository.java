@@ -0,0 +1,178 @@
+package io.github.albi.vehicles.adapters.index.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Answers filtered searches from a {@link VehicleBitmapIndex} and reads only the page
+ * it found, by id, from the delegate. Everything else goes to the delegate, as do
+ * searches the index does not {@link VehicleBitmapIndex#answers answer}.
+ *
+ * <p>The index may be behind the database (another node's write it has not read from
+ * the change feed yet), so every row read is checked against the filter and against
+ * the position the index gave it; one that no longer fits is left out and the walk
+ * continues past it. A page is therefore never wrong, at worst it misses a vehicle
+ * written elsewhere in the last refresh interval.</p>
+ *
+ * <p>Writes through this repository update the index as soon as the delegate returns,
+ * so this node's own writes are searchable at once.</p>
+ */
+public final class IndexedVehicleRepository implements VehicleRepository {
+
+    private final VehicleRepository delegate;
+    private final VehicleBitmapIndex index;
+    private final LongAdder indexed = new LongAdder();
+    private final LongAdder delegated = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+
+    public IndexedVehicleRepository(VehicleRepository delegate, VehicleBitmapIndex index) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.index = Objects.requireNonNull(index);
+    }
+
+    /** Searches answered by the index. */
+    public long indexedSearches() {
+        return indexed.sum();
+    }
+
+    /** Searches passed to the delegate: not caught up yet, a VIN or plate, or a sort by make. */
+    public long delegatedSearches() {
+        return delegated.sum();
+    }
+
+    /** Ids the index offered whose row turned out not to match (any more). */
+    public long staleHits() {
+        return staleHits.sum();
+    }
+
+    @Override
+    public VehiclePage search(VehicleFilter filter, VehicleSort sort, VehicleCursor after, int limit) {
+        if (!index.answers(filter, sort)) {
+            delegated.increment();
+            return delegate.search(filter, sort, after, limit);
+        }
+        indexed.increment();
+        // limit + 1 rows, like the database path, to know whether there is a next page
+        var page = new ArrayList<Vehicle>(limit + 1);
+        var position = after;
+        while (page.size() <= limit) {
+            int wanted = limit + 1 - page.size();
+            var hits = index.matching(filter, sort, position, wanted);
+            if (hits.isEmpty()) break;
+            var rows = byId(hits);
+            for (var hit : hits.positions()) {
+                var v = rows.get(hit.lastId());
+                if (v != null && VehicleBitmapIndex.matches(filter, v) && VehicleCursor.after(sort, v).equals(hit)) {
+                    page.add(v);
+                } else {
+                    staleHits.increment();
+                }
+            }
+            if (hits.size() < wanted) break;
+            position = hits.last();
+        }
+        return VehiclePage.of(page, limit, sort);
+    }
+
+    private HashMap<Long, Vehicle> byId(VehicleBitmapIndex.Hits hits) {
+        var keys = hits.positions().stream().map(p -> VehicleKey.of(new VehicleId(p.lastId()))).toList();
+        var rows = new HashMap<Long, Vehicle>(keys.size() * 2);
+        for (var v : delegate.findAll(keys)) rows.put(v.id().value(), v);
+        return rows;
+    }
+
+    @Override
+    public Optional<Vehicle> findById(VehicleId id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Optional<VehicleVersion> findVersionById(VehicleId id) {
+        return delegate.findVersionById(id);
+    }
+
+    @Override
+    public Optional<Vehicle> findByVin(Vin vin) {
+        return delegate.findByVin(vin);
+    }
+
+    @Override
+    public Optional<Vehicle> findByRegistrationNumber(String registrationNumber) {
+        return delegate.findByRegistrationNumber(registrationNumber);
+    }
+
+    @Override
+    public List<Vehicle> findAll(List<VehicleKey> keys) {
+        return delegate.findAll(keys);
+    }
+
+    @Override
+    public void exportAll(VehicleFilter filter, Consumer<? super Vehicle> sink) {
+        delegate.exportAll(filter, sink);
+    }
+
+    @Override
+    public VehicleFacets facets(VehicleFilter filter) {
+        return delegate.facets(filter);
+    }
+
+    @Override
+    public List<String> suggest(VehicleTextField field, String prefix, int limit) {
+        return delegate.suggest(field, prefix, limit);
+    }
+
+    @Override
+    public List<VehicleChange> changesSince(long since, int limit) {
+        return delegate.changesSince(since, limit);
+    }
+
+    @Override
+    public Vehicle create(Vin vin, VehicleType type, String make, String model, Integer year,
+                          FuelType fuelType, String color, String registrationNumber) {
+        var created = delegate.create(vin, type, make, model, year, fuelType, color, registrationNumber);
+        index.put(created);
+        return created;
+    }
+
+    /** Drafts carry everything the index keeps; one that does not build a vehicle waits for the change feed. */
+    @Override
+    public List<VehicleUpsertResult> upsertAll(List<VehicleDraft> drafts) {
+        var results = delegate.upsertAll(drafts);
+        for (int i = 0; i < drafts.size(); i++) {
+            var id = results.get(i).id();
+            if (id == null) continue;
+            var d = drafts.get(i);
+            try {
+                index.put(new Vehicle(id, d.vin(), d.type(), d.make(), d.model(), d.year(), d.fuelType(),
+                        d.color(), d.registrationNumber()));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                // incomplete draft; the row as stored arrives through the feed
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Optional<Vehicle> update(VehicleId id, Long expectedVersion, Vin vin, VehicleType type, String make,
+                                    String model, Integer year, FuelType fuelType, String color,
+                                    String registrationNumber) {
+        var updated = delegate.update(id, expectedVersion, vin, type, make, model, year, fuelType, color,
+                registrationNumber);
+        updated.ifPresent(index::put);
+        return updated;
+    }
+
+    @Override
+    public boolean delete(VehicleId id, Long expectedVersion) {
+        boolean deleted = delegate.delete(id, expectedVersion);
+        if (deleted) index.remove(id);
+        return deleted;
+    }
+}
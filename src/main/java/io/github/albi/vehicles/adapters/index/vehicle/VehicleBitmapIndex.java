@@ -0,0 +1,349 @@
+package io.github.albi.vehicles.adapters.index.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.*;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Vehicle ids by the values search filters on, as compressed (Roaring) bitmaps: one
+ * per type, fuel type and model year, and one per distinct make and model, whose
+ * lower-case spellings are dictionary-encoded. A search is the AND of the bitmaps its
+ * filters select, walked in sort order from the cursor: no row is read to find the
+ * page, only to return it.
+ *
+ * <p>Holds no vehicle data beyond those five attributes, kept per id in arrays
+ * indexed by id (ids come from a sequence, so they are dense) to find the bitmaps to
+ * leave on an update or delete. Bitmaps hold 32-bit ints: the first id past about
+ * {@link Integer#MAX_VALUE} disables the index for good.</p>
+ *
+ * <p>Fed from the change feed ({@link #apply}) and the write paths ({@link #put},
+ * {@link #remove}). Answers nothing until {@link #markCaughtUp() caught up} with the
+ * feed once. Safe for concurrent use: searches share a read lock, writes take the
+ * write lock for the few bitmap updates they are.</p>
+ */
+public final class VehicleBitmapIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(VehicleBitmapIndex.class);
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+    // ids index the per-id arrays, so they stop a little short of the largest array
+    private static final long MAX_ID = Integer.MAX_VALUE - 16;
+    private static final long WINDOW = 1 << 16;
+
+    /** Each hit as the position it has in the sort order, i.e. what a cursor right after it would hold. */
+    public record Hits(List<VehicleCursor> positions) {
+        public boolean isEmpty() { return positions.isEmpty(); }
+        public int size() { return positions.size(); }
+        public VehicleCursor last() { return positions.getLast(); }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<VehicleType, RoaringBitmap> byType = new EnumMap<>(VehicleType.class);
+    private final Map<FuelType, RoaringBitmap> byFuelType = new EnumMap<>(FuelType.class);
+    private final TreeMap<Integer, RoaringBitmap> byYear = new TreeMap<>();
+    private final Dictionary makes = new Dictionary();
+    private final Dictionary models = new Dictionary();
+
+    // per id; 0 is "none" for the enum ordinals + 1, and only read for ids in `all`
+    private byte[] typeOf = new byte[0];
+    private byte[] fuelTypeOf = new byte[0];
+    private int[] yearOf = new int[0];
+    private int[] makeOf = new int[0];
+    private int[] modelOf = new int[0];
+
+    private long position;
+    private volatile boolean caughtUp;
+    private volatile boolean disabled;
+
+    /** Lower-case spelling → code, and the ids under each code. Codes are never reused. */
+    private static final class Dictionary {
+        final TreeMap<String, Integer> codes = new TreeMap<>();
+        final List<RoaringBitmap> postings = new ArrayList<>();
+
+        int codeOf(String value) {
+            return codes.computeIfAbsent(value.toLowerCase(Locale.ROOT), k -> {
+                postings.add(new RoaringBitmap());
+                return postings.size() - 1;
+            });
+        }
+
+        /** The postings of every spelling that matches: ids are in their union. */
+        List<RoaringBitmap> matching(String value, TextMatch match) {
+            var needle = value.trim().toLowerCase(Locale.ROOT);
+            Collection<Integer> matched = switch (match) {
+                case EXACT -> codes.containsKey(needle) ? List.of(codes.get(needle)) : List.of();
+                case PREFIX -> codes.subMap(needle, true, needle + Character.MAX_VALUE, true).values();
+                case CONTAINS -> codes.entrySet().stream()
+                        .filter(e -> e.getKey().contains(needle)).map(Map.Entry::getValue).toList();
+            };
+            return matched.stream().map(postings::get).toList();
+        }
+    }
+
+    // --- maintenance ---
+
+    /** Applies a page of the change feed and moves {@link #position()} to its last entry. */
+    public void apply(List<VehicleChange> changes) {
+        if (changes.isEmpty()) return;
+        lock.writeLock().lock();
+        try {
+            for (var change : changes) {
+                if (change.deleted()) removeLocked(change.id());
+                else putLocked(change.vehicle());
+                position = change.seq(); // feed order, not seq order
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Vehicle v) {
+        lock.writeLock().lock();
+        try {
+            putLocked(v);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(VehicleId id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Change feed position of the last entry applied; the next read starts after it. */
+    public long position() {
+        lock.readLock().lock();
+        try {
+            return position;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** The feed has been read to its end once: from now on the index answers searches. */
+    public void markCaughtUp() {
+        caughtUp = true;
+    }
+
+    /**
+     * Whether {@link #matching} can answer this search: caught up, not disabled, no VIN or
+     * plate (point lookups), no free text (the database's tsvector match), and a numeric
+     * sort order. Makes sort in the database's collation, which the index does not reproduce.
+     */
+    public boolean answers(VehicleFilter filter, VehicleSort sort) {
+        return caughtUp && !disabled && !filter.hasVin() && !filter.hasRegistrationNumber() && !filter.hasText()
+                && (sort == VehicleSort.ID || sort == VehicleSort.MODEL_YEAR);
+    }
+
+    public boolean isCaughtUp() {
+        return caughtUp;
+    }
+
+    /** Vehicles indexed. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return all.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Memory held by the bitmaps, not counting the per-id arrays. */
+    public long bitmapBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = all.getSizeInBytes();
+            for (var b : byType.values()) bytes += b.getSizeInBytes();
+            for (var b : byFuelType.values()) bytes += b.getSizeInBytes();
+            for (var b : byYear.values()) bytes += b.getSizeInBytes();
+            for (var b : makes.postings) bytes += b.getSizeInBytes();
+            for (var b : models.postings) bytes += b.getSizeInBytes();
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- search ---
+
+    /**
+     * Up to {@code n} ids matching {@code filter}, in {@code sort} order (ties by id),
+     * strictly after {@code after}. Only for searches the index {@link #answers}.
+     */
+    public Hits matching(VehicleFilter filter, VehicleSort sort, VehicleCursor after, int n) {
+        lock.readLock().lock();
+        try {
+            var query = conjunction(filter);
+            var hits = new ArrayList<VehicleCursor>(n);
+            if (sort == VehicleSort.ID) {
+                walk(query, VehicleSort.ID, 0, after == null ? 0 : after.lastId(), n, hits);
+            } else {
+                int fromYear = after == null ? Integer.MIN_VALUE : Integer.parseInt(after.sortValue());
+                for (var year : byYear.tailMap(fromYear, true).entrySet()) {
+                    if (hits.size() == n) break;
+                    long afterId = after != null && year.getKey() == fromYear ? after.lastId() : 0;
+                    walk(query.and(year.getValue()), VehicleSort.MODEL_YEAR, year.getKey(), afterId, n, hits);
+                }
+            }
+            return new Hits(hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Whether {@code v} satisfies every filter the index evaluates, compared the way the index does. */
+    public static boolean matches(VehicleFilter filter, Vehicle v) {
+        return (filter.type() == null || filter.type() == v.type())
+                && (filter.fuelType() == null || filter.fuelType() == v.fuelType())
+                && (filter.year() == null || filter.year() == v.year())
+                && textMatches(filter.make(), filter.match(), v.make())
+                && textMatches(filter.model(), filter.match(), v.model());
+    }
+
+    private static boolean textMatches(String value, TextMatch match, String actual) {
+        if (value == null || value.isBlank()) return true;
+        var needle = value.trim().toLowerCase(Locale.ROOT);
+        var hay = actual.toLowerCase(Locale.ROOT);
+        return switch (match) {
+            case EXACT -> hay.equals(needle);
+            case PREFIX -> hay.startsWith(needle);
+            case CONTAINS -> hay.contains(needle);
+        };
+    }
+
+    /**
+     * Ids in every bitmap of {@code each} and in at least one of every group in
+     * {@code anyOf} (the spellings a PREFIX or CONTAINS make/model matches). Evaluated
+     * a window of ids at a time, so a page only pays for the windows it reads.
+     */
+    private record Conjunction(List<RoaringBitmap> each, List<List<RoaringBitmap>> anyOf) {
+
+        Conjunction and(RoaringBitmap bitmap) {
+            var more = new ArrayList<RoaringBitmap>(each.size() + 1);
+            more.add(bitmap);
+            more.addAll(each);
+            more.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+            return new Conjunction(more, anyOf);
+        }
+
+        /** The first id at or after {@code from} that can match, or -1; the sparsest bitmap decides. */
+        long next(long from) {
+            for (var group : anyOf) if (group.isEmpty()) return -1;
+            return from > MAX_ID ? -1 : each.getFirst().nextValue((int) from);
+        }
+
+        RoaringBitmap window(long from, long to) {
+            var ids = each.size() == 1 ? each.getFirst().selectRange(from, to) : RoaringBitmap.and(each.iterator(), from, to);
+            for (var group : anyOf) {
+                if (ids.isEmpty()) break;
+                ids.and(RoaringBitmap.or(group.iterator(), from, to));
+            }
+            return ids;
+        }
+    }
+
+    private Conjunction conjunction(VehicleFilter filter) {
+        var each = new ArrayList<RoaringBitmap>(5);
+        var anyOf = new ArrayList<List<RoaringBitmap>>(2);
+        if (filter.type() != null) each.add(byType.getOrDefault(filter.type(), EMPTY));
+        if (filter.fuelType() != null) each.add(byFuelType.getOrDefault(filter.fuelType(), EMPTY));
+        if (filter.year() != null) each.add(byYear.getOrDefault(filter.year(), EMPTY));
+        textFilter(makes, filter.make(), filter.match(), each, anyOf);
+        textFilter(models, filter.model(), filter.match(), each, anyOf);
+        if (each.isEmpty()) each.add(all);
+        each.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+        return new Conjunction(each, anyOf);
+    }
+
+    private static void textFilter(Dictionary dictionary, String value, TextMatch match,
+                                   List<RoaringBitmap> each, List<List<RoaringBitmap>> anyOf) {
+        if (value == null || value.isBlank()) return;
+        var spellings = dictionary.matching(value, match);
+        if (spellings.size() == 1) each.add(spellings.getFirst());
+        else anyOf.add(spellings); // none matching makes the group, and so the search, empty
+    }
+
+    private static void walk(Conjunction query, VehicleSort sort, int year, long afterId, int n,
+                             List<VehicleCursor> hits) {
+        long from = query.next(afterId + 1);
+        while (from >= 0 && hits.size() < n) {
+            long to = (from | (WINDOW - 1)) + 1; // the end of from's Roaring container
+            var it = query.window(from, to).getIntIterator();
+            while (it.hasNext() && hits.size() < n) {
+                int id = it.next();
+                hits.add(new VehicleCursor(sort, sort == VehicleSort.ID ? String.valueOf(id) : String.valueOf(year), id));
+            }
+            from = query.next(to);
+        }
+    }
+
+    // --- under the write lock ---
+
+    private void putLocked(Vehicle v) {
+        if (disabled) return;
+        long raw = v.id().value();
+        if (raw > MAX_ID) {
+            disabled = true;
+            log.warn("Vehicle id {} does not fit the search index; searches go to the database from now on", raw);
+            return;
+        }
+        int id = (int) raw;
+        removeLocked(v.id());
+        ensureCapacity(id);
+        all.add(id);
+        byType.computeIfAbsent(v.type(), t -> new RoaringBitmap()).add(id);
+        byFuelType.computeIfAbsent(v.fuelType(), f -> new RoaringBitmap()).add(id);
+        byYear.computeIfAbsent(v.year(), y -> new RoaringBitmap()).add(id);
+        int make = makes.codeOf(v.make());
+        int model = models.codeOf(v.model());
+        makes.postings.get(make).add(id);
+        models.postings.get(model).add(id);
+        typeOf[id] = (byte) (v.type().ordinal() + 1);
+        fuelTypeOf[id] = (byte) (v.fuelType().ordinal() + 1);
+        yearOf[id] = v.year();
+        makeOf[id] = make;
+        modelOf[id] = model;
+    }
+
+    private void removeLocked(VehicleId vehicleId) {
+        long raw = vehicleId.value();
+        if (raw > MAX_ID || !all.contains((int) raw)) return;
+        int id = (int) raw;
+        all.remove(id);
+        byType.get(VehicleType.values()[typeOf[id] - 1]).remove(id);
+        byFuelType.get(FuelType.values()[fuelTypeOf[id] - 1]).remove(id);
+        var year = byYear.get(yearOf[id]);
+        year.remove(id);
+        if (year.isEmpty()) byYear.remove(yearOf[id]);
+        makes.postings.get(makeOf[id]).remove(id);
+        models.postings.get(modelOf[id]).remove(id);
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < yearOf.length) return;
+        int length = (int) Math.min(MAX_ID + 1, Math.max(id + 1L, yearOf.length * 2L));
+        typeOf = Arrays.copyOf(typeOf, length);
+        fuelTypeOf = Arrays.copyOf(fuelTypeOf, length);
+        yearOf = Arrays.copyOf(yearOf, length);
+        makeOf = Arrays.copyOf(makeOf, length);
+        modelOf = Arrays.copyOf(modelOf, length);
+    }
+}
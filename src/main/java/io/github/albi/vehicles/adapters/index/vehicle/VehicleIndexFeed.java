@@ -0,0 +1,97 @@
+package io.github.albi.vehicles.adapters.index.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.VehicleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+
+/**
+ * Keeps a {@link VehicleBitmapIndex} in step with the change feed, from a daemon
+ * thread: reads from position 0 (the whole fleet) on start, then whatever was written
+ * since, on any node, every {@code refreshInterval}. After a failure it retries with
+ * doubling back-off, up to {@code maxBackoff}; the index keeps answering meanwhile.
+ */
+public final class VehicleIndexFeed implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(VehicleIndexFeed.class);
+
+    private final VehicleRepository source;
+    private final VehicleBitmapIndex index;
+    private final int batchSize;
+    private final Duration refreshInterval;
+    private final Duration maxBackoff;
+
+    private volatile boolean running;
+    private Thread reader;
+
+    public VehicleIndexFeed(VehicleRepository source, VehicleBitmapIndex index, int batchSize,
+                            Duration refreshInterval, Duration maxBackoff) {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be positive");
+        this.source = source;
+        this.index = index;
+        this.batchSize = batchSize;
+        this.refreshInterval = refreshInterval;
+        this.maxBackoff = maxBackoff;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        reader = Thread.ofPlatform().daemon().name("vehicle-index-feed").start(this::work);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (reader != null) reader.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Reads the feed to its current end on the calling thread, e.g. in tests. Returns the
+     * number of changes applied.
+     */
+    public int catchUp() {
+        int total = 0;
+        while (true) {
+            var changes = source.changesSince(index.position(), batchSize);
+            if (changes.isEmpty()) break;
+            index.apply(changes);
+            total += changes.size();
+        }
+        if (!index.isCaughtUp()) {
+            index.markCaughtUp();
+            log.info("Vehicle search index caught up: {} vehicles at change {}", index.size(), index.position());
+        }
+        return total;
+    }
+
+    private void work() {
+        long backoff = refreshInterval.toMillis();
+        while (running) {
+            try {
+                catchUp();
+                backoff = refreshInterval.toMillis();
+                Thread.sleep(refreshInterval);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                if (!running) return;
+                log.warn("Reading the change feed into the search index failed; retrying in {} ms", backoff, e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, maxBackoff.toMillis());
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.albi.vehicles.adapters.index.vehicle;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes {@link IndexedVehicleRepository} and {@link VehicleBitmapIndex} counters as
+ * {@code vehicles.index.searches{path}}, {@code vehicles.index.stale-hits},
+ * {@code vehicles.index.size} and {@code vehicles.index.bytes}.
+ */
+public final class VehicleIndexMetrics implements MeterBinder {
+
+    private final IndexedVehicleRepository repository;
+    private final VehicleBitmapIndex index;
+
+    public VehicleIndexMetrics(IndexedVehicleRepository repository, VehicleBitmapIndex index) {
+        this.repository = repository;
+        this.index = index;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("vehicles.index.searches", repository, IndexedVehicleRepository::indexedSearches)
+                .tags("path", "index")
+                .register(registry);
+        FunctionCounter.builder("vehicles.index.searches", repository, IndexedVehicleRepository::delegatedSearches)
+                .tags("path", "database")
+                .register(registry);
+        FunctionCounter.builder("vehicles.index.stale-hits", repository, IndexedVehicleRepository::staleHits)
+                .description("Rows the index offered that no longer matched when read")
+                .register(registry);
+        Gauge.builder("vehicles.index.size", index, VehicleBitmapIndex::size)
+                .description("Vehicles in the search index")
+                .register(registry);
+        Gauge.builder("vehicles.index.bytes", index, VehicleBitmapIndex::bitmapBytes)
+                .description("Memory held by the search index bitmaps")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
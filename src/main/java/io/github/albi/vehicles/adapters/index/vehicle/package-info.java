@@ -0,0 +1,9 @@
+/**
+ * In-process search index adapter for vehicles.
+ *
+ * <p>{@code VehicleBitmapIndex} keeps Roaring bitmaps of vehicle ids per type, fuel
+ * type, model year, make and model, fed from the change feed by {@code VehicleIndexFeed}.
+ * {@code IndexedVehicleRepository} decorates the domain {@code VehicleRepository} port:
+ * filtered searches are bitmap ANDs, and only the page found is read from the database.
+ */
+package io.github.albi.vehicles.adapters.index.vehicle;
@@ -0,0 +1,65 @@
+package io.github.albi.vehicles.adapters.messaging.vehicle;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.albi.vehicles.domain.vehicle.VehicleEvent;
+import io.github.albi.vehicles.domain.vehicle.VehicleEventPublisher;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Appends events to an NDJSON file, one line per event:
+ * {@code {"id":..,"type":"VehicleUpdated","vehicleId":..,"occurredAt":"..","vehicle":{..}}}.
+ *
+ * <p>Each batch is a single append followed by an fsync, because the dispatcher
+ * deletes the outbox rows as soon as this returns. Appends are serialized with a
+ * lock rather than {@code synchronized}, which would pin a virtual thread for the
+ * whole write.</p>
+ */
+public final class FileVehicleEventPublisher implements VehicleEventPublisher {
+
+    private final Path file;
+    private final ObjectMapper mapper;
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    public FileVehicleEventPublisher(Path file, ObjectMapper mapper) {
+        this.file = file;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public void publish(List<VehicleEvent> events) throws IOException {
+        var lines = new ByteArrayOutputStream(events.size() * 256);
+        try (var gen = mapper.getFactory().createGenerator(lines)) {
+            gen.setRootValueSeparator(null);
+            for (var e : events) {
+                gen.writeStartObject();
+                gen.writeNumberField("id", e.id());
+                gen.writeStringField("type", e.type().eventName());
+                gen.writeNumberField("vehicleId", e.vehicleId().value());
+                gen.writeStringField("occurredAt", e.occurredAt().toString());
+                gen.writeFieldName("vehicle");
+                if (e.payload() == null) gen.writeNull(); else gen.writeRawValue(e.payload());
+                gen.writeEndObject();
+                gen.writeRaw('\n');
+            }
+        }
+        appendLock.lock();
+        try (var out = FileChannel.open(file, CREATE, WRITE, APPEND)) {
+            var buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) out.write(buffer);
+            out.force(false);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.albi.vehicles.adapters.messaging.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.VehicleEvent;
+import io.github.albi.vehicles.domain.vehicle.VehicleEventPublisher;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/** Keeps every published event in memory, in publish order. For tests and local runs. */
+public final class InMemoryVehicleEventPublisher implements VehicleEventPublisher {
+
+    private final List<VehicleEvent> events = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(List<VehicleEvent> batch) {
+        events.addAll(batch);
+    }
+
+    public List<VehicleEvent> events() {
+        return List.copyOf(events);
+    }
+
+    public void clear() {
+        events.clear();
+    }
+}
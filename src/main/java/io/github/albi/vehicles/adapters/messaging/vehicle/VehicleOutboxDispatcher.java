@@ -0,0 +1,177 @@
+package io.github.albi.vehicles.adapters.messaging.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.VehicleEvent;
+import io.github.albi.vehicles.domain.vehicle.VehicleEventPublisher;
+import io.github.albi.vehicles.domain.vehicle.VehicleId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drains {@code vehicle_outbox} (V11) into a {@link VehicleEventPublisher}.
+ *
+ * <p>The table is split into {@code parallelism} partitions by {@code vehicle_id},
+ * each drained by its own thread: events of one vehicle always stay in one partition,
+ * so they are published in the order they were written while different vehicles
+ * proceed in parallel. A worker takes its partition's transaction-scoped advisory
+ * lock before reading, so with several nodes each partition still has a single
+ * consumer at a time (every node must use the same {@code parallelism}).</p>
+ *
+ * <p>One round is one transaction: read up to {@code batchSize} events, publish
+ * them, delete them. If the publisher throws, the transaction rolls back, the events
+ * stay, and the worker backs off (doubling up to {@code maxBackoff}). A crash between
+ * publish and commit publishes the batch again: delivery is at-least-once.</p>
+ */
+public final class VehicleOutboxDispatcher implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(VehicleOutboxDispatcher.class);
+
+    // first half of the two-key advisory lock; the partition is the second
+    private static final int LOCK_NAMESPACE = 0x766f7574;
+    private static final String LOCK = "select pg_try_advisory_xact_lock(?, ?)";
+    private static final String CLAIM = """
+            select id, event_type, vehicle_id, payload, created_at from vehicle_outbox
+            where mod(vehicle_id, ?) = ? order by id limit ?""";
+    private static final String DELETE = "delete from vehicle_outbox where id = any(?)";
+    private static final String OLDEST = "select created_at from vehicle_outbox order by id limit 1";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final VehicleEventPublisher publisher;
+    private final int parallelism;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration maxBackoff;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private volatile boolean running;
+    private final List<Thread> workers = new ArrayList<>();
+
+    public VehicleOutboxDispatcher(DataSource dataSource, PlatformTransactionManager txManager,
+                                   VehicleEventPublisher publisher, int parallelism, int batchSize,
+                                   Duration pollInterval, Duration maxBackoff) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive");
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be positive");
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.tx = new TransactionTemplate(txManager);
+        this.publisher = publisher;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.maxBackoff = maxBackoff;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        for (int p = 0; p < parallelism; p++) {
+            final int partition = p;
+            workers.add(Thread.ofPlatform().daemon().name("vehicle-outbox-" + p).start(() -> work(partition)));
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Events handed to the publisher and removed from the outbox so far. */
+    public long published() {
+        return published.sum();
+    }
+
+    /** Rounds that failed and were rolled back. */
+    public long failures() {
+        return failures.sum();
+    }
+
+    /** How long the oldest unpublished event has been waiting; zero when the outbox is empty. */
+    public Duration lag() {
+        var oldest = jdbc.query(OLDEST, rs -> rs.next() ? rs.getTimestamp(1).toInstant() : null);
+        if (oldest == null) return Duration.ZERO;
+        var age = Duration.between(oldest, Instant.now());
+        return age.isNegative() ? Duration.ZERO : age;
+    }
+
+    /**
+     * One round over every partition on the calling thread, e.g. to flush before
+     * shutdown or in tests. Returns the number of events published.
+     */
+    public int drainOnce() {
+        int total = 0;
+        for (int p = 0; p < parallelism; p++) total += drain(p);
+        return total;
+    }
+
+    private void work(int partition) {
+        long backoff = pollInterval.toMillis();
+        while (running) {
+            try {
+                int n = drain(partition);
+                backoff = pollInterval.toMillis();
+                if (n < batchSize) Thread.sleep(pollInterval); // caught up, or another node holds the partition
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                if (!running) return;
+                failures.increment();
+                log.warn("Publishing vehicle outbox partition {} failed; retrying in {} ms", partition, backoff, e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, maxBackoff.toMillis());
+            }
+        }
+    }
+
+    private int drain(int partition) {
+        Integer n = tx.execute(status -> {
+            if (!Boolean.TRUE.equals(jdbc.queryForObject(LOCK, Boolean.class, LOCK_NAMESPACE, partition))) return 0;
+            var events = jdbc.query(CLAIM, (rs, i) -> new VehicleEvent(
+                    rs.getLong("id"),
+                    VehicleEvent.Type.ofEventName(rs.getString("event_type")),
+                    new VehicleId(rs.getLong("vehicle_id")),
+                    rs.getString("payload"),
+                    rs.getTimestamp("created_at").toInstant()), parallelism, partition, batchSize);
+            if (events.isEmpty()) return 0;
+            try {
+                publisher.publish(events);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Publisher rejected " + events.size() + " vehicle events", e);
+            }
+            var ids = events.stream().map(VehicleEvent::id).toArray(Long[]::new);
+            jdbc.update(con -> {
+                var ps = con.prepareStatement(DELETE);
+                ps.setArray(1, con.createArrayOf("bigint", ids));
+                return ps;
+            });
+            return events.size();
+        });
+        published.add(n);
+        return n;
+    }
+}
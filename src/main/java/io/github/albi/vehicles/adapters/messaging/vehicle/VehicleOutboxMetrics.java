@@ -0,0 +1,43 @@
+package io.github.albi.vehicles.adapters.messaging.vehicle;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes {@link VehicleOutboxDispatcher} throughput as {@code vehicles.outbox.published}
+ * and {@code vehicles.outbox.failures}, and its lag as {@code vehicles.outbox.lag}
+ * (age of the oldest unpublished event; one primary key read per scrape).
+ */
+public final class VehicleOutboxMetrics implements MeterBinder {
+
+    private final VehicleOutboxDispatcher dispatcher;
+
+    public VehicleOutboxMetrics(VehicleOutboxDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("vehicles.outbox.published", dispatcher, VehicleOutboxDispatcher::published)
+                .description("Events published and removed from the outbox")
+                .register(registry);
+        FunctionCounter.builder("vehicles.outbox.failures", dispatcher, VehicleOutboxDispatcher::failures)
+                .description("Publish rounds rolled back for a retry")
+                .register(registry);
+        TimeGauge.builder("vehicles.outbox.lag", dispatcher, TimeUnit.MILLISECONDS, VehicleOutboxMetrics::lagMillis)
+                .description("Age of the oldest event still waiting to be published")
+                .register(registry);
+    }
+
+    private static double lagMillis(VehicleOutboxDispatcher d) {
+        try {
+            return d.lag().toMillis();
+        } catch (RuntimeException e) {
+            return Double.NaN; // database unreachable: no reading rather than a failed scrape
+        }
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * Messaging adapter for vehicle events.
+ *
+ * <p>Writes never publish anything themselves: the persistence adapter records each
+ * event in the {@code vehicle_outbox} table inside the write's transaction, and
+ * {@code VehicleOutboxDispatcher} drains that table in the background, handing
+ * batches to a {@code VehicleEventPublisher} (a file or in-memory list here; a
+ * broker client in other deployments).
+ */
+package io.github.albi.vehicles.adapters.messaging.vehicle;
@@ -0,0 +1,22 @@
+package io.github.albi.vehicles.adapters.metrics.vehicle;
+
+import io.github.albi.vehicles.application.vehicle.ServiceTimer;
+import io.github.albi.vehicles.domain.vehicle.VehicleFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.function.Supplier;
+
+/** {@link ServiceTimer} as {@code vehicles.service{operation,filter}}. */
+public final class MicrometerServiceTimer implements ServiceTimer {
+
+    private final OperationTimers timers;
+
+    public MicrometerServiceTimer(MeterRegistry registry) {
+        this.timers = new OperationTimers(registry, "vehicles.service", "VehicleService operations");
+    }
+
+    @Override
+    public <T> T time(String operation, VehicleFilter filter, Supplier<T> call) {
+        return timers.record(operation, filter, call);
+    }
+}
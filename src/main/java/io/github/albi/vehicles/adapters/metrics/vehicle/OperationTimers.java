@@ -0,0 +1,51 @@
+package io.github.albi.vehicles.adapters.metrics.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.VehicleFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * One timer per {@code (operation, filter)} under a common name, with a percentile
+ * histogram (aggregatable across nodes, unlike client-side percentiles). Timers are
+ * registered on first use and then looked up in a local map, so recording costs two
+ * {@code nanoTime} calls and a few atomic adds.
+ */
+final class OperationTimers {
+
+    private final MeterRegistry registry;
+    private final String name;
+    private final String description;
+    private final Map<String, Map<String, Timer>> timers = new ConcurrentHashMap<>(); // operation -> filter -> timer
+
+    OperationTimers(MeterRegistry registry, String name, String description) {
+        this.registry = registry;
+        this.name = name;
+        this.description = description;
+    }
+
+    <T> T record(String operation, VehicleFilter filter, Supplier<T> call) {
+        var timer = timer(operation, VehicleFilterTag.of(filter));
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    Timer timer(String operation, String filterTag) {
+        return timers.computeIfAbsent(operation, op -> new ConcurrentHashMap<>()).computeIfAbsent(filterTag, tag -> Timer.builder(name)
+                .description(description)
+                .tags("operation", operation, "filter", tag)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry));
+    }
+}
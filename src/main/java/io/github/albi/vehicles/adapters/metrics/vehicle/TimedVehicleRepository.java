@@ -0,0 +1,126 @@
+package io.github.albi.vehicles.adapters.metrics.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.*;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Times every call to another {@link VehicleRepository} as
+ * {@code vehicles.repository{operation,filter}}, and counts the vehicles each search
+ * page returns as {@code vehicles.search.rows{filter}}.
+ *
+ * <p>Placed directly around the persistence adapter (inside the search index and the
+ * cache), so it measures the database round trips plus row mapping, and nothing the
+ * index or a cache hit answers. A page the index answers shows up as its {@code findAll}.</p>
+ */
+public final class TimedVehicleRepository implements VehicleRepository {
+
+    private final VehicleRepository delegate;
+    private final MeterRegistry registry;
+    private final OperationTimers timers;
+    private final Map<String, DistributionSummary> searchRows = new ConcurrentHashMap<>();
+
+    public TimedVehicleRepository(VehicleRepository delegate, MeterRegistry registry) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.registry = Objects.requireNonNull(registry);
+        this.timers = new OperationTimers(registry, "vehicles.repository", "VehicleRepository calls");
+    }
+
+    @Override
+    public Optional<Vehicle> findById(VehicleId id) {
+        return timers.record("findById", null, () -> delegate.findById(id));
+    }
+
+    @Override
+    public Optional<VehicleVersion> findVersionById(VehicleId id) {
+        return timers.record("findVersionById", null, () -> delegate.findVersionById(id));
+    }
+
+    @Override
+    public Optional<Vehicle> findByVin(Vin vin) {
+        return timers.record("findByVin", null, () -> delegate.findByVin(vin));
+    }
+
+    @Override
+    public Optional<Vehicle> findByRegistrationNumber(String registrationNumber) {
+        return timers.record("findByRegistrationNumber", null, () -> delegate.findByRegistrationNumber(registrationNumber));
+    }
+
+    @Override
+    public List<Vehicle> findAll(List<VehicleKey> keys) {
+        return timers.record("findAll", null, () -> delegate.findAll(keys));
+    }
+
+    @Override
+    public VehiclePage search(VehicleFilter filter, VehicleSort sort, VehicleCursor after, int limit) {
+        var page = timers.record("search", filter, () -> delegate.search(filter, sort, after, limit));
+        rows(VehicleFilterTag.of(filter)).record(page.items().size());
+        return page;
+    }
+
+    /** Includes the sink's time: the export is written to the client while rows are read. */
+    @Override
+    public void exportAll(VehicleFilter filter, Consumer<? super Vehicle> sink) {
+        timers.record("exportAll", filter, () -> {
+            delegate.exportAll(filter, sink);
+            return null;
+        });
+    }
+
+    @Override
+    public VehicleFacets facets(VehicleFilter filter) {
+        return timers.record("facets", filter, () -> delegate.facets(filter));
+    }
+
+    @Override
+    public List<String> suggest(VehicleTextField field, String prefix, int limit) {
+        return timers.record("suggest", null, () -> delegate.suggest(field, prefix, limit));
+    }
+
+    @Override
+    public List<VehicleChange> changesSince(long since, int limit) {
+        return timers.record("changesSince", null, () -> delegate.changesSince(since, limit));
+    }
+
+    @Override
+    public Vehicle create(Vin vin, VehicleType type, String make, String model, Integer year,
+                          FuelType fuelType, String color, String registrationNumber) {
+        return timers.record("create", null,
+                () -> delegate.create(vin, type, make, model, year, fuelType, color, registrationNumber));
+    }
+
+    @Override
+    public List<VehicleUpsertResult> upsertAll(List<VehicleDraft> drafts) {
+        return timers.record("upsertAll", null, () -> delegate.upsertAll(drafts));
+    }
+
+    @Override
+    public Optional<Vehicle> update(VehicleId id, Long expectedVersion, Vin vin, VehicleType type, String make,
+                                    String model, Integer year, FuelType fuelType, String color,
+                                    String registrationNumber) {
+        return timers.record("update", null, () -> delegate.update(id, expectedVersion, vin, type, make, model, year,
+                fuelType, color, registrationNumber));
+    }
+
+    @Override
+    public boolean delete(VehicleId id, Long expectedVersion) {
+        return timers.record("delete", null, () -> delegate.delete(id, expectedVersion));
+    }
+
+    private DistributionSummary rows(String filterTag) {
+        return searchRows.computeIfAbsent(filterTag, tag -> DistributionSummary.builder("vehicles.search.rows")
+                .description("Vehicles returned per search page")
+                .baseUnit("vehicles")
+                .tags("filter", tag)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(1000.0)
+                .register(registry));
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.albi.vehicles.adapters.metrics.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.TextMatch;
+import io.github.albi.vehicles.domain.vehicle.VehicleFilter;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * The {@code filter} tag: which filters a search used, never their values, e.g.
+ * {@code make+model}, {@code make:prefix}, {@code q+type}, {@code vin} or {@code none}. Each combination
+ * is served by its own index (V4–V6), so this is what latency differs by, and there are
+ * only a few dozen values.
+ */
+public final class VehicleFilterTag {
+
+    /** For meters whose operation takes no filter. */
+    public static final String NOT_APPLICABLE = "n/a";
+
+    private VehicleFilterTag() {}
+
+    public static String of(VehicleFilter filter) {
+        if (filter == null) return NOT_APPLICABLE;
+        return of(present(filter.make()), present(filter.model()), filter.year() != null, filter.type() != null,
+                filter.fuelType() != null, filter.hasVin(), filter.hasRegistrationNumber(), filter.match(),
+                filter.hasText());
+    }
+
+    /** Same tag from which filters are present, for callers that have not parsed them. */
+    public static String of(boolean make, boolean model, boolean year, boolean type, boolean fuelType,
+                            boolean vin, boolean registrationNumber, TextMatch match, boolean text) {
+        // the unique lookups win over everything else, as in the repository
+        if (vin) return "vin";
+        if (registrationNumber) return "registrationNumber";
+        var tag = new StringJoiner("+");
+        if (text) tag.add("q");
+        if (make) tag.add("make");
+        if (model) tag.add("model");
+        if (year) tag.add("year");
+        if (type) tag.add("type");
+        if (fuelType) tag.add("fuelType");
+        if (tag.length() == 0) return "none";
+        var combination = tag.toString();
+        return (make || model) && match != null && match != TextMatch.EXACT
+                ? combination + ":" + match.name().toLowerCase(Locale.ROOT)
+                : combination;
+    }
+
+    private static boolean present(String s) {
+        return s != null && !s.isBlank();
+    }
+}
@@ -0,0 +1,9 @@
+/**
+ * Micrometer instrumentation for vehicles.
+ *
+ * <p>Times the domain {@code VehicleRepository} port through a decorator and the
+ * application service through its {@code ServiceTimer} port, tagged by operation and
+ * by the filter combination a search received, so a slow endpoint can be split into
+ * database time, service time and (from {@code http.server.requests}) web time.
+ */
+package io.github.albi.vehicles.adapters.metrics.vehicle;
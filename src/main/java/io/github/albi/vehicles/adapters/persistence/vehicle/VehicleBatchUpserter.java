@@ -0,0 +1,159 @@
+package io.github.albi.vehicles.adapters.persistence.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.Vehicle;
+import io.github.albi.vehicles.domain.vehicle.VehicleDraft;
+import io.github.albi.vehicles.domain.vehicle.VehicleId;
+import io.github.albi.vehicles.domain.vehicle.VehicleUpsertResult;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.sql.Types;
+import java.util.*;
+
+/**
+ * Bulk insert-or-update by VIN with plain JDBC batches.
+ *
+ * <p>{@code VehicleEntity} uses IDENTITY ids, which stops Hibernate from batching
+ * inserts, so this bypasses the persistence context entirely. One call costs six
+ * round trips whatever its size: look up existing VINs, batch-insert the new ones,
+ * batch-update the rest, read back the new ids, then one batch each for the change
+ * log and the event outbox. With pgjdbc's
+ * {@code reWriteBatchedInserts} the insert batch becomes multi-row inserts.</p>
+ *
+ * <p>A constraint violation (e.g. a registration number owned by another VIN)
+ * aborts the whole transaction, so the call is then replayed one item per
+ * transaction to pin the failure on the offending items only.</p>
+ */
+@Component
+class VehicleBatchUpserter {
+
+    private static final String SELECT_IDS =
+            "select id, vin from vehicles where vin in (:vins)";
+    private static final String INSERT =
+            "insert into vehicles (vin, type, make, model, model_year, fuel_type, color, registration_number, version, updated_at) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, 0, ?)";
+    private static final String UPDATE =
+            "update vehicles set type = ?, make = ?, model = ?, model_year = ?, fuel_type = ?, " +
+            "color = ?, registration_number = ?, version = version + 1, updated_at = ? where vin = ?";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final VehicleChangeLog changes;
+    private final VehicleOutbox outbox;
+    private final TransactionTemplate tx;
+
+    VehicleBatchUpserter(NamedParameterJdbcTemplate jdbc, VehicleChangeLog changes, VehicleOutbox outbox,
+                         PlatformTransactionManager txManager) {
+        this.jdbc = jdbc;
+        this.changes = changes;
+        this.outbox = outbox;
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    List<VehicleUpsertResult> upsertAll(List<VehicleDraft> drafts) {
+        var results = new VehicleUpsertResult[drafts.size()];
+
+        // the same VIN twice in one call is ambiguous: first occurrence wins, later ones fail
+        var unique = new LinkedHashMap<String, Integer>();
+        for (int i = 0; i < drafts.size(); i++) {
+            if (unique.putIfAbsent(drafts.get(i).vin().value(), i) != null) {
+                results[i] = VehicleUpsertResult.failed("Duplicate VIN in batch");
+            }
+        }
+        var indexes = List.copyOf(unique.values());
+
+        try {
+            tx.executeWithoutResult(s -> write(drafts, indexes, results));
+        } catch (DataIntegrityViolationException batchFailure) {
+            for (int i : indexes) {
+                try {
+                    tx.executeWithoutResult(s -> write(drafts, List.of(i), results));
+                } catch (DataIntegrityViolationException itemFailure) {
+                    results[i] = VehicleUpsertResult.failed(describe(itemFailure));
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /** Writes the given items; only fills {@code results} once every statement succeeded. */
+    private void write(List<VehicleDraft> drafts, List<Integer> indexes, VehicleUpsertResult[] results) {
+        var existing = idsByVin(indexes.stream().map(i -> drafts.get(i).vin().value()).toList());
+
+        var inserts = new ArrayList<VehicleDraft>();
+        var updates = new ArrayList<VehicleDraft>();
+        for (int i : indexes) {
+            var d = drafts.get(i);
+            (existing.containsKey(d.vin().value()) ? updates : inserts).add(d);
+        }
+
+        var ops = jdbc.getJdbcOperations();
+        var now = Timestamp.from(Instant.now());
+        if (!inserts.isEmpty()) {
+            ops.batchUpdate(INSERT, inserts, inserts.size(), (ps, d) -> {
+                ps.setString(1, d.vin().value());
+                ps.setTimestamp(bindFields(ps, 2, d), now);
+            });
+        }
+        if (!updates.isEmpty()) {
+            ops.batchUpdate(UPDATE, updates, updates.size(), (ps, d) -> {
+                int next = bindFields(ps, 1, d);
+                ps.setTimestamp(next++, now);
+                ps.setString(next, d.vin().value());
+            });
+        }
+        var created = inserts.isEmpty()
+                ? Map.<String, Long>of()
+                : idsByVin(inserts.stream().map(d -> d.vin().value()).toList());
+        var written = new ArrayList<Long>(existing.size() + created.size());
+        written.addAll(existing.values());
+        written.addAll(created.values());
+        changes.record(written, false);
+
+        var events = new ArrayList<VehicleOutbox.Entry>(indexes.size());
+        for (int i : indexes) {
+            var d = drafts.get(i);
+            var vin = d.vin().value();
+            boolean update = existing.containsKey(vin);
+            var id = new VehicleId(update ? existing.get(vin) : created.get(vin));
+            var vehicle = new Vehicle(id, d.vin(), d.type(), d.make(), d.model(), d.year(), d.fuelType(),
+                    d.color(), d.registrationNumber());
+            events.add(update ? VehicleOutbox.Entry.updated(vehicle) : VehicleOutbox.Entry.created(vehicle));
+            results[i] = update ? VehicleUpsertResult.updated(id) : VehicleUpsertResult.created(id);
+        }
+        outbox.append(events);
+    }
+
+    /** Binds type..registration_number starting at {@code index}; returns the next free index. */
+    private static int bindFields(PreparedStatement ps, int index, VehicleDraft d) throws SQLException {
+        ps.setString(index++, d.type().name());
+        ps.setString(index++, d.make());
+        ps.setString(index++, d.model());
+        ps.setInt(index++, d.year());
+        ps.setString(index++, d.fuelType().name());
+        if (d.color() != null) ps.setString(index++, d.color()); else ps.setNull(index++, Types.VARCHAR);
+        if (d.registrationNumber() != null) ps.setString(index++, d.registrationNumber()); else ps.setNull(index++, Types.VARCHAR);
+        return index;
+    }
+
+    private Map<String, Long> idsByVin(List<String> vins) {
+        var ids = new HashMap<String, Long>(vins.size() * 2);
+        jdbc.query(SELECT_IDS, Map.of("vins", vins),
+                rs -> { ids.put(rs.getString("vin"), rs.getLong("id")); });
+        return ids;
+    }
+
+    /** Same constraint names as {@code VehicleEntity}'s unique constraints. */
+    private static String describe(DataIntegrityViolationException ex) {
+        var msg = String.valueOf(ex.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (msg.contains("uk_vehicles_registration")) return "Registration number already exists";
+        if (msg.contains("uk_vehicles_vin")) return "VIN already exists";
+        return "Request violates data constraints";
+    }
+}
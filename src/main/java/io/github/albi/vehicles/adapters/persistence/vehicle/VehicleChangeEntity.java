@@ -0,0 +1,35 @@
+package io.github.albi.vehicles.adapters.persistence.vehicle;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
+
+/**
+ * Mapped so the schema is generated and validated like the rest; rows are only ever
+ * written and read with plain SQL by {@link VehicleChangeLog}.
+ */
+@Entity
+@Table(name = "vehicle_changes")
+public class VehicleChangeEntity {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Column(name = "vehicle_id", nullable = false)
+    private Long vehicleId;
+
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted;
+
+    @ColumnDefault("current_timestamp") // V15 makes it clock_timestamp() in Postgres
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    protected VehicleChangeEntity() {}
+
+    public Long getSeq() { return seq; }
+    public Long getVehicleId() { return vehicleId; }
+    public boolean isDeleted() { return deleted; }
+    public Instant getChangedAt() { return changedAt; }
+}
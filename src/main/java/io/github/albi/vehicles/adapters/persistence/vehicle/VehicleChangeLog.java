@@ -0,0 +1,89 @@
+package io.github.albi.vehicles.adapters.persistence.vehicle;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code vehicle_changes} table (V10): appended to inside every write
+ * transaction, read by position for the change feed.
+ *
+ * <p>Positions come from a sequence, which hands them out when a row is inserted,
+ * not when its transaction commits. A reader can therefore see 12 before 11 exists;
+ * stepping past 11 would lose it for good. So the feed is read in order of the
+ * writing transaction's id (V15), then seq, and only up to the oldest transaction
+ * still running: everything before it has committed or rolled back, and anything
+ * written later gets a newer id, so it sorts after every position already handed out.
+ * How long a writer runs does not matter.</p>
+ *
+ * <p>The test database (H2) has no transaction ids to read; there the feed is plain
+ * seq order.</p>
+ */
+@Component
+class VehicleChangeLog {
+
+    private static final String INSERT = "insert into vehicle_changes (vehicle_id, deleted) values (?, ?)";
+    private static final String SINCE = """
+            select seq, vehicle_id, deleted from vehicle_changes
+            where (txid, seq) > (coalesce((select txid from vehicle_changes where seq = :since), '0'::xid8), :since)
+              and txid < pg_snapshot_xmin(pg_current_snapshot())
+            order by txid, seq limit :limit""";
+    private static final String SINCE_BY_SEQ = """
+            select seq, vehicle_id, deleted from vehicle_changes
+            where seq > :since order by seq limit :limit""";
+
+    record Entry(long seq, long vehicleId, boolean deleted) {}
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private volatile String sinceSql;
+
+    VehicleChangeLog(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** One row per id, in the caller's transaction; ids are logged in ascending order. */
+    void record(Collection<Long> vehicleIds, boolean deleted) {
+        if (vehicleIds.isEmpty()) return;
+        var ids = vehicleIds.stream().sorted().toList();
+        jdbc.getJdbcOperations().batchUpdate(INSERT, ids, ids.size(), (ps, id) -> {
+            ps.setLong(1, id);
+            ps.setBoolean(2, deleted);
+        });
+    }
+
+    /**
+     * Up to {@code limit} settled log rows after {@code since}, reduced to the latest
+     * row per vehicle (earlier ones carry nothing a client still needs). The last row
+     * read always survives, so its seq is where the next read starts. Seqs only rise
+     * within one writer's rows, not across them.
+     */
+    List<Entry> since(long since, int limit) {
+        var rows = new ArrayList<Entry>(limit);
+        jdbc.query(sinceSql(), Map.of("since", since, "limit", limit), rs -> {
+            rows.add(new Entry(rs.getLong("seq"), rs.getLong("vehicle_id"), rs.getBoolean("deleted")));
+        });
+
+        var latest = new LinkedHashMap<Long, Entry>();
+        for (var row : rows) {
+            latest.remove(row.vehicleId()); // re-inserting moves it to its latest position
+            latest.put(row.vehicleId(), row);
+        }
+        return List.copyOf(latest.values());
+    }
+
+    private String sinceSql() {
+        var sql = sinceSql;
+        if (sql == null) {
+            boolean postgres = jdbc.getJdbcOperations().execute((ConnectionCallback<Boolean>) c ->
+                    "PostgreSQL".equals(c.getMetaData().getDatabaseProductName()));
+            sinceSql = sql = postgres ? SINCE : SINCE_BY_SEQ;
+        }
+        return sql;
+    }
+}
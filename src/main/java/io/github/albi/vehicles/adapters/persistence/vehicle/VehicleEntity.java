@@ -1,13 +1,17 @@
 package io.github.albi.vehicles.adapters.persistence.vehicle;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Entity
+// Expression, trigram and partial indexes can't be declared here; see the V5/V6 migrations.
 @Table(name = "vehicles",
         indexes = {
-                @Index(name = "idx_vehicles_make", columnList = "make"),
-                @Index(name = "idx_vehicles_model", columnList = "model"),
-                @Index(name = "idx_vehicles_year", columnList = "model_year")
+                @Index(name = "idx_vehicles_make_id", columnList = "make, id"),
+                @Index(name = "idx_vehicles_model_year_id", columnList = "model_year, id"),
+                @Index(name = "idx_vehicles_type_fuel_id", columnList = "type, fuel_type, id")
         },
         uniqueConstraints = {
                 @UniqueConstraint(name = "uk_vehicles_vin", columnNames = "vin"),
@@ -39,9 +43,18 @@ public class VehicleEntity {
     @Column(name = "color", length = 40)
     private String color;
 
-    @Column(name = "registration_number", length = 20 , unique = true)
+    @Column(name = "registration_number", length = 20)
     private String registrationNumber;
 
+    // Bumped by every UPDATE (JPA or plain SQL); see VehicleRepositoryJpaAdapter.update
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @UpdateTimestamp // JPA writes; the plain SQL writes set it themselves
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
     protected VehicleEntity() {}
 
     public VehicleEntity(Long id, String vin, String type, String make, String model, Integer modelYear,
@@ -66,6 +79,8 @@ public class VehicleEntity {
     public String getFuelType() { return fuelType; }
     public String getColor() { return color; }
     public String getRegistrationNumber() { return registrationNumber; }
+    public long getVersion() { return version; }
+    public Instant getUpdatedAt() { return updatedAt; }
 
     public void setId(Long id) { this.id = id; }
     public void setVin(String vin) { this.vin = vin; }
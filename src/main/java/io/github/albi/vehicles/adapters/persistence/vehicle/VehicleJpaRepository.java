@@ -1,7 +1,9 @@
 package io.github.albi.vehicles.adapters.persistence.vehicle;
 
+import io.github.albi.vehicles.domain.vehicle.VehicleVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
@@ -12,4 +14,9 @@ public interface VehicleJpaRepository
     Optional<VehicleEntity> findByVin(String vin);
     Optional<VehicleEntity> findByRegistrationNumberIgnoreCase(String registrationNumber);
 
-}
\ No newline at end of file
+    // two columns by primary key; nothing enters the persistence context
+    @Query("select new io.github.albi.vehicles.domain.vehicle.VehicleVersion(v.version, v.updatedAt) "
+            + "from VehicleEntity v where v.id = :id")
+    Optional<VehicleVersion> findVersionById(Long id);
+
+}
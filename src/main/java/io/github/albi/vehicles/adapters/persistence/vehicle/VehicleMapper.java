@@ -2,27 +2,60 @@ package io.github.albi.vehicles.adapters.persistence.vehicle;
 
 import io.github.albi.vehicles.domain.vehicle.*;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+
 final class VehicleMapper {
 
+    /** {@link VehicleEntity} attributes a projection selects for {@link #fromRow}, in this order. */
+    static final List<String> ROW = List.of("id", "vin", "type", "make", "model", "modelYear", "fuelType", "color",
+            "registrationNumber", "version", "updatedAt");
+
     private VehicleMapper() {}
 
     static Vehicle toDomain(VehicleEntity e) {
-        Long rawId = e.getId();
-        if (rawId == null) {
+        return toDomain(e.getId(), e.getVin(), e.getType(), e.getMake(), e.getModel(), e.getModelYear(),
+                e.getFuelType(), e.getColor(), e.getRegistrationNumber(), e.getVersion(), e.getUpdatedAt());
+    }
+
+    /** One row selected as {@link #ROW}: column values straight into the domain object, no entity in between. */
+    static Vehicle fromRow(Object[] row) {
+        return toDomain((Long) row[0], (String) row[1], (String) row[2], (String) row[3], (String) row[4],
+                (Integer) row[5], (String) row[6], (String) row[7], (String) row[8], (Long) row[9], (Instant) row[10]);
+    }
+
+    /** The current JDBC row of a native select of the vehicle columns, by column name. */
+    static Vehicle fromResultSet(ResultSet rs) throws SQLException {
+        var updatedAt = rs.getObject("updated_at", OffsetDateTime.class);
+        return toDomain(rs.getLong("id"), rs.getString("vin"), rs.getString("type"), rs.getString("make"),
+                rs.getString("model"), rs.getObject("model_year", Integer.class), rs.getString("fuel_type"),
+                rs.getString("color"), rs.getString("registration_number"), rs.getLong("version"),
+                updatedAt == null ? null : updatedAt.toInstant());
+    }
+
+    private static Vehicle toDomain(Long id, String vin, String type, String make, String model, Integer modelYear,
+                                    String fuelType, String color, String registrationNumber, long version,
+                                    Instant updatedAt) {
+        if (id == null) {
             // Aligns with test expectation
             throw new IllegalStateException("VehicleEntity id must not be null");
         }
 
         return new Vehicle(
-                new VehicleId(rawId),                                            // safe after null-check
-                e.getVin() != null ? new Vin(e.getVin()) : null,
-                e.getType() != null ? VehicleType.valueOf(e.getType()) : null,
-                e.getMake(),
-                e.getModel(),
-                e.getModelYear(),
-                e.getFuelType() != null ? FuelType.valueOf(e.getFuelType()) : null,
-                e.getColor(),
-                e.getRegistrationNumber()
+                new VehicleId(id),                                               // safe after null-check
+                vin != null ? new Vin(vin) : null,
+                type != null ? VehicleType.valueOf(type) : null,
+                make,
+                model,
+                modelYear,
+                fuelType != null ? FuelType.valueOf(fuelType) : null,
+                color,
+                registrationNumber,
+                version,
+                updatedAt
         );
     }
 
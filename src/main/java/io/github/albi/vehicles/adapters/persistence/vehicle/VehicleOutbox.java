@@ -0,0 +1,67 @@
+package io.github.albi.vehicles.adapters.persistence.vehicle;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.albi.vehicles.domain.vehicle.Vehicle;
+import io.github.albi.vehicles.domain.vehicle.VehicleEvent;
+import io.github.albi.vehicles.domain.vehicle.VehicleId;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Writes {@code vehicle_outbox} (V11) rows inside the caller's transaction, so an
+ * event exists exactly when its write committed. Publishing happens later, off the
+ * request path; see {@code VehicleOutboxDispatcher}.
+ */
+@Component
+class VehicleOutbox {
+
+    private static final String INSERT =
+            "insert into vehicle_outbox (event_type, vehicle_id, payload, created_at) values (?, ?, ?, current_timestamp)";
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    record Entry(VehicleEvent.Type type, long vehicleId, String payload) {
+        static Entry created(Vehicle v) { return new Entry(VehicleEvent.Type.CREATED, v.id().value(), VehicleOutbox.payload(v)); }
+        static Entry updated(Vehicle v) { return new Entry(VehicleEvent.Type.UPDATED, v.id().value(), VehicleOutbox.payload(v)); }
+        static Entry deleted(VehicleId id) { return new Entry(VehicleEvent.Type.DELETED, id.value(), null); }
+    }
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    VehicleOutbox(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** One batched insert for any number of events. */
+    void append(List<Entry> entries) {
+        if (entries.isEmpty()) return;
+        jdbc.getJdbcOperations().batchUpdate(INSERT, entries, entries.size(), (ps, e) -> {
+            ps.setString(1, e.type().eventName());
+            ps.setLong(2, e.vehicleId());
+            if (e.payload() != null) ps.setString(3, e.payload()); else ps.setNull(3, Types.VARCHAR);
+        });
+    }
+
+    /** Same fields and names as the REST representation. */
+    static String payload(Vehicle v) {
+        var json = new LinkedHashMap<String, Object>();
+        json.put("id", v.id().value());
+        json.put("vin", v.vin().value());
+        json.put("type", v.type());
+        json.put("make", v.make());
+        json.put("model", v.model());
+        json.put("modelYear", v.year());
+        json.put("fuelType", v.fuelType());
+        json.put("color", v.color());
+        json.put("registrationNumber", v.registrationNumber());
+        try {
+            return JSON.writeValueAsString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Vehicle " + v.id().value() + " is not serializable", e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.albi.vehicles.adapters.persistence.vehicle;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Mapped so the schema is generated and validated like the rest; rows are written
+ * by {@link VehicleOutbox} and drained by the messaging adapter's dispatcher.
+ */
+@Entity
+@Table(name = "vehicle_outbox")
+public class VehicleOutboxEntity {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_type", length = 30, nullable = false)
+    private String eventType;
+
+    @Column(name = "vehicle_id", nullable = false)
+    private Long vehicleId;
+
+    @Column(name = "payload", columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    protected VehicleOutboxEntity() {}
+
+    public Long getId() { return id; }
+    public String getEventType() { return eventType; }
+    public Long getVehicleId() { return vehicleId; }
+    public String getPayload() { return payload; }
+    public Instant getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,96 @@
+package io.github.albi.vehicles.adapters.persistence.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.*;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.adapter.JdkFlowAdapter;
+import reactor.core.publisher.Flux;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+/**
+ * {@link ReactiveVehicleReader} over R2DBC: the same SQL shapes as
+ * {@link VehicleRepositoryJpaAdapter}'s reads ({@link VehicleSearchSql}, so the same
+ * V4–V6 indexes serve them), but no thread waits for Postgres. Reads bypass JPA entirely; rows are mapped straight
+ * to domain vehicles.
+ */
+@Repository
+public class VehicleR2dbcReader implements ReactiveVehicleReader {
+
+    private final DatabaseClient db;
+    private final int exportFetchSize;
+
+    public VehicleR2dbcReader(DatabaseClient db, @Value("${vehicles.export.fetch-size:500}") int exportFetchSize) {
+        this.db = db;
+        this.exportFetchSize = exportFetchSize;
+    }
+
+    @Override
+    public CompletionStage<Optional<Vehicle>> findById(VehicleId id) {
+        return db.sql("select " + VehicleSearchSql.COLUMNS + " from vehicles where id = :id")
+                .bind("id", id.value())
+                .map(VehicleR2dbcReader::toDomain)
+                .one()
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .toFuture();
+    }
+
+    @Override
+    public CompletionStage<VehiclePage> search(VehicleFilter filter, VehicleSort sort, VehicleCursor after, int limit) {
+        // fetch one extra row to learn whether a next page exists, as the JPA adapter does
+        var sql = VehicleSearchSql.selectSql(filter, sort, after, limit + 1);
+        if (sort == VehicleSort.RELEVANCE && VehicleSearchSql.isRanked(filter)) {
+            return query(sql, row -> new VehicleSearchSql.Ranked(toDomain(row), row.get("rank", Float.class)))
+                    .collectList()
+                    .map(rows -> VehicleSearchSql.rankedPage(rows, limit))
+                    .toFuture();
+        }
+        return query(sql, VehicleR2dbcReader::toDomain)
+                .collectList()
+                .map(rows -> VehiclePage.of(rows, limit, sort))
+                .toFuture();
+    }
+
+    /**
+     * Rows come through a Postgres portal {@code vehicles.export.fetch-size} at a time, and
+     * the next batch is only requested once the subscriber has asked for more: a slow
+     * client holds a bounded buffer and an open cursor, never the whole result.
+     * Output order is unspecified, like the blocking export.
+     */
+    @Override
+    public Flow.Publisher<Vehicle> exportAll(VehicleFilter filter) {
+        var rows = filter.hasVin() || filter.hasRegistrationNumber()
+                ? query(VehicleSearchSql.selectSql(filter, VehicleSort.ID, null, 1), VehicleR2dbcReader::toDomain)
+                : query(VehicleSearchSql.selectSql(filter, null, null, 0), VehicleR2dbcReader::toDomain);
+        return JdkFlowAdapter.publisherToFlowPublisher(rows);
+    }
+
+    private <T> Flux<T> query(VehicleSearchSql.Sql sql, Function<Readable, T> mapper) {
+        var spec = db.sql(sql.text()).filter((statement, next) -> next.execute(statement.fetchSize(exportFetchSize)));
+        for (var bind : sql.binds().entrySet()) spec = spec.bind(bind.getKey(), bind.getValue());
+        return spec.map(mapper::apply).all();
+    }
+
+    private static Vehicle toDomain(Readable row) {
+        var updatedAt = row.get("updated_at", OffsetDateTime.class);
+        return new Vehicle(
+                new VehicleId(row.get("id", Long.class)),
+                new Vin(row.get("vin", String.class)),
+                VehicleType.valueOf(row.get("type", String.class)),
+                row.get("make", String.class),
+                row.get("model", String.class),
+                row.get("model_year", Integer.class),
+                FuelType.valueOf(row.get("fuel_type", String.class)),
+                row.get("color", String.class),
+                row.get("registration_number", String.class),
+                row.get("version", Long.class),
+                updatedAt == null ? null : updatedAt.toInstant());
+    }
+}
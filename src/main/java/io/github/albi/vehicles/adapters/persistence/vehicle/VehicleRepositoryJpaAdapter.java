@@ -3,66 +3,327 @@ package io.github.albi.vehicles.adapters.persistence.vehicle;
 import io.github.albi.vehicles.domain.vehicle.Vehicle;
 import io.github.albi.vehicles.domain.vehicle.VehicleId;
 import io.github.albi.vehicles.domain.vehicle.VehicleRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.sqm.NodeBuilder;
+import org.hibernate.query.sqm.tree.expression.SqmExpression;
+import org.hibernate.query.sqm.tree.expression.SqmTuple;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
 
 import io.github.albi.vehicles.domain.vehicle.*;
 
 @Repository
 public class VehicleRepositoryJpaAdapter implements VehicleRepository {
 
+    private static final char LIKE_ESCAPE = VehicleSearchSql.LIKE_ESCAPE;
+
+    // keys per findAll query: bounds the IN lists (and so the statement) whatever the caller sends
+    static final int LOOKUP_CHUNK = 500;
+
+    // {col} is make or model (never user input)
+    private static final String SUGGEST_SQL = """
+            with recursive s(v, n) as (
+                select min(lower({col})), 1 from vehicles where lower({col}) >= :prefix
+              union all
+                select (select min(lower({col})) from vehicles where lower({col}) > s.v), s.n + 1
+                from s where s.v like :pattern escape '\\' and s.n < :limit
+            )
+            select (select {col} from vehicles where lower({col}) = s.v order by {col} limit 1)
+            from s where s.v like :pattern escape '\\'
+            order by s.n
+            """;
+
+    // maintained by the V7 statement triggers; value is the stored spelling (model_year as text).
+    // V17 splits each counter over slots, so a count is the sum of its slots
+    private static final String FACET_SUMMARY_SQL = """
+            select facet, value, sum(count) from vehicle_facet_counts
+            group by facet, value having sum(count) > 0""";
+
+    // every write bumps version; callers that hold a version append "and version = :version"
+    private static final String UPDATE_SQL = """
+            update vehicles set vin = :vin, type = :type, make = :make, model = :model, model_year = :year,
+                   fuel_type = :fuelType, color = :color, registration_number = :registrationNumber,
+                   version = version + 1, updated_at = :updatedAt
+            where id = :id""";
+    private static final String DELETE_SQL = "delete from vehicles where id = :id";
+    private static final String AT_VERSION = " and version = :version";
+
     private final VehicleJpaRepository jpa;
+    private final EntityManager em;
+    private final VehicleBatchUpserter batch;
+    private final VehicleChangeLog changes;
+    private final VehicleOutbox outbox;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final int exportFetchSize;
+    private final boolean facetSummaryTable;
 
-    public VehicleRepositoryJpaAdapter(VehicleJpaRepository jpa) {
+    public VehicleRepositoryJpaAdapter(VehicleJpaRepository jpa, EntityManager em, VehicleBatchUpserter batch,
+                                       VehicleChangeLog changes, VehicleOutbox outbox, NamedParameterJdbcTemplate jdbc,
+                                       @Value("${vehicles.export.fetch-size:500}") int exportFetchSize,
+                                       @Value("${vehicles.facets.summary-table:true}") boolean facetSummaryTable) {
         this.jpa = jpa;
+        this.em = em;
+        this.batch = batch;
+        this.changes = changes;
+        this.outbox = outbox;
+        this.jdbc = jdbc;
+        this.exportFetchSize = exportFetchSize;
+        this.facetSummaryTable = facetSummaryTable;
     }
 
 
+    // every read is a read-only transaction, which is what sends it to a replica when there are any
+    @Transactional(readOnly = true)
     @Override
     public Optional<Vehicle> findById(VehicleId id) {
         return jpa.findById(id.value()).map(VehicleMapper::toDomain);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<VehicleVersion> findVersionById(VehicleId id) {
+        return jpa.findVersionById(id.value());
+    }
+
+    @Transactional(readOnly = true)
     @Override
     public Optional<Vehicle> findByVin(Vin vin) {
         return jpa.findByVin(vin.value()).map(VehicleMapper::toDomain);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public Optional<Vehicle> findByRegistrationNumber(String registrationNumber) {
         return jpa.findByRegistrationNumberIgnoreCase(registrationNumber).map(VehicleMapper::toDomain);
     }
 
+    /**
+     * One query per {@value #LOOKUP_CHUNK} keys: {@code id in (..) or vin in (..) or
+     * upper(registration_number) in (..)}, which Postgres answers with one index scan per
+     * kind of key (a bitmap OR), reading projections like {@link #search}.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public List<Vehicle> findAll(List<VehicleKey> keys) {
+        var found = new LinkedHashMap<Long, Vehicle>(); // a vehicle named twice (say by id and VIN) is returned once
+        for (int from = 0; from < keys.size(); from += LOOKUP_CHUNK) {
+            var chunk = keys.subList(from, Math.min(keys.size(), from + LOOKUP_CHUNK));
+            for (var v : rows(anyKey(chunk), Sort.unsorted()).getResultList()) found.putIfAbsent(v.id().value(), v);
+        }
+        return List.copyOf(found.values());
+    }
+
+    @Transactional(readOnly = true)
     @Override
-    public List<Vehicle> search(String make, String model, Integer year,
-                                VehicleType type, FuelType fuelType,
-                                String vin, String registrationNumber) {
-        if (vin != null && !vin.isBlank()) {
-            return jpa.findByVin(vin)
+    public VehiclePage search(VehicleFilter filter, VehicleSort sort, VehicleCursor after, int limit) {
+        if (filter.hasVin()) {
+            return jpa.findByVin(filter.vin())
                     .map(VehicleMapper::toDomain)
-                    .map(List::of)
-                    .orElse(List.of()); // return empty list instead of blowing up
+                    .map(v -> new VehiclePage(List.of(v), null))
+                    .orElse(VehiclePage.empty()); // return empty page instead of blowing up
         }
-        if (registrationNumber != null && !registrationNumber.isBlank()) {
-            return jpa.findByRegistrationNumberIgnoreCase(registrationNumber)
+        if (filter.hasRegistrationNumber()) {
+            return jpa.findByRegistrationNumberIgnoreCase(filter.registrationNumber())
                     .map(VehicleMapper::toDomain)
-                    .map(List::of)
-                    .orElse(List.of());
+                    .map(v -> new VehiclePage(List.of(v), null))
+                    .orElse(VehiclePage.empty());
         }
+        if (filter.hasText()) return textSearch(filter, sort, after, limit);
 
-        Specification<VehicleEntity> spec = andAll(
-                likeIgnoreCaseIfPresent("make", make),
-                likeIgnoreCaseIfPresent("model", model),
-                equalsIfPresent("modelYear", year),
-                equalsIfPresent("type", type == null ? null : type.name()),
-                equalsIfPresent("fuelType", fuelType == null ? null : fuelType.name())
-        );
-        return jpa.findAll(spec).stream().map(VehicleMapper::toDomain).toList();
+        Specification<VehicleEntity> spec = andAll(filterSpec(filter), keysetAfter(sort, after));
+        // fetch one extra row to learn whether a next page exists, without a count query
+        var rows = rows(spec, orderOf(sort)).setMaxResults(limit + 1).getResultList();
+        return VehiclePage.of(rows, limit, sort);
+    }
+
+    /**
+     * The criteria API can't express a tsvector match, so a free-text search runs
+     * {@link VehicleSearchSql} through JDBC: a GIN lookup on the V14 column, ordered by rank (or by the
+     * requested sort key) and cut at {@code limit + 1} rows.
+     */
+    private VehiclePage textSearch(VehicleFilter filter, VehicleSort sort, VehicleCursor after, int limit) {
+        var sql = VehicleSearchSql.selectSql(filter, sort, after, limit + 1);
+        var binds = new MapSqlParameterSource(sql.binds());
+        if (sort == VehicleSort.RELEVANCE) {
+            var rows = jdbc.query(sql.text(), binds,
+                    (rs, n) -> new VehicleSearchSql.Ranked(VehicleMapper.fromResultSet(rs), rs.getFloat("rank")));
+            return VehicleSearchSql.rankedPage(rows, limit);
+        }
+        return VehiclePage.of(jdbc.query(sql.text(), binds, (rs, n) -> VehicleMapper.fromResultSet(rs)), limit, sort);
+    }
+
+    /**
+     * Streams every matching row through a forward-only cursor that holds at most
+     * {@code vehicles.export.fetch-size} rows in memory. Rows are projections, so the
+     * persistence context never sees them.
+     * Output order is unspecified (lets Postgres pick a sequential scan).
+     */
+    @Transactional(readOnly = true) // Postgres only streams with a cursor inside a transaction
+    @Override
+    public void exportAll(VehicleFilter filter, Consumer<? super Vehicle> sink) {
+        if (filter.hasVin() || filter.hasRegistrationNumber()) {
+            search(filter, VehicleSort.ID, null, 1).items().forEach(sink);
+            return;
+        }
+        try (var rows = rows(filterSpec(filter), Sort.unsorted())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+                .getResultStream()) {
+            rows.forEach(sink);
+        }
+    }
+
+    /**
+     * Selects {@link VehicleMapper#ROW} and turns each row into a {@link Vehicle} as it is
+     * read: nothing is hydrated into an entity, registered in the persistence context or
+     * snapshotted for dirty checking, which search results (read-only) never need.
+     */
+    private org.hibernate.query.Query<Vehicle> rows(Specification<VehicleEntity> spec, Sort sort) {
+        var cb = em.getCriteriaBuilder();
+        var cq = cb.createQuery(Object[].class);
+        var root = cq.from(VehicleEntity.class);
+        cq.multiselect(VehicleMapper.ROW.stream().<Selection<?>>map(root::get).toList());
+        var predicate = spec.toPredicate(root, cq, cb);
+        if (predicate != null) cq.where(predicate);
+        if (sort.isSorted()) cq.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        @SuppressWarnings("unchecked")
+        org.hibernate.query.Query<Object[]> query = em.createQuery(cq).unwrap(org.hibernate.query.Query.class);
+        return query.setTupleTransformer((row, aliases) -> VehicleMapper.fromRow(row));
+    }
+
+    /**
+     * Unfiltered counts come from the {@code vehicle_facet_counts} summary table (a few
+     * hundred rows) when it is enabled, so dashboards never touch {@code vehicles}.
+     * Filtered counts are one {@code group by} per facet over the same predicates as
+     * {@link #search}, so they use the same indexes.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public VehicleFacets facets(VehicleFilter filter) {
+        if (facetSummaryTable && filter.isEmpty()) return summaryFacets();
+
+        var spec = andAll(filterSpec(filter),
+                equalsIfPresent("vin", filter.hasVin() ? filter.vin().trim().toUpperCase(Locale.ROOT) : null),
+                textMatchIfPresent("registrationNumber", filter.registrationNumber(), TextMatch.EXACT));
+        var makes = countBy("make", spec, String::valueOf);
+        return new VehicleFacets(
+                makes.values().stream().mapToLong(Long::longValue).sum(), // make is never null
+                countBy("type", spec, v -> VehicleType.valueOf((String) v)),
+                countBy("fuelType", spec, v -> FuelType.valueOf((String) v)),
+                makes,
+                countBy("modelYear", spec, v -> (Integer) v));
+    }
+
+    private <K> Map<K, Long> countBy(String field, Specification<VehicleEntity> spec, Function<Object, K> key) {
+        var cb = em.getCriteriaBuilder();
+        var cq = cb.createTupleQuery();
+        var root = cq.from(VehicleEntity.class);
+        var predicate = spec.toPredicate(root, cq, cb);
+        if (predicate != null) cq.where(predicate);
+        cq.multiselect(root.get(field), cb.count(root)).groupBy(root.get(field));
+
+        var counts = new HashMap<K, Long>();
+        for (var row : em.createQuery(cq).getResultList()) {
+            if (row.get(0) != null) counts.put(key.apply(row.get(0)), row.get(1, Long.class));
+        }
+        return counts;
+    }
+
+    private VehicleFacets summaryFacets() {
+        var types = new HashMap<VehicleType, Long>();
+        var fuelTypes = new HashMap<FuelType, Long>();
+        var makes = new HashMap<String, Long>();
+        var modelYears = new HashMap<Integer, Long>();
+        long total = 0;
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery(FACET_SUMMARY_SQL).getResultList();
+        for (var row : rows) {
+            var value = (String) row[1];
+            long count = ((Number) row[2]).longValue();
+            switch ((String) row[0]) {
+                case "type" -> types.put(VehicleType.valueOf(value), count);
+                case "fuel_type" -> fuelTypes.put(FuelType.valueOf(value), count);
+                case "make" -> { makes.put(value, count); total += count; }
+                case "model_year" -> modelYears.put(Integer.valueOf(value), count);
+                default -> { } // facets added by later migrations
+            }
+        }
+        return new VehicleFacets(total, types, fuelTypes, makes, modelYears);
+    }
+
+    /**
+     * Loose index scan over {@code lower(field)}: each step is one seek for the next
+     * distinct value, so the cost is O(limit) index probes however many rows share
+     * a value. The original spelling is one more probe per suggestion: the first entry
+     * of the value's range in the V16 {@code (lower(field), field)} index.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public List<String> suggest(VehicleTextField field, String prefix, int limit) {
+        var column = switch (field) {
+            case MAKE -> "make";
+            case MODEL -> "model";
+        };
+        var sql = SUGGEST_SQL.replace("{col}", column);
+        var needle = prefix.toLowerCase(Locale.ROOT);
+        @SuppressWarnings("unchecked")
+        List<Object> rows = em.createNativeQuery(sql)
+                .setParameter("prefix", needle)
+                .setParameter("pattern", VehicleSearchSql.escapeLike(needle) + "%")
+                .setParameter("limit", limit)
+                .getResultList();
+        return rows.stream().map(String::valueOf).toList();
+    }
+
+    /**
+     * Two reads whatever the page size: the log rows after {@code since}, then the
+     * current state of the vehicles they name. A vehicle that is gone by the second
+     * read is reported as deleted; its tombstone follows in a later page anyway.
+     */
+    // Not read-only, so never on a replica: the cut-off must be the primary's oldest running write.
+    @Transactional
+    @Override
+    public List<VehicleChange> changesSince(long since, int limit) {
+        var entries = changes.since(since, limit);
+        var live = entries.stream().filter(e -> !e.deleted()).map(VehicleChangeLog.Entry::vehicleId).toList();
+        var current = new HashMap<Long, Vehicle>(live.size() * 2);
+        if (!live.isEmpty()) {
+            Specification<VehicleEntity> named = (root, query, cb) -> root.get("id").in(live);
+            for (var v : rows(named, Sort.unsorted()).getResultList()) current.put(v.id().value(), v);
+        }
+
+        var result = new ArrayList<VehicleChange>(entries.size());
+        for (var e : entries) {
+            var vehicle = e.deleted() ? null : current.get(e.vehicleId());
+            result.add(vehicle == null
+                    ? VehicleChange.deletion(e.seq(), new VehicleId(e.vehicleId()))
+                    : VehicleChange.upsert(e.seq(), vehicle));
+        }
+        return result;
     }
 
     @Transactional
@@ -74,36 +335,169 @@ public class VehicleRepositoryJpaAdapter implements VehicleRepository {
                 fuelType.name(), color, registrationNumber
         );
         var saved = jpa.save(entity);
-        return VehicleMapper.toDomain(saved);
+        var created = VehicleMapper.toDomain(saved);
+        changes.record(List.of(saved.getId()), false);
+        outbox.append(List.of(VehicleOutbox.Entry.created(created)));
+        return created;
+    }
+
+    // Not @Transactional: the upserter runs its own transaction(s) so it can isolate bad items
+    @Override
+    public List<VehicleUpsertResult> upsertAll(List<VehicleDraft> drafts) {
+        return batch.upsertAll(drafts);
     }
 
+    /**
+     * A single {@code UPDATE} that also hands back the new version (pgjdbc appends
+     * {@code RETURNING version}), so a PUT is one round trip with no read before it.
+     * Zero rows means no such id, unless the caller named a version: only on that
+     * failure path does one more lookup tell a missing vehicle from a concurrent write.
+     */
     @Transactional
     @Override
-    public Vehicle update(VehicleId id, Vin vin, VehicleType type, String make, String model, Integer year,
-                          FuelType fuelType, String color, String registrationNumber) {
-        var e = jpa.findById(id.value()).orElseThrow(); // service ensures 404 semantics already
-        e.setVin(vin.value());
-        e.setType(type.name());
-        e.setMake(make);
-        e.setModel(model);
-        e.setModelYear(year);
-        e.setFuelType(fuelType.name());
-        e.setColor(color);
-        e.setRegistrationNumber(registrationNumber);
-        return VehicleMapper.toDomain(jpa.save(e));
+    public Optional<Vehicle> update(VehicleId id, Long expectedVersion, Vin vin, VehicleType type, String make,
+                                    String model, Integer year, FuelType fuelType, String color,
+                                    String registrationNumber) {
+        var now = Instant.now().truncatedTo(ChronoUnit.MICROS); // what the column keeps
+        var params = new MapSqlParameterSource()
+                .addValue("id", id.value())
+                .addValue("version", expectedVersion)
+                .addValue("vin", vin.value())
+                .addValue("type", type.name())
+                .addValue("make", make)
+                .addValue("model", model)
+                .addValue("year", year)
+                .addValue("fuelType", fuelType.name())
+                .addValue("color", color)
+                .addValue("registrationNumber", registrationNumber)
+                .addValue("updatedAt", Timestamp.from(now));
+        var keys = new GeneratedKeyHolder();
+        int rows = write(() -> jdbc.update(atVersion(UPDATE_SQL, expectedVersion), params, keys, new String[] { "version" }));
+        if (rows == 0) {
+            requireNoConflict(id, expectedVersion);
+            return Optional.empty();
+        }
+        var updated = new Vehicle(id, vin, type, make, model, year, fuelType, color, registrationNumber,
+                keys.getKeyAs(Number.class).longValue(), now);
+        changes.record(List.of(id.value()), false);
+        outbox.append(List.of(VehicleOutbox.Entry.updated(updated)));
+        return Optional.of(updated);
     }
 
+    /** Single {@code DELETE}; same row-count semantics as {@link #update}. */
     @Transactional
     @Override
-    public void delete(VehicleId id) {
-        jpa.deleteById(id.value());
+    public boolean delete(VehicleId id, Long expectedVersion) {
+        var params = new MapSqlParameterSource().addValue("id", id.value()).addValue("version", expectedVersion);
+        int rows = write(() -> jdbc.update(atVersion(DELETE_SQL, expectedVersion), params));
+        if (rows == 0) {
+            requireNoConflict(id, expectedVersion);
+            return false;
+        }
+        changes.record(List.of(id.value()), true);
+        outbox.append(List.of(VehicleOutbox.Entry.deleted(id)));
+        return true;
+    }
+
+    /** Plain SQL next to JPA: flush pending changes first, then drop what the statement made stale. */
+    private int write(IntSupplier statement) {
+        em.flush();
+        try {
+            return statement.getAsInt();
+        } finally {
+            em.clear();
+        }
     }
 
-    // --- spec helpers (unchanged) ---
-    static Specification<VehicleEntity> likeIgnoreCaseIfPresent(String field, String value) {
+    private static String atVersion(String sql, Long expectedVersion) {
+        return expectedVersion == null ? sql : sql + AT_VERSION;
+    }
+
+    private void requireNoConflict(VehicleId id, Long expectedVersion) {
+        if (expectedVersion != null && jpa.existsById(id.value())) {
+            throw new VehicleVersionConflictException(id, expectedVersion);
+        }
+    }
+
+    static Specification<VehicleEntity> filterSpec(VehicleFilter filter) {
+        return andAll(
+                textMatchIfPresent("make", filter.make(), filter.match()),
+                textMatchIfPresent("model", filter.model(), filter.match()),
+                equalsIfPresent("modelYear", filter.year()),
+                equalsIfPresent("type", filter.type() == null ? null : filter.type().name()),
+                equalsIfPresent("fuelType", filter.fuelType() == null ? null : filter.fuelType().name())
+        );
+    }
+
+    static Specification<VehicleEntity> anyKey(List<VehicleKey> keys) {
+        var ids = new ArrayList<Long>();
+        var vins = new ArrayList<String>();
+        var plates = new ArrayList<String>();
+        for (var key : keys) {
+            if (key.id() != null) ids.add(key.id().value());
+            else if (key.vin() != null) vins.add(key.vin().value());
+            else plates.add(key.registrationNumber()); // already upper-case
+        }
+        return (root, query, cb) -> {
+            var any = new ArrayList<Predicate>(3);
+            if (!ids.isEmpty()) any.add(root.get("id").in(ids));
+            if (!vins.isEmpty()) any.add(root.get("vin").in(vins));
+            if (!plates.isEmpty()) any.add(cb.upper(root.get("registrationNumber")).in(plates));
+            return cb.or(any.toArray(Predicate[]::new));
+        };
+    }
+
+    // --- keyset helpers ---
+    static String sortField(VehicleSort sort) {
+        return switch (sort) {
+            case ID -> "id";
+            case MODEL_YEAR -> "modelYear";
+            case MAKE -> "make";
+            case RELEVANCE -> throw new IllegalArgumentException("RELEVANCE orders free-text searches only");
+        };
+    }
+
+    static Sort orderOf(VehicleSort sort) {
+        return sort == VehicleSort.ID
+                ? Sort.by("id")
+                : Sort.by(sortField(sort)).and(Sort.by("id"));
+    }
+
+    /**
+     * Seek predicate {@code (sortKey, id) > (:value, :lastId)}. Rendered as a row-value
+     * comparison so the {@code (sortKey, id)} index range starts right at the cursor
+     * instead of filtering every row before it.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Specification<VehicleEntity> keysetAfter(VehicleSort sort, VehicleCursor after) {
+        if (after == null) return null;
+        if (sort == VehicleSort.ID) return (root, query, cb) -> cb.greaterThan(root.get("id"), after.lastId());
+        final Object value = sort == VehicleSort.MODEL_YEAR ? Integer.valueOf(after.sortValue()) : after.sortValue();
+        return (root, query, cb) -> {
+            var nb = (NodeBuilder) cb;
+            Expression key = new SqmTuple<>(nb,
+                    (SqmExpression<?>) root.get(sortField(sort)), (SqmExpression<?>) root.get("id"));
+            Expression seek = new SqmTuple<>(nb,
+                    (SqmExpression<?>) nb.literal(value), (SqmExpression<?>) nb.literal(after.lastId()));
+            return cb.greaterThan(key, seek);
+        };
+    }
+
+    // --- spec helpers ---
+
+    /**
+     * Case-insensitive comparison on {@code lower(field)}, which is what the
+     * {@code lower(make)}/{@code lower(model)} btree (EXACT) and trigram (PREFIX,
+     * CONTAINS) indexes of V5 are built on.
+     */
+    static Specification<VehicleEntity> textMatchIfPresent(String field, String value, TextMatch match) {
         if (value == null || value.isBlank()) return null;
-        final String needle = value.toLowerCase(Locale.ROOT);
-        return (root, query, cb) -> cb.equal(cb.lower(root.get(field)), needle);
+        final String needle = value.trim().toLowerCase(Locale.ROOT);
+        return switch (match) {
+            case EXACT -> (root, query, cb) -> cb.equal(cb.lower(root.get(field)), needle);
+            case PREFIX -> (root, query, cb) -> cb.like(cb.lower(root.get(field)), VehicleSearchSql.escapeLike(needle) + "%", LIKE_ESCAPE);
+            case CONTAINS -> (root, query, cb) -> cb.like(cb.lower(root.get(field)), "%" + VehicleSearchSql.escapeLike(needle) + "%", LIKE_ESCAPE);
+        };
     }
 
     static <T> Specification<VehicleEntity> equalsIfPresent(String field, T value) {
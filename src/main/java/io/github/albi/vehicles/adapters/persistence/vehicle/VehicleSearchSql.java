@@ -0,0 +1,191 @@
+package io.github.albi.vehicles.adapters.persistence.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Search SQL shared by {@link VehicleR2dbcReader} and the free-text path of
+ * {@link VehicleRepositoryJpaAdapter}: the same shapes as the JPA adapter's criteria
+ * queries (so the same V4–V6 indexes serve them), with named parameters either
+ * driver can bind, plus the paging of {@link VehicleSort#RELEVANCE} results.
+ */
+final class VehicleSearchSql {
+
+    static final String COLUMNS = "id, vin, type, make, model, model_year, fuel_type, color, "
+            + "registration_number, version, updated_at";
+
+    static final char LIKE_ESCAPE = '\\';
+
+    // V14: q is parsed once per statement, in the from clause, and matched against the generated column
+    private static final String TEXT_QUERY = "websearch_to_tsquery('simple', :q) query";
+    private static final String TEXT_MATCH = "search_vector @@ query";
+    private static final String RANK = "ts_rank(search_vector, query)";
+
+    /**
+     * How many matches a {@link VehicleSort#RELEVANCE} search ranks: the first ones by id.
+     * Ranking reads every row it ranks, so a word shared by tens of thousands of vehicles
+     * would otherwise cost most of a second per page; bounded, it costs tens of
+     * milliseconds. Queries with fewer matches are ranked exactly.
+     */
+    static final int MAX_RANKED = 1_000;
+
+    private VehicleSearchSql() {}
+
+    record Sql(String text, Map<String, Object> binds) {}
+
+    /** A row of a {@link VehicleSort#RELEVANCE} search, with the rank it was ordered by. */
+    record Ranked(Vehicle vehicle, float rank) {}
+
+    /** Whether {@link #selectSql} selects a {@code rank}: a free-text query that no unique key overrides. */
+    static boolean isRanked(VehicleFilter filter) {
+        return filter.hasText() && !filter.hasVin() && !filter.hasRegistrationNumber();
+    }
+
+    /** {@link VehiclePage#of} for ranked rows: the cursor carries the last rank, which no vehicle field holds. */
+    static VehiclePage rankedPage(List<Ranked> fetched, int limit) {
+        var vehicles = fetched.stream().map(Ranked::vehicle).toList();
+        if (fetched.size() <= limit) return new VehiclePage(vehicles, null);
+        var last = fetched.get(limit - 1);
+        return new VehiclePage(vehicles.subList(0, limit), new VehicleCursor(VehicleSort.RELEVANCE,
+                Float.toString(last.rank()), last.vehicle().id().value()));
+    }
+
+    /**
+     * Renders {@code filterSpec}/{@code keysetAfter}/{@code orderOf} of the JPA adapter as
+     * SQL. A null {@code sort} means unordered (export); {@code limit} 0 means no limit.
+     * {@code vin}/{@code registrationNumber} are unique lookups and ignore everything else.
+     * A free-text query (which the criteria API can't express) is a GIN match on the V14
+     * column; ordered by relevance, it ranks the first {@link #MAX_RANKED} matches by id
+     * and pages through those.
+     */
+    static Sql selectSql(VehicleFilter filter, VehicleSort sort, VehicleCursor after, int limit) {
+        var where = new ArrayList<String>();
+        var binds = new LinkedHashMap<String, Object>();
+        if (filter.hasVin()) {
+            where.add("vin = :vin");
+            binds.put("vin", filter.vin());
+        } else if (filter.hasRegistrationNumber()) {
+            where.add("upper(registration_number) = upper(:registrationNumber)");
+            binds.put("registrationNumber", filter.registrationNumber());
+        } else {
+            if (filter.hasText()) {
+                where.add(TEXT_MATCH);
+                binds.put("q", filter.text().trim());
+            }
+            textMatch(where, binds, "make", filter.make(), filter.match());
+            textMatch(where, binds, "model", filter.model(), filter.match());
+            equalsIfPresent(where, binds, "model_year", "year", filter.year());
+            equalsIfPresent(where, binds, "type", "type", filter.type() == null ? null : filter.type().name());
+            equalsIfPresent(where, binds, "fuel_type", "fuelType", filter.fuelType() == null ? null : filter.fuelType().name());
+            if (after != null) {
+                binds.put("lastId", after.lastId());
+                if (sort == VehicleSort.ID) {
+                    where.add("id > :lastId");
+                } else if (sort == VehicleSort.RELEVANCE) {
+                    binds.put("sortValue", Float.valueOf(after.sortValue())); // applied to the ranked rows below
+                } else {
+                    // row-value seek, so the (sort key, id) index range starts at the cursor
+                    where.add("(" + sortColumn(sort) + ", id) > (:sortValue, :lastId)");
+                    binds.put("sortValue", sort == VehicleSort.MODEL_YEAR
+                            ? Integer.valueOf(after.sortValue()) : after.sortValue());
+                }
+            }
+        }
+
+        if (sort == VehicleSort.RELEVANCE && isRanked(filter)) return rankedSql(where, binds, after, limit);
+        var sql = new StringBuilder("select ").append(COLUMNS).append(" from vehicles");
+        if (binds.containsKey("q")) sql.append(", ").append(TEXT_QUERY);
+        if (!where.isEmpty()) sql.append(" where ").append(String.join(" and ", where));
+        if (sort != null) {
+            sql.append(" order by ").append(sort == VehicleSort.ID || sort == VehicleSort.RELEVANCE
+                    ? "id" : sortColumn(sort) + ", id");
+        }
+        if (limit > 0) {
+            sql.append(" limit :limit");
+            binds.put("limit", limit);
+        }
+        return new Sql(sql.toString(), binds);
+    }
+
+    /**
+     * The candidates depend on the filters alone, so every page ranks the same rows; the
+     * cursor then seeks within them: a lower rank, or the same rank and a higher id.
+     *
+     * <p>Two branches, of which a count of at most {@code MAX_RANKED + 1} matches enables
+     * one. With few matches the GIN index finds them all. With many, the primary key is
+     * walked until the first {@code MAX_RANKED} turn up, which is quick precisely because
+     * they are common. A single query can't pick: Postgres has no statistics for rare words
+     * (plates, typos), overestimates them, and would walk the whole table looking for one.
+     * The second branch is filtered outside its limit, so when it is off its (parallel)
+     * walk never starts.</p>
+     */
+    private static Sql rankedSql(List<String> where, Map<String, Object> binds, VehicleCursor after, int limit) {
+        var matches = " from vehicles, " + TEXT_QUERY + " where " + String.join(" and ", where);
+        var candidates = "select " + COLUMNS + ", " + RANK + " as rank" + matches;
+        var sql = new StringBuilder("with probe as (select count(*) as matches from (select 1").append(matches)
+                .append(" limit :maxRanked + 1) p) select * from (")
+                .append(candidates).append(" and (select matches from probe) <= :maxRanked union all select * from (")
+                .append(candidates).append(" order by id limit :maxRanked) first where (select matches from probe) > :maxRanked")
+                .append(") ranked");
+        binds.put("maxRanked", MAX_RANKED);
+        if (after != null) sql.append(" where (rank < :sortValue or (rank = :sortValue and id > :lastId))");
+        sql.append(" order by rank desc, id");
+        if (limit > 0) {
+            sql.append(" limit :limit");
+            binds.put("limit", limit);
+        }
+        return new Sql(sql.toString(), binds);
+    }
+
+    static String escapeLike(String s) {
+        var sb = new StringBuilder(s.length() + 4);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') sb.append(LIKE_ESCAPE);
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static String sortColumn(VehicleSort sort) {
+        return switch (sort) {
+            case ID -> "id";
+            case MODEL_YEAR -> "model_year";
+            case MAKE -> "make";
+            case RELEVANCE -> "rank";
+        };
+    }
+
+    // lower(column) so the V5 btree (EXACT) and trigram (PREFIX, CONTAINS) indexes apply
+    private static void textMatch(List<String> where, Map<String, Object> binds, String column, String value,
+                                  TextMatch match) {
+        if (value == null || value.isBlank()) return;
+        var needle = value.trim().toLowerCase(Locale.ROOT);
+        switch (match) {
+            case EXACT -> {
+                where.add("lower(" + column + ") = :" + column);
+                binds.put(column, needle);
+            }
+            case PREFIX -> {
+                where.add("lower(" + column + ") like :" + column + " escape '\\'");
+                binds.put(column, escapeLike(needle) + "%");
+            }
+            case CONTAINS -> {
+                where.add("lower(" + column + ") like :" + column + " escape '\\'");
+                binds.put(column, "%" + escapeLike(needle) + "%");
+            }
+        }
+    }
+
+    private static void equalsIfPresent(List<String> where, Map<String, Object> binds, String column, String name,
+                                        Object value) {
+        if (value == null) return;
+        where.add(column + " = :" + name);
+        binds.put(name, value);
+    }
+}
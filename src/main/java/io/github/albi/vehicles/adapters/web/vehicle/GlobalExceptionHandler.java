@@ -1,14 +1,20 @@
 package io.github.albi.vehicles.adapters.web.vehicle;
 
 import io.github.albi.vehicles.domain.vehicle.VehicleNotFoundException;
+import io.github.albi.vehicles.domain.vehicle.VehicleVersionConflictException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import jakarta.validation.ConstraintViolationException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import java.sql.SQLTransientConnectionException;
 import java.util.*;
 
 @RestControllerAdvice
@@ -21,6 +27,13 @@ class GlobalExceptionHandler {
                 .body(ErrorResponse.of("NOT_FOUND", ex.getMessage()));
     }
 
+    // --- 412: If-Match names a version that is no longer current ---
+    @ExceptionHandler(VehicleVersionConflictException.class)
+    ResponseEntity<ErrorResponse> handleVersionConflict(VehicleVersionConflictException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(ErrorResponse.of("PRECONDITION_FAILED", ex.getMessage()));
+    }
+
     // --- 400: @Valid body errors ---
     @ExceptionHandler(MethodArgumentNotValidException.class)
     ResponseEntity<ErrorResponse> handleBodyValidation(MethodArgumentNotValidException ex) {
@@ -75,6 +88,13 @@ class GlobalExceptionHandler {
                         List.of(new FieldError(field, msg))));
     }
 
+    // --- 400: domain/argument rules (bad VIN, bad cursor, conflicting filters) ---
+    @ExceptionHandler(IllegalArgumentException.class)
+    ResponseEntity<ErrorResponse> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest()
+                .body(ErrorResponse.of("INVALID_ARGUMENT", ex.getMessage()));
+    }
+
     // --- 409: database uniqueness / FK issues etc. with field mapping ---
     @ExceptionHandler(DataIntegrityViolationException.class)
     ResponseEntity<ErrorResponse> handleConflict(DataIntegrityViolationException ex) {
@@ -107,6 +127,22 @@ class GlobalExceptionHandler {
     }
 
 
+    // --- 503: no database connection within the pool / JDBC permit / R2DBC acquire timeout ---
+    @ExceptionHandler({ DataAccessResourceFailureException.class, CannotCreateTransactionException.class })
+    ResponseEntity<ErrorResponse> handleNoConnection(Exception ex) {
+        if (!isConnectionTimeout(ex)) return handleUnknown(ex);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ErrorResponse.of("UNAVAILABLE", "Too many concurrent requests, retry shortly"));
+    }
+
+    // --- 503: a bounded resource of this node (parked change polls, running exports) is full ---
+    @ExceptionHandler(ServerBusyException.class)
+    ResponseEntity<ErrorResponse> handleBusy(ServerBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ErrorResponse.of("UNAVAILABLE", ex.getMessage()));
+    }
 
     // --- 500: fallback ---
     @ExceptionHandler(Exception.class)
@@ -131,6 +167,13 @@ class GlobalExceptionHandler {
         return cur;
     }
 
+    private static boolean isConnectionTimeout(Throwable t) {
+        for (Throwable cur = t; cur != null; cur = cur.getCause() == cur ? null : cur.getCause()) {
+            if (cur instanceof SQLTransientConnectionException || cur instanceof R2dbcTimeoutException) return true;
+        }
+        return false;
+    }
+
     private static String safe(String s) { return s == null ? "" : s; }
 
     /** Map known constraint names -> field */
@@ -0,0 +1,95 @@
+package io.github.albi.vehicles.adapters.web.vehicle;
+
+import io.github.albi.vehicles.adapters.web.vehicle.dto.VehicleResponse;
+import io.github.albi.vehicles.application.vehicle.ReactiveVehicleService;
+import io.github.albi.vehicles.domain.vehicle.*;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import reactor.adapter.JdkFlowAdapter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking variants of the {@link VehicleController} reads, for callers that fan
+ * out many requests at once. Each handler returns as soon as the query is sent; the
+ * request thread goes back to Tomcat and the response is written when the database
+ * answers, so open requests no longer each hold a thread. Same parameters, headers
+ * and errors as under {@code /vehicles}; writes stay there.
+ */
+@Tag(name = "Vehicles (non-blocking reads)")
+@RestController
+@RequestMapping("/reactive/vehicles")
+public class ReactiveVehicleController {
+    private final ReactiveVehicleService service;
+
+    public ReactiveVehicleController(ReactiveVehicleService service) {
+        this.service = service;
+    }
+
+    @Operation(summary = "Get vehicle by id",
+            description = "Sends `ETag` and `Last-Modified`; a matching `If-None-Match` / `If-Modified-Since` gets a 304.")
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<VehicleResponse>> get(@PathVariable long id) {
+        var vehicleId = new VehicleId(id);
+        return Mono.fromCompletionStage(() -> service.getById(vehicleId))
+                .map(v -> VehicleController.withValidators(ResponseEntity.ok(), v).body(VehicleController.toResponse(v)));
+    }
+
+    @Operation(summary = "Search vehicles",
+            description = "Keyset-paginated. Follow the `Link: <...>; rel=\"next\"` header for the next page. "
+                    + "`q` is free text over make, model, colour and plate (`red tesla \"model 3\"`, `or`, `-word`); "
+                    + "its matches come best first unless `sort` says otherwise.")
+    @GetMapping
+    public Mono<ResponseEntity<List<VehicleResponse>>> search(
+            @RequestParam(required = false) String make,
+            @RequestParam(required = false) String model,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) VehicleType type,
+            @RequestParam(required = false) FuelType fuelType,
+            @RequestParam(required = false) String vin,
+            @RequestParam(required = false, name = "registrationNumber") String regNo,
+            @RequestParam(required = false) TextMatch match,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) VehicleSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        var filter = VehicleController.filter(make, model, year, type, fuelType, vin, regNo, match, q);
+        var after = (cursor == null || cursor.isBlank()) ? null : VehicleCursor.decode(cursor);
+        // the page completes off the request thread, where the current request is no longer bound
+        var self = ServletUriComponentsBuilder.fromCurrentRequest();
+        var page = service.search(filter, sort, after, limit);
+        return Mono.fromCompletionStage(page).map(p -> {
+            var response = ResponseEntity.ok().eTag(VehicleController.etag(p.items()));
+            var body = p.items().stream().map(VehicleController::toResponse).toList();
+            if (!p.hasNext()) return response.body(body);
+            var next = self.replaceQueryParam("cursor", p.next().encode()).build().toUriString();
+            return response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"").body(body);
+        });
+    }
+
+    @Operation(summary = "Export vehicles as NDJSON",
+            description = "Streams every vehicle matching the search filters, one JSON object per line. "
+                    + "Rows are read from the database only as fast as the client takes them.")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<VehicleResponse> export(
+            @RequestParam(required = false) String make,
+            @RequestParam(required = false) String model,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) VehicleType type,
+            @RequestParam(required = false) FuelType fuelType,
+            @RequestParam(required = false) String vin,
+            @RequestParam(required = false, name = "registrationNumber") String regNo,
+            @RequestParam(required = false) TextMatch match
+    ) {
+        var filter = VehicleController.filter(make, model, year, type, fuelType, vin, regNo, match);
+        return JdkFlowAdapter.flowPublisherToFlux(service.export(filter)).map(VehicleController::toResponse);
+    }
+}
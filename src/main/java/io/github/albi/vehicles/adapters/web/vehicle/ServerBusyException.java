@@ -0,0 +1,8 @@
+package io.github.albi.vehicles.adapters.web.vehicle;
+
+/** A request this node has no room for right now; answered 503 with {@code Retry-After}. */
+class ServerBusyException extends RuntimeException {
+    ServerBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,170 @@
+package io.github.albi.vehicles.adapters.web.vehicle;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.albi.vehicles.adapters.web.vehicle.dto.VehicleBatchGetItemResult;
+import io.github.albi.vehicles.adapters.web.vehicle.dto.VehicleBatchGetResponse;
+import io.github.albi.vehicles.adapters.web.vehicle.dto.VehicleBatchItemResult;
+import io.github.albi.vehicles.adapters.web.vehicle.dto.VehicleBatchResponse;
+import io.github.albi.vehicles.adapters.web.vehicle.dto.VehicleKeyRequest;
+import io.github.albi.vehicles.adapters.web.vehicle.dto.VehicleRequest;
+import io.github.albi.vehicles.application.vehicle.VehicleService;
+import io.github.albi.vehicles.domain.vehicle.VehicleDraft;
+import io.github.albi.vehicles.domain.vehicle.VehicleId;
+import io.github.albi.vehicles.domain.vehicle.VehicleKey;
+import io.github.albi.vehicles.domain.vehicle.Vin;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk endpoints. Kept apart from {@link VehicleController} because their
+ * {@code /vehicles:verb} paths cannot hang off its {@code /vehicles} prefix.
+ */
+@Tag(name = "Vehicles")
+@RestController
+public class VehicleBatchController {
+    private final VehicleService service;
+    private final ObjectMapper mapper;
+    private final Validator validator;
+    private final int batchSize;
+    private final int maxItems;
+    private final int maxGetKeys;
+
+    public VehicleBatchController(VehicleService service, ObjectMapper mapper, Validator validator,
+                                  @Value("${vehicles.batch.size:500}") int batchSize,
+                                  @Value("${vehicles.batch.max-items:100000}") int maxItems,
+                                  @Value("${vehicles.batch.max-get-keys:1000}") int maxGetKeys) {
+        this.service = service;
+        this.mapper = mapper;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.maxItems = maxItems;
+        this.maxGetKeys = maxGetKeys;
+    }
+
+    @Operation(summary = "Bulk create/update vehicles by VIN",
+            description = "Accepts a JSON array or NDJSON. Items are validated like POST /vehicles and written "
+                    + "in batches of `vehicles.batch.size`; an existing VIN is updated. Returns one result per item. "
+                    + "Batches already written stay written if the body turns out to be malformed further down.")
+    @PostMapping(value = "/vehicles:batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public VehicleBatchResponse upsert(InputStream body) throws IOException {
+        var results = new ArrayList<VehicleBatchItemResult>();
+        var chunk = new ArrayList<VehicleDraft>(batchSize);
+        var chunkIndexes = new ArrayList<Integer>(batchSize);
+
+        // a root-level array is unwrapped, NDJSON is read value by value: items are never all in memory
+        try (var items = mapper.readerFor(VehicleRequest.class).<VehicleRequest>readValues(body)) {
+            for (int index = 0; items.hasNextValue(); index++) {
+                if (index >= maxItems) {
+                    throw new IllegalArgumentException("Batch exceeds " + maxItems + " items");
+                }
+                var req = items.nextValue();
+                var error = violations(req);
+                VehicleDraft draft = null;
+                if (error == null) {
+                    try {
+                        draft = toDraft(req); // Vin rules on top of the bean constraints
+                    } catch (IllegalArgumentException e) {
+                        error = "vin: " + e.getMessage();
+                    }
+                }
+                if (draft == null) {
+                    results.add(new VehicleBatchItemResult(index, "FAILED", null, req == null ? null : req.vin(), error));
+                    continue;
+                }
+                results.add(null); // filled when its chunk is flushed
+                chunk.add(draft);
+                chunkIndexes.add(index);
+                if (chunk.size() == batchSize) flush(chunk, chunkIndexes, results);
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed batch body: " + e.getOriginalMessage());
+        }
+        flush(chunk, chunkIndexes, results);
+        return VehicleBatchResponse.of(results);
+    }
+
+    @Operation(summary = "Get many vehicles by id, VIN or registration number",
+            description = "Accepts a JSON array of keys, each with exactly one of `id`, `vin` or `registrationNumber` "
+                    + "(case-insensitive), at most `vehicles.batch.max-get-keys` of them. Returns one result per key, "
+                    + "in request order: FOUND with the vehicle, NOT_FOUND, or INVALID with the reason. "
+                    + "All keys are looked up together, in one query per 500.")
+    @PostMapping(value = "/vehicles:batchGet", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public VehicleBatchGetResponse batchGet(@RequestBody List<VehicleKeyRequest> keys) {
+        if (keys.size() > maxGetKeys) {
+            throw new IllegalArgumentException("batchGet accepts at most " + maxGetKeys + " keys");
+        }
+        var results = new ArrayList<VehicleBatchGetItemResult>(keys.size());
+        var valid = new ArrayList<VehicleKey>(keys.size());
+        var validIndexes = new ArrayList<Integer>(keys.size());
+        for (int index = 0; index < keys.size(); index++) {
+            try {
+                valid.add(toKey(keys.get(index)));
+                validIndexes.add(index);
+                results.add(null); // filled once all keys are looked up
+            } catch (IllegalArgumentException e) {
+                results.add(new VehicleBatchGetItemResult(index, "INVALID", null, e.getMessage()));
+            }
+        }
+        var found = service.getAll(valid);
+        for (int i = 0; i < valid.size(); i++) {
+            int index = validIndexes.get(i);
+            results.set(index, found.get(i)
+                    .map(v -> new VehicleBatchGetItemResult(index, "FOUND", VehicleController.toResponse(v), null))
+                    .orElseGet(() -> new VehicleBatchGetItemResult(index, "NOT_FOUND", null, null)));
+        }
+        return VehicleBatchGetResponse.of(results);
+    }
+
+    private void flush(List<VehicleDraft> chunk, List<Integer> indexes, List<VehicleBatchItemResult> results) {
+        if (chunk.isEmpty()) return;
+        var outcomes = service.upsertAll(List.copyOf(chunk));
+        for (int i = 0; i < chunk.size(); i++) {
+            var o = outcomes.get(i);
+            results.set(indexes.get(i), new VehicleBatchItemResult(
+                    indexes.get(i), o.outcome().name(),
+                    o.id() == null ? null : o.id().value(),
+                    chunk.get(i).vin().value(), o.error()));
+        }
+        chunk.clear();
+        indexes.clear();
+    }
+
+    /** Same rules as {@code @Valid VehicleRequest}; null when valid. */
+    private String violations(VehicleRequest req) {
+        if (req == null) return "item must be a JSON object";
+        var violations = validator.validate(req);
+        if (violations.isEmpty()) return null;
+        return violations.stream()
+                .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .collect(Collectors.joining("; "));
+    }
+
+    private static VehicleDraft toDraft(VehicleRequest req) {
+        return new VehicleDraft(new Vin(req.vin()), req.type(), req.make(), req.model(), req.modelYear(),
+                req.fuelType(), req.color(), req.registrationNumber());
+    }
+
+    private static VehicleKey toKey(VehicleKeyRequest req) {
+        if (req == null) throw new IllegalArgumentException("key must be a JSON object");
+        return new VehicleKey(
+                req.id() == null ? null : new VehicleId(req.id()),
+                req.vin() == null ? null : new Vin(req.vin()),
+                req.registrationNumber());
+    }
+}
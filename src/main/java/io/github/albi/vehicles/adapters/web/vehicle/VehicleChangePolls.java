@@ -0,0 +1,102 @@
+package io.github.albi.vehicles.adapters.web.vehicle;
+
+import io.github.albi.vehicles.application.vehicle.VehicleService;
+import io.github.albi.vehicles.domain.vehicle.VehicleChange;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Long polls of {@code GET /vehicles/changes?wait=}, parked without a thread. Each one
+ * is a {@link DeferredResult} that a few scheduler threads re-check every
+ * {@code vehicles.changes.poll-interval}, completing it with the first changes seen or,
+ * at its deadline, with none. A blocked thread per poll would tie up MVC's async
+ * executor (8 threads behind an unbounded queue) for up to 30 s each.
+ *
+ * <p>At most {@code vehicles.changes.max-waiting} polls are parked per node; the next one
+ * gets a 503 and retries. With many parked, a round of checks takes longer than the
+ * interval and answers arrive later, but threads and queued work stay bounded.</p>
+ */
+@Component
+public class VehicleChangePolls implements DisposableBean {
+
+    private final ScheduledExecutorService scheduler;
+    private final Duration interval;
+    private final int maxWaiting;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public VehicleChangePolls(@Value("${vehicles.changes.poll-threads:2}") int threads,
+                              @Value("${vehicles.changes.poll-interval:250ms}") Duration interval,
+                              @Value("${vehicles.changes.max-waiting:1000}") int maxWaiting) {
+        if (threads < 1) throw new IllegalArgumentException("poll-threads must be positive");
+        if (maxWaiting < 1) throw new IllegalArgumentException("max-waiting must be positive");
+        // threads start with the first parked poll
+        this.scheduler = Executors.newScheduledThreadPool(threads,
+                Thread.ofPlatform().daemon().name("vehicle-changes-poll-", 0).factory());
+        this.interval = interval;
+        this.maxWaiting = maxWaiting;
+    }
+
+    /**
+     * Parks a poll that found nothing on its first look: {@code look} runs again every
+     * interval until it returns changes or {@code wait} (capped at
+     * {@link VehicleService#MAX_CHANGES_WAIT}) is up, and {@code answer} turns what it
+     * returned last into the response.
+     *
+     * @throws ServerBusyException when {@code vehicles.changes.max-waiting} polls are parked already
+     */
+    <T> DeferredResult<T> await(Supplier<List<VehicleChange>> look, Duration wait,
+                                Function<List<VehicleChange>, T> answer) {
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            throw new ServerBusyException("Too many change feed polls waiting, retry shortly");
+        }
+        var budget = wait.compareTo(VehicleService.MAX_CHANGES_WAIT) > 0 ? VehicleService.MAX_CHANGES_WAIT : wait;
+        // the scheduler answers at the deadline; the servlet timeout is only a backstop
+        var result = new DeferredResult<T>(budget.plus(interval).plusSeconds(5).toMillis(),
+                (Supplier<T>) () -> answer.apply(List.of()));
+        result.onCompletion(waiting::decrementAndGet);
+        schedule(result, look, answer, System.nanoTime() + budget.toNanos());
+        return result;
+    }
+
+    int waiting() {
+        return waiting.get();
+    }
+
+    private <T> void schedule(DeferredResult<T> result, Supplier<List<VehicleChange>> look,
+                              Function<List<VehicleChange>, T> answer, long deadline) {
+        long delay = Math.min(interval.toNanos(), Math.max(0, deadline - System.nanoTime()));
+        scheduler.schedule(() -> check(result, look, answer, deadline), delay, TimeUnit.NANOSECONDS);
+    }
+
+    private <T> void check(DeferredResult<T> result, Supplier<List<VehicleChange>> look,
+                           Function<List<VehicleChange>, T> answer, long deadline) {
+        if (result.isSetOrExpired()) return; // timed out or the client went away
+        try {
+            var changes = look.get();
+            if (!changes.isEmpty() || deadline - System.nanoTime() <= 0) {
+                result.setResult(answer.apply(changes));
+            } else {
+                schedule(result, look, answer, deadline);
+            }
+        } catch (RuntimeException e) {
+            result.setErrorResult(e); // through GlobalExceptionHandler, like a synchronous read
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
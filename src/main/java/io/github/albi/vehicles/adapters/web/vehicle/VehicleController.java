@@ -1,51 +1,212 @@
 package io.github.albi.vehicles.adapters.web.vehicle;
 
+import io.github.albi.vehicles.adapters.web.vehicle.dto.VehicleChangeResponse;
+import io.github.albi.vehicles.adapters.web.vehicle.dto.VehicleFacetsResponse;
 import io.github.albi.vehicles.adapters.web.vehicle.dto.VehicleRequest;
 import io.github.albi.vehicles.adapters.web.vehicle.dto.VehicleResponse;
 import io.github.albi.vehicles.application.vehicle.VehicleService;
 import io.github.albi.vehicles.domain.vehicle.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
 
 @Tag(name = "Vehicles")
 @RestController
 @RequestMapping("/vehicles")
 public class VehicleController {
+    private static final long NO_VERSION = -1; // versions start at 0
     private final VehicleService service;
-    public VehicleController(VehicleService service) { this.service = service; }
+    private final ObjectMapper mapper;
+    private final VehicleChangePolls changePolls;
+    private final VehicleExports exports;
+    public VehicleController(VehicleService service, ObjectMapper mapper, VehicleChangePolls changePolls,
+                             VehicleExports exports) {
+        this.service = service;
+        this.mapper = mapper;
+        this.changePolls = changePolls;
+        this.exports = exports;
+    }
 
-    @Operation(summary = "Get vehicle by id")
+    @Operation(summary = "Get vehicle by id",
+            description = "Sends a strong `ETag` and `Last-Modified`. Send them back as `If-None-Match` / "
+                    + "`If-Modified-Since` to get an empty 304 while the vehicle is unchanged.")
     @GetMapping("/{id}")
-    public ResponseEntity<VehicleResponse> get(@PathVariable long id) {
-        var v = service.getById(new VehicleId(id));
-        return ResponseEntity.ok(toResponse(v));
+    public ResponseEntity<VehicleResponse> get(@PathVariable long id, WebRequest request) {
+        var vehicleId = new VehicleId(id);
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+            // decide on the version alone; the row is only loaded and serialized if it changed
+            var current = service.getVersion(vehicleId);
+            var modified = current.updatedAt() == null ? -1 : current.updatedAt().toEpochMilli();
+            if (request.checkNotModified(etag(current.version()), modified)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build(); // validators already set
+            }
+        }
+        var v = service.getById(vehicleId);
+        return withValidators(ResponseEntity.ok(), v).body(toResponse(v));
     }
 
-    @Operation(summary = "Search vehicles")
+    @Operation(summary = "Search vehicles",
+            description = "Keyset-paginated. Follow the `Link: <...>; rel=\"next\"` header for the next page. "
+                    + "`q` is free text over make, model, colour and plate (`red tesla \"model 3\"`, `or`, `-word`); "
+                    + "its matches come best first unless `sort` says otherwise.")
     @GetMapping
-    public List<VehicleResponse> search(
+    public ResponseEntity<List<VehicleResponse>> search(
             @RequestParam(required = false) String make,
             @RequestParam(required = false) String model,
             @RequestParam(required = false) Integer year,
             @RequestParam(required = false) VehicleType type,
             @RequestParam(required = false) FuelType fuelType,
             @RequestParam(required = false) String vin,
-            @RequestParam(required = false, name = "registrationNumber") String regNo
+            @RequestParam(required = false, name = "registrationNumber") String regNo,
+            @RequestParam(required = false) TextMatch match,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) VehicleSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
     ) {
-        // Disallow ambiguous “both unique keys” in a single call (optional)
-        if (vin != null && !vin.isBlank() && regNo != null && !regNo.isBlank()) {
-            throw new IllegalArgumentException("Provide either 'vin' or 'registrationNumber', not both.");
+        var filter = filter(make, model, year, type, fuelType, vin, regNo, match, q);
+        var after = (cursor == null || cursor.isBlank()) ? null : VehicleCursor.decode(cursor);
+        var page = service.search(filter, sort, after, limit);
+
+        // Spring answers If-None-Match against this ETag with a 304 before anything is serialized
+        var response = ResponseEntity.ok().eTag(etag(page.items()));
+        var body = page.items().stream().map(VehicleController::toResponse).toList();
+        if (!page.hasNext()) return response.body(body);
+        var next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", page.next().encode())
+                .build().toUriString();
+        return response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"").body(body);
+    }
+
+
+    @Operation(summary = "Suggest makes or models",
+            description = "Type-ahead: distinct values of `field` starting with `prefix` (case-insensitive), alphabetically.")
+    @GetMapping("/suggest")
+    public List<String> suggest(
+            @RequestParam VehicleTextField field,
+            @RequestParam(required = false, defaultValue = "") String prefix,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return service.suggest(field, prefix, limit);
+    }
+
+    @Operation(summary = "Count vehicles by type, fuel type, make and model year",
+            description = "Takes the same filters as search. Unfiltered counts come from a summary table.")
+    @GetMapping("/facets")
+    public VehicleFacetsResponse facets(
+            @RequestParam(required = false) String make,
+            @RequestParam(required = false) String model,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) VehicleType type,
+            @RequestParam(required = false) FuelType fuelType,
+            @RequestParam(required = false) String vin,
+            @RequestParam(required = false, name = "registrationNumber") String regNo,
+            @RequestParam(required = false) TextMatch match
+    ) {
+        return VehicleFacetsResponse.of(service.facets(filter(make, model, year, type, fuelType, vin, regNo, match)));
+    }
+
+    @Operation(summary = "Export vehicles as NDJSON",
+            description = "Streams every vehicle matching the search filters, one JSON object per line. "
+                    + "`503` with `Retry-After` while this node is running as many exports as it allows.")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<StreamingResponseBody> export(
+            @RequestParam(required = false) String make,
+            @RequestParam(required = false) String model,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) VehicleType type,
+            @RequestParam(required = false) FuelType fuelType,
+            @RequestParam(required = false) String vin,
+            @RequestParam(required = false, name = "registrationNumber") String regNo,
+            @RequestParam(required = false) TextMatch match,
+            HttpServletResponse response
+    ) {
+        var filter = filter(make, model, year, type, fuelType, vin, regNo, match);
+        service.requireExportable(filter); // inside the task it would be too late for a 400
+        return exports.start(() -> {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            try (var gen = mapper.getFactory().createGenerator(response.getOutputStream())) {
+                gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                service.export(filter, v -> {
+                    try {
+                        gen.writeObject(toResponse(v));
+                        gen.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e); // client went away: abort the DB cursor too
+                    }
+                });
+            }
+            return null; // already streamed: a null body tells MVC the response is complete
+        });
+    }
+
+    @Operation(summary = "Incremental sync: changes since a token (NDJSON)",
+            description = "One line per changed vehicle, oldest first: its current state, or `deleted: true`. "
+                    + "Start with `since=0` for the whole fleet, then send the `token` of the last line applied. "
+                    + "With `wait` (seconds, at most 30) an empty answer is held back until something changes.")
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public DeferredResult<ResponseEntity<byte[]>> changes(
+            @RequestParam(required = false, defaultValue = "0") String since,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer wait
+    ) {
+        long position = changeToken(since);
+        if (wait != null && wait < 0) throw new IllegalArgumentException("wait must not be negative");
+        // a first look on the request thread validates the arguments and answers catch-up reads;
+        // only an empty answer that may wait is parked, and holds no thread while it does
+        var ready = service.changes(position, limit, Duration.ZERO);
+        if (ready.isEmpty() && wait != null && wait > 0) {
+            return changePolls.await(() -> service.changes(position, limit, Duration.ZERO), Duration.ofSeconds(wait),
+                    this::changesBody);
+        }
+        var result = new DeferredResult<ResponseEntity<byte[]>>();
+        result.setResult(changesBody(ready));
+        return result;
+    }
+
+    // at most MAX_CHANGES lines, already in memory: written in one go, no stream to keep a thread on
+    private ResponseEntity<byte[]> changesBody(List<VehicleChange> changes) {
+        var out = new ByteArrayOutputStream();
+        try (var gen = mapper.getFactory().createGenerator(out)) {
+            gen.setRootValueSeparator(null); // lines start with '{', not the default ' '
+            for (var c : changes) {
+                gen.writeObject(new VehicleChangeResponse(Long.toString(c.seq()), c.id().value(), c.deleted(),
+                        c.deleted() ? null : toResponse(c.vehicle())));
+                gen.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return service.search(make, model, year, type, fuelType, vin, regNo)
-                .stream().map(this::toResponse).toList();
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(out.toByteArray());
     }
 
+    private static long changeToken(String since) {
+        try {
+            return Long.parseLong(since.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("since must be 0 or a token from the change feed");
+        }
+    }
 
     @Operation(summary = "Create vehicle")
     @PostMapping
@@ -59,25 +220,87 @@ public class VehicleController {
         return ResponseEntity.created(location).body(toResponse(created));
     }
 
-    @Operation(summary = "Update vehicle")
+    @Operation(summary = "Update vehicle",
+            description = "Send the ETag from a previous GET/PUT as `If-Match` to fail with 412 instead of "
+                    + "overwriting someone else's change.")
     @PutMapping("/{id}")
-    public ResponseEntity<VehicleResponse> update(@PathVariable long id, @Valid @RequestBody VehicleRequest req) {
+    public ResponseEntity<VehicleResponse> update(@PathVariable long id,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                  @Valid @RequestBody VehicleRequest req) {
         var updated = service.update(
-                new VehicleId(id),
+                new VehicleId(id), expectedVersion(ifMatch),
                 new Vin(req.vin()), req.type(), req.make(), req.model(), req.modelYear(),
                 req.fuelType(), req.color(), req.registrationNumber()
         );
-        return ResponseEntity.ok(toResponse(updated));
+        return withValidators(ResponseEntity.ok(), updated).body(toResponse(updated));
     }
 
-    @Operation(summary = "Delete vehicle")
+    @Operation(summary = "Delete vehicle", description = "Honours `If-Match` like update.")
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable long id) {
-        service.delete(new VehicleId(id));
+    public ResponseEntity<Void> delete(@PathVariable long id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        service.delete(new VehicleId(id), expectedVersion(ifMatch));
         return ResponseEntity.noContent().build();
     }
 
-    private VehicleResponse toResponse(Vehicle v) {
+    /** The version is the whole entity tag: {@code "3"}. */
+    static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Strong tag for a page of results: FNV-1a over each vehicle's id and version, so
+     * it changes when any listed vehicle is written or the page gains, loses or
+     * reorders rows. The link to the next page follows from the last row.
+     */
+    static String etag(List<Vehicle> page) {
+        long h = 0xcbf29ce484222325L;
+        for (var v : page) {
+            h = (h ^ v.id().value()) * 0x100000001b3L;
+            h = (h ^ v.version()) * 0x100000001b3L;
+        }
+        return "\"p" + Long.toHexString(h) + "\"";
+    }
+
+    static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder response, Vehicle v) {
+        response.eTag(etag(v.version()));
+        if (v.updatedAt() != null) response.lastModified(v.updatedAt());
+        return response;
+    }
+
+    /**
+     * {@code null} (absent or {@code *}) means unconditional; weak tags compare by value.
+     * A tag this API never issued can't match any vehicle, so it becomes a version no row has.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+        var tag = ifMatch.trim();
+        if (tag.startsWith("W/")) tag = tag.substring(2);
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // not one of ours
+            }
+        }
+        return NO_VERSION;
+    }
+
+    static VehicleFilter filter(String make, String model, Integer year, VehicleType type,
+                                        FuelType fuelType, String vin, String regNo, TextMatch match) {
+        return filter(make, model, year, type, fuelType, vin, regNo, match, null);
+    }
+
+    static VehicleFilter filter(String make, String model, Integer year, VehicleType type,
+                                FuelType fuelType, String vin, String regNo, TextMatch match, String q) {
+        // Disallow ambiguous “both unique keys” in a single call (optional)
+        if (vin != null && !vin.isBlank() && regNo != null && !regNo.isBlank()) {
+            throw new IllegalArgumentException("Provide either 'vin' or 'registrationNumber', not both.");
+        }
+        return new VehicleFilter(make, model, year, type, fuelType, vin, regNo, match, q);
+    }
+
+    static VehicleResponse toResponse(Vehicle v) {
         return new VehicleResponse(
                 v.id().value(), v.vin().value(), v.type(), v.make(), v.model(),
                 v.year(), v.fuelType(), v.color(), v.registrationNumber()
@@ -0,0 +1,56 @@
+package io.github.albi.vehicles.adapters.web.vehicle;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Threads for {@code GET /vehicles/export}. An export holds its thread and a database
+ * cursor for as long as the client reads, which can be minutes. On MVC's async executor
+ * (8 threads behind an unbounded queue) a few slow clients would stall every other
+ * export and the reactive NDJSON streams, which are written on the same threads. So
+ * each export gets a thread of its own, and only {@code vehicles.export.max-concurrent}
+ * run at once per node. The next one gets a 503 before anything is streamed.
+ */
+@Component
+public class VehicleExports {
+
+    private final int maxConcurrent;
+    private final Semaphore slots;
+    private final SimpleAsyncTaskExecutor threads = new SimpleAsyncTaskExecutor("vehicle-export-");
+
+    public VehicleExports(@Value("${vehicles.export.max-concurrent:8}") int maxConcurrent,
+                          @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (maxConcurrent < 1) throw new IllegalArgumentException("max-concurrent must be positive");
+        this.maxConcurrent = maxConcurrent;
+        this.slots = new Semaphore(maxConcurrent);
+        threads.setVirtualThreads(virtualThreads);
+        threads.setDaemon(true);
+    }
+
+    /**
+     * Takes a slot on the request thread and runs {@code export} on a new thread, which
+     * gives the slot back when it ends, streamed or failed. The request's async timeout
+     * ({@code spring.mvc.async.request-timeout}) still applies.
+     *
+     * @throws ServerBusyException when {@code vehicles.export.max-concurrent} exports are running already
+     */
+    <T> WebAsyncTask<T> start(Callable<T> export) {
+        if (!slots.tryAcquire()) throw new ServerBusyException("Too many exports running, retry shortly");
+        return new WebAsyncTask<>(null, threads, () -> {
+            try {
+                return export.call();
+            } finally {
+                slots.release();
+            }
+        });
+    }
+
+    int running() {
+        return maxConcurrent - slots.availablePermits();
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.albi.vehicles.adapters.web.vehicle;
+
+import io.github.albi.vehicles.adapters.metrics.vehicle.VehicleFilterTag;
+import io.github.albi.vehicles.domain.vehicle.TextMatch;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Adds a {@code filter} tag to {@code http.server.requests}: for the endpoints that take
+ * the search filters, which of them the request used (see {@link VehicleFilterTag});
+ * {@code n/a} everywhere else, since every series of a metric needs the same tags.
+ */
+@Component
+class VehicleRequestObservationConvention extends DefaultServerRequestObservationConvention {
+
+    private static final Set<String> FILTERED = Set.of(
+            "/vehicles", "/vehicles/export", "/vehicles/facets", "/reactive/vehicles", "/reactive/vehicles/export");
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and("filter", filterTag(context));
+    }
+
+    static String filterTag(ServerRequestObservationContext context) {
+        // the pattern is only known once a handler matched; the tags are read again when the request ends
+        var pattern = context.getPathPattern();
+        if (pattern == null || !FILTERED.contains(pattern)) return VehicleFilterTag.NOT_APPLICABLE;
+        var request = context.getCarrier();
+        return VehicleFilterTag.of(present(request.getParameter("make")), present(request.getParameter("model")),
+                present(request.getParameter("year")), present(request.getParameter("type")),
+                present(request.getParameter("fuelType")), present(request.getParameter("vin")),
+                present(request.getParameter("registrationNumber")), match(request.getParameter("match")),
+                present(request.getParameter("q")));
+    }
+
+    private static boolean present(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    // an unknown value is rejected with a 400 anyway; tag it as the default
+    private static TextMatch match(String value) {
+        if (!present(value)) return TextMatch.EXACT;
+        try {
+            return TextMatch.valueOf(value.trim());
+        } catch (IllegalArgumentException e) {
+            return TextMatch.EXACT;
+        }
+    }
+}
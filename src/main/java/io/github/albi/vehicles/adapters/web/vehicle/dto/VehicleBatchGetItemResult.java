@@ -0,0 +1,16 @@
+package io.github.albi.vehicles.adapters.web.vehicle.dto;
+
+/**
+ * Result for one key of a multi-get.
+ *
+ * @param index   zero-based position of the key in the request
+ * @param status  FOUND, NOT_FOUND or INVALID
+ * @param vehicle the vehicle when FOUND, null otherwise
+ * @param error   why the key is INVALID, null otherwise
+ */
+public record VehicleBatchGetItemResult(
+        int index,
+        String status,
+        VehicleResponse vehicle,
+        String error
+) {}
@@ -0,0 +1,22 @@
+package io.github.albi.vehicles.adapters.web.vehicle.dto;
+
+import java.util.List;
+
+public record VehicleBatchGetResponse(
+        int found,
+        int notFound,
+        int invalid,
+        List<VehicleBatchGetItemResult> items
+) {
+    public static VehicleBatchGetResponse of(List<VehicleBatchGetItemResult> items) {
+        int found = 0, notFound = 0, invalid = 0;
+        for (var item : items) {
+            switch (item.status()) {
+                case "FOUND" -> found++;
+                case "NOT_FOUND" -> notFound++;
+                default -> invalid++;
+            }
+        }
+        return new VehicleBatchGetResponse(found, notFound, invalid, items);
+    }
+}
@@ -0,0 +1,15 @@
+package io.github.albi.vehicles.adapters.web.vehicle.dto;
+
+/**
+ * Result for one item of a bulk upsert.
+ *
+ * @param index  zero-based position of the item in the request
+ * @param status CREATED, UPDATED or FAILED
+ */
+public record VehicleBatchItemResult(
+        int index,
+        String status,
+        Long id,
+        String vin,
+        String error
+) {}
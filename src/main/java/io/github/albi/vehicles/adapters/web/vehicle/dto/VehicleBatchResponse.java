@@ -0,0 +1,22 @@
+package io.github.albi.vehicles.adapters.web.vehicle.dto;
+
+import java.util.List;
+
+public record VehicleBatchResponse(
+        int created,
+        int updated,
+        int failed,
+        List<VehicleBatchItemResult> items
+) {
+    public static VehicleBatchResponse of(List<VehicleBatchItemResult> items) {
+        int created = 0, updated = 0, failed = 0;
+        for (var item : items) {
+            switch (item.status()) {
+                case "CREATED" -> created++;
+                case "UPDATED" -> updated++;
+                default -> failed++;
+            }
+        }
+        return new VehicleBatchResponse(created, updated, failed, items);
+    }
+}
@@ -0,0 +1,12 @@
+package io.github.albi.vehicles.adapters.web.vehicle.dto;
+
+/**
+ * One line of the change feed. {@code token} is what to send back as {@code since}
+ * once this change is applied; {@code vehicle} is null when {@code deleted}.
+ */
+public record VehicleChangeResponse(
+        String token,
+        long id,
+        boolean deleted,
+        VehicleResponse vehicle
+) {}
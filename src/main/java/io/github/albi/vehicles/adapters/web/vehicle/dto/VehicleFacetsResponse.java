@@ -0,0 +1,26 @@
+package io.github.albi.vehicles.adapters.web.vehicle.dto;
+
+import io.github.albi.vehicles.domain.vehicle.FuelType;
+import io.github.albi.vehicles.domain.vehicle.VehicleFacets;
+import io.github.albi.vehicles.domain.vehicle.VehicleType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** Counts per facet value; keys come out in a stable order (enum order, alphabetical, by year). */
+public record VehicleFacetsResponse(
+        long total,
+        Map<VehicleType, Long> type,
+        Map<FuelType, Long> fuelType,
+        Map<String, Long> make,
+        Map<Integer, Long> modelYear
+) {
+    public static VehicleFacetsResponse of(VehicleFacets f) {
+        var type = new EnumMap<VehicleType, Long>(VehicleType.class);
+        type.putAll(f.types());
+        var fuelType = new EnumMap<FuelType, Long>(FuelType.class);
+        fuelType.putAll(f.fuelTypes());
+        return new VehicleFacetsResponse(f.total(), type, fuelType, new TreeMap<>(f.makes()), new TreeMap<>(f.modelYears()));
+    }
+}
@@ -0,0 +1,8 @@
+package io.github.albi.vehicles.adapters.web.vehicle.dto;
+
+/** One key of a multi-get: exactly one of the three is set. */
+public record VehicleKeyRequest(
+        Long id,
+        String vin,
+        String registrationNumber
+) {}
@@ -0,0 +1,51 @@
+package io.github.albi.vehicles.application.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.*;
+
+import java.util.Objects;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Read use cases of {@link VehicleService} on the non-blocking {@link ReactiveVehicleReader}:
+ * same validation and page-size rules, but results complete asynchronously. Invalid
+ * arguments still throw right away, before anything is sent to the database.
+ * Writes stay on {@link VehicleService}.
+ */
+public final class ReactiveVehicleService {
+
+    private final ReactiveVehicleReader reader;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public ReactiveVehicleService(ReactiveVehicleReader reader) {
+        this(reader, VehicleService.DEFAULT_PAGE_SIZE, VehicleService.DEFAULT_MAX_PAGE_SIZE);
+    }
+
+    public ReactiveVehicleService(ReactiveVehicleReader reader, int defaultPageSize, int maxPageSize) {
+        VehicleService.requireValidPageSizes(defaultPageSize, maxPageSize);
+        this.reader = Objects.requireNonNull(reader);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /** Completes with the vehicle, or exceptionally with {@link VehicleNotFoundException}. */
+    public CompletionStage<Vehicle> getById(VehicleId id) {
+        return reader.findById(id).thenApply(v -> v.orElseThrow(() -> new VehicleNotFoundException(id)));
+    }
+
+    /** Same contract as {@link VehicleService#search}. */
+    public CompletionStage<VehiclePage> search(VehicleFilter filter, VehicleSort sort, VehicleCursor after,
+                                               Integer limit) {
+        var effectiveSort = VehicleService.effectiveSort(filter, sort, after);
+        VehicleService.requireSearchableText(filter);
+        return reader.search(filter, effectiveSort, after, VehicleService.pageSize(limit, defaultPageSize, maxPageSize));
+    }
+
+    /** Every matching vehicle, emitted as fast as the subscriber asks for them. */
+    public Flow.Publisher<Vehicle> export(VehicleFilter filter) {
+        VehicleService.requireSearchableText(filter);
+        VehicleService.requireNoFreeText(filter);
+        return reader.exportAll(filter);
+    }
+}
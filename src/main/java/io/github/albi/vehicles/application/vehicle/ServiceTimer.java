@@ -0,0 +1,33 @@
+package io.github.albi.vehicles.application.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.VehicleFilter;
+
+import java.util.function.Supplier;
+
+/**
+ * Times {@link VehicleService} operations, so the service needs no metrics library;
+ * the adapter behind it decides where measurements go. {@link #NONE} just runs the call.
+ */
+public interface ServiceTimer {
+
+    ServiceTimer NONE = new ServiceTimer() {
+        @Override
+        public <T> T time(String operation, VehicleFilter filter, Supplier<T> call) {
+            return call.get();
+        }
+    };
+
+    /**
+     * Runs {@code call} and records how long it took, whether it returned or threw.
+     *
+     * @param filter the search filter the operation received; null for operations without one
+     */
+    <T> T time(String operation, VehicleFilter filter, Supplier<T> call);
+
+    default void time(String operation, VehicleFilter filter, Runnable call) {
+        time(operation, filter, () -> {
+            call.run();
+            return null;
+        });
+    }
+}
@@ -2,41 +2,291 @@
 package io.github.albi.vehicles.application.vehicle;
 
 import io.github.albi.vehicles.domain.vehicle.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 // io.github.albi.vehicles.application.vehicle.VehicleService
 
 public final class VehicleService {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int DEFAULT_MAX_PAGE_SIZE = 500;
+    public static final int DEFAULT_SUGGESTIONS = 10;
+    public static final int MAX_SUGGESTIONS = 50;
+    public static final int DEFAULT_CHANGES = 500;
+    public static final int MAX_CHANGES = 5000;
+    public static final Duration MAX_CHANGES_WAIT = Duration.ofSeconds(30);
+    static final Duration CHANGES_POLL_INTERVAL = Duration.ofMillis(250);
+
+    private static final String CHECK_DIGIT_MISMATCH = "Invalid VIN: check digit does not match";
+
     private final VehicleRepository repository;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final boolean verifyVinCheckDigit;
+    private final ServiceTimer timer;
 
     public VehicleService(VehicleRepository repository) {
+        this(repository, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGE_SIZE);
+    }
+
+    public VehicleService(VehicleRepository repository, int defaultPageSize, int maxPageSize) {
+        this(repository, defaultPageSize, maxPageSize, false);
+    }
+
+    /**
+     * @param verifyVinCheckDigit reject VINs whose check digit (position 9) is wrong on
+     *                            every write; only sensible for North American fleets
+     */
+    public VehicleService(VehicleRepository repository, int defaultPageSize, int maxPageSize,
+                          boolean verifyVinCheckDigit) {
+        this(repository, defaultPageSize, maxPageSize, verifyVinCheckDigit, ServiceTimer.NONE);
+    }
+
+    /** @param timer times every public operation, named after the method */
+    public VehicleService(VehicleRepository repository, int defaultPageSize, int maxPageSize,
+                          boolean verifyVinCheckDigit, ServiceTimer timer) {
+        requireValidPageSizes(defaultPageSize, maxPageSize);
         this.repository = Objects.requireNonNull(repository);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.verifyVinCheckDigit = verifyVinCheckDigit;
+        this.timer = Objects.requireNonNull(timer);
     }
 
     public Vehicle getById(VehicleId id) {
-        return repository.findById(id).orElseThrow(() -> new VehicleNotFoundException(id));
+        return timer.time("getById", null,
+                () -> repository.findById(id).orElseThrow(() -> new VehicleNotFoundException(id)));
+    }
+
+    /**
+     * Multi-get: one result per key, in the order given, empty where the key names no
+     * vehicle. The repository resolves all keys together, not one round trip each.
+     */
+    public List<Optional<Vehicle>> getAll(List<VehicleKey> keys) {
+        return timer.time("getAll", null, () -> {
+            if (keys.isEmpty()) return List.<Optional<Vehicle>>of();
+            var found = repository.findAll(keys);
+            var byKey = new HashMap<VehicleKey, Vehicle>(found.size() * 4);
+            for (var v : found) {
+                for (var key : VehicleKey.allOf(v)) byKey.put(key, v);
+            }
+            var results = new ArrayList<Optional<Vehicle>>(keys.size());
+            for (var key : keys) results.add(Optional.ofNullable(byKey.get(key)));
+            return results;
+        });
+    }
+
+    /** The vehicle's current version only; cheap enough to run before deciding whether to load it. */
+    public VehicleVersion getVersion(VehicleId id) {
+        return timer.time("getVersion", null,
+                () -> repository.findVersionById(id).orElseThrow(() -> new VehicleNotFoundException(id)));
+    }
+
+    /**
+     * Keyset-paginated search. A null {@code limit} means the default page size;
+     * larger limits are capped at the server-side maximum. A free-text query is
+     * ordered by relevance unless a sort is asked for.
+     */
+    public VehiclePage search(VehicleFilter filter, VehicleSort sort, VehicleCursor after, Integer limit) {
+        return timer.time("search", filter, () -> {
+            var effectiveSort = effectiveSort(filter, sort, after);
+            requireSearchableText(filter);
+            return repository.search(filter, effectiveSort, after, pageSize(limit, defaultPageSize, maxPageSize));
+        });
+    }
+
+    /**
+     * Hands every matching vehicle to {@code sink}, one at a time, without buffering the result set.
+     * Its time includes the sink's, i.e. writing the export to the client.
+     */
+    public void export(VehicleFilter filter, Consumer<? super Vehicle> sink) {
+        timer.time("export", filter, () -> {
+            requireExportable(filter);
+            repository.exportAll(filter, sink);
+        });
+    }
+
+    /**
+     * Throws what {@link #export} would refuse {@code filter} with, so a streaming caller
+     * can answer 400 before it commits to a 200 and starts writing.
+     */
+    public void requireExportable(VehicleFilter filter) {
+        requireSearchableText(filter);
+        requireNoFreeText(filter);
+    }
+
+    /** Vehicle counts per type, fuel type, make and model year for everything matching {@code filter}. */
+    public VehicleFacets facets(VehicleFilter filter) {
+        return timer.time("facets", filter, () -> {
+            requireSearchableText(filter);
+            requireNoFreeText(filter);
+            return repository.facets(filter);
+        });
+    }
+
+    /** Type-ahead: distinct values of {@code field} starting with {@code prefix}, alphabetically. */
+    public List<String> suggest(VehicleTextField field, String prefix, Integer limit) {
+        return timer.time("suggest", null, () -> {
+            Objects.requireNonNull(field, "field is required");
+            if (limit != null && limit < 1) throw new IllegalArgumentException("limit must be positive");
+            int n = limit == null ? DEFAULT_SUGGESTIONS : Math.min(limit, MAX_SUGGESTIONS);
+            return repository.suggest(field, prefix == null ? "" : prefix.trim(), n);
+        });
+    }
+
+    /**
+     * Change feed: vehicles written or deleted after position {@code since} (0 = from
+     * the beginning), oldest first. When there are none yet, keeps looking for up to
+     * {@code wait} (capped at {@link #MAX_CHANGES_WAIT}) before returning empty, so a
+     * client can long-poll instead of re-asking in a loop. Each look is one index
+     * range read of the change log. Timed including the wait.
+     */
+    public List<VehicleChange> changes(long since, Integer limit, Duration wait) {
+        return timer.time("changes", null, () -> pollChanges(since, limit, wait));
     }
 
-    public List<Vehicle> search(String make, String model, Integer year,
-                                VehicleType type, FuelType fuelType,
-                                String vin, String registrationNumber) {
-        return repository.search(make, model, year, type, fuelType, vin, registrationNumber);
+    private List<VehicleChange> pollChanges(long since, Integer limit, Duration wait) {
+        if (since < 0) throw new IllegalArgumentException("since must not be negative");
+        if (limit != null && limit < 1) throw new IllegalArgumentException("limit must be positive");
+        if (wait != null && wait.isNegative()) throw new IllegalArgumentException("wait must not be negative");
+        int n = limit == null ? DEFAULT_CHANGES : Math.min(limit, MAX_CHANGES);
+        var budget = wait == null ? Duration.ZERO : (wait.compareTo(MAX_CHANGES_WAIT) > 0 ? MAX_CHANGES_WAIT : wait);
+
+        long deadline = System.nanoTime() + budget.toNanos();
+        while (true) {
+            var changes = repository.changesSince(since, n);
+            long left = deadline - System.nanoTime();
+            if (!changes.isEmpty() || left <= 0) return changes;
+            try {
+                Thread.sleep(Duration.ofNanos(Math.min(left, CHANGES_POLL_INTERVAL.toNanos())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return changes;
+            }
+        }
+    }
+
+    // --- search rules, shared with ReactiveVehicleService ---
+
+    static void requireValidPageSizes(int defaultPageSize, int maxPageSize) {
+        if (maxPageSize < 1) throw new IllegalArgumentException("maxPageSize must be positive");
+        if (defaultPageSize < 1 || defaultPageSize > maxPageSize) {
+            throw new IllegalArgumentException("defaultPageSize must be between 1 and maxPageSize");
+        }
+    }
+
+    /**
+     * The requested sort, else the cursor's, else relevance for a free-text query and id for
+     * anything else; a cursor only continues the sort it was issued for.
+     */
+    static VehicleSort effectiveSort(VehicleFilter filter, VehicleSort sort, VehicleCursor after) {
+        var effective = sort != null ? sort
+                : after != null ? after.sort()
+                : filter.hasText() ? VehicleSort.RELEVANCE : VehicleSort.ID;
+        if (after != null && after.sort() != effective) {
+            throw new IllegalArgumentException("cursor was issued for sort " + after.sort() + ", not " + effective);
+        }
+        if (effective == VehicleSort.RELEVANCE && !filter.hasText()) {
+            throw new IllegalArgumentException("sort=RELEVANCE needs a q to rank by");
+        }
+        return effective;
+    }
+
+    /** Substring search on fewer than 3 characters can't use the trigram indexes; refuse it. */
+    static void requireSearchableText(VehicleFilter filter) {
+        if (filter.match() != TextMatch.CONTAINS) return;
+        for (var text : new String[] { filter.make(), filter.model() }) {
+            if (text != null && !text.isBlank() && text.trim().length() < TextMatch.MIN_CONTAINS_LENGTH) {
+                throw new IllegalArgumentException(
+                        "match=CONTAINS needs at least " + TextMatch.MIN_CONTAINS_LENGTH + " characters");
+            }
+        }
+    }
+
+    /** Ranking only orders a page; counts and exports of free-text matches aren't offered. */
+    static void requireNoFreeText(VehicleFilter filter) {
+        if (filter.hasText()) throw new IllegalArgumentException("q is only supported by search");
+    }
+
+    static int pageSize(Integer limit, int defaultPageSize, int maxPageSize) {
+        if (limit == null) return defaultPageSize;
+        if (limit < 1) throw new IllegalArgumentException("limit must be positive");
+        return Math.min(limit, maxPageSize);
     }
 
     public Vehicle create(Vin vin, VehicleType type, String make, String model, Integer year,
                           FuelType fuelType, String color, String registrationNumber) {
-        return repository.create(vin, type, make, model, year, fuelType, color, registrationNumber);
+        return timer.time("create", null, () -> {
+            requireValidCheckDigit(vin);
+            return repository.create(vin, type, make, model, year, fuelType, color, registrationNumber);
+        });
+    }
+
+    /** Bulk insert-or-update by VIN; one result per draft, in the same order. */
+    public List<VehicleUpsertResult> upsertAll(List<VehicleDraft> drafts) {
+        return timer.time("upsertAll", null, () -> upsertChecked(drafts));
+    }
+
+    private List<VehicleUpsertResult> upsertChecked(List<VehicleDraft> drafts) {
+        if (drafts.isEmpty()) return List.of();
+        if (!verifyVinCheckDigit) return repository.upsertAll(drafts);
+
+        // bad check digits fail individually; only the rest goes to the repository
+        var results = new VehicleUpsertResult[drafts.size()];
+        var accepted = new ArrayList<VehicleDraft>(drafts.size());
+        for (int i = 0; i < drafts.size(); i++) {
+            if (drafts.get(i).vin().hasValidCheckDigit()) accepted.add(drafts.get(i));
+            else results[i] = VehicleUpsertResult.failed(CHECK_DIGIT_MISMATCH);
+        }
+        if (accepted.size() == drafts.size()) return repository.upsertAll(drafts);
+
+        var written = accepted.isEmpty() ? List.<VehicleUpsertResult>of() : repository.upsertAll(accepted);
+        for (int i = 0, next = 0; i < results.length; i++) {
+            if (results[i] == null) results[i] = written.get(next++);
+        }
+        return Arrays.asList(results);
     }
 
     public Vehicle update(VehicleId id, Vin vin, VehicleType type, String make, String model, Integer year,
                           FuelType fuelType, String color, String registrationNumber) {
-        getById(id);
-        return repository.update(id, vin, type, make, model, year, fuelType, color, registrationNumber);
+        return update(id, null, vin, type, make, model, year, fuelType, color, registrationNumber);
+    }
+
+    /**
+     * One write, no read first: the repository's row count decides 404.
+     *
+     * @param expectedVersion version the caller last saw, or {@code null} to overwrite
+     *                        whatever is stored; a mismatch throws {@link VehicleVersionConflictException}
+     */
+    public Vehicle update(VehicleId id, Long expectedVersion, Vin vin, VehicleType type, String make, String model,
+                          Integer year, FuelType fuelType, String color, String registrationNumber) {
+        return timer.time("update", null, () -> {
+            requireValidCheckDigit(vin);
+            return repository.update(id, expectedVersion, vin, type, make, model, year, fuelType, color,
+                    registrationNumber).orElseThrow(() -> new VehicleNotFoundException(id));
+        });
     }
 
     public void delete(VehicleId id) {
-        getById(id);
-        repository.delete(id);
+        delete(id, null);
+    }
+
+    /** Same contract as {@link #update(VehicleId, Long, Vin, VehicleType, String, String, Integer, FuelType, String, String)}. */
+    public void delete(VehicleId id, Long expectedVersion) {
+        timer.time("delete", null, () -> {
+            if (!repository.delete(id, expectedVersion)) throw new VehicleNotFoundException(id);
+        });
+    }
+
+    private void requireValidCheckDigit(Vin vin) {
+        if (verifyVinCheckDigit && !vin.hasValidCheckDigit()) {
+            throw new IllegalArgumentException(CHECK_DIGIT_MISMATCH);
+        }
     }
 }
\ No newline at end of file
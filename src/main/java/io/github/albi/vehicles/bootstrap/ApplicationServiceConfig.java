@@ -1,16 +1,74 @@
 package io.github.albi.vehicles.bootstrap;
 
+import io.github.albi.vehicles.adapters.cache.vehicle.CachingVehicleRepository;
+import io.github.albi.vehicles.adapters.cache.vehicle.CoalescingMetrics;
+import io.github.albi.vehicles.adapters.cache.vehicle.CoalescingVehicleRepository;
+import io.github.albi.vehicles.adapters.cache.vehicle.FreshReads;
+import io.github.albi.vehicles.adapters.cache.vehicle.VehicleCache;
+import io.github.albi.vehicles.adapters.cache.vehicle.VehicleInvalidationBus;
+import io.github.albi.vehicles.adapters.index.vehicle.IndexedVehicleRepository;
+import io.github.albi.vehicles.adapters.index.vehicle.VehicleBitmapIndex;
+import io.github.albi.vehicles.adapters.index.vehicle.VehicleIndexMetrics;
+import io.github.albi.vehicles.adapters.metrics.vehicle.MicrometerServiceTimer;
+import io.github.albi.vehicles.adapters.metrics.vehicle.TimedVehicleRepository;
+import io.github.albi.vehicles.application.vehicle.ServiceTimer;
+import io.github.albi.vehicles.application.vehicle.ReactiveVehicleService;
 import io.github.albi.vehicles.application.vehicle.VehicleService;
+import io.github.albi.vehicles.domain.vehicle.ReactiveVehicleReader;
 import io.github.albi.vehicles.domain.vehicle.VehicleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 class ApplicationServiceConfig {
     @Bean
-    VehicleService vehicleService(VehicleRepository repo) {
-        return new VehicleService(repo);
+    VehicleService vehicleService(VehicleRepository repo,
+                                  ObjectProvider<VehicleCache> cache,
+                                  ObjectProvider<VehicleInvalidationBus> bus,
+                                  ObjectProvider<FreshReads> freshReads,
+                                  ObjectProvider<VehicleBitmapIndex> index,
+                                  ObjectProvider<MeterRegistry> meters,
+                                  @Value("${vehicles.search.default-page-size:50}") int defaultPageSize,
+                                  @Value("${vehicles.search.max-page-size:500}") int maxPageSize,
+                                  @Value("${vehicles.vin.verify-check-digit:false}") boolean verifyVinCheckDigit,
+                                  @Value("${vehicles.coalescing.enabled:true}") boolean coalescing,
+                                  @Value("${vehicles.coalescing.timeout:2s}") Duration coalescingTimeout) {
+        // timing sits right around the database, inside the index, the cache and the coalescing:
+        // vehicles.repository measures database calls only (an index-answered page is its findAll)
+        var registry = meters.getIfAvailable();
+        var timed = registry == null ? repo : new TimedVehicleRepository(repo, registry);
+        var indexed = timed;
+        var idx = index.getIfAvailable();
+        if (idx != null) {
+            var withIndex = new IndexedVehicleRepository(timed, idx);
+            if (registry != null) new VehicleIndexMetrics(withIndex, idx).bindTo(registry);
+            indexed = withIndex;
+        }
+        var c = cache.getIfAvailable();
+        var shared = indexed;
+        if (coalescing) {
+            // cache misses for the same key share one query
+            var coalesced = c == null
+                    ? new CoalescingVehicleRepository(indexed, coalescingTimeout)
+                    : new CoalescingVehicleRepository(indexed, coalescingTimeout, c::epoch);
+            if (registry != null) new CoalescingMetrics(coalesced).bindTo(registry);
+            shared = coalesced;
+        }
+        var effective = c == null ? shared
+                : new CachingVehicleRepository(shared, c, bus.getObject(), freshReads.getIfAvailable(() -> FreshReads.ALWAYS));
+        var timer = registry == null ? ServiceTimer.NONE : new MicrometerServiceTimer(registry);
+        return new VehicleService(effective, defaultPageSize, maxPageSize, verifyVinCheckDigit, timer);
     }
 
-
-}
\ No newline at end of file
+    @Bean
+    ReactiveVehicleService reactiveVehicleService(ReactiveVehicleReader reader,
+                                                  @Value("${vehicles.search.default-page-size:50}") int defaultPageSize,
+                                                  @Value("${vehicles.search.max-page-size:500}") int maxPageSize) {
+        return new ReactiveVehicleService(reader, defaultPageSize, maxPageSize);
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.albi.vehicles.bootstrap;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lets at most {@code permits} connections be checked out at once; a caller holds
+ * its permit from {@code getConnection()} until {@code close()}.
+ *
+ * <p>With virtual threads nothing upstream limits concurrency any more: a burst of
+ * thousands of requests would all queue inside the pool. Here they wait in a fair
+ * (FIFO) semaphore instead, and past {@code acquireTimeout} fail with the same
+ * {@link SQLTransientConnectionException} an exhausted pool throws, which the API
+ * answers with 503.</p>
+ *
+ * <p>Waiting happens here rather than in Hikari, so this is where pool starvation shows:
+ * {@link #waiting()}, {@link #acquired()}/{@link #waitNanos()} and {@link #timeouts()}
+ * feed the {@code vehicles.jdbc.permits.*} metrics.</p>
+ */
+final class ConcurrencyLimitedDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final Duration acquireTimeout;
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    ConcurrencyLimitedDataSource(DataSource target, int permits, Duration acquireTimeout) {
+        super(target);
+        if (permits < 1) throw new IllegalArgumentException("permits must be positive");
+        this.permits = new Semaphore(permits, true);
+        this.maxPermits = permits;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /** Connections checked out through this data source right now. */
+    int inUse() {
+        return maxPermits - permits.availablePermits();
+    }
+
+    /** Callers queued for a permit right now. */
+    int waiting() {
+        return permits.getQueueLength();
+    }
+
+    /** Permits handed out so far. */
+    long acquired() {
+        return acquired.sum();
+    }
+
+    /** Total time callers spent waiting for the permits they got. */
+    long waitNanos() {
+        return waitNanos.sum();
+    }
+
+    /** How long a caller waits for a permit before it gets a 503. */
+    Duration acquireTimeout() {
+        return acquireTimeout;
+    }
+
+    /** Callers that gave up after {@code acquireTimeout}. */
+    long timeouts() {
+        return timeouts.sum();
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                waitNanos.add(System.nanoTime() - start);
+                acquired.increment();
+            } else {
+                timeouts.increment();
+                throw new SQLTransientConnectionException(
+                        "No database connection within " + acquireTimeout.toMillis() + " ms; all " + maxPermits + " in use");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    private Connection releasingOnClose(Connection target) {
+        var released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                        if (released.compareAndSet(false, true)) {
+                            try {
+                                target.close();
+                            } finally {
+                                permits.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
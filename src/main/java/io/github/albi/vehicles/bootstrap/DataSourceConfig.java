@@ -0,0 +1,61 @@
+package io.github.albi.vehicles.bootstrap;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+/**
+ * The JDBC pool, declared explicitly: Boot skips its own DataSource auto-configuration
+ * as soon as an R2DBC {@code ConnectionFactory} exists, and this service needs both
+ * (JPA/Flyway/writes on JDBC, {@code /reactive/vehicles} on R2DBC). Same result as the
+ * auto-configured pool: {@code spring.datasource.*} and {@code spring.datasource.hikari.*} apply.
+ *
+ * <p>{@code vehicles.jdbc.pool.size=auto} sizes the pool from the database's cores
+ * instead of Hikari's fixed default of 10; an explicit
+ * {@code spring.datasource.hikari.maximum-pool-size} still wins.</p>
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource dataSource(DataSourceProperties properties,
+                                @Value("${vehicles.jdbc.pool.size:}") String poolSize,
+                                @Value("${vehicles.jdbc.pool.database-cores:0}") int databaseCores) {
+        var dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (StringUtils.hasText(properties.getName())) dataSource.setPoolName(properties.getName());
+        if ("auto".equalsIgnoreCase(poolSize)) {
+            dataSource.setMaximumPoolSize(autoPoolSize(
+                    databaseCores > 0 ? databaseCores : Runtime.getRuntime().availableProcessors()));
+        } else if (StringUtils.hasText(poolSize)) {
+            dataSource.setMaximumPoolSize(Integer.parseInt(poolSize.trim()));
+        }
+        return dataSource;
+    }
+
+    @Bean
+    JdbcBatchingCheck jdbcBatchingCheck(EntityManagerFactory entityManagerFactory,
+                                        @Value("${vehicles.jdbc.batching.identity-id-entities:}") List<String> entities) {
+        return new JdbcBatchingCheck(entityManagerFactory, entities);
+    }
+
+    /**
+     * HikariCP's pool-sizing rule, {@code cores * 2 + effective spindles}, with one
+     * spindle for SSD storage. Postgres runs one process per connection, so beyond this
+     * extra connections only queue for CPU inside the database, where nobody sees it;
+     * waiting for the pool instead shows up in {@code hikaricp.connections.acquire}.
+     */
+    static int autoPoolSize(int databaseCores) {
+        if (databaseCores < 1) throw new IllegalArgumentException("databaseCores must be positive");
+        return databaseCores * 2 + 1;
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.albi.vehicles.bootstrap;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fails startup when {@code hibernate.jdbc.batch_size} is on but an entity's id is
+ * generated by the insert itself (IDENTITY): Hibernate must then execute every insert of
+ * that entity on its own to read the key back, and silently ignores the batch size.
+ * Hibernate's PostgreSQL dialect batches 15 statements by default, so this applies
+ * without any {@code batch_size} configured.
+ *
+ * <p>Entities listed in {@code vehicles.jdbc.batching.identity-id-entities} are known
+ * exceptions whose bulk writes take another path (here: the JDBC batches of
+ * {@code VehicleBatchUpserter}, {@code VehicleChangeLog} and {@code VehicleOutbox});
+ * they are logged, not rejected.</p>
+ */
+final class JdbcBatchingCheck implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcBatchingCheck.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final Set<String> allowed;
+
+    JdbcBatchingCheck(EntityManagerFactory entityManagerFactory, Collection<String> identityIdEntities) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.allowed = Set.copyOf(identityIdEntities);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        var sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        int batchSize = sessionFactory.getSessionFactoryOptions().getJdbcBatchSize();
+        if (batchSize <= 1) return;
+
+        var rejected = new ArrayList<String>();
+        for (var entity : unbatchableInserts(sessionFactory)) {
+            if (allowed.contains(entity.getSimpleName()) || allowed.contains(entity.getName())) {
+                log.info("{} has IDENTITY ids: its inserts run one by one despite hibernate.jdbc.batch_size={}",
+                        entity.getSimpleName(), batchSize);
+            } else {
+                rejected.add(entity.getName());
+            }
+        }
+        if (!rejected.isEmpty()) {
+            throw new IllegalStateException("hibernate.jdbc.batch_size=" + batchSize + " has no effect on inserts of "
+                    + rejected + ": their ids are generated by the insert (IDENTITY). Use a pooled sequence, "
+                    + "or list them in vehicles.jdbc.batching.identity-id-entities if bulk inserts go through JDBC");
+        }
+    }
+
+    /** Entities whose id is assigned by the database during the insert. */
+    static List<Class<?>> unbatchableInserts(SessionFactoryImplementor sessionFactory) {
+        var entities = new ArrayList<Class<?>>();
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            var generator = persister.getGenerator();
+            if (generator != null && generator.generatedOnExecution()) entities.add(persister.getMappedClass());
+        });
+        return entities;
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.albi.vehicles.bootstrap;
+
+import io.github.albi.vehicles.infrastructure.jdbc.QueryCountFilter;
+import io.github.albi.vehicles.infrastructure.jdbc.QueryCountingDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Statement accounting ({@code vehicles.jdbc.queries.enabled}, on by default): the data source
+ * is wrapped in a {@link QueryCountingDataSource}, outside the virtual-thread concurrency limit
+ * when that is on, and every request runs inside a {@link QueryCountFilter}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "vehicles.jdbc.queries.enabled", havingValue = "true", matchIfMissing = true)
+class QueryCaptureConfig {
+
+    @Bean
+    static BeanPostProcessor jdbcQueryCounting(@Value("${vehicles.jdbc.queries.slow-threshold:500ms}") Duration slowThreshold) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof QueryCountingDataSource)) {
+                    return new QueryCountingDataSource(dataSource, slowThreshold);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    FilterRegistrationBean<QueryCountFilter> queryCountFilter(MeterRegistry registry) {
+        return new FilterRegistrationBean<>(new QueryCountFilter(registry));
+    }
+
+    @Bean
+    MeterBinder jdbcStatementMetrics(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof QueryCountingDataSource counting)) return;
+            FunctionCounter.builder("vehicles.jdbc.statements", counting, QueryCountingDataSource::statements)
+                    .description("JDBC statements executed, in or out of a request")
+                    .register(registry);
+            FunctionCounter.builder("vehicles.jdbc.statements.slow", counting, QueryCountingDataSource::slowStatements)
+                    .description("JDBC statements at or over vehicles.jdbc.queries.slow-threshold; logged with their SQL")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,187 @@
+package io.github.albi.vehicles.bootstrap;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.github.albi.vehicles.adapters.cache.vehicle.FreshReads;
+import io.github.albi.vehicles.infrastructure.jdbc.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Read replicas, on when {@code vehicles.datasource.replicas.urls} lists any: the
+ * {@code dataSource} bean becomes a {@link ReplicaRoutingDataSource} over the primary and
+ * one Hikari pool per replica, configured like the primary's (credentials, size,
+ * timeouts, driver properties) and, in virtual-thread mode, behind the same kind of
+ * concurrency limit.
+ *
+ * <p>Replica lag is checked every {@code check-interval}. With the read cache on, a key
+ * invalidated within the last {@code max-lag} (by this node's writes or another's) is
+ * refilled from the primary, so the cache is not refilled from a replica that has not
+ * replayed the write yet. Every other read stays on the replicas, however many writes
+ * there are.</p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "vehicles.datasource.replicas.urls")
+class ReadReplicaConfig {
+
+    @Bean
+    static ReplicaRouting replicaRouting(@Value("${vehicles.datasource.replicas.urls}") List<String> urls,
+                                         @Value("${vehicles.datasource.replicas.max-lag:1s}") Duration maxLag) {
+        return new ReplicaRouting(urls, maxLag);
+    }
+
+    @Bean
+    ReplicaLagMonitor replicaLagMonitor(DataSource dataSource,
+                                        @Value("${vehicles.datasource.replicas.check-interval:1s}") Duration interval) {
+        return new ReplicaLagMonitor(routing(dataSource), interval);
+    }
+
+    /** Used by the read cache for keys it remembers as just written (see VehicleCacheConfig). */
+    @Bean
+    FreshReads primaryReads(DataSource dataSource) {
+        return routing(dataSource)::onPrimary;
+    }
+
+    @Bean
+    MeterBinder replicaMetrics(DataSource dataSource) {
+        return registry -> {
+            var routing = routing(dataSource);
+            for (var replica : routing.replicaNames()) {
+                Gauge.builder("vehicles.jdbc.replica.lag", routing, r -> r.lagSeconds(replica))
+                        .description("Replay lag at the last check, in seconds; NaN when the replica was unreachable")
+                        .tags("replica", replica)
+                        .register(registry);
+                Gauge.builder("vehicles.jdbc.replica.in-rotation", routing, r -> r.inRotation(replica) ? 1 : 0)
+                        .tags("replica", replica)
+                        .register(registry);
+                FunctionCounter.builder("vehicles.jdbc.replica.connections", routing, r -> r.replicaConnections(replica))
+                        .description("Read-only connections served by the replica")
+                        .tags("replica", replica)
+                        .register(registry);
+            }
+            FunctionCounter.builder("vehicles.jdbc.replica.primary-reads", routing, ReplicaRoutingDataSource::primaryReads)
+                    .description("Read-only connections served by the primary: after a write, a fresh cache refill, or no replica in rotation")
+                    .register(registry);
+        };
+    }
+
+    // wrapped again by QueryCountingDataSource when statement accounting is on
+    private static ReplicaRoutingDataSource routing(DataSource dataSource) {
+        try {
+            return dataSource.unwrap(ReplicaRoutingDataSource.class);
+        } catch (SQLException e) {
+            throw new IllegalStateException("vehicles.datasource.replicas.urls is set but the DataSource does not route", e);
+        }
+    }
+
+    /**
+     * Ordered right after the virtual-thread concurrency limit, so routing wraps the
+     * limited primary and unordered post-processors (statement accounting) wrap the router.
+     */
+    static final class ReplicaRouting implements BeanPostProcessor, Ordered {
+        private final List<String> urls;
+        private final Duration maxLag;
+
+        ReplicaRouting(List<String> urls, Duration maxLag) {
+            this.urls = urls;
+            this.maxLag = maxLag;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource primary) || !"dataSource".equals(beanName)) return bean;
+            HikariDataSource pool;
+            ConcurrencyLimitedDataSource limited;
+            try {
+                pool = primary.unwrap(HikariDataSource.class);
+                limited = primary.isWrapperFor(ConcurrencyLimitedDataSource.class)
+                        ? primary.unwrap(ConcurrencyLimitedDataSource.class) : null;
+            } catch (SQLException e) {
+                throw new BeanCreationException(beanName, "Read replicas need a Hikari primary pool to copy", e);
+            }
+            var replicas = new LinkedHashMap<String, DataSource>();
+            for (int i = 0; i < urls.size(); i++) {
+                var name = "replica-" + (i + 1);
+                var config = new HikariConfig();
+                pool.copyStateTo(config);
+                config.setJdbcUrl(urls.get(i).trim());
+                config.setPoolName(name);
+                config.setReadOnly(true);
+                var replica = new HikariDataSource(config);
+                replicas.put(name, limited == null ? replica
+                        : new ConcurrencyLimitedDataSource(replica, replica.getMaximumPoolSize(), limited.acquireTimeout()));
+            }
+            return new ReplicaRoutingDataSource(primary, replicas, maxLag, ReplicaRoutingDataSource.POSTGRES_LAG_QUERY);
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE + 1;
+        }
+    }
+
+    /** Checks replica lag from a daemon thread: once on start, then every {@code interval}. */
+    static final class ReplicaLagMonitor implements SmartLifecycle, DisposableBean {
+        private final ReplicaRoutingDataSource routing;
+        private final Duration interval;
+        private volatile boolean running;
+        private Thread checker;
+
+        ReplicaLagMonitor(ReplicaRoutingDataSource routing, Duration interval) {
+            this.routing = routing;
+            this.interval = interval;
+        }
+
+        @Override
+        public synchronized void start() {
+            if (running) return;
+            running = true;
+            routing.checkLag(); // replicas serve nothing until checked once
+            checker = Thread.ofPlatform().daemon().name("vehicle-replica-lag").start(this::check);
+        }
+
+        @Override
+        public synchronized void stop() {
+            running = false;
+            if (checker != null) checker.interrupt();
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        /** After the web server has stopped taking requests: the replica pools close with the context. */
+        @Override
+        public void destroy() throws Exception {
+            routing.close();
+        }
+
+        private void check() {
+            while (running) {
+                try {
+                    Thread.sleep(interval);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                routing.checkLag();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.albi.vehicles.bootstrap;
+
+import io.github.albi.vehicles.adapters.cache.vehicle.InMemoryVehicleInvalidationBus;
+import io.github.albi.vehicles.adapters.cache.vehicle.PgNotifyVehicleInvalidationBus;
+import io.github.albi.vehicles.adapters.cache.vehicle.VehicleCache;
+import io.github.albi.vehicles.adapters.cache.vehicle.VehicleCacheMetrics;
+import io.github.albi.vehicles.adapters.cache.vehicle.VehicleInvalidationBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Local vehicle cache plus the bus that keeps it in step with the other nodes.
+ * {@code vehicles.cache.invalidation.transport=postgres} (default, as in application.yml)
+ * for clustered deployments, {@code in-memory} for a single node.
+ */
+@Configuration
+@ConditionalOnProperty(name = "vehicles.cache.enabled", havingValue = "true", matchIfMissing = true)
+class VehicleCacheConfig {
+
+    @Bean
+    VehicleCache vehicleCache(VehicleInvalidationBus bus,
+                              @Value("${vehicles.cache.max-size:100000}") long maxSize,
+                              @Value("${vehicles.cache.ttl:10m}") Duration ttl,
+                              @Value("${vehicles.datasource.replicas.urls:}") String replicas,
+                              @Value("${vehicles.datasource.replicas.max-lag:1s}") Duration maxLag) {
+        // with replicas, a key written within max-lag is refilled from the primary (ReadReplicaConfig)
+        var cache = new VehicleCache(maxSize, ttl, replicas.isBlank() ? Duration.ZERO : maxLag);
+        bus.subscribe(cache::apply);
+        return cache;
+    }
+
+    @Bean
+    VehicleCacheMetrics vehicleCacheMetrics(VehicleCache cache) {
+        return new VehicleCacheMetrics(cache);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "vehicles.cache.invalidation.transport", havingValue = "postgres", matchIfMissing = true)
+    PgNotifyVehicleInvalidationBus pgNotifyVehicleInvalidationBus(
+            DataSource dataSource,
+            DataSourceProperties properties,
+            @Value("${vehicles.cache.invalidation.channel:vehicles_cache}") String channel,
+            @Value("${vehicles.cache.invalidation.max-keys-per-publish:1000}") int maxKeysPerPublish) {
+        // LISTEN holds its connection for good: open it outside the pool and the JDBC concurrency limit
+        var listenConnections = properties.initializeDataSourceBuilder().type(SimpleDriverDataSource.class).build();
+        return new PgNotifyVehicleInvalidationBus(dataSource, listenConnections, channel, maxKeysPerPublish);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "vehicles.cache.invalidation.transport", havingValue = "in-memory")
+    InMemoryVehicleInvalidationBus inMemoryVehicleInvalidationBus() {
+        return new InMemoryVehicleInvalidationBus();
+    }
+}
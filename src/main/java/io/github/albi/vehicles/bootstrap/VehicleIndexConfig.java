@@ -0,0 +1,33 @@
+package io.github.albi.vehicles.bootstrap;
+
+import io.github.albi.vehicles.adapters.index.vehicle.VehicleBitmapIndex;
+import io.github.albi.vehicles.adapters.index.vehicle.VehicleIndexFeed;
+import io.github.albi.vehicles.domain.vehicle.VehicleRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * In-memory search index, off unless {@code vehicles.index.enabled=true}. Each node
+ * builds its own from the change feed on start and searches the database until it has.
+ */
+@Configuration
+@ConditionalOnProperty(name = "vehicles.index.enabled", havingValue = "true")
+class VehicleIndexConfig {
+
+    @Bean
+    VehicleBitmapIndex vehicleBitmapIndex() {
+        return new VehicleBitmapIndex();
+    }
+
+    @Bean
+    VehicleIndexFeed vehicleIndexFeed(VehicleRepository repo, VehicleBitmapIndex index,
+                                      @Value("${vehicles.index.batch-size:1000}") int batchSize,
+                                      @Value("${vehicles.index.refresh-interval:1s}") Duration refreshInterval,
+                                      @Value("${vehicles.index.max-backoff:30s}") Duration maxBackoff) {
+        return new VehicleIndexFeed(repo, index, batchSize, refreshInterval, maxBackoff);
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.albi.vehicles.bootstrap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.albi.vehicles.adapters.messaging.vehicle.FileVehicleEventPublisher;
+import io.github.albi.vehicles.adapters.messaging.vehicle.InMemoryVehicleEventPublisher;
+import io.github.albi.vehicles.adapters.messaging.vehicle.VehicleOutboxDispatcher;
+import io.github.albi.vehicles.adapters.messaging.vehicle.VehicleOutboxMetrics;
+import io.github.albi.vehicles.domain.vehicle.VehicleEventPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Background publishing of the vehicle event outbox. There is no default publisher:
+ * with {@code vehicles.outbox.publisher} unset the dispatcher does not run, and events
+ * wait in the outbox until one is configured. {@code file} and {@code in-memory} are
+ * for development and tests (see {@code application-dev.yml}); any other value expects
+ * the application to declare its own {@link VehicleEventPublisher} bean.
+ */
+@Configuration
+@ConditionalOnProperty(name = "vehicles.outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+class VehicleOutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "vehicles.outbox.publisher", havingValue = "file")
+    FileVehicleEventPublisher fileVehicleEventPublisher(ObjectMapper mapper,
+                                                        @Value("${vehicles.outbox.file:vehicle-events.ndjson}") String file) {
+        return new FileVehicleEventPublisher(Path.of(file), mapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "vehicles.outbox.publisher", havingValue = "in-memory")
+    InMemoryVehicleEventPublisher inMemoryVehicleEventPublisher() {
+        return new InMemoryVehicleEventPublisher();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "vehicles.outbox.publisher")
+    VehicleOutboxDispatcher vehicleOutboxDispatcher(
+            DataSource dataSource, PlatformTransactionManager txManager, VehicleEventPublisher publisher,
+            @Value("${vehicles.outbox.dispatcher.parallelism:4}") int parallelism,
+            @Value("${vehicles.outbox.dispatcher.batch-size:200}") int batchSize,
+            @Value("${vehicles.outbox.dispatcher.poll-interval:200ms}") Duration pollInterval,
+            @Value("${vehicles.outbox.dispatcher.max-backoff:30s}") Duration maxBackoff) {
+        return new VehicleOutboxDispatcher(dataSource, txManager, publisher, parallelism, batchSize,
+                pollInterval, maxBackoff);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "vehicles.outbox.publisher")
+    VehicleOutboxMetrics vehicleOutboxMetrics(VehicleOutboxDispatcher dispatcher) {
+        return new VehicleOutboxMetrics(dispatcher);
+    }
+}
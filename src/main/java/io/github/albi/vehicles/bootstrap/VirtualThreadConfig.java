@@ -0,0 +1,97 @@
+package io.github.albi.vehicles.bootstrap;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Virtual-thread mode, on when {@code spring.threads.virtual.enabled=true} (the
+ * {@code virtual-threads} profile). Boot then runs Tomcat requests and MVC async
+ * work (NDJSON streams, change-feed long polls) on virtual threads; this adds the
+ * limit those threads no longer impose: JDBC concurrency is capped at the Hikari
+ * pool size by a {@link ConcurrencyLimitedDataSource}.
+ *
+ * <p>Requests then queue for a permit, not inside Hikari, so {@code hikaricp.connections.acquire}
+ * stays near zero while they wait; {@code vehicles.jdbc.permits.*} shows that wait instead.</p>
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+class VirtualThreadConfig {
+
+    @Bean
+    static JdbcConcurrencyLimit jdbcConcurrencyLimit(@Value("${vehicles.jdbc.acquire-timeout:5s}") Duration acquireTimeout) {
+        return new JdbcConcurrencyLimit(acquireTimeout);
+    }
+
+    @Bean
+    MeterBinder jdbcPermitMetrics(DataSource dataSource) {
+        return registry -> {
+            var limited = limit(dataSource);
+            if (limited == null) return;
+            Gauge.builder("vehicles.jdbc.permits.active", limited, ConcurrencyLimitedDataSource::inUse)
+                    .description("Connections checked out through the JDBC concurrency limit")
+                    .register(registry);
+            Gauge.builder("vehicles.jdbc.permits.pending", limited, ConcurrencyLimitedDataSource::waiting)
+                    .description("Requests queued for a database connection")
+                    .register(registry);
+            FunctionTimer.builder("vehicles.jdbc.permits.acquire", limited,
+                            ConcurrencyLimitedDataSource::acquired, ConcurrencyLimitedDataSource::waitNanos,
+                            TimeUnit.NANOSECONDS)
+                    .description("Time spent queued for a database connection")
+                    .register(registry);
+            FunctionCounter.builder("vehicles.jdbc.permits.timeouts", limited, ConcurrencyLimitedDataSource::timeouts)
+                    .description("Requests that gave up waiting and got a 503")
+                    .register(registry);
+        };
+    }
+
+    // wrapped again by QueryCountingDataSource when statement accounting is on
+    private static ConcurrencyLimitedDataSource limit(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ConcurrencyLimitedDataSource.class)
+                    ? dataSource.unwrap(ConcurrencyLimitedDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Ordered, so it wraps the Hikari pool before unordered post-processors (statement
+     * accounting) wrap the result. The {@code @Bean} method returns this type: Spring reads
+     * the order from it before the post-processor is created.
+     */
+    static final class JdbcConcurrencyLimit implements BeanPostProcessor, Ordered {
+        private final Duration acquireTimeout;
+
+        JdbcConcurrencyLimit(Duration acquireTimeout) {
+            this.acquireTimeout = acquireTimeout;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource hikari) {
+                return new ConcurrencyLimitedDataSource(hikari, hikari.getMaximumPoolSize(), acquireTimeout);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.albi.vehicles.domain.vehicle;
+
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Non-blocking counterpart of the read side of {@link VehicleRepository}: no call waits
+ * for the database, results arrive later on the driver's I/O threads. Uses the JDK's
+ * {@link CompletionStage} and {@link Flow} so the domain stays free of reactive libraries.
+ */
+public interface ReactiveVehicleReader {
+    CompletionStage<Optional<Vehicle>> findById(VehicleId id);
+
+    // Same contract as VehicleRepository.search.
+    CompletionStage<VehiclePage> search(VehicleFilter filter, VehicleSort sort, VehicleCursor after, int limit);
+
+    // Every match, read from the database only as fast as the subscriber requests rows.
+    Flow.Publisher<Vehicle> exportAll(VehicleFilter filter);
+}
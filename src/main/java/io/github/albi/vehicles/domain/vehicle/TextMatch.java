@@ -0,0 +1,11 @@
+package io.github.albi.vehicles.domain.vehicle;
+
+/** How the free-text filters ({@code make}, {@code model}) compare; always case-insensitive. */
+public enum TextMatch {
+    EXACT,
+    PREFIX,
+    /** Substring match; needs at least {@link #MIN_CONTAINS_LENGTH} characters to be index-backed. */
+    CONTAINS;
+
+    public static final int MIN_CONTAINS_LENGTH = 3;
+}
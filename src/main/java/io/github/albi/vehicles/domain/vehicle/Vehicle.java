@@ -1,5 +1,6 @@
 package io.github.albi.vehicles.domain.vehicle;
 
+import java.time.Instant;
 import java.util.Objects;
 
 public final class Vehicle {
@@ -12,6 +13,8 @@ public final class Vehicle {
     private final FuelType fuelType;
     private final String color;               // optional
     private final String registrationNumber;  // optional (plate)
+    private final long version;               // bumped by every write; optimistic concurrency token
+    private final Instant updatedAt;          // time of the last write; null when not loaded from storage
 
     public Vehicle(
             VehicleId id,
@@ -23,6 +26,22 @@ public final class Vehicle {
             FuelType fuelType,
             String color,
             String registrationNumber
+    ) {
+        this(id, vin, type, make, model, year, fuelType, color, registrationNumber, 0, null);
+    }
+
+    public Vehicle(
+            VehicleId id,
+            Vin vin,
+            VehicleType type,
+            String make,
+            String model,
+            int year,
+            FuelType fuelType,
+            String color,
+            String registrationNumber,
+            long version,
+            Instant updatedAt
     ) {
         if (id == null) throw new IllegalArgumentException("id is required");
         if (vin == null) throw new IllegalArgumentException("vin is required");
@@ -43,6 +62,8 @@ public final class Vehicle {
         this.registrationNumber = (registrationNumber == null || registrationNumber.isBlank())
                 ? null
                 : registrationNumber.trim().toUpperCase();
+        this.version = version;
+        this.updatedAt = updatedAt;
     }
 
     public VehicleId id() { return id; }
@@ -54,4 +75,6 @@ public final class Vehicle {
     public FuelType fuelType() { return fuelType; }
     public String color() { return color; }
     public String registrationNumber() { return registrationNumber; }
+    public long version() { return version; }
+    public Instant updatedAt() { return updatedAt; }
 }
\ No newline at end of file
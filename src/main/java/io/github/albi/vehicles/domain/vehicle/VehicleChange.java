@@ -0,0 +1,24 @@
+package io.github.albi.vehicles.domain.vehicle;
+
+/**
+ * One entry of the change feed: vehicle {@code id} was written or deleted at
+ * position {@code seq}. The feed has a fixed order, so a client that remembers the
+ * last {@code seq} it applied can ask for everything after it; seqs need not rise
+ * along it.
+ *
+ * @param vehicle the vehicle as it is now, or {@code null} for a deletion (tombstone)
+ */
+public record VehicleChange(long seq, VehicleId id, Vehicle vehicle) {
+
+    public static VehicleChange upsert(long seq, Vehicle vehicle) {
+        return new VehicleChange(seq, vehicle.id(), vehicle);
+    }
+
+    public static VehicleChange deletion(long seq, VehicleId id) {
+        return new VehicleChange(seq, id, null);
+    }
+
+    public boolean deleted() {
+        return vehicle == null;
+    }
+}
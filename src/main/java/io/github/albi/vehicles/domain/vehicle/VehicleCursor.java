@@ -0,0 +1,51 @@
+package io.github.albi.vehicles.domain.vehicle;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Keyset position of the last vehicle on a page: {@code (sort key, id)}.
+ *
+ * <p>Clients only ever see the {@link #encode() encoded} form, which is opaque and
+ * URL-safe. The next page starts strictly after this position, so fetching page N
+ * costs the same as fetching the first page.</p>
+ */
+public record VehicleCursor(VehicleSort sort, String sortValue, long lastId) {
+
+    private static final String VERSION = "v1";
+    private static final char SEP = '|';
+
+    public VehicleCursor {
+        Objects.requireNonNull(sort, "sort is required");
+        Objects.requireNonNull(sortValue, "sortValue is required");
+        if (lastId <= 0) throw new IllegalArgumentException("lastId must be positive");
+    }
+
+    public static VehicleCursor after(VehicleSort sort, Vehicle last) {
+        return new VehicleCursor(sort, sort.keyOf(last), last.id().value());
+    }
+
+    public String encode() {
+        // sortValue goes last: it is free text (make) and may contain the separator
+        var raw = VERSION + SEP + sort.name() + SEP + lastId + SEP + sortValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** @throws IllegalArgumentException if the token was not produced by {@link #encode()} */
+    public static VehicleCursor decode(String token) {
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            var parts = raw.split("\\|", 4);
+            if (parts.length != 4 || !VERSION.equals(parts[0])) throw new IllegalArgumentException();
+            var sort = VehicleSort.valueOf(parts[1]);
+            if (sort == VehicleSort.MODEL_YEAR) Integer.parseInt(parts[3]);
+            if (sort == VehicleSort.RELEVANCE && !Float.isFinite(Float.parseFloat(parts[3]))) {
+                throw new IllegalArgumentException();
+            }
+            return new VehicleCursor(sort, parts[3], Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
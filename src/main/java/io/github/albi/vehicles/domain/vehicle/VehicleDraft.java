@@ -0,0 +1,22 @@
+package io.github.albi.vehicles.domain.vehicle;
+
+import java.util.Objects;
+
+/**
+ * Vehicle data without an identity yet: one item of a bulk create/upsert.
+ * The VIN is the natural key that decides between insert and update.
+ */
+public record VehicleDraft(
+        Vin vin,
+        VehicleType type,
+        String make,
+        String model,
+        Integer year,
+        FuelType fuelType,
+        String color,
+        String registrationNumber
+) {
+    public VehicleDraft {
+        Objects.requireNonNull(vin, "vin is required");
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.albi.vehicles.domain.vehicle;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Integration event for a committed write, as published from the outbox.
+ *
+ * @param id         outbox position; unique and increasing per vehicle, so consumers
+ *                   can drop redeliveries (publishing is at-least-once)
+ * @param payload    the vehicle as JSON, in the shape the REST API returns; null for deletions
+ * @param occurredAt when the write's transaction ran
+ */
+public record VehicleEvent(long id, Type type, VehicleId vehicleId, String payload, Instant occurredAt) {
+
+    public enum Type {
+        CREATED("VehicleCreated"),
+        UPDATED("VehicleUpdated"),
+        DELETED("VehicleDeleted");
+
+        private final String eventName;
+
+        Type(String eventName) {
+            this.eventName = eventName;
+        }
+
+        /** The name on the wire and in the outbox table. */
+        public String eventName() {
+            return eventName;
+        }
+
+        public static Type ofEventName(String eventName) {
+            return Arrays.stream(values()).filter(t -> t.eventName.equals(eventName)).findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown vehicle event: " + eventName));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.albi.vehicles.domain.vehicle;
+
+import java.util.List;
+
+/**
+ * Where outbox events go (a broker, a file, a test list). Called from the outbox
+ * dispatcher, never from a write path.
+ */
+public interface VehicleEventPublisher {
+
+    /**
+     * Publishes the batch, in order. Returning normally means every event was
+     * accepted; throwing means the whole batch is retried later, so events that did
+     * get through before the failure are delivered again.
+     */
+    void publish(List<VehicleEvent> events) throws Exception;
+}
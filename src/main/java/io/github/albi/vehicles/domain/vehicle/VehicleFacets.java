@@ -0,0 +1,30 @@
+package io.github.albi.vehicles.domain.vehicle;
+
+import java.util.Map;
+
+/**
+ * Vehicle counts grouped by type, fuel type, make and model year.
+ *
+ * <p>Each map only holds values with at least one vehicle. Makes are grouped
+ * by their stored spelling.</p>
+ *
+ * @param total number of vehicles counted (the sum of every single facet)
+ */
+public record VehicleFacets(
+        long total,
+        Map<VehicleType, Long> types,
+        Map<FuelType, Long> fuelTypes,
+        Map<String, Long> makes,
+        Map<Integer, Long> modelYears
+) {
+    public VehicleFacets {
+        types = Map.copyOf(types);
+        fuelTypes = Map.copyOf(fuelTypes);
+        makes = Map.copyOf(makes);
+        modelYears = Map.copyOf(modelYears);
+    }
+
+    public static VehicleFacets empty() {
+        return new VehicleFacets(0, Map.of(), Map.of(), Map.of(), Map.of());
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.albi.vehicles.domain.vehicle;
+
+/**
+ * Optional search filters for vehicles.
+ *
+ * <p>Null or blank values apply no constraint. {@code vin} and {@code registrationNumber}
+ * act as unique lookups if present. {@code match} says how {@code make} and {@code model}
+ * compare (default {@link TextMatch#EXACT}). {@code text} is a free-text query over make, model,
+ * colour and plate (web search syntax: every word must appear, {@code "quoted phrase"},
+ * {@code or}, {@code -word}).</p>
+ */
+public record VehicleFilter(
+        String make,
+        String model,
+        Integer year,
+        VehicleType type,
+        FuelType fuelType,
+        String vin,
+        String registrationNumber,
+        TextMatch match,
+        String text
+) {
+    public VehicleFilter {
+        if (match == null) match = TextMatch.EXACT;
+    }
+
+    public VehicleFilter(String make, String model, Integer year, VehicleType type, FuelType fuelType,
+                         String vin, String registrationNumber, TextMatch match) {
+        this(make, model, year, type, fuelType, vin, registrationNumber, match, null);
+    }
+
+    public VehicleFilter(String make, String model, Integer year, VehicleType type, FuelType fuelType,
+                         String vin, String registrationNumber) {
+        this(make, model, year, type, fuelType, vin, registrationNumber, TextMatch.EXACT);
+    }
+
+    public static VehicleFilter none() {
+        return new VehicleFilter(null, null, null, null, null, null, null);
+    }
+
+    /** True when no filter constrains anything, i.e. the whole fleet matches. */
+    public boolean isEmpty() {
+        return isBlank(make) && isBlank(model) && year == null && type == null && fuelType == null
+                && !hasVin() && !hasRegistrationNumber() && !hasText();
+    }
+
+    public boolean hasVin() { return vin != null && !vin.isBlank(); }
+    public boolean hasRegistrationNumber() { return registrationNumber != null && !registrationNumber.isBlank(); }
+    public boolean hasText() { return text != null && !text.isBlank(); }
+
+    private static boolean isBlank(String s) { return s == null || s.isBlank(); }
+}
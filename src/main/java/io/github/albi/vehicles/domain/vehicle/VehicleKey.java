@@ -0,0 +1,46 @@
+package io.github.albi.vehicles.domain.vehicle;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Names one vehicle by exactly one of its unique keys: id, VIN or registration number.
+ *
+ * <p>Registration numbers compare case-insensitively, as in
+ * {@link VehicleRepository#findByRegistrationNumber}; {@link #registrationNumber()} is
+ * kept trimmed and upper-cased, the form they are compared in.</p>
+ */
+public record VehicleKey(VehicleId id, Vin vin, String registrationNumber) {
+
+    public VehicleKey {
+        int given = (id != null ? 1 : 0) + (vin != null ? 1 : 0) + (registrationNumber != null ? 1 : 0);
+        if (given != 1) throw new IllegalArgumentException("exactly one of id, vin, registrationNumber is required");
+        if (registrationNumber != null) {
+            if (registrationNumber.isBlank()) throw new IllegalArgumentException("registrationNumber must not be blank");
+            registrationNumber = plate(registrationNumber);
+        }
+    }
+
+    public static VehicleKey of(VehicleId id) {
+        return new VehicleKey(id, null, null);
+    }
+
+    public static VehicleKey of(Vin vin) {
+        return new VehicleKey(null, vin, null);
+    }
+
+    public static VehicleKey ofRegistrationNumber(String registrationNumber) {
+        return new VehicleKey(null, null, registrationNumber);
+    }
+
+    /** Every key that names {@code v}: equal to any key a caller could have used for it. */
+    public static List<VehicleKey> allOf(Vehicle v) {
+        return v.registrationNumber() == null
+                ? List.of(of(v.id()), of(v.vin()))
+                : List.of(of(v.id()), of(v.vin()), ofRegistrationNumber(v.registrationNumber()));
+    }
+
+    private static String plate(String registrationNumber) {
+        return registrationNumber.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.albi.vehicles.domain.vehicle;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated search.
+ *
+ * @param items vehicles on this page, in sort order
+ * @param next  position to continue from, or {@code null} on the last page
+ */
+public record VehiclePage(List<Vehicle> items, VehicleCursor next) {
+
+    public VehiclePage {
+        items = List.copyOf(items);
+    }
+
+    public static VehiclePage empty() {
+        return new VehiclePage(List.of(), null);
+    }
+
+    /**
+     * Builds a page from a "limit + 1" fetch: the extra row only signals that
+     * another page exists and is not returned.
+     */
+    public static VehiclePage of(List<Vehicle> fetched, int limit, VehicleSort sort) {
+        if (fetched.size() <= limit) return new VehiclePage(fetched, null);
+        var items = fetched.subList(0, limit);
+        return new VehiclePage(items, VehicleCursor.after(sort, items.getLast()));
+    }
+
+    public boolean hasNext() { return next != null; }
+}
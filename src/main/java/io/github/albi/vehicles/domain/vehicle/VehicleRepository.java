@@ -4,21 +4,47 @@ package io.github.albi.vehicles.domain.vehicle;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface VehicleRepository {
     Optional<Vehicle> findById(VehicleId id);
+    // Version and last-modified time only, for conditional GETs: no full row is read or mapped.
+    Optional<VehicleVersion> findVersionById(VehicleId id);
     Optional<Vehicle> findByVin(Vin vin);
     Optional<Vehicle> findByRegistrationNumber(String registrationNumber);
 
+    // Multi-get: every vehicle one of the keys names, each once, in no particular order; keys
+    // naming no vehicle are left out. A handful of queries however many keys (chunked IN lists).
+    List<Vehicle> findAll(List<VehicleKey> keys);
+
     // Filters are optional; vin/regNo act as unique lookups if present.
-    List<Vehicle> search(String make, String model, Integer year,
-                         VehicleType type, FuelType fuelType,
-                         String vin, String registrationNumber);
+    // Keyset pagination: returns at most `limit` vehicles strictly after `after` (null = first page).
+    VehiclePage search(VehicleFilter filter, VehicleSort sort, VehicleCursor after, int limit);
+
+    // Streams every match to the sink as it is read; memory stays flat regardless of result size.
+    void exportAll(VehicleFilter filter, Consumer<? super Vehicle> sink);
+
+    // Counts of matching vehicles per type, fuel type, make and model year.
+    VehicleFacets facets(VehicleFilter filter);
+
+    // Up to `limit` distinct values of `field` starting with `prefix` (case-insensitive), in order.
+    List<String> suggest(VehicleTextField field, String prefix, int limit);
+
+    // Change feed: at most `limit` changes after position `since`, oldest first, one per vehicle
+    // (its latest). Stops before any position a still-running write may yet fill.
+    List<VehicleChange> changesSince(long since, int limit);
+
     Vehicle create(Vin vin, VehicleType type, String make, String model, Integer year,
                    FuelType fuelType, String color, String registrationNumber);
 
-    Vehicle update(VehicleId id, Vin vin, VehicleType type, String make, String model, Integer year,
-                   FuelType fuelType, String color, String registrationNumber);
+    // Insert-or-update by VIN. Results are positional: result i belongs to drafts.get(i).
+    List<VehicleUpsertResult> upsertAll(List<VehicleDraft> drafts);
+
+    // Single statement, no read first. Empty when no vehicle has this id. With expectedVersion
+    // set, a vehicle at any other version throws VehicleVersionConflictException instead.
+    Optional<Vehicle> update(VehicleId id, Long expectedVersion, Vin vin, VehicleType type, String make,
+                             String model, Integer year, FuelType fuelType, String color, String registrationNumber);
 
-    void delete(VehicleId id);
+    // Single statement; false when no vehicle has this id. expectedVersion as for update.
+    boolean delete(VehicleId id, Long expectedVersion);
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package io.github.albi.vehicles.domain.vehicle;
+
+/**
+ * Sort keys supported by keyset-paginated search. Ties are always broken by id (ascending).
+ * {@link #RELEVANCE} orders the matches of a free-text query best first; its key is the
+ * rank the database computed for the query, not a field of the vehicle.
+ */
+public enum VehicleSort {
+    ID, MODEL_YEAR, MAKE, RELEVANCE;
+
+    /** The value of this sort key for the given vehicle, as carried in a {@link VehicleCursor}. */
+    String keyOf(Vehicle v) {
+        return switch (this) {
+            case ID -> String.valueOf(v.id().value());
+            case MODEL_YEAR -> String.valueOf(v.year());
+            case MAKE -> v.make();
+            case RELEVANCE -> throw new IllegalStateException("A rank is not a vehicle field; the search supplies it");
+        };
+    }
+}
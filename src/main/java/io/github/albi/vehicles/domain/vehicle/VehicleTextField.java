@@ -0,0 +1,7 @@
+package io.github.albi.vehicles.domain.vehicle;
+
+/** Free-text vehicle attributes that support type-ahead suggestions. */
+public enum VehicleTextField {
+    MAKE,
+    MODEL
+}
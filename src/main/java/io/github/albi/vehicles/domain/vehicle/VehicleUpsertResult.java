@@ -0,0 +1,16 @@
+package io.github.albi.vehicles.domain.vehicle;
+
+/**
+ * Outcome of upserting one {@link VehicleDraft}.
+ *
+ * @param id    id of the created/updated vehicle, {@code null} when the item failed
+ * @param error human-readable reason, only set when the item failed
+ */
+public record VehicleUpsertResult(Outcome outcome, VehicleId id, String error) {
+
+    public enum Outcome { CREATED, UPDATED, FAILED }
+
+    public static VehicleUpsertResult created(VehicleId id) { return new VehicleUpsertResult(Outcome.CREATED, id, null); }
+    public static VehicleUpsertResult updated(VehicleId id) { return new VehicleUpsertResult(Outcome.UPDATED, id, null); }
+    public static VehicleUpsertResult failed(String error) { return new VehicleUpsertResult(Outcome.FAILED, null, error); }
+}
@@ -0,0 +1,9 @@
+package io.github.albi.vehicles.domain.vehicle;
+
+import java.time.Instant;
+
+/**
+ * Just enough of a stored vehicle to answer a conditional read: both values change
+ * on every write, so a client holding the same ones already has the current data.
+ */
+public record VehicleVersion(long version, Instant updatedAt) {}
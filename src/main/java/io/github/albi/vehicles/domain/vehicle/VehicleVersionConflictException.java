@@ -0,0 +1,16 @@
+package io.github.albi.vehicles.domain.vehicle;
+
+/**
+ * Thrown when a write names the version it expects to replace (e.g. from an
+ * {@code If-Match} header) and the stored vehicle has moved on since.
+ */
+public final class VehicleVersionConflictException extends RuntimeException {
+
+    /**
+     * @param id       the vehicle that was written concurrently
+     * @param expected the version the caller based its write on
+     */
+    public VehicleVersionConflictException(VehicleId id, long expected) {
+        super("Vehicle " + id.value() + " was modified concurrently (expected version " + expected + ")");
+    }
+}
@@ -1,24 +1,93 @@
 package io.github.albi.vehicles.domain.vehicle;
 
+import java.util.Arrays;
 import java.util.Objects;
 
-/** ISO-3779 VIN (17 chars, excludes I,O,Q). Normalized to uppercase. */
+/**
+ * ISO-3779 VIN (17 chars, excludes I,O,Q). Normalized to uppercase.
+ *
+ * <p>Validation is a single table-driven pass over the characters. Input that is
+ * already normalized (as every VIN read back from the database is) is kept as-is,
+ * so constructing a {@code Vin} from it allocates nothing but the {@code Vin}.</p>
+ */
 public class Vin {
-    private static final String PATTERN = "^[A-HJ-NPR-Z0-9]{17}$";
+    private static final int LENGTH = 17;
+    private static final int CHECK_DIGIT_POSITION = 8; // 9th character
+
+    /** Transliteration values for the check digit, by (uppercase ASCII) character; -1 = not allowed in a VIN. */
+    private static final byte[] VALUES = new byte[128];
+    private static final int[] WEIGHTS = {8, 7, 6, 5, 4, 3, 2, 10, 0, 9, 8, 7, 6, 5, 4, 3, 2};
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (char c = '0'; c <= '9'; c++) VALUES[c] = (byte) (c - '0');
+        var letters = "ABCDEFGHJKLMNPRSTUVWXYZ";
+        var values  = "12345678123457923456789";
+        for (int i = 0; i < letters.length(); i++) VALUES[letters.charAt(i)] = (byte) (values.charAt(i) - '0');
+    }
 
     private final String value;
 
     public Vin(String value) {
         Objects.requireNonNull(value, "vin is required");
-        var v = value.trim().toUpperCase();
-        if (!v.matches(PATTERN)) {
-            throw new IllegalArgumentException("Invalid VIN: must be 17 chars A-HJ-NPR-Z0-9");
+        this.value = isNormalized(value) ? value : normalize(value);
+    }
+
+    /** Like the constructor, but also requires a correct check digit (North American VINs). */
+    public static Vin checked(String value) {
+        var vin = new Vin(value);
+        if (!vin.hasValidCheckDigit()) {
+            throw new IllegalArgumentException("Invalid VIN: check digit does not match");
         }
-        this.value = v;
+        return vin;
+    }
+
+    /**
+     * ISO 3779 / 49 CFR 565 check digit in position 9. Only mandatory for vehicles
+     * sold in North America, so it is not part of basic validation.
+     */
+    public boolean hasValidCheckDigit() {
+        int sum = 0;
+        for (int i = 0; i < LENGTH; i++) sum += VALUES[value.charAt(i)] * WEIGHTS[i];
+        int remainder = sum % 11;
+        return value.charAt(CHECK_DIGIT_POSITION) == (remainder == 10 ? 'X' : (char) ('0' + remainder));
     }
 
     public String value() { return value; }
 
+    private static boolean isNormalized(String v) {
+        if (v.length() != LENGTH) return false;
+        for (int i = 0; i < LENGTH; i++) {
+            if (!allowed(v.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /** Same rules as before: trim, uppercase (ASCII only), then exactly 17 allowed characters. */
+    private static String normalize(String raw) {
+        int start = 0, end = raw.length();
+        while (start < end && raw.charAt(start) <= ' ') start++;
+        while (end > start && raw.charAt(end - 1) <= ' ') end--;
+        if (end - start != LENGTH) throw invalid();
+
+        var chars = new char[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            char c = raw.charAt(start + i);
+            if (c >= 'a' && c <= 'z') c -= 'a' - 'A';
+            if (!allowed(c)) throw invalid();
+            chars[i] = c;
+        }
+        return new String(chars);
+    }
+
+    private static boolean allowed(char c) {
+        return c < VALUES.length && VALUES[c] >= 0;
+    }
+
+    private static IllegalArgumentException invalid() {
+        return new IllegalArgumentException("Invalid VIN: must be 17 chars A-HJ-NPR-Z0-9");
+    }
+
     @Override public String toString() { return value; }
     @Override public boolean equals(Object o) { return (o instanceof Vin vin) && value.equals(vin.value); }
     @Override public int hashCode() { return value.hashCode(); }
@@ -0,0 +1,62 @@
+package io.github.albi.vehicles.infrastructure.jdbc;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opens a {@link RequestQueries} scope around every request, leaves it in the
+ * {@link RequestQueries#REQUEST_ATTRIBUTE} request attribute, and records its count as
+ * {@code vehicles.http.queries{method,uri}}, {@code uri} being the matched path pattern
+ * as in {@code http.server.requests}.
+ */
+public final class QueryCountFilter extends OncePerRequestFilter {
+
+    static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry registry;
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public QueryCountFilter(MeterRegistry registry) {
+        this.registry = Objects.requireNonNull(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var queries = RequestQueries.begin(request.getMethod() + " " + request.getRequestURI());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestQueries.end();
+            request.setAttribute(RequestQueries.REQUEST_ATTRIBUTE, queries);
+            summary(request.getMethod(), uri(request)).record(queries.count());
+        }
+    }
+
+    // the pattern, not the path: one series per endpoint whatever the ids in the URL
+    private static String uri(HttpServletRequest request) {
+        return request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String pattern
+                ? pattern : UNKNOWN_URI;
+    }
+
+    private DistributionSummary summary(String method, String uri) {
+        return summaries.computeIfAbsent(method + " " + uri, key -> DistributionSummary.builder("vehicles.http.queries")
+                .description("JDBC statements executed per HTTP request, on the request thread")
+                .baseUnit("statements")
+                .tags("method", method, "uri", uri)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(100.0)
+                .register(registry));
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.albi.vehicles.infrastructure.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts and times every statement executed through its connections.
+ *
+ * <p>Each {@code execute*} call is one statement (a batch included: it is one round trip)
+ * and is added to the {@link RequestQueries} open on the calling thread, if any. Calls
+ * taking {@code slowThreshold} or longer are logged at WARN with their SQL, which is the
+ * text the statement was prepared with: bind values are never logged.</p>
+ *
+ * <p>Only statement execution is timed; waiting for a connection shows in the pool's metrics.</p>
+ */
+public final class QueryCountingDataSource extends DelegatingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCountingDataSource.class);
+
+    private final long slowThresholdNanos;
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+
+    public QueryCountingDataSource(DataSource target, Duration slowThreshold) {
+        super(target);
+        if (slowThreshold.isNegative()) throw new IllegalArgumentException("slowThreshold must not be negative");
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    /** Statements executed so far, in or out of a request. */
+    public long statements() {
+        return statements.sum();
+    }
+
+    /** Statements that took the slow threshold or longer. */
+    public long slowStatements() {
+        return slow.sum();
+    }
+
+    private Connection counting(Connection target) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    var result = invoke(target, method, args);
+                    if (result instanceof Statement statement) {
+                        // prepareStatement / prepareCall carry the SQL; createStatement gets it per execute
+                        var sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                        return counting(statement, method.getReturnType(), sql, (Connection) proxy);
+                    }
+                    return result;
+                });
+    }
+
+    private Statement counting(Statement target, Class<?> type, String preparedSql, Connection connection) {
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getConnection") && method.getParameterCount() == 0) return connection;
+                    if (!method.getName().startsWith("execute")) return invoke(target, method, args);
+                    var sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                    long start = System.nanoTime();
+                    try {
+                        return invoke(target, method, args);
+                    } finally {
+                        record(sql, System.nanoTime() - start);
+                    }
+                });
+    }
+
+    private void record(String sql, long elapsedNanos) {
+        statements.increment();
+        var request = RequestQueries.current();
+        if (request != null) request.record(sql, elapsedNanos);
+        if (elapsedNanos >= slowThresholdNanos) {
+            slow.increment();
+            log.warn("Slow query ({} ms{}): {}", elapsedNanos / 1_000_000,
+                    request == null ? "" : ", " + request.request(), sql == null ? "<batch>" : sql);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package io.github.albi.vehicles.infrastructure.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to read replicas and everything else to the primary.
+ *
+ * <p>Built on {@link LazyConnectionDataSourceProxy}: a read-only transaction
+ * ({@code @Transactional(readOnly = true)}, Spring Data's finders) marks its connection
+ * read-only before the first statement, and only then is a physical connection taken:
+ * from a replica, the one with the fewest connections checked out (ties in turn).
+ * Writes, and reads outside a read-only transaction, use the primary.</p>
+ *
+ * <p>{@link #checkLag()} runs {@code lagQuery} on every replica: one whose replay lag is
+ * over {@code maxLag}, or that cannot be reached, leaves rotation until it has caught up.
+ * With no replica in rotation, reads go to the primary. Replicas start out of rotation.</p>
+ *
+ * <p>Read-your-writes: once a thread has taken a primary connection (to write, or to read
+ * outside a read-only transaction), its reads stay on the primary for {@code maxLag}, by
+ * which time the replicas in rotation have replayed the write. For writes made elsewhere,
+ * {@link #onPrimary} sends a single read there: a cache refilling a key it has just heard
+ * was written.</p>
+ */
+public final class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    /** Seconds a Postgres standby is behind: 0 on a primary, or once everything it received is replayed. */
+    public static final String POSTGRES_LAG_QUERY = """
+            select case when not pg_is_in_recovery() then 0
+                        when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                        else extract(epoch from now() - pg_last_xact_replay_timestamp()) end""";
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagNanos;
+    private final String lagQuery;
+    private final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
+    private final ThreadLocal<Boolean> primaryOnly = new ThreadLocal<>();
+    private final AtomicInteger turn = new AtomicInteger();
+    private final LongAdder primaryReads = new LongAdder();
+
+    private static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        final AtomicInteger inUse = new AtomicInteger();
+        final LongAdder connections = new LongAdder();
+        volatile boolean inRotation;
+        volatile double lagSeconds = Double.NaN;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    /** {@code replicas} by name, as they appear in logs and metrics. */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                    String lagQuery) {
+        if (replicas.isEmpty()) throw new IllegalArgumentException("at least one replica is required");
+        if (maxLag.isNegative() || maxLag.isZero()) throw new IllegalArgumentException("maxLag must be positive");
+        this.primary = primary;
+        replicas.forEach((name, ds) -> this.replicas.add(new Replica(name, ds)));
+        this.maxLagNanos = maxLag.toNanos();
+        this.lagQuery = lagQuery;
+        setTargetDataSource(new WriteTracking(primary));
+        setReadOnlyDataSource(new Replicas());
+        afterPropertiesSet();
+    }
+
+    /** Straight from the primary: reading its defaults is not a write that should pin this thread. */
+    @Override
+    public void checkDefaultConnectionProperties() {
+        if (defaultAutoCommit() != null && defaultTransactionIsolation() != null) return;
+        try (var con = primary.getConnection()) {
+            checkDefaultConnectionProperties(con);
+        } catch (SQLException e) {
+            log.debug("Could not read the primary's default auto-commit and isolation", e);
+        }
+    }
+
+    /** Runs {@code read} with this thread's read-only connections taken from the primary; other threads are unaffected. */
+    public <T> T onPrimary(Supplier<T> read) {
+        if (primaryOnly.get() != null) return read.get();
+        primaryOnly.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            primaryOnly.remove();
+        }
+    }
+
+    /** Measures every replica's lag and takes it in or out of rotation accordingly. */
+    public void checkLag() {
+        for (var replica : replicas) {
+            boolean was = replica.inRotation;
+            try (var con = replica.dataSource.getConnection();
+                 var st = con.createStatement();
+                 var rs = st.executeQuery(lagQuery)) {
+                double lag = Double.NaN; // unknown: no row, or null
+                if (rs.next()) {
+                    lag = rs.getDouble(1);
+                    if (rs.wasNull()) lag = Double.NaN;
+                }
+                replica.lagSeconds = lag;
+                replica.inRotation = replica.lagSeconds * 1e9 <= maxLagNanos;
+            } catch (SQLException | RuntimeException e) {
+                replica.lagSeconds = Double.NaN;
+                replica.inRotation = false;
+                if (was) log.warn("Replica {} out of rotation: {}", replica.name, e.getMessage());
+                continue;
+            }
+            if (was != replica.inRotation) {
+                log.info("Replica {} {} rotation (lag {} s)", replica.name, replica.inRotation ? "back in" : "out of",
+                        replica.lagSeconds);
+            }
+        }
+    }
+
+    public List<String> replicaNames() {
+        return replicas.stream().map(r -> r.name).toList();
+    }
+
+    public boolean inRotation(String replica) {
+        return replica(replica).inRotation;
+    }
+
+    /** Last measured lag in seconds; NaN when the replica could not be asked. */
+    public double lagSeconds(String replica) {
+        return replica(replica).lagSeconds;
+    }
+
+    /** Connections handed out by this replica. */
+    public long replicaConnections(String replica) {
+        return replica(replica).connections.sum();
+    }
+
+    /** Read-only connections served by the primary: after a write, {@link #onPrimary}, or no replica in rotation. */
+    public long primaryReads() {
+        return primaryReads.sum();
+    }
+
+    /** Closes the replicas that can be closed; the primary is not this data source's to close. */
+    @Override
+    public void close() throws Exception {
+        for (var replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) closeable.close();
+        }
+    }
+
+    private Replica replica(String name) {
+        for (var replica : replicas) {
+            if (replica.name.equals(name)) return replica;
+        }
+        throw new IllegalArgumentException("No replica " + name);
+    }
+
+    private boolean pinned() {
+        if (primaryOnly.get() != null) return true;
+        var written = lastWrite.get();
+        return written != null && System.nanoTime() - written < maxLagNanos;
+    }
+
+    /** The least busy replica in rotation, or null if there is none. */
+    private Replica pick() {
+        int start = Math.floorMod(turn.getAndIncrement(), replicas.size());
+        Replica best = null;
+        for (int i = 0; i < replicas.size(); i++) {
+            var candidate = replicas.get((start + i) % replicas.size());
+            if (candidate.inRotation && (best == null || candidate.inUse.get() < best.inUse.get())) best = candidate;
+        }
+        return best;
+    }
+
+    /** The primary, remembering that this thread has used it. */
+    private final class WriteTracking extends DelegatingDataSource {
+        WriteTracking(DataSource primary) {
+            super(primary);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            var con = super.getConnection();
+            written();
+            return con;
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            var con = super.getConnection(username, password);
+            written();
+            return con;
+        }
+
+        private void written() {
+            lastWrite.set(System.nanoTime());
+        }
+    }
+
+    private final class Replicas extends AbstractDataSource {
+        @Override
+        public Connection getConnection() throws SQLException {
+            var replica = pinned() ? null : pick();
+            if (replica != null) {
+                try {
+                    return tracked(replica.dataSource.getConnection(), replica);
+                } catch (SQLException e) {
+                    replica.inRotation = false; // back once checkLag reaches it again
+                    log.warn("Replica {} out of rotation: {}", replica.name, e.getMessage());
+                }
+            }
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLFeatureNotSupportedException("Replicas connect with their own credentials");
+        }
+    }
+
+    private static Connection tracked(Connection target, Replica replica) {
+        replica.inUse.incrementAndGet();
+        replica.connections.increment();
+        var closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                        replica.inUse.decrementAndGet();
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.albi.vehicles.infrastructure.jdbc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The JDBC statements one HTTP request executed on its own thread.
+ *
+ * <p>{@link QueryCountFilter} opens the scope around a request and leaves the result in the
+ * request attribute {@link #REQUEST_ATTRIBUTE}; {@link QueryCountingDataSource} records into
+ * whatever scope is open on the executing thread. Work handed to other threads (streamed
+ * exports, long polls, reactive reads on R2DBC) is not attributed to the request.</p>
+ */
+public final class RequestQueries {
+
+    public static final String REQUEST_ATTRIBUTE = RequestQueries.class.getName();
+
+    /** SQL kept per request for diagnostics; the count goes on regardless. */
+    static final int MAX_RECORDED = 100;
+
+    private static final ThreadLocal<RequestQueries> CURRENT = new ThreadLocal<>();
+
+    private final String request;
+    private final List<String> statements = new ArrayList<>();
+    private int count;
+    private long nanos;
+
+    private RequestQueries(String request) {
+        this.request = request;
+    }
+
+    /** Starts counting for the calling thread; {@link #end()} must follow in a finally block. */
+    public static RequestQueries begin(String request) {
+        var queries = new RequestQueries(request);
+        CURRENT.set(queries);
+        return queries;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /** The scope open on this thread, or null outside a request. */
+    static RequestQueries current() {
+        return CURRENT.get();
+    }
+
+    void record(String sql, long elapsedNanos) {
+        count++;
+        nanos += elapsedNanos;
+        if (statements.size() < MAX_RECORDED) statements.add(sql);
+    }
+
+    /** Method and URI, as the request was received. */
+    public String request() {
+        return request;
+    }
+
+    /** Statements executed; a JDBC batch counts once, as it is one round trip. */
+    public int count() {
+        return count;
+    }
+
+    /** Time spent executing them, as seen by the driver's caller. */
+    public Duration time() {
+        return Duration.ofNanos(nanos);
+    }
+
+    /** Their SQL in execution order, the first {@value #MAX_RECORDED} only. */
+    public List<String> statements() {
+        return Collections.unmodifiableList(statements);
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * JDBC statement accounting.
+ *
+ * <p>A data source wrapper counts and times every statement the application executes,
+ * logs the slow ones with their SQL, and attributes the rest to the HTTP request running
+ * on the same thread; a servlet filter opens that per-request scope and publishes how many
+ * statements each endpoint issued. Tests read the same per-request count to hold
+ * endpoints to a query budget.
+ */
+package io.github.albi.vehicles.infrastructure.jdbc;
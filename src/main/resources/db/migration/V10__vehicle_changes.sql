@@ -0,0 +1,13 @@
+-- Change feed behind GET /vehicles/changes. Every write appends one row per vehicle
+-- in the writing transaction; a delete appends a tombstone. seq is the client's
+-- resume position. No foreign key: tombstones outlive their vehicle.
+CREATE TABLE IF NOT EXISTS vehicle_changes (
+    seq        BIGSERIAL   PRIMARY KEY,
+    vehicle_id BIGINT      NOT NULL,
+    deleted    BOOLEAN     NOT NULL,
+    changed_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- Backfill so a client starting from 0 receives the whole fleet.
+INSERT INTO vehicle_changes (vehicle_id, deleted)
+SELECT id, false FROM vehicles ORDER BY id;
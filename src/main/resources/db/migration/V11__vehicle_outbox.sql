@@ -0,0 +1,10 @@
+-- Transactional outbox: every write inserts its VehicleCreated/Updated/Deleted event
+-- here in the same transaction, and VehicleOutboxDispatcher publishes and deletes it
+-- afterwards. Rows only live until they are published, so the table stays small.
+CREATE TABLE IF NOT EXISTS vehicle_outbox (
+    id          BIGSERIAL   PRIMARY KEY,
+    event_type  VARCHAR(30) NOT NULL,
+    vehicle_id  BIGINT      NOT NULL,
+    payload     TEXT,                    -- vehicle as JSON; null for VehicleDeleted
+    created_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
@@ -0,0 +1,37 @@
+-- V7's delete branch decremented counters with UPDATE ... FROM, which locks them in
+-- whatever order the join produces. Two concurrent deletes (or a delete racing an
+-- insert) could then take the same counters in opposite orders and deadlock. Apply
+-- deletes the same way as the other branches: one ordered upsert of negative deltas.
+CREATE OR REPLACE FUNCTION vehicle_facet_counts_apply() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO vehicle_facet_counts AS c (facet, value, count)
+        SELECT k.facet, k.value, count(*)
+        FROM new_rows n, vehicle_facet_keys(n.type, n.fuel_type, n.make, n.model_year) k
+        GROUP BY 1, 2 ORDER BY 1, 2
+        ON CONFLICT (facet, value) DO UPDATE SET count = c.count + excluded.count;
+    ELSIF TG_OP = 'UPDATE' THEN
+        INSERT INTO vehicle_facet_counts AS c (facet, value, count)
+        SELECT d.facet, d.value, sum(d.delta)
+        FROM (SELECT k.facet, k.value, 1 AS delta
+              FROM new_rows n, vehicle_facet_keys(n.type, n.fuel_type, n.make, n.model_year) k
+              UNION ALL
+              SELECT k.facet, k.value, -1
+              FROM old_rows o, vehicle_facet_keys(o.type, o.fuel_type, o.make, o.model_year) k) d
+        GROUP BY 1, 2 HAVING sum(d.delta) <> 0 ORDER BY 1, 2
+        ON CONFLICT (facet, value) DO UPDATE SET count = c.count + excluded.count;
+    ELSE
+        -- every key of a deleted row was counted on insert, so this only ever updates
+        INSERT INTO vehicle_facet_counts AS c (facet, value, count)
+        SELECT k.facet, k.value, -count(*)
+        FROM old_rows o, vehicle_facet_keys(o.type, o.fuel_type, o.make, o.model_year) k
+        GROUP BY 1, 2 ORDER BY 1, 2
+        ON CONFLICT (facet, value) DO UPDATE SET count = c.count + excluded.count;
+    END IF;
+    IF TG_OP <> 'INSERT' THEN
+        DELETE FROM vehicle_facet_counts WHERE count <= 0;
+    END IF;
+    RETURN NULL;
+END
+$$;
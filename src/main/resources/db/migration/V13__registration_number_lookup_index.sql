@@ -0,0 +1,4 @@
+-- Plate lookups are case-insensitive: GET /vehicles?registrationNumber= and POST /vehicles:batchGet
+-- compare upper(registration_number), which the unique constraint's index on the raw column
+-- cannot serve, so each of them scanned the whole table.
+CREATE INDEX IF NOT EXISTS idx_vehicles_registration_upper ON vehicles (upper(registration_number));
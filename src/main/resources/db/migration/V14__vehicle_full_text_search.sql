@@ -0,0 +1,16 @@
+-- GET /vehicles?q=: free text over make, model, plate and colour. A stored generated column
+-- keeps each row's tsvector in step with every write path (JPA, the batch upserter, plain
+-- UPDATEs) without a trigger, and the GIN index finds the rows holding every word of a query.
+-- Adding the column rewrites the table once, under an exclusive lock.
+--
+-- 'simple' configuration: these are names and codes, which English stemming and stop words
+-- would only mangle ("Model 3", "Up!"); words match whole and case-insensitively.
+-- Make, model and plate weigh more than colour when ranking.
+ALTER TABLE vehicles ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(make, '')), 'A')
+     || setweight(to_tsvector('simple', coalesce(model, '')), 'A')
+     || setweight(to_tsvector('simple', coalesce(registration_number, '')), 'A')
+     || setweight(to_tsvector('simple', coalesce(color, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_vehicles_search_vector ON vehicles USING gin (search_vector);
@@ -0,0 +1,13 @@
+-- Change feed order by writing transaction. seq comes from a sequence, handed out at insert
+-- time, so a reader can see 12 committed while 11 is still being written. txid is the
+-- writer's transaction id, and every transaction older than the oldest one still running
+-- (pg_snapshot_xmin) has finished: reading (txid, seq) up to there never steps past a row
+-- that may yet appear, however long its writer runs. Rows logged before this migration
+-- keep txid 0, which is older than any running transaction.
+ALTER TABLE vehicle_changes ADD COLUMN IF NOT EXISTS txid xid8 NOT NULL DEFAULT '0';
+ALTER TABLE vehicle_changes ALTER COLUMN txid SET DEFAULT pg_current_xact_id();
+
+-- changed_at is informational only now; stamp the insert itself, not the transaction start.
+ALTER TABLE vehicle_changes ALTER COLUMN changed_at SET DEFAULT clock_timestamp();
+
+CREATE INDEX IF NOT EXISTS idx_vehicle_changes_txid_seq ON vehicle_changes (txid, seq);
@@ -0,0 +1,9 @@
+-- GET /vehicles/suggest returns each value as stored, its first spelling. With only a
+-- lower(column) index that meant visiting every vehicle sharing the value (seconds for
+-- a common model, cold); with the spelling as second key it is the first entry of the
+-- value's range.
+CREATE INDEX IF NOT EXISTS idx_vehicles_make_spelling  ON vehicles (lower(make), make);
+CREATE INDEX IF NOT EXISTS idx_vehicles_model_spelling ON vehicles (lower(model), model);
+
+-- its leading column serves every lookup idx_vehicles_model_lower did
+DROP INDEX IF EXISTS idx_vehicles_model_lower;
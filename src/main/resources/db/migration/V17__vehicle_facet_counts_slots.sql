@@ -0,0 +1,51 @@
+-- Every vehicle bumps its make, type, fuel type and year counters, and a fleet has
+-- few of each: two writers of the same make (or the same year, as nearly all are)
+-- upserted the same row and the second waited for the first to commit. Writes to
+-- vehicles were serialized on a handful of counters.
+--
+-- Each counter is now split over 16 slots, and a statement adds its deltas to the
+-- slot of its connection (backend pid mod 16). Concurrent writers are on different
+-- connections, so they almost always update different rows; within one slot keys
+-- are still applied in order (V12), so writers that share it cannot deadlock.
+-- A counter's count is the sum of its slots. A single slot may go negative (a
+-- vehicle inserted through one slot and deleted through another); the sum cannot.
+ALTER TABLE vehicle_facet_counts ADD COLUMN IF NOT EXISTS slot SMALLINT NOT NULL DEFAULT 0;
+ALTER TABLE vehicle_facet_counts DROP CONSTRAINT IF EXISTS vehicle_facet_counts_pkey;
+ALTER TABLE vehicle_facet_counts ADD PRIMARY KEY (facet, value, slot);
+ALTER TABLE vehicle_facet_counts ALTER COLUMN slot DROP DEFAULT;
+
+CREATE OR REPLACE FUNCTION vehicle_facet_counts_apply() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+DECLARE
+    my_slot SMALLINT := pg_backend_pid() % 16;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO vehicle_facet_counts AS c (facet, value, slot, count)
+        SELECT k.facet, k.value, my_slot, count(*)
+        FROM new_rows n, vehicle_facet_keys(n.type, n.fuel_type, n.make, n.model_year) k
+        GROUP BY 1, 2 ORDER BY 1, 2
+        ON CONFLICT (facet, value, slot) DO UPDATE SET count = c.count + excluded.count;
+    ELSIF TG_OP = 'UPDATE' THEN
+        INSERT INTO vehicle_facet_counts AS c (facet, value, slot, count)
+        SELECT d.facet, d.value, my_slot, sum(d.delta)
+        FROM (SELECT k.facet, k.value, 1 AS delta
+              FROM new_rows n, vehicle_facet_keys(n.type, n.fuel_type, n.make, n.model_year) k
+              UNION ALL
+              SELECT k.facet, k.value, -1
+              FROM old_rows o, vehicle_facet_keys(o.type, o.fuel_type, o.make, o.model_year) k) d
+        GROUP BY 1, 2 HAVING sum(d.delta) <> 0 ORDER BY 1, 2
+        ON CONFLICT (facet, value, slot) DO UPDATE SET count = c.count + excluded.count;
+    ELSE
+        INSERT INTO vehicle_facet_counts AS c (facet, value, slot, count)
+        SELECT k.facet, k.value, my_slot, -count(*)
+        FROM old_rows o, vehicle_facet_keys(o.type, o.fuel_type, o.make, o.model_year) k
+        GROUP BY 1, 2 ORDER BY 1, 2
+        ON CONFLICT (facet, value, slot) DO UPDATE SET count = c.count + excluded.count;
+    END IF;
+    -- only this slot's rows: another writer's are none of this statement's business
+    IF TG_OP <> 'INSERT' THEN
+        DELETE FROM vehicle_facet_counts WHERE slot = my_slot AND count = 0;
+    END IF;
+    RETURN NULL;
+END
+$$;
@@ -0,0 +1,7 @@
+-- Keyset pagination seeks on (sort key, id); these composites also serve the
+-- single-column lookups, so the old single-column indexes are redundant.
+CREATE INDEX IF NOT EXISTS idx_vehicles_make_id       ON vehicles(make, id);
+CREATE INDEX IF NOT EXISTS idx_vehicles_model_year_id ON vehicles(model_year, id);
+
+DROP INDEX IF EXISTS idx_vehicles_make;
+DROP INDEX IF EXISTS idx_vehicles_model_year;
@@ -0,0 +1,14 @@
+-- make/model filters compare lower(column) (exact, prefix or substring), which the plain
+-- btree indexes on the raw columns cannot serve.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Exact matches, and the ordered distinct-value walk behind GET /vehicles/suggest
+CREATE INDEX IF NOT EXISTS idx_vehicles_make_lower  ON vehicles (lower(make));
+CREATE INDEX IF NOT EXISTS idx_vehicles_model_lower ON vehicles (lower(model));
+
+-- LIKE 'abc%' and LIKE '%abc%' whatever the database collation
+CREATE INDEX IF NOT EXISTS idx_vehicles_make_trgm  ON vehicles USING gin (lower(make) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_vehicles_model_trgm ON vehicles USING gin (lower(model) gin_trgm_ops);
+
+-- model is only ever filtered through lower(model)
+DROP INDEX IF EXISTS idx_vehicles_model;
@@ -0,0 +1,17 @@
+-- Composite indexes for the filter combinations search actually sends. Each ends in id,
+-- so equality on the leading columns leaves rows already in keyset (id) order and a
+-- page is read straight off the index: no bitmap-AND, no sort.
+
+-- make + model + year (the most common search); leading column also serves make-only
+-- lookups and GET /vehicles/suggest?field=MAKE, replacing idx_vehicles_make_lower
+CREATE INDEX IF NOT EXISTS idx_vehicles_make_model_year_id
+    ON vehicles (lower(make), lower(model), model_year, id);
+DROP INDEX IF EXISTS idx_vehicles_make_lower;
+
+-- type + fuelType (and type alone)
+CREATE INDEX IF NOT EXISTS idx_vehicles_type_fuel_id ON vehicles (type, fuel_type, id);
+
+-- fuelType alone: only the minority fuels are selective enough for an index to beat
+-- walking the primary key, so PETROL/DIESEL (most of the fleet) are left out
+CREATE INDEX IF NOT EXISTS idx_vehicles_alt_fuel_id ON vehicles (fuel_type, id)
+    WHERE fuel_type NOT IN ('PETROL', 'DIESEL');
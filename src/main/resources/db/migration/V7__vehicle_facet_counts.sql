@@ -0,0 +1,82 @@
+-- Unfiltered GET /vehicles/facets reads this table instead of aggregating vehicles.
+-- One row per (facet, value); kept current by statement-level triggers below, so a
+-- batch write updates each touched counter once rather than once per row.
+-- There is no "total" row: every vehicle has exactly one make, so the total is the
+-- sum of the make counts (and one fewer hot row for concurrent writers).
+CREATE TABLE IF NOT EXISTS vehicle_facet_counts (
+    facet VARCHAR(20)  NOT NULL,   -- type | fuel_type | make | model_year
+    value VARCHAR(100) NOT NULL,   -- stored spelling; model_year as text
+    count BIGINT       NOT NULL,
+    PRIMARY KEY (facet, value)
+);
+
+-- The facet keys of one vehicle row (nulls in legacy type/fuel_type are not counted)
+CREATE OR REPLACE FUNCTION vehicle_facet_keys(type TEXT, fuel_type TEXT, make TEXT, model_year INT)
+    RETURNS TABLE (facet TEXT, value TEXT)
+    LANGUAGE sql IMMUTABLE AS $$
+    SELECT f.facet, f.value
+    FROM (VALUES ('type', type), ('fuel_type', fuel_type), ('make', make), ('model_year', model_year::text))
+             AS f(facet, value)
+    WHERE f.value IS NOT NULL
+$$;
+
+-- Net change per key for the whole statement. Updates that don't touch a faceted
+-- column cancel out to nothing and write no counter at all. Keys are applied in
+-- order so concurrent writers lock counters in the same order (no deadlocks).
+CREATE OR REPLACE FUNCTION vehicle_facet_counts_apply() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO vehicle_facet_counts AS c (facet, value, count)
+        SELECT k.facet, k.value, count(*)
+        FROM new_rows n, vehicle_facet_keys(n.type, n.fuel_type, n.make, n.model_year) k
+        GROUP BY 1, 2 ORDER BY 1, 2
+        ON CONFLICT (facet, value) DO UPDATE SET count = c.count + excluded.count;
+    ELSIF TG_OP = 'UPDATE' THEN
+        INSERT INTO vehicle_facet_counts AS c (facet, value, count)
+        SELECT d.facet, d.value, sum(d.delta)
+        FROM (SELECT k.facet, k.value, 1 AS delta
+              FROM new_rows n, vehicle_facet_keys(n.type, n.fuel_type, n.make, n.model_year) k
+              UNION ALL
+              SELECT k.facet, k.value, -1
+              FROM old_rows o, vehicle_facet_keys(o.type, o.fuel_type, o.make, o.model_year) k) d
+        GROUP BY 1, 2 HAVING sum(d.delta) <> 0 ORDER BY 1, 2
+        ON CONFLICT (facet, value) DO UPDATE SET count = c.count + excluded.count;
+    ELSE
+        UPDATE vehicle_facet_counts c SET count = c.count - d.n
+        FROM (SELECT k.facet, k.value, count(*) AS n
+              FROM old_rows o, vehicle_facet_keys(o.type, o.fuel_type, o.make, o.model_year) k
+              GROUP BY 1, 2) d
+        WHERE c.facet = d.facet AND c.value = d.value;
+    END IF;
+    IF TG_OP <> 'INSERT' THEN
+        DELETE FROM vehicle_facet_counts WHERE count <= 0;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+-- Transition tables need one trigger per event
+DROP TRIGGER IF EXISTS vehicle_facet_counts_insert ON vehicles;
+CREATE TRIGGER vehicle_facet_counts_insert AFTER INSERT ON vehicles
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION vehicle_facet_counts_apply();
+
+DROP TRIGGER IF EXISTS vehicle_facet_counts_update ON vehicles;
+CREATE TRIGGER vehicle_facet_counts_update AFTER UPDATE ON vehicles
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION vehicle_facet_counts_apply();
+
+DROP TRIGGER IF EXISTS vehicle_facet_counts_delete ON vehicles;
+CREATE TRIGGER vehicle_facet_counts_delete AFTER DELETE ON vehicles
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION vehicle_facet_counts_apply();
+
+-- Backfill. Runs in the migration's transaction with the triggers already in place,
+-- so rows written concurrently are counted exactly once.
+LOCK TABLE vehicles IN SHARE MODE;
+TRUNCATE vehicle_facet_counts;
+INSERT INTO vehicle_facet_counts (facet, value, count)
+SELECT k.facet, k.value, count(*)
+FROM vehicles v, vehicle_facet_keys(v.type, v.fuel_type, v.make, v.model_year) k
+GROUP BY 1, 2;
@@ -0,0 +1,3 @@
+-- Optimistic concurrency: every UPDATE sets version = version + 1, and writes that
+-- carry an If-Match only apply while the row is still at the version the client saw.
+ALTER TABLE vehicles ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
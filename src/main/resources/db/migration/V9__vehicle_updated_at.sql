@@ -0,0 +1,3 @@
+-- Last-Modified / If-Modified-Since. Set by the application on every write, next to
+-- the version bump; existing rows get the migration time.
+ALTER TABLE vehicles ADD COLUMN IF NOT EXISTS updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
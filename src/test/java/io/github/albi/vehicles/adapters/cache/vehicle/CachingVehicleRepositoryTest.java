@@ -0,0 +1,333 @@
+package io.github.albi.vehicles.adapters.cache.vehicle;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.github.albi.vehicles.domain.vehicle.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+final class CachingVehicleRepositoryTest {
+
+    private static final Vin VIN_A = new Vin("CACHE000000000001");
+    private static final Vin VIN_B = new Vin("CACHE000000000002");
+
+    /** In-memory repository that counts point lookups; reads a lagging {@code replica} when one is set. */
+    private static final class CountingRepo implements VehicleRepository {
+        final Map<Long, Vehicle> rows = new HashMap<>();
+        Map<Long, Vehicle> replica;
+        boolean onPrimary;
+        int loads;
+        int primaryLoads;
+        int versionLoads;
+        List<VehicleKey> lastFindAll;
+        Runnable duringLoad = () -> { };
+
+        @Override
+        public Optional<Vehicle> findById(VehicleId id) {
+            return load(v -> v.id().equals(id));
+        }
+
+        @Override
+        public Optional<VehicleVersion> findVersionById(VehicleId id) {
+            versionLoads++;
+            return Optional.ofNullable(rows.get(id.value())).map(v -> new VehicleVersion(v.version(), v.updatedAt()));
+        }
+
+        @Override
+        public Optional<Vehicle> findByVin(Vin vin) {
+            return load(v -> v.vin().equals(vin));
+        }
+
+        @Override
+        public Optional<Vehicle> findByRegistrationNumber(String registrationNumber) {
+            return load(v -> registrationNumber.equalsIgnoreCase(v.registrationNumber()));
+        }
+
+        @Override
+        public List<Vehicle> findAll(List<VehicleKey> keys) {
+            loads++;
+            lastFindAll = List.copyOf(keys);
+            return readable().values().stream().filter(v -> VehicleKey.allOf(v).stream().anyMatch(keys::contains)).toList();
+        }
+
+        private Optional<Vehicle> load(java.util.function.Predicate<Vehicle> p) {
+            loads++;
+            var found = readable().values().stream().filter(p).findFirst();
+            duringLoad.run();
+            return found;
+        }
+
+        private Map<Long, Vehicle> readable() {
+            return replica == null || onPrimary ? rows : replica;
+        }
+
+        @Override
+        public VehiclePage search(VehicleFilter filter, VehicleSort sort, VehicleCursor after, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void exportAll(VehicleFilter filter, Consumer<? super Vehicle> sink) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<String> suggest(VehicleTextField field, String prefix, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public VehicleFacets facets(VehicleFilter filter) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<VehicleChange> changesSince(long since, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Vehicle create(Vin vin, VehicleType type, String make, String model, Integer year,
+                              FuelType fuelType, String color, String registrationNumber) {
+            var v = vehicle(rows.size() + 1L, vin, make, registrationNumber);
+            rows.put(v.id().value(), v);
+            return v;
+        }
+
+        @Override
+        public List<VehicleUpsertResult> upsertAll(List<VehicleDraft> drafts) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<Vehicle> update(VehicleId id, Long expectedVersion, Vin vin, VehicleType type, String make,
+                                        String model, Integer year, FuelType fuelType, String color,
+                                        String registrationNumber) {
+            if (!rows.containsKey(id.value())) return Optional.empty();
+            var v = vehicle(id.value(), vin, make, registrationNumber);
+            rows.put(id.value(), v);
+            return Optional.of(v);
+        }
+
+        @Override
+        public boolean delete(VehicleId id, Long expectedVersion) {
+            return rows.remove(id.value()) != null;
+        }
+    }
+
+    private static Vehicle vehicle(long id, Vin vin, String make, String plate) {
+        return new Vehicle(new VehicleId(id), vin, VehicleType.CAR, make, "Model", 2020,
+                FuelType.PETROL, null, plate);
+    }
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = nanos::get;
+    private final VehicleCache cache = new VehicleCache(100, Duration.ofMinutes(10), ticker);
+    private final CountingRepo db = new CountingRepo();
+    private final InMemoryVehicleInvalidationBus bus = new InMemoryVehicleInvalidationBus();
+    private final CachingVehicleRepository repo = node(cache);
+
+    /** Another replica: own cache, same database and bus. */
+    private CachingVehicleRepository node(VehicleCache nodeCache) {
+        bus.subscribe(nodeCache::apply);
+        return new CachingVehicleRepository(db, nodeCache, bus);
+    }
+
+    /** A node whose fresh reads go to the primary, remembering invalidations for a second. */
+    private CachingVehicleRepository withReplica(VehicleCache nodeCache) {
+        db.replica = new HashMap<>();
+        bus.subscribe(nodeCache::apply);
+        return new CachingVehicleRepository(db, nodeCache, bus, new FreshReads() {
+            @Override
+            public <T> T read(java.util.function.Supplier<T> read) {
+                db.onPrimary = true;
+                db.primaryLoads++;
+                try {
+                    return read.get();
+                } finally {
+                    db.onPrimary = false;
+                }
+            }
+        });
+    }
+
+    @Test
+    void one_load_serves_all_three_indexes() {
+        var created = repo.create(VIN_A, VehicleType.CAR, "Toyota", "Corolla", 2020, FuelType.PETROL, null, "AB123");
+
+        assertThat(repo.findById(created.id())).isPresent();
+        assertThat(repo.findByVin(VIN_A)).isPresent();
+        assertThat(repo.findByRegistrationNumber("ab123")).isPresent();
+        assertThat(repo.findById(created.id())).isPresent();
+
+        assertThat(db.loads).isEqualTo(1);
+        assertThat(cache.misses(VehicleCache.Index.ID)).isEqualTo(1);
+        assertThat(cache.hits(VehicleCache.Index.ID)).isEqualTo(1);
+        assertThat(cache.hits(VehicleCache.Index.VIN)).isEqualTo(1);
+        assertThat(cache.hits(VehicleCache.Index.REGISTRATION)).isEqualTo(1);
+    }
+
+    @Test
+    void search_by_vin_or_plate_is_served_from_the_cache() {
+        var created = repo.create(VIN_A, VehicleType.CAR, "Toyota", "Corolla", 2020, FuelType.PETROL, null, "AB123");
+        repo.findById(created.id());
+
+        var byVin = repo.search(new VehicleFilter(null, null, null, null, null, VIN_A.value(), null), VehicleSort.ID, null, 10);
+        var byPlate = repo.search(new VehicleFilter(null, null, null, null, null, null, "ab123"), VehicleSort.ID, null, 10);
+
+        assertThat(byVin.items()).extracting(Vehicle::id).containsExactly(created.id());
+        assertThat(byPlate.items()).extracting(Vehicle::id).containsExactly(created.id());
+        assertThat(db.loads).isEqualTo(1);
+    }
+
+    @Test
+    void multi_get_asks_the_delegate_only_for_what_the_cache_lacks_and_caches_it() {
+        var cached = repo.create(VIN_A, VehicleType.CAR, "Toyota", "Corolla", 2020, FuelType.PETROL, null, "AB123");
+        var uncached = repo.create(VIN_B, VehicleType.CAR, "Honda", "Civic", 2021, FuelType.PETROL, null, null);
+        repo.findById(cached.id());
+        db.loads = 0;
+
+        var found = repo.findAll(List.of(VehicleKey.ofRegistrationNumber("ab123"), VehicleKey.of(VIN_B),
+                VehicleKey.of(cached.id())));
+
+        assertThat(found).extracting(Vehicle::id).containsExactlyInAnyOrder(cached.id(), uncached.id());
+        assertThat(db.lastFindAll).containsExactly(VehicleKey.of(VIN_B));
+        assertThat(repo.findById(uncached.id())).isPresent();
+        assertThat(db.loads).isEqualTo(1);
+    }
+
+    @Test
+    void version_of_a_cached_vehicle_needs_no_query() {
+        var created = repo.create(VIN_A, VehicleType.CAR, "Toyota", "Corolla", 2020, FuelType.PETROL, null, null);
+
+        assertThat(repo.findVersionById(created.id())).isPresent();
+        assertThat(db.versionLoads).isEqualTo(1); // not cached yet: ask the database, cache nothing
+
+        repo.findById(created.id());
+        assertThat(repo.findVersionById(created.id())).get().extracting(VehicleVersion::version).isEqualTo(0L);
+        assertThat(db.versionLoads).isEqualTo(1);
+    }
+
+    @Test
+    void misses_are_not_cached() {
+        assertThat(repo.findByVin(VIN_A)).isEmpty();
+        repo.create(VIN_A, VehicleType.CAR, "Toyota", "Corolla", 2020, FuelType.PETROL, null, null);
+
+        assertThat(repo.findByVin(VIN_A)).isPresent();
+    }
+
+    @Test
+    void update_drops_old_keys_and_serves_new_value() {
+        var created = repo.create(VIN_A, VehicleType.CAR, "Toyota", "Corolla", 2020, FuelType.PETROL, null, "OLD1");
+        repo.findById(created.id());
+
+        repo.update(created.id(), null, VIN_B, VehicleType.CAR, "Honda", "Civic", 2020, FuelType.PETROL, null, "NEW1");
+
+        assertThat(repo.findByVin(VIN_A)).isEmpty();
+        assertThat(repo.findByRegistrationNumber("OLD1")).isEmpty();
+        assertThat(repo.findById(created.id())).get().extracting(Vehicle::make).isEqualTo("Honda");
+        assertThat(repo.findByVin(VIN_B)).get().extracting(Vehicle::registrationNumber).isEqualTo("NEW1");
+    }
+
+    @Test
+    void delete_invalidates_every_index() {
+        var created = repo.create(VIN_A, VehicleType.CAR, "Toyota", "Corolla", 2020, FuelType.PETROL, null, "DEL1");
+        repo.findById(created.id());
+
+        repo.delete(created.id(), null);
+
+        assertThat(repo.findById(created.id())).isEmpty();
+        assertThat(repo.findByVin(VIN_A)).isEmpty();
+        assertThat(repo.findByRegistrationNumber("DEL1")).isEmpty();
+    }
+
+    @Test
+    void entries_expire_after_ttl() {
+        var created = repo.create(VIN_A, VehicleType.CAR, "Toyota", "Corolla", 2020, FuelType.PETROL, null, null);
+        repo.findById(created.id());
+
+        nanos.addAndGet(Duration.ofMinutes(11).toNanos());
+
+        assertThat(repo.findByVin(VIN_A)).isPresent();
+        assertThat(db.loads).isEqualTo(2);
+        assertThat(cache.evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void load_racing_with_a_write_is_not_cached() {
+        var created = repo.create(VIN_A, VehicleType.CAR, "Toyota", "Corolla", 2020, FuelType.PETROL, null, null);
+        // the write commits after the loader read the old row but before it populates the cache
+        db.duringLoad = () -> {
+            db.duringLoad = () -> { };
+            repo.update(created.id(), null, VIN_A, VehicleType.CAR, "Honda", "Civic", 2020, FuelType.PETROL, null, null);
+        };
+
+        assertThat(repo.findById(created.id())).get().extracting(Vehicle::make).isEqualTo("Toyota");
+        assertThat(repo.findById(created.id())).get().extracting(Vehicle::make).isEqualTo("Honda");
+    }
+
+    @Test
+    void writes_on_one_node_evict_other_nodes() {
+        var otherCache = new VehicleCache(100, Duration.ofMinutes(10), ticker);
+        var other = node(otherCache);
+        var created = repo.create(VIN_A, VehicleType.CAR, "Toyota", "Corolla", 2020, FuelType.PETROL, null, "NODE1");
+        other.findById(created.id());
+
+        repo.update(created.id(), null, VIN_B, VehicleType.CAR, "Honda", "Civic", 2020, FuelType.PETROL, null, "NODE2");
+
+        assertThat(other.findByVin(VIN_A)).isEmpty();
+        assertThat(other.findByRegistrationNumber("NODE1")).isEmpty();
+        assertThat(other.findById(created.id())).get().extracting(Vehicle::make).isEqualTo("Honda");
+
+        repo.delete(created.id(), null);
+
+        assertThat(other.findByVin(VIN_B)).isEmpty();
+        assertThat(otherCache.size()).isZero();
+    }
+
+    @Test
+    void under_continuous_writes_only_the_key_just_written_is_refilled_from_the_primary() {
+        var nodeCache = new VehicleCache(100, Duration.ofMinutes(10), Duration.ofSeconds(1), ticker);
+        var node = withReplica(nodeCache);
+        for (long id = 100; id < 120; id++) {
+            var v = vehicle(id, new Vin("CACHE000000000" + id), "Cold", "COLD" + id);
+            db.rows.put(id, v);
+            db.replica.put(id, v); // replayed long ago
+        }
+        var hot = node.create(VIN_A, VehicleType.CAR, "Toyota", "Corolla", 2020, FuelType.PETROL, null, "HOT1");
+
+        for (int i = 0; i < 20; i++) {
+            // the replica never catches up with the hot vehicle: it is written every 100 ms
+            node.update(hot.id(), null, VIN_A, VehicleType.CAR, "Make" + i, "Corolla", 2020, FuelType.PETROL, null, "HOT1");
+            nanos.addAndGet(Duration.ofMillis(100).toNanos());
+            assertThat(node.findById(new VehicleId(100L + i))).isPresent();
+            assertThat(node.findById(hot.id())).get().extracting(Vehicle::make).isEqualTo("Make" + i);
+        }
+
+        assertThat(db.loads).isEqualTo(40);
+        assertThat(db.primaryLoads).isEqualTo(20); // the hot vehicle's refills, and nothing else
+        nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(nodeCache.recentlyInvalidated(VehicleKey.of(hot.id()))).isFalse();
+    }
+
+    @Test
+    void a_vehicle_found_by_a_key_nobody_wrote_is_reread_if_it_was_written() {
+        var nodeCache = new VehicleCache(100, Duration.ofMinutes(10), Duration.ofSeconds(1), ticker);
+        var node = withReplica(nodeCache);
+        var v = vehicle(1, VIN_A, "Toyota", "OLD1");
+        db.rows.put(1L, v);
+        db.replica.put(1L, v);
+
+        node.update(v.id(), null, VIN_A, VehicleType.CAR, "Toyota", "Corolla", 2020, FuelType.PETROL, null, "NEW1");
+
+        // the replica still has the old plate; the primary says it is gone
+        assertThat(node.findByRegistrationNumber("OLD1")).isEmpty();
+        assertThat(node.findById(v.id())).get().extracting(Vehicle::registrationNumber).isEqualTo("NEW1");
+        assertThat(db.primaryLoads).isEqualTo(2);
+    }
+}
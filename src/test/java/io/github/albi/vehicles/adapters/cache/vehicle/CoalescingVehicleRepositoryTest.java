@@ -0,0 +1,182 @@
+package io.github.albi.vehicles.adapters.cache.vehicle;
+
+import io.github.albi.vehicles.adapters.cache.vehicle.CoalescingVehicleRepository.Lookup;
+import io.github.albi.vehicles.domain.vehicle.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+final class CoalescingVehicleRepositoryTest {
+
+    private static final Vehicle VEHICLE = new Vehicle(new VehicleId(1L), new Vin("CLSCE000000000001"), VehicleType.CAR,
+            "Toyota", "Yaris", 2022, FuelType.PETROL, null, "AB123");
+
+    /** Lookups block until released, so callers can pile up behind the first one. */
+    private static final class GatedRepo implements VehicleRepository {
+        final AtomicInteger queries = new AtomicInteger();
+        volatile CountDownLatch gate = new CountDownLatch(1);
+        volatile Supplier<Optional<Vehicle>> answer = () -> Optional.of(VEHICLE);
+
+        private Optional<Vehicle> query() {
+            queries.incrementAndGet();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return answer.get();
+        }
+
+        @Override public Optional<Vehicle> findById(VehicleId id) { return query(); }
+        @Override public Optional<VehicleVersion> findVersionById(VehicleId id) { return query().map(v -> new VehicleVersion(v.version(), v.updatedAt())); }
+        @Override public Optional<Vehicle> findByVin(Vin vin) { return query(); }
+        @Override public Optional<Vehicle> findByRegistrationNumber(String registrationNumber) { return query(); }
+        @Override public List<Vehicle> findAll(List<VehicleKey> keys) { throw new UnsupportedOperationException(); }
+        @Override public VehiclePage search(VehicleFilter filter, VehicleSort sort, VehicleCursor after, int limit) { throw new UnsupportedOperationException(); }
+        @Override public void exportAll(VehicleFilter filter, Consumer<? super Vehicle> sink) { throw new UnsupportedOperationException(); }
+        @Override public VehicleFacets facets(VehicleFilter filter) { throw new UnsupportedOperationException(); }
+        @Override public List<String> suggest(VehicleTextField field, String prefix, int limit) { throw new UnsupportedOperationException(); }
+        @Override public List<VehicleChange> changesSince(long since, int limit) { throw new UnsupportedOperationException(); }
+        @Override public Vehicle create(Vin vin, VehicleType type, String make, String model, Integer year, FuelType fuelType, String color, String registrationNumber) { return VEHICLE; }
+        @Override public List<VehicleUpsertResult> upsertAll(List<VehicleDraft> drafts) { throw new UnsupportedOperationException(); }
+        @Override public Optional<Vehicle> update(VehicleId id, Long expectedVersion, Vin vin, VehicleType type, String make, String model, Integer year, FuelType fuelType, String color, String registrationNumber) { throw new UnsupportedOperationException(); }
+        @Override public boolean delete(VehicleId id, Long expectedVersion) { return true; }
+    }
+
+    private final GatedRepo delegate = new GatedRepo();
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        delegate.gate.countDown();
+        callers.shutdownNow();
+    }
+
+    /** Starts {@code n} identical lookups and returns once all but the first are waiting on it. */
+    private <T> List<Future<T>> pileUp(CoalescingVehicleRepository repo, Lookup lookup, int n, IntFunction<T> call) {
+        var futures = new ArrayList<Future<T>>();
+        for (int i = 0; i < n; i++) {
+            int caller = i;
+            futures.add(callers.submit(() -> call.apply(caller)));
+        }
+        until(() -> repo.coalesced(lookup) == n - 1);
+        return futures;
+    }
+
+    private static void until(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) throw new AssertionError("condition not met within 5 s");
+            Thread.onSpinWait();
+        }
+    }
+
+    @Test
+    void concurrent_identical_lookups_share_one_query_and_its_result() throws Exception {
+        var repo = new CoalescingVehicleRepository(delegate, Duration.ofSeconds(5));
+
+        var byPlate = pileUp(repo, Lookup.REGISTRATION, 20,
+                i -> repo.findByRegistrationNumber(i % 2 == 0 ? "ab123" : "AB123"));
+        delegate.gate.countDown();
+
+        for (var f : byPlate) assertThat(f.get(5, TimeUnit.SECONDS)).contains(VEHICLE);
+        assertThat(delegate.queries).hasValue(1);
+        assertThat(repo.coalesced(Lookup.REGISTRATION)).isEqualTo(19);
+        assertThat(repo.coalesced(Lookup.ID)).isZero();
+    }
+
+    @Test
+    void different_keys_and_lookups_do_not_share() throws Exception {
+        var repo = new CoalescingVehicleRepository(delegate, Duration.ofSeconds(5));
+
+        var a = callers.submit(() -> repo.findById(new VehicleId(1L)));
+        var b = callers.submit(() -> repo.findById(new VehicleId(2L)));
+        var c = callers.submit(() -> repo.findVersionById(new VehicleId(1L)));
+        until(() -> delegate.queries.get() == 3);
+        delegate.gate.countDown();
+
+        a.get(5, TimeUnit.SECONDS);
+        b.get(5, TimeUnit.SECONDS);
+        c.get(5, TimeUnit.SECONDS);
+        assertThat(repo.coalesced(Lookup.ID) + repo.coalesced(Lookup.VERSION)).isZero();
+    }
+
+    @Test
+    void every_waiter_gets_the_query_exception() {
+        var repo = new CoalescingVehicleRepository(delegate, Duration.ofSeconds(5));
+        delegate.answer = () -> { throw new IllegalStateException("database down"); };
+
+        var byId = pileUp(repo, Lookup.ID, 5, i -> repo.findById(new VehicleId(1L)));
+        delegate.gate.countDown();
+
+        for (var f : byId) {
+            assertThatThrownBy(() -> f.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("database down");
+        }
+        assertThat(delegate.queries).hasValue(1);
+    }
+
+    @Test
+    void a_waiter_gives_up_after_the_timeout_with_a_retryable_error() {
+        var repo = new CoalescingVehicleRepository(delegate, Duration.ofMillis(50));
+        callers.submit(() -> repo.findByVin(VEHICLE.vin()));
+        until(() -> delegate.queries.get() == 1);
+
+        assertThatThrownBy(() -> repo.findByVin(VEHICLE.vin()))
+                .isInstanceOf(DataAccessResourceFailureException.class)
+                .hasMessageContaining("50 ms");
+        assertThat(repo.timeouts()).isEqualTo(1);
+    }
+
+    @Test
+    void a_lookup_after_a_write_does_not_join_a_query_started_before_it() throws Exception {
+        var repo = new CoalescingVehicleRepository(delegate, Duration.ofSeconds(5));
+        var before = callers.submit(() -> repo.findById(VEHICLE.id()));
+        until(() -> delegate.queries.get() == 1);
+
+        repo.delete(VEHICLE.id(), null);
+        var after = callers.submit(() -> repo.findById(VEHICLE.id()));
+        until(() -> delegate.queries.get() == 2);
+        delegate.gate.countDown();
+
+        before.get(5, TimeUnit.SECONDS);
+        after.get(5, TimeUnit.SECONDS);
+        assertThat(repo.coalesced(Lookup.ID)).isZero();
+    }
+
+    @Test
+    void a_cache_epoch_change_starts_a_new_generation_too() throws Exception {
+        var epoch = new AtomicLong();
+        var repo = new CoalescingVehicleRepository(delegate, Duration.ofSeconds(5), epoch::get);
+        var before = callers.submit(() -> repo.findById(VEHICLE.id()));
+        until(() -> delegate.queries.get() == 1);
+
+        epoch.incrementAndGet(); // e.g. another node's write reached the cache
+        var after = callers.submit(() -> repo.findById(VEHICLE.id()));
+        until(() -> delegate.queries.get() == 2);
+        delegate.gate.countDown();
+
+        before.get(5, TimeUnit.SECONDS);
+        after.get(5, TimeUnit.SECONDS);
+    }
+}
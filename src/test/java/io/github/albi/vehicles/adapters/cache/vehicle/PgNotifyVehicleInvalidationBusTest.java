@@ -0,0 +1,88 @@
+package io.github.albi.vehicles.adapters.cache.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.VehicleId;
+import io.github.albi.vehicles.domain.vehicle.Vin;
+import io.github.albi.vehicles.support.PostgresTestDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class PgNotifyVehicleInvalidationBusTest {
+
+    @Test
+    void payload_round_trips() {
+        var full = new VehicleInvalidation(new VehicleId(42L), new Vin("1HGCM82633A004352"), "AB|12");
+        var idOnly = new VehicleInvalidation(new VehicleId(7L), null, null);
+
+        assertThat(PgNotifyVehicleInvalidationBus.decode(PgNotifyVehicleInvalidationBus.encode(full))).isEqualTo(full);
+        assertThat(PgNotifyVehicleInvalidationBus.decode(PgNotifyVehicleInvalidationBus.encode(idOnly))).isEqualTo(idOnly);
+        assertThat(PgNotifyVehicleInvalidationBus.encode(VehicleInvalidation.all())).isEqualTo("*");
+    }
+
+    @Test
+    void unreadable_payload_flushes_everything() {
+        assertThat(PgNotifyVehicleInvalidationBus.decode("not-a-number|x|y").isAll()).isTrue();
+        assertThat(PgNotifyVehicleInvalidationBus.decode("*").isAll()).isTrue();
+    }
+
+    @Test
+    void rejects_channel_names_that_need_quoting() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PgNotifyVehicleInvalidationBus(null, null, "vehicles; drop table vehicles", 10));
+    }
+
+    @Test
+    void delivers_over_its_own_connection_and_unlistens_before_closing() throws SQLException {
+        var postgres = PostgresTestDatabase.server().getPostgresDatabase();
+        // close suppressed, so the listen connection can be inspected after the bus is done with it
+        var listenConnection = new SingleConnectionDataSource(postgres.getConnection(), true);
+        var bus = new PgNotifyVehicleInvalidationBus(postgres, listenConnection, "vehicles_cache_test", 10);
+        var received = new CopyOnWriteArrayList<VehicleInvalidation>();
+        bus.subscribe(received::add);
+        var key = new VehicleInvalidation(new VehicleId(42L), null, null);
+
+        bus.start();
+        try {
+            awaitTrue(() -> !received.isEmpty()); // the flush every (re)connect starts with
+            bus.publish(List.of(key));
+            awaitTrue(() -> received.contains(key));
+        } finally {
+            bus.stop();
+        }
+
+        awaitTrue(() -> listeningChannels(listenConnection).isEmpty());
+        assertThat(received.getFirst().isAll()).isTrue();
+        listenConnection.destroy();
+    }
+
+    private static List<String> listeningChannels(SingleConnectionDataSource dataSource) {
+        try (var st = dataSource.getConnection().createStatement();
+             var rs = st.executeQuery("select pg_listening_channels()")) {
+            var channels = new ArrayList<String>();
+            while (rs.next()) channels.add(rs.getString(1));
+            return channels;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) throw new AssertionError("condition not met within 10s");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
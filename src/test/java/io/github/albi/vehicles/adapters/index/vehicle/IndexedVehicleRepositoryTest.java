@@ -0,0 +1,226 @@
+package io.github.albi.vehicles.adapters.index.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+final class IndexedVehicleRepositoryTest {
+
+    private static final List<String> MAKES = List.of("Toyota", "TOYOTA", "Tesla", "Volvo", "Ford", "Fiat");
+    private static final List<String> MODELS = List.of("Corolla", "Model Y", "XC40", "Focus", "Punto", "Corsa");
+
+    /** The database, as far as this decorator can tell: rows by id plus a change log. */
+    private static final class TableRepo implements VehicleRepository {
+        final TreeMap<Long, Vehicle> rows = new TreeMap<>();
+        final List<VehicleChange> log = new ArrayList<>();
+        final AtomicInteger findAlls = new AtomicInteger();
+
+        void write(Vehicle v) {
+            rows.put(v.id().value(), v);
+            log.add(VehicleChange.upsert(log.size() + 1, v));
+        }
+
+        @Override
+        public VehiclePage search(VehicleFilter filter, VehicleSort sort, VehicleCursor after, int limit) {
+            Comparator<Vehicle> order = sort == VehicleSort.MODEL_YEAR
+                    ? Comparator.<Vehicle>comparingInt(Vehicle::year).thenComparingLong(v -> v.id().value())
+                    : Comparator.comparingLong(v -> v.id().value());
+            var matching = rows.values().stream()
+                    .filter(v -> filter.type() == null || v.type() == filter.type())
+                    .filter(v -> filter.fuelType() == null || v.fuelType() == filter.fuelType())
+                    .filter(v -> filter.year() == null || v.year() == filter.year())
+                    .filter(v -> like(v.make(), filter.make(), filter.match()))
+                    .filter(v -> like(v.model(), filter.model(), filter.match()))
+                    .filter(v -> after == null || sortPosition(sort, v) > sortPosition(sort, after))
+                    .sorted(order)
+                    .limit(limit + 1)
+                    .toList();
+            return VehiclePage.of(matching, limit, sort);
+        }
+
+        private static double sortPosition(VehicleSort sort, Vehicle v) {
+            return sort == VehicleSort.MODEL_YEAR ? v.year() * 1e6 + v.id().value() : v.id().value();
+        }
+
+        private static double sortPosition(VehicleSort sort, VehicleCursor c) {
+            return sort == VehicleSort.MODEL_YEAR ? Integer.parseInt(c.sortValue()) * 1e6 + c.lastId() : c.lastId();
+        }
+
+        private static boolean like(String actual, String wanted, TextMatch match) {
+            if (wanted == null) return true;
+            var a = actual.toLowerCase(Locale.ROOT);
+            var w = wanted.toLowerCase(Locale.ROOT);
+            return switch (match) {
+                case EXACT -> a.equals(w);
+                case PREFIX -> a.startsWith(w);
+                case CONTAINS -> a.contains(w);
+            };
+        }
+
+        @Override
+        public List<Vehicle> findAll(List<VehicleKey> keys) {
+            findAlls.incrementAndGet();
+            return keys.stream().map(k -> rows.get(k.id().value())).filter(v -> v != null).toList();
+        }
+
+        @Override
+        public List<VehicleChange> changesSince(long since, int limit) {
+            return log.stream().filter(c -> c.seq() > since).limit(limit).toList();
+        }
+
+        @Override
+        public Vehicle create(Vin vin, VehicleType type, String make, String model, Integer year, FuelType fuelType,
+                              String color, String registrationNumber) {
+            var v = new Vehicle(new VehicleId(rows.isEmpty() ? 1 : rows.lastKey() + 1), vin, type, make, model, year,
+                    fuelType, color, registrationNumber);
+            write(v);
+            return v;
+        }
+
+        @Override
+        public boolean delete(VehicleId id, Long expectedVersion) {
+            if (rows.remove(id.value()) == null) return false;
+            log.add(VehicleChange.deletion(log.size() + 1, id));
+            return true;
+        }
+
+        @Override public Optional<Vehicle> findById(VehicleId id) { return Optional.ofNullable(rows.get(id.value())); }
+        @Override public Optional<VehicleVersion> findVersionById(VehicleId id) { throw new UnsupportedOperationException(); }
+        @Override public Optional<Vehicle> findByVin(Vin vin) { throw new UnsupportedOperationException(); }
+        @Override public Optional<Vehicle> findByRegistrationNumber(String registrationNumber) { throw new UnsupportedOperationException(); }
+        @Override public void exportAll(VehicleFilter filter, Consumer<? super Vehicle> sink) { throw new UnsupportedOperationException(); }
+        @Override public VehicleFacets facets(VehicleFilter filter) { throw new UnsupportedOperationException(); }
+        @Override public List<String> suggest(VehicleTextField field, String prefix, int limit) { throw new UnsupportedOperationException(); }
+        @Override public List<VehicleUpsertResult> upsertAll(List<VehicleDraft> drafts) { throw new UnsupportedOperationException(); }
+        @Override public Optional<Vehicle> update(VehicleId id, Long expectedVersion, Vin vin, VehicleType type, String make, String model, Integer year, FuelType fuelType, String color, String registrationNumber) { throw new UnsupportedOperationException(); }
+    }
+
+    private final TableRepo table = new TableRepo();
+    private final VehicleBitmapIndex index = new VehicleBitmapIndex();
+    private final IndexedVehicleRepository repo = new IndexedVehicleRepository(table, index);
+    private final VehicleIndexFeed feed = new VehicleIndexFeed(table, index, 50, Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+    private static Vehicle vehicle(long id, VehicleType type, FuelType fuel, int year, String make, String model) {
+        return new Vehicle(new VehicleId(id), new Vin(String.format("NDXTS%012d", id)), type, make, model, year, fuel,
+                null, null);
+    }
+
+    private void fleet(int n, long seed) {
+        var random = new Random(seed);
+        for (int id = 1; id <= n; id++) {
+            table.write(vehicle(id, VehicleType.values()[random.nextInt(3)], FuelType.values()[random.nextInt(3)],
+                    2015 + random.nextInt(6), MAKES.get(random.nextInt(MAKES.size())),
+                    MODELS.get(random.nextInt(MODELS.size()))));
+        }
+    }
+
+    private static List<Vehicle> allPages(VehicleRepository repo, VehicleFilter filter, VehicleSort sort, int limit) {
+        var all = new ArrayList<Vehicle>();
+        VehicleCursor after = null;
+        do {
+            var page = repo.search(filter, sort, after, limit);
+            all.addAll(page.items());
+            after = page.next();
+        } while (after != null);
+        return all;
+    }
+
+    @Test
+    void pages_are_the_ones_the_database_returns_for_every_filter_and_order() {
+        fleet(400, 7);
+        feed.catchUp();
+        var filters = List.of(
+                VehicleFilter.none(),
+                new VehicleFilter(null, null, 2017, VehicleType.CAR, null, null, null),
+                new VehicleFilter("toyota", null, null, null, FuelType.DIESEL, null, null),
+                new VehicleFilter("T", "co", null, null, null, null, null, TextMatch.PREFIX),
+                new VehicleFilter(null, "o", 2019, VehicleType.TRUCK, FuelType.PETROL, null, null, TextMatch.CONTAINS),
+                new VehicleFilter("Lada", null, null, null, null, null, null));
+
+        for (var filter : filters) {
+            for (var sort : List.of(VehicleSort.ID, VehicleSort.MODEL_YEAR)) {
+                for (int limit : new int[] { 1, 7, 500 }) {
+                    assertThat(allPages(repo, filter, sort, limit)).as("%s %s %d", filter, sort, limit)
+                            .isEqualTo(allPages(table, filter, sort, limit));
+                }
+            }
+        }
+        assertThat(repo.delegatedSearches()).isZero();
+    }
+
+    @Test
+    void a_page_reads_only_its_rows_by_id() {
+        fleet(400, 11);
+        feed.catchUp();
+
+        var page = repo.search(new VehicleFilter(null, null, null, VehicleType.CAR, null, null, null),
+                VehicleSort.ID, null, 20);
+
+        assertThat(page.items()).hasSize(20);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(table.findAlls).hasValue(1);
+    }
+
+    @Test
+    void searches_go_to_the_database_until_the_feed_was_read_and_when_sorted_by_make() {
+        fleet(10, 3);
+        repo.search(VehicleFilter.none(), VehicleSort.ID, null, 5);
+
+        feed.catchUp();
+        repo.search(VehicleFilter.none(), VehicleSort.ID, null, 5);
+        repo.search(VehicleFilter.none(), VehicleSort.MAKE, null, 5);
+
+        assertThat(repo.delegatedSearches()).isEqualTo(2);
+        assertThat(repo.indexedSearches()).isEqualTo(1);
+        assertThat(index.size()).isEqualTo(10);
+    }
+
+    @Test
+    void a_row_changed_elsewhere_is_left_out_and_the_page_still_fills() {
+        table.write(vehicle(1, VehicleType.TRUCK, FuelType.DIESEL, 2020, "Volvo", "FH"));
+        table.write(vehicle(2, VehicleType.TRUCK, FuelType.DIESEL, 2020, "Volvo", "FH"));
+        table.write(vehicle(3, VehicleType.TRUCK, FuelType.DIESEL, 2021, "Volvo", "FM"));
+        table.write(vehicle(4, VehicleType.TRUCK, FuelType.DIESEL, 2022, "Scania", "R"));
+        feed.catchUp();
+        // another node's writes the feed has not brought yet: 2 is no truck any more, 3 moved to another year
+        table.rows.put(2L, vehicle(2, VehicleType.CAR, FuelType.DIESEL, 2020, "Volvo", "V90"));
+        table.rows.put(3L, vehicle(3, VehicleType.TRUCK, FuelType.DIESEL, 2023, "Volvo", "FM"));
+
+        var trucks = new VehicleFilter(null, null, null, VehicleType.TRUCK, null, null, null);
+        var page = repo.search(trucks, VehicleSort.MODEL_YEAR, null, 2);
+
+        assertThat(page.items()).extracting(v -> v.id().value()).containsExactly(1L, 4L);
+        assertThat(page.hasNext()).isFalse();
+        assertThat(repo.staleHits()).isEqualTo(2);
+    }
+
+    @Test
+    void writes_through_it_are_searchable_at_once_and_others_after_the_next_feed_read() {
+        feed.catchUp();
+        var created = repo.create(new Vin("NDXTS000000000001"), VehicleType.SUV, "Kia", "Sorento", 2024,
+                FuelType.HYBRID, null, null);
+        var suvs = new VehicleFilter(null, null, null, VehicleType.SUV, null, null, null);
+        assertThat(repo.search(suvs, VehicleSort.ID, null, 10).items()).containsExactly(created);
+
+        table.write(vehicle(2, VehicleType.SUV, FuelType.PETROL, 2023, "Kia", "Sportage")); // another node
+        assertThat(repo.search(suvs, VehicleSort.ID, null, 10).items()).hasSize(1);
+        feed.catchUp();
+        assertThat(repo.search(suvs, VehicleSort.ID, null, 10).items()).hasSize(2);
+
+        repo.delete(created.id(), null);
+        assertThat(repo.search(suvs, VehicleSort.ID, null, 10).items()).extracting(v -> v.id().value())
+                .containsExactly(2L);
+    }
+}
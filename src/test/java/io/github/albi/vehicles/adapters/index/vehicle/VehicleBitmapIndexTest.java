@@ -0,0 +1,138 @@
+package io.github.albi.vehicles.adapters.index.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+final class VehicleBitmapIndexTest {
+
+    private final VehicleBitmapIndex index = new VehicleBitmapIndex();
+
+    private static Vehicle vehicle(long id, VehicleType type, FuelType fuel, int year, String make, String model) {
+        var vin = String.format("BTMPX%012d", id);
+        return new Vehicle(new VehicleId(id), new Vin(vin), type, make, model, year, fuel, null, null);
+    }
+
+    private static VehicleFilter filter(String make, String model, Integer year, VehicleType type, FuelType fuel,
+                                        TextMatch match) {
+        return new VehicleFilter(make, model, year, type, fuel, null, null, match);
+    }
+
+    private List<Long> ids(VehicleFilter filter, VehicleSort sort, VehicleCursor after, int n) {
+        return index.matching(filter, sort, after, n).positions().stream().map(VehicleCursor::lastId).toList();
+    }
+
+    @BeforeEach
+    void setUp() {
+        index.put(vehicle(1, VehicleType.CAR, FuelType.PETROL, 2020, "Toyota", "Yaris"));
+        index.put(vehicle(2, VehicleType.CAR, FuelType.ELECTRIC, 2022, "Tesla", "Model 3"));
+        index.put(vehicle(3, VehicleType.TRUCK, FuelType.DIESEL, 2020, "Volvo", "FH16"));
+        index.put(vehicle(4, VehicleType.CAR, FuelType.PETROL, 2018, "toyota", "Corolla"));
+        index.put(vehicle(5, VehicleType.CAR, FuelType.PETROL, 2020, "Toyota", "Corolla Cross"));
+        index.put(vehicle(7, VehicleType.CAR, FuelType.HYBRID, 2018, "Toyota", "Prius"));
+        index.markCaughtUp();
+    }
+
+    @Test
+    void filters_are_anded() {
+        assertThat(ids(filter(null, null, 2020, VehicleType.CAR, FuelType.PETROL, null), VehicleSort.ID, null, 10))
+                .containsExactly(1L, 5L);
+        assertThat(ids(filter("toyota", null, 2018, null, null, null), VehicleSort.ID, null, 10))
+                .containsExactly(4L, 7L);
+        assertThat(ids(filter(null, null, 1999, null, null, null), VehicleSort.ID, null, 10)).isEmpty();
+        assertThat(ids(VehicleFilter.none(), VehicleSort.ID, null, 10)).containsExactly(1L, 2L, 3L, 4L, 5L, 7L);
+    }
+
+    @Test
+    void make_and_model_compare_case_insensitively_in_every_match_mode() {
+        assertThat(ids(filter(" TOYOTA ", null, null, null, null, TextMatch.EXACT), VehicleSort.ID, null, 10))
+                .containsExactly(1L, 4L, 5L, 7L);
+        assertThat(ids(filter(null, "corolla", null, null, null, TextMatch.EXACT), VehicleSort.ID, null, 10))
+                .containsExactly(4L);
+        assertThat(ids(filter(null, "coro", null, null, null, TextMatch.PREFIX), VehicleSort.ID, null, 10))
+                .containsExactly(4L, 5L);
+        assertThat(ids(filter("t", "o", null, null, null, TextMatch.CONTAINS), VehicleSort.ID, null, 10))
+                .containsExactly(2L, 4L, 5L);
+    }
+
+    @Test
+    void id_order_resumes_after_the_cursor() {
+        var first = index.matching(filter("Toyota", null, null, null, null, null), VehicleSort.ID, null, 2);
+
+        assertThat(first.positions()).extracting(VehicleCursor::lastId).containsExactly(1L, 4L);
+        assertThat(ids(filter("Toyota", null, null, null, null, null), VehicleSort.ID, first.last(), 10))
+                .containsExactly(5L, 7L);
+    }
+
+    @Test
+    void year_order_walks_the_years_up_with_ties_by_id() {
+        var all = index.matching(VehicleFilter.none(), VehicleSort.MODEL_YEAR, null, 10);
+        assertThat(all.positions()).extracting(VehicleCursor::lastId).containsExactly(4L, 7L, 1L, 3L, 5L, 2L);
+        assertThat(all.positions().get(2)).isEqualTo(new VehicleCursor(VehicleSort.MODEL_YEAR, "2020", 1));
+
+        var afterOne = new VehicleCursor(VehicleSort.MODEL_YEAR, "2020", 1);
+        assertThat(ids(filter(null, null, null, VehicleType.CAR, null, null), VehicleSort.MODEL_YEAR, afterOne, 10))
+                .containsExactly(5L, 2L);
+    }
+
+    @Test
+    void pages_cross_from_one_window_of_ids_to_the_next() {
+        for (long id : new long[] { 65_535, 65_536, 300_000, 1_000_000 }) {
+            index.put(vehicle(id, VehicleType.BUS, FuelType.DIESEL, 2020, "MAN", "Lion's City"));
+        }
+        var buses = filter("man", null, null, VehicleType.BUS, FuelType.DIESEL, null);
+
+        var first = index.matching(buses, VehicleSort.ID, null, 2);
+        assertThat(first.positions()).extracting(VehicleCursor::lastId).containsExactly(65_535L, 65_536L);
+        assertThat(ids(buses, VehicleSort.ID, first.last(), 10)).containsExactly(300_000L, 1_000_000L);
+        assertThat(ids(filter(null, null, 2020, null, null, null), VehicleSort.MODEL_YEAR,
+                new VehicleCursor(VehicleSort.MODEL_YEAR, "2020", 5), 3)).containsExactly(65_535L, 65_536L, 300_000L);
+    }
+
+    @Test
+    void an_update_moves_the_id_and_a_delete_drops_it() {
+        index.put(vehicle(1, VehicleType.VAN, FuelType.ELECTRIC, 2024, "Ford", "E-Transit"));
+        index.remove(new VehicleId(3L));
+
+        assertThat(ids(filter("Toyota", null, null, null, null, null), VehicleSort.ID, null, 10))
+                .containsExactly(4L, 5L, 7L);
+        assertThat(ids(filter(null, null, 2024, VehicleType.VAN, FuelType.ELECTRIC, null), VehicleSort.ID, null, 10))
+                .containsExactly(1L);
+        assertThat(ids(filter(null, null, null, VehicleType.TRUCK, null, null), VehicleSort.ID, null, 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(5);
+    }
+
+    @Test
+    void the_feed_moves_the_position_and_tombstones_delete() {
+        index.apply(List.of(
+                VehicleChange.upsert(41, vehicle(9, VehicleType.BUS, FuelType.DIESEL, 2015, "MAN", "Lion's City")),
+                VehicleChange.deletion(43, new VehicleId(2L))));
+
+        assertThat(index.position()).isEqualTo(43);
+        assertThat(ids(filter(null, null, null, VehicleType.BUS, null, null), VehicleSort.ID, null, 10))
+                .containsExactly(9L);
+        assertThat(ids(filter("Tesla", null, null, null, null, null), VehicleSort.ID, null, 10)).isEmpty();
+    }
+
+    @Test
+    void answers_only_what_it_can_order_and_once_caught_up() {
+        assertThat(index.answers(VehicleFilter.none(), VehicleSort.MODEL_YEAR)).isTrue();
+        assertThat(index.answers(VehicleFilter.none(), VehicleSort.MAKE)).isFalse();
+        assertThat(index.answers(new VehicleFilter(null, null, null, null, null, "BTMPX000000000001", null),
+                VehicleSort.ID)).isFalse();
+        assertThat(index.answers(new VehicleFilter(null, null, null, null, null, null, null, null, "red toyota"),
+                VehicleSort.ID)).isFalse();
+        assertThat(new VehicleBitmapIndex().answers(VehicleFilter.none(), VehicleSort.ID)).isFalse();
+    }
+
+    @Test
+    void an_id_too_large_for_a_bitmap_switches_the_index_off() {
+        index.put(vehicle(5_000_000_000L, VehicleType.CAR, FuelType.PETROL, 2020, "Toyota", "Yaris"));
+
+        assertThat(index.answers(VehicleFilter.none(), VehicleSort.ID)).isFalse();
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.albi.vehicles.adapters.messaging.vehicle;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.albi.vehicles.domain.vehicle.VehicleEvent;
+import io.github.albi.vehicles.domain.vehicle.VehicleId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+final class FileVehicleEventPublisherTest {
+
+    @Test
+    void appends_one_json_line_per_event_across_batches(@TempDir Path dir) throws Exception {
+        var file = dir.resolve("events.ndjson");
+        var publisher = new FileVehicleEventPublisher(file, new ObjectMapper());
+        var at = Instant.parse("2025-01-02T03:04:05Z");
+
+        publisher.publish(List.of(new VehicleEvent(1, VehicleEvent.Type.CREATED, new VehicleId(7L),
+                "{\"id\":7,\"make\":\"Kia\"}", at)));
+        publisher.publish(List.of(new VehicleEvent(2, VehicleEvent.Type.DELETED, new VehicleId(7L), null, at)));
+
+        assertThat(Files.readAllLines(file)).containsExactly(
+                "{\"id\":1,\"type\":\"VehicleCreated\",\"vehicleId\":7,\"occurredAt\":\"2025-01-02T03:04:05Z\","
+                        + "\"vehicle\":{\"id\":7,\"make\":\"Kia\"}}",
+                "{\"id\":2,\"type\":\"VehicleDeleted\",\"vehicleId\":7,\"occurredAt\":\"2025-01-02T03:04:05Z\","
+                        + "\"vehicle\":null}");
+    }
+}
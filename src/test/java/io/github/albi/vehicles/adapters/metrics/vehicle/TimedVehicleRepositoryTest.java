@@ -0,0 +1,78 @@
+package io.github.albi.vehicles.adapters.metrics.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+final class TimedVehicleRepositoryTest {
+
+    private final VehicleRepository db = mock(VehicleRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TimedVehicleRepository repo = new TimedVehicleRepository(db, registry);
+
+    private static Vehicle vehicle(long id) {
+        return new Vehicle(new VehicleId(id), new Vin("WDB11111111111111"), VehicleType.CAR, "Toyota", "Yaris",
+                2022, FuelType.PETROL, "Blue", "ABC123");
+    }
+
+    @Test
+    void times_each_operation_and_passes_results_through() {
+        var stored = vehicle(1);
+        when(db.findById(new VehicleId(1L))).thenReturn(Optional.of(stored));
+
+        assertThat(repo.findById(new VehicleId(1L))).containsSame(stored);
+        repo.findById(new VehicleId(1L));
+        repo.delete(new VehicleId(1L), null);
+
+        assertThat(registry.get("vehicles.repository").tags("operation", "findById", "filter", "n/a").timer().count())
+                .isEqualTo(2);
+        assertThat(registry.get("vehicles.repository").tags("operation", "delete").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void tags_search_by_filter_combination_and_counts_rows() {
+        when(db.search(any(), any(), any(), anyInt()))
+                .thenReturn(new VehiclePage(List.of(vehicle(1), vehicle(2)), null))
+                .thenReturn(new VehiclePage(List.of(), null));
+
+        repo.search(new VehicleFilter("Toyota", "Yaris", null, null, null, null, null), VehicleSort.ID, null, 10);
+        repo.search(new VehicleFilter("to", null, 2020, null, null, null, null, TextMatch.PREFIX), VehicleSort.ID, null, 10);
+
+        assertThat(registry.get("vehicles.repository").tags("operation", "search", "filter", "make+model").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("vehicles.search.rows").tag("filter", "make+model").summary().totalAmount()).isEqualTo(2);
+        assertThat(registry.get("vehicles.search.rows").tag("filter", "make+year:prefix").summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failed_calls_are_timed_too() {
+        when(db.facets(any())).thenThrow(new IllegalStateException("db down"));
+
+        assertThatThrownBy(() -> repo.facets(VehicleFilter.none())).hasMessage("db down");
+        assertThat(registry.get("vehicles.repository").tags("operation", "facets", "filter", "none").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void filter_tag_names_the_filters_never_their_values() {
+        assertThat(VehicleFilterTag.of(null)).isEqualTo("n/a");
+        assertThat(VehicleFilterTag.of(VehicleFilter.none())).isEqualTo("none");
+        assertThat(VehicleFilterTag.of(new VehicleFilter(null, " ", null, VehicleType.VAN, FuelType.ELECTRIC, null, null)))
+                .isEqualTo("type+fuelType");
+        assertThat(VehicleFilterTag.of(new VehicleFilter("Sko", null, null, null, null, null, null, TextMatch.CONTAINS)))
+                .isEqualTo("make:contains");
+        assertThat(VehicleFilterTag.of(new VehicleFilter(null, null, null, VehicleType.SUV, null, null, null, null,
+                "red tesla"))).isEqualTo("q+type");
+        assertThat(VehicleFilterTag.of(new VehicleFilter("Skoda", null, null, null, null, "WDB11111111111111", "X")))
+                .isEqualTo("vin");
+    }
+}
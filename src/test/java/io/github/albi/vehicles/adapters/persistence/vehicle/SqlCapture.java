@@ -0,0 +1,33 @@
+package io.github.albi.vehicles.adapters.persistence.vehicle;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Hibernate statement inspector that records every SQL string it sees; for plan tests. */
+public final class SqlCapture implements StatementInspector {
+
+    private static final List<String> statements = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (statements) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    static void clear() {
+        synchronized (statements) {
+            statements.clear();
+        }
+    }
+
+    static String last() {
+        synchronized (statements) {
+            if (statements.isEmpty()) throw new IllegalStateException("no SQL captured");
+            return statements.getLast();
+        }
+    }
+}
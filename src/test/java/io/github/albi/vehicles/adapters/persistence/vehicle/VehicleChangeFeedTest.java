@@ -0,0 +1,123 @@
+package io.github.albi.vehicles.adapters.persistence.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.VehicleChange;
+import io.github.albi.vehicles.domain.vehicle.VehicleRepository;
+import io.github.albi.vehicles.support.PostgresTestDatabase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * The change feed against concurrent writers in real Postgres (V15): each writer is its
+ * own connection, so one can stay uncommitted while others commit around it. Vehicle ids
+ * are made up and only ever tombstoned, so no vehicle rows are needed.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = VehicleRepositoryJpaAdapterTest.ScanConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class VehicleChangeFeedTest {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    @Autowired private VehicleRepository adapter;
+    @Autowired private DataSource dataSource;
+
+    @Test
+    @DisplayName("a long write committing behind a younger, still open one is delivered, and so is the younger one")
+    void longWriterBehindOpenShortWriter() throws SQLException {
+        long start = tail();
+        try (var longWriter = writer(); var shortWriter = writer()) {
+            begin(longWriter); // the long write starts first, e.g. a :batch upsert
+            log(shortWriter, 913_001);
+            log(longWriter, 913_002); // a later seq than the open write's
+            longWriter.commit();
+
+            var first = adapter.changesSince(start, 10);
+            assertThat(first).extracting(c -> c.id().value()).containsExactly(913_002L);
+
+            shortWriter.commit();
+            assertThat(adapter.changesSince(first.getLast().seq(), 10))
+                    .extracting(c -> c.id().value()).containsExactly(913_001L);
+        }
+    }
+
+    @Test
+    @DisplayName("an open write holds back every write that began after it, however long it stays open")
+    void openWriterHoldsBackYoungerOnes() throws SQLException {
+        long start = tail();
+        try (var older = writer(); var younger = writer()) {
+            log(older, 913_011);
+            log(younger, 913_012);
+            younger.commit();
+
+            assertThat(adapter.changesSince(start, 10)).isEmpty();
+
+            older.commit();
+            assertThat(adapter.changesSince(start, 10))
+                    .extracting(c -> c.id().value()).containsExactly(913_011L, 913_012L);
+        }
+    }
+
+    @Test
+    @DisplayName("a rolled back write releases what it held back")
+    void rolledBackWriter() throws SQLException {
+        long start = tail();
+        try (var older = writer(); var younger = writer()) {
+            log(older, 913_021);
+            log(younger, 913_022);
+            younger.commit();
+            older.rollback();
+
+            assertThat(adapter.changesSince(start, 10)).extracting(VehicleChange::deleted, c -> c.id().value())
+                    .containsExactly(tuple(true, 913_022L));
+        }
+    }
+
+    /** Seq of the last row in feed order; nothing else is writing. */
+    private long tail() {
+        try (var c = dataSource.getConnection(); var st = c.createStatement();
+             var rs = st.executeQuery("select seq from vehicle_changes order by txid desc, seq desc limit 1")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Connection writer() throws SQLException {
+        var c = dataSource.getConnection();
+        c.setAutoCommit(false);
+        return c;
+    }
+
+    /** Takes the transaction's id now, so it is older than any begun after. */
+    private static void begin(Connection c) throws SQLException {
+        try (var st = c.createStatement()) {
+            st.execute("select pg_current_xact_id()");
+        }
+    }
+
+    private static void log(Connection c, long vehicleId) throws SQLException {
+        try (var ps = c.prepareStatement("insert into vehicle_changes (vehicle_id, deleted) values (?, true)")) {
+            ps.setLong(1, vehicleId);
+            ps.executeUpdate();
+        }
+    }
+}
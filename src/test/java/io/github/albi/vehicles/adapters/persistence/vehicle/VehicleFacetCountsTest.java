@@ -0,0 +1,180 @@
+package io.github.albi.vehicles.adapters.persistence.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.*;
+import io.github.albi.vehicles.support.PostgresTestDatabase;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The V7 triggers must keep {@code vehicle_facet_counts} equal to a fresh
+ * {@code group by} over {@code vehicles} through every kind of write, without
+ * making concurrent writers of the same make (V17) wait for each other.
+ */
+@DataJpaTest(properties = "vehicles.facets.summary-table=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = VehicleRepositoryJpaAdapterTest.ScanConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // triggers fire on commit-visible writes
+class VehicleFacetCountsTest {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    @Autowired private VehicleRepository adapter;
+    @Autowired private VehicleJpaRepository jpa;
+    @Autowired private EntityManager em;
+    @Autowired private DataSource dataSource;
+
+    @Test
+    @DisplayName("summary table matches live aggregates after inserts, upserts, updates and deletes")
+    void summaryTracksEveryWrite() {
+        var live = new VehicleRepositoryJpaAdapter(jpa, em, null, null, null, null, 2, false);
+        assertThat(adapter.facets(VehicleFilter.none())).isEqualTo(live.facets(VehicleFilter.none()));
+
+        var a = adapter.create(new Vin("FCT00000000000001"), VehicleType.CAR, "Facetta", "One", 2020,
+                FuelType.PETROL, null, null);
+        var b = adapter.create(new Vin("FCT00000000000002"), VehicleType.VAN, "Facetta", "Two", 2021,
+                FuelType.DIESEL, null, null);
+        assertThat(adapter.facets(VehicleFilter.none())).isEqualTo(live.facets(VehicleFilter.none()));
+
+        // one update (make changes) and one insert in a single call
+        adapter.upsertAll(List.of(
+                new VehicleDraft(b.vin(), VehicleType.VAN, "Facettino", "Two", 2021, FuelType.DIESEL, null, null),
+                new VehicleDraft(new Vin("FCT00000000000003"), VehicleType.BUS, "Facettone", "Three", 1999,
+                        FuelType.HYDROGEN, null, null)));
+        assertThat(adapter.facets(VehicleFilter.none())).isEqualTo(live.facets(VehicleFilter.none()));
+
+        adapter.update(a.id(), null, a.vin(), VehicleType.CAR, "Facetta", "One", 2020, FuelType.ELECTRIC, "Red", null);
+        adapter.update(a.id(), null, a.vin(), VehicleType.CAR, "Facetta", "One", 2020, FuelType.ELECTRIC, "Blue", null);
+        assertThat(adapter.facets(VehicleFilter.none())).isEqualTo(live.facets(VehicleFilter.none()));
+
+        var facettone = adapter.findByVin(new Vin("FCT00000000000003")).orElseThrow();
+        adapter.delete(facettone.id(), null);
+        var after = adapter.facets(VehicleFilter.none());
+        assertThat(after).isEqualTo(live.facets(VehicleFilter.none()));
+        assertThat(after.makes()).doesNotContainKey("Facettone"); // counters that reach zero go away
+    }
+
+    @Test
+    @DisplayName("a writer does not wait for another's uncommitted vehicle of the same make")
+    void writersOfOneMakeDoNotBlock() throws Exception {
+        var live = new VehicleRepositoryJpaAdapter(jpa, em, null, null, null, null, 2, false);
+        try (var first = dataSource.getConnection(); var second = inAnotherSlot(first)) {
+            first.setAutoCommit(false);
+            second.setAutoCommit(false);
+            insert(first, "FCTB0000000000001", "Blockera");
+            try (var st = second.createStatement()) {
+                st.execute("set local lock_timeout = '2s'"); // on one shared counter row this times out
+            }
+            insert(second, "FCTB0000000000002", "Blockera");
+            second.commit();
+            first.commit();
+        }
+        assertThat(adapter.facets(VehicleFilter.none()).makes()).containsEntry("Blockera", 2L);
+
+        delete("Blockera");
+        assertThat(adapter.facets(VehicleFilter.none())).isEqualTo(live.facets(VehicleFilter.none()));
+    }
+
+    @Test
+    @DisplayName("concurrent writers of one make commit in parallel and are all counted")
+    void concurrentWritersOfOneMake() throws Exception {
+        var live = new VehicleRepositoryJpaAdapter(jpa, em, null, null, null, null, 2, false);
+        int writers = 8;
+        int perWriter = 10;
+        var hold = Duration.ofMillis(50); // counter locks are held until commit
+        var serialized = hold.multipliedBy((long) writers * perWriter);
+
+        var start = new CountDownLatch(1);
+        var pool = Executors.newFixedThreadPool(writers);
+        var done = new ArrayList<Future<?>>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            done.add(pool.submit(() -> {
+                try (var con = dataSource.getConnection()) {
+                    con.setAutoCommit(false);
+                    start.await();
+                    for (int i = 0; i < perWriter; i++) {
+                        insert(con, "FCTS%02d%010d".formatted(writer, i), "Stripera");
+                        try (var st = con.createStatement()) {
+                            st.execute("select pg_sleep(" + hold.toMillis() / 1000.0 + ")");
+                        }
+                        con.commit();
+                    }
+                }
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (var f : done) f.get(1, TimeUnit.MINUTES);
+        var took = Duration.ofNanos(System.nanoTime() - began);
+        pool.shutdown();
+
+        assertThat(adapter.facets(VehicleFilter.none()).makes()).containsEntry("Stripera", (long) writers * perWriter);
+        assertThat(took).isLessThan(serialized.dividedBy(2)); // one shared row: every transaction waits in line
+
+        delete("Stripera");
+        assertThat(adapter.facets(VehicleFilter.none())).isEqualTo(live.facets(VehicleFilter.none()));
+    }
+
+    private static void insert(Connection con, String vin, String make) throws SQLException {
+        try (var ps = con.prepareStatement("insert into vehicles (vin, type, make, model, model_year, fuel_type) "
+                + "values (?, 'CAR', ?, 'Slot', 2022, 'PETROL')")) {
+            ps.setString(1, vin);
+            ps.setString(2, make);
+            ps.executeUpdate();
+        }
+    }
+
+    private void delete(String make) throws SQLException {
+        try (var con = dataSource.getConnection(); var ps = con.prepareStatement("delete from vehicles where make = ?")) {
+            ps.setString(1, make);
+            ps.executeUpdate();
+        }
+    }
+
+    /** A second pooled connection whose counter slot differs from {@code first}'s. */
+    private Connection inAnotherSlot(Connection first) throws SQLException {
+        var skipped = new ArrayList<Connection>();
+        try {
+            while (true) {
+                var con = dataSource.getConnection();
+                if (slot(con) != slot(first)) return con;
+                skipped.add(con);
+            }
+        } finally {
+            for (var con : skipped) con.close();
+        }
+    }
+
+    private static int slot(Connection con) throws SQLException {
+        try (var st = con.createStatement(); var rs = st.executeQuery("select pg_backend_pid() % 16")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
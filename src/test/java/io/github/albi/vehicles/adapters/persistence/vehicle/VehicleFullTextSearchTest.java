@@ -0,0 +1,141 @@
+package io.github.albi.vehicles.adapters.persistence.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.*;
+import io.github.albi.vehicles.support.PostgresTestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@code q=} against the V14 generated column in real Postgres: which vehicles a query
+ * finds, the order relevance puts them in, and that writes keep the column current.
+ * The makes and colours are made up, so other tests' rows in the shared database never match.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = VehicleRepositoryJpaAdapterTest.ScanConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class VehicleFullTextSearchTest {
+
+    private static final List<Long> ids = new ArrayList<>();
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    @Autowired private VehicleRepository adapter;
+
+    @BeforeEach
+    void seed() {
+        if (!ids.isEmpty()) return;
+        create(1, "Zentor", "Quill 3", "Vermilion", "FT-101-ZQ");
+        create(2, "Zentor", "Quill 3", "Cobalt", "FT-102-ZQ");
+        create(3, "Zentor", "Quill", "Vermilion", "FT-103-ZQ");
+        create(4, "Arvane", "Drift", "Vermilion", "FT-104-AD");
+        create(5, "Arvane", "Quill Sport", "Cobalt", "FT-105-AD");
+        create(6, "Zentor", "Quill 3", "Vermilion", null);
+    }
+
+    private void create(int n, String make, String model, String color, String plate) {
+        var v = adapter.create(new Vin(String.format("FTXS%013d", n)), VehicleType.CAR, make, model, 2020,
+                FuelType.ELECTRIC, color, plate);
+        ids.add(v.id().value());
+    }
+
+    @Test
+    @DisplayName("every word must appear, in any of make, model, colour and plate, whatever its case")
+    void everyWord() {
+        assertThat(search("vermilion ZENTOR quill 3")).containsExactlyInAnyOrder(1, 6);
+        assertThat(search("quill cobalt")).containsExactlyInAnyOrder(2, 5);
+        assertThat(search("zentor arvane")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("phrases, or and -word follow web search syntax")
+    void webSearchSyntax() {
+        assertThat(search("\"quill 3\" -cobalt")).containsExactlyInAnyOrder(1, 6);
+        assertThat(search("drift or sport")).containsExactlyInAnyOrder(4, 5);
+        assertThat(search("\"3 quill\"")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("a plate is found as written")
+    void plate() {
+        assertThat(search("FT-104-AD")).containsExactly(4);
+        assertThat(search("ft-101-zq vermilion")).containsExactly(1);
+    }
+
+    @Test
+    @DisplayName("relevance: more words matched first, a make beats a colour, ties by id")
+    void ranking() {
+        // 1, 3 and 6 have both; 2 only the make, which weighs more than 4's colour
+        assertThat(search("zentor or vermilion")).containsExactly(1, 3, 6, 2, 4);
+    }
+
+    @Test
+    @DisplayName("ranked pages of one row each continue where the last left off")
+    void rankedPages() {
+        var filter = text("zentor or vermilion or cobalt");
+        var all = new ArrayList<Vehicle>();
+        VehicleCursor after = null;
+        do {
+            var page = adapter.search(filter, VehicleSort.RELEVANCE, after, 1);
+            all.addAll(page.items());
+            after = page.next();
+        } while (after != null);
+
+        assertThat(all).usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(adapter.search(filter, VehicleSort.RELEVANCE, null, 100).items())
+                .hasSize(6);
+    }
+
+    @Test
+    @DisplayName("q combines with the other filters and sorts")
+    void withFilters() {
+        var filter = new VehicleFilter("arvane", null, null, VehicleType.CAR, null, null, null, TextMatch.EXACT,
+                "cobalt or vermilion");
+        assertThat(adapter.search(filter, VehicleSort.ID, null, 10).items())
+                .extracting(v -> v.id().value()).containsExactly(ids.get(3), ids.get(4));
+        assertThat(adapter.search(filter, VehicleSort.MAKE, null, 10).items()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("an update is searchable by its new values at once")
+    void update() {
+        var v = adapter.create(new Vin("FTXS0000000000099"), VehicleType.VAN, "Kestrel", "Hauler", 2019,
+                FuelType.DIESEL, "Saffron", null);
+        assertThat(adapter.search(text("kestrel saffron"), VehicleSort.RELEVANCE, null, 10).items()).hasSize(1);
+
+        adapter.update(v.id(), null, v.vin(), v.type(), v.make(), v.model(), v.year(), v.fuelType(), "Umber", null);
+
+        assertThat(adapter.search(text("kestrel saffron"), VehicleSort.RELEVANCE, null, 10).items()).isEmpty();
+        assertThat(adapter.search(text("kestrel umber"), VehicleSort.RELEVANCE, null, 10).items())
+                .extracting(Vehicle::color).containsExactly("Umber");
+        adapter.delete(v.id(), null);
+    }
+
+    /** Seed numbers (1-based) of the ranked matches, best first. */
+    private List<Integer> search(String q) {
+        return adapter.search(text(q), VehicleSort.RELEVANCE, null, 100).items().stream()
+                .map(v -> ids.indexOf(v.id().value()) + 1)
+                .toList();
+    }
+
+    private static VehicleFilter text(String q) {
+        return new VehicleFilter(null, null, null, null, null, null, null, null, q);
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.albi.vehicles.adapters.persistence.vehicle;
+
+import io.github.albi.vehicles.adapters.messaging.vehicle.InMemoryVehicleEventPublisher;
+import io.github.albi.vehicles.adapters.messaging.vehicle.VehicleOutboxDispatcher;
+import io.github.albi.vehicles.domain.vehicle.*;
+import io.github.albi.vehicles.support.PostgresTestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Writes go through the real adapter into the V11 outbox; the dispatcher then
+ * drains it against Postgres (advisory locks, partitions, rollback on failure).
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = VehicleRepositoryJpaAdapterTest.ScanConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // the dispatcher only sees committed events
+class VehicleOutboxTest {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    @Autowired private VehicleRepository adapter;
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private DataSource dataSource;
+    @Autowired private PlatformTransactionManager txManager;
+
+    private final InMemoryVehicleEventPublisher publisher = new InMemoryVehicleEventPublisher();
+
+    @BeforeEach
+    void emptyOutbox() {
+        jdbc.update("delete from vehicle_outbox"); // left behind by other Postgres tests
+    }
+
+    @Test
+    @DisplayName("every kind of write is published once, in write order per vehicle, and leaves the outbox empty")
+    void publishesEveryWrite() {
+        var a = adapter.create(new Vin("EVTPG000000000001"), VehicleType.CAR, "Kia", "Ceed", 2019, FuelType.PETROL, null, null);
+        adapter.update(a.id(), null, a.vin(), VehicleType.CAR, "Kia", "Ceed", 2020, FuelType.HYBRID, null, null);
+        adapter.upsertAll(List.of(
+                new VehicleDraft(a.vin(), VehicleType.CAR, "Kia", "Ceed", 2021, FuelType.HYBRID, null, null),
+                new VehicleDraft(new Vin("EVTPG000000000002"), VehicleType.SUV, "Kia", "Sportage", 2022,
+                        FuelType.DIESEL, null, null)));
+        var b = adapter.findByVin(new Vin("EVTPG000000000002")).orElseThrow();
+        adapter.delete(a.id(), null);
+
+        var dispatcher = dispatcher(publisher, 3);
+        assertThat(dispatcher.lag()).isPositive();
+        assertThat(dispatcher.drainOnce()).isEqualTo(5);
+
+        assertThat(publisher.events()).filteredOn(e -> e.vehicleId().equals(a.id()))
+                .extracting(VehicleEvent::type).containsExactly(
+                        VehicleEvent.Type.CREATED, VehicleEvent.Type.UPDATED, VehicleEvent.Type.UPDATED,
+                        VehicleEvent.Type.DELETED);
+        assertThat(publisher.events()).filteredOn(e -> e.vehicleId().equals(b.id())).singleElement()
+                .satisfies(e -> {
+                    assertThat(e.type()).isEqualTo(VehicleEvent.Type.CREATED);
+                    assertThat(e.payload()).contains("\"make\":\"Kia\"", "\"model\":\"Sportage\"");
+                });
+        assertThat(dispatcher.published()).isEqualTo(5);
+        assertThat(dispatcher.drainOnce()).isZero();
+        assertThat(dispatcher.lag()).isZero();
+    }
+
+    @Test
+    @DisplayName("a failing publisher rolls the round back; the events go out on the next round")
+    void failedPublishIsRetried() {
+        adapter.create(new Vin("EVTPG000000000003"), VehicleType.CAR, "Kia", "Rio", 2018, FuelType.PETROL, null, null);
+        var fail = new AtomicBoolean(true);
+        VehicleEventPublisher flaky = events -> {
+            if (fail.getAndSet(false)) throw new java.io.IOException("broker down");
+            publisher.publish(events);
+        };
+        var dispatcher = dispatcher(flaky, 1);
+
+        assertThatThrownBy(dispatcher::drainOnce).hasRootCauseMessage("broker down");
+        assertThat(jdbc.queryForObject("select count(*) from vehicle_outbox", Long.class)).isEqualTo(1);
+
+        assertThat(dispatcher.drainOnce()).isEqualTo(1);
+        assertThat(publisher.events()).extracting(VehicleEvent::type).containsExactly(VehicleEvent.Type.CREATED);
+    }
+
+    private VehicleOutboxDispatcher dispatcher(VehicleEventPublisher target, int parallelism) {
+        return new VehicleOutboxDispatcher(dataSource, txManager, target, parallelism, 100,
+                Duration.ofMillis(50), Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,171 @@
+package io.github.albi.vehicles.adapters.persistence.vehicle;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.albi.vehicles.adapters.web.vehicle.VehicleBatchController;
+import io.github.albi.vehicles.adapters.web.vehicle.VehicleChangePolls;
+import io.github.albi.vehicles.adapters.web.vehicle.VehicleController;
+import io.github.albi.vehicles.adapters.web.vehicle.VehicleExports;
+import io.github.albi.vehicles.application.vehicle.VehicleService;
+import io.github.albi.vehicles.domain.vehicle.*;
+import io.github.albi.vehicles.infrastructure.jdbc.QueryCountFilter;
+import io.github.albi.vehicles.infrastructure.jdbc.QueryCountingDataSource;
+import io.github.albi.vehicles.support.QueryBudget;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Query budgets of the main endpoints, against the real adapter on H2: an N+1 or a
+ * lookup added in front of a write fails here with the SQL that ran.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({VehicleRepositoryJpaAdapterTest.ScanConfig.class, VehicleQueryBudgetTest.CountQueries.class})
+class VehicleQueryBudgetTest {
+
+    private static final String BODY = """
+            {"vin": "WDB22222222222222", "type": "CAR", "make": "Toyota", "model": "Yaris",
+             "modelYear": 2022, "fuelType": "PETROL", "color": "Blue", "registrationNumber": "QB123"}
+            """;
+
+    @Autowired private VehicleRepository adapter;
+    @Autowired private EntityManager em;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private MockMvc mvc;
+    private Vehicle saved;
+
+    @Configuration
+    static class CountQueries {
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ds && !(bean instanceof QueryCountingDataSource)
+                            ? new QueryCountingDataSource(ds, Duration.ofSeconds(10)) : bean;
+                }
+            };
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        var service = new VehicleService(adapter);
+        var validator = Validation.buildDefaultValidatorFactory().getValidator();
+        mvc = MockMvcBuilders
+                .standaloneSetup(new VehicleController(service, new ObjectMapper(), new VehicleChangePolls(1, Duration.ofMillis(250), 1),
+                        new VehicleExports(1, false)),
+                        new VehicleBatchController(service, new ObjectMapper(), validator, 500, 1000, 1000))
+                .addFilters(new QueryCountFilter(registry))
+                .build();
+        saved = adapter.create(new Vin("WDB11111111111111"), VehicleType.CAR, "Toyota", "Corolla", 2020,
+                FuelType.PETROL, "Red", "QB001");
+        fresh();
+    }
+
+    // each request starts with an empty persistence context, as in the application
+    private void fresh() {
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("GET /vehicles/{id} reads one row")
+    void get_by_id() throws Exception {
+        mvc.perform(get("/vehicles/{id}", saved.id().value()))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.exactly(1));
+    }
+
+    @Test
+    @DisplayName("a conditional GET only reads the version when it is unchanged")
+    void conditional_get() throws Exception {
+        mvc.perform(get("/vehicles/{id}", saved.id().value()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(QueryBudget.exactly(1));
+    }
+
+    @Test
+    @DisplayName("GET /vehicles is one query per page, whatever the page size")
+    void search() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            adapter.create(new Vin("WDB3333333333333" + i), VehicleType.CAR, "Toyota", "Yaris", 2021,
+                    FuelType.PETROL, null, null);
+        }
+        fresh();
+        mvc.perform(get("/vehicles").param("make", "Toyota").param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.exactly(1));
+    }
+
+    @Test
+    @DisplayName("POST /vehicles:batchGet is one query for 500 keys")
+    void batch_get() throws Exception {
+        var keys = LongStream.range(0, 500)
+                .mapToObj(i -> i % 2 == 0 ? "{\"id\": " + (saved.id().value() + i) + "}" : "{\"registrationNumber\": \"QB" + i + "\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+        mvc.perform(post("/vehicles:batchGet").contentType(MediaType.APPLICATION_JSON).content(keys))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.exactly(1));
+    }
+
+    @Test
+    @DisplayName("POST /vehicles inserts the row, its change and its event")
+    void create() throws Exception {
+        mvc.perform(post("/vehicles").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isCreated())
+                .andExpect(QueryBudget.exactly(3));
+    }
+
+    @Test
+    @DisplayName("PUT /vehicles/{id} has no read in front of the update")
+    void update() throws Exception {
+        mvc.perform(put("/vehicles/{id}", saved.id().value()).contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.exactly(3));
+    }
+
+    @Test
+    @DisplayName("DELETE /vehicles/{id} has no read in front of the delete")
+    void delete_() throws Exception {
+        mvc.perform(delete("/vehicles/{id}", saved.id().value()))
+                .andExpect(status().isNoContent())
+                .andExpect(QueryBudget.exactly(3));
+    }
+
+    @Test
+    @DisplayName("the count is published per endpoint")
+    void metrics() throws Exception {
+        mvc.perform(get("/vehicles/{id}", saved.id().value())).andExpect(status().isOk());
+        fresh();
+        mvc.perform(get("/vehicles/{id}", saved.id().value())).andExpect(status().isOk());
+
+        var summary = registry.get("vehicles.http.queries").tags("method", "GET", "uri", "/vehicles/{id}").summary();
+        assertThat(summary.count()).isEqualTo(2);
+        assertThat(summary.totalAmount()).isEqualTo(2);
+    }
+}
@@ -1,19 +1,28 @@
 package io.github.albi.vehicles.adapters.persistence.vehicle;
 
 import io.github.albi.vehicles.domain.vehicle.*;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
 @ActiveProfiles("test") // picks application-test.yml
@@ -22,6 +31,8 @@ class VehicleRepositoryJpaAdapterTest {
 
     @Autowired private VehicleJpaRepository jpa;
     @Autowired private VehicleRepository adapter;
+    @Autowired private NamedParameterJdbcTemplate jdbc;
+    @Autowired private EntityManager em;
 
     @Test
     @DisplayName("findById returns mapped domain object")
@@ -72,7 +83,7 @@ class VehicleRepositoryJpaAdapterTest {
         jpa.save(new VehicleEntity(null, "33333333333333333", "CAR", "Toyota", "Yaris", 2022, "PETROL", "Black", "TYR001"));
         jpa.save(new VehicleEntity(null, "44444444444444444", "CAR", "Honda",  "Civic", 2020, "DIESEL", "White", "HCV001"));
 
-        var result = adapter.search("Toyota", "Yaris", 2022, VehicleType.CAR, FuelType.PETROL, null, null);
+        var result = search("Toyota", "Yaris", 2022, VehicleType.CAR, FuelType.PETROL);
 
         assertThat(result).hasSize(1);
         assertThat(result.getFirst().model()).isEqualTo("Yaris");
@@ -105,19 +116,87 @@ class VehicleRepositoryJpaAdapterTest {
 
         var updated = adapter.update(
                 id,
+                null,
                 new Vin("7FAYM1EE7KN000001"),
                 VehicleType.CAR,
                 "Honda", "Civic", 2024,
                 FuelType.PETROL,
                 "Silver",
                 "CIV100"
-        );
+        ).orElseThrow();
 
         assertThat(updated.id().value()).isEqualTo(saved.getId());
         assertThat(updated.year()).isEqualTo(2024);
+        assertThat(updated.version()).isEqualTo(1);
 
         var db = jpa.findById(saved.getId()).orElseThrow();
         assertThat(db.getModelYear()).isEqualTo(2024);
+        assertThat(db.getVersion()).isEqualTo(1);
+        assertThat(adapter.findVersionById(id)).contains(new VehicleVersion(1, updated.updatedAt()));
+        assertThat(updated.updatedAt()).isAfterOrEqualTo(saved.getUpdatedAt());
+    }
+
+    @Test
+    @DisplayName("update/delete report a missing id by row count and a stale version as a conflict")
+    void updateAndDelete_rowCountAndVersion() {
+        var saved = jpa.save(new VehicleEntity(null, "7FAYM1EE7KN000002", "CAR", "Honda", "Civic", 2020, "PETROL", null, null));
+        var id = new VehicleId(saved.getId());
+        var vin = new Vin("7FAYM1EE7KN000002");
+
+        assertThat(adapter.update(new VehicleId(999_999L), null, vin, VehicleType.CAR, "Honda", "Civic", 2021,
+                FuelType.PETROL, null, null)).isEmpty();
+        assertThat(adapter.delete(new VehicleId(999_999L), 0L)).isFalse();
+
+        var v1 = adapter.update(id, 0L, vin, VehicleType.CAR, "Honda", "Civic", 2021, FuelType.PETROL, null, null);
+        assertThat(v1).get().extracting(Vehicle::version).isEqualTo(1L);
+
+        assertThatThrownBy(() -> adapter.update(id, 0L, vin, VehicleType.CAR, "Honda", "Civic", 2022,
+                FuelType.PETROL, null, null)).isInstanceOf(VehicleVersionConflictException.class);
+        assertThatThrownBy(() -> adapter.delete(id, 0L)).isInstanceOf(VehicleVersionConflictException.class);
+        assertThat(adapter.findById(id)).get().extracting(Vehicle::year).isEqualTo(2021);
+
+        assertThat(adapter.delete(id, 1L)).isTrue();
+        assertThat(adapter.findById(id)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("changesSince returns each written vehicle once, at its latest change, with tombstones")
+    void changesSince_latestChangePerVehicle() {
+        var a = adapter.create(new Vin("CHG00000000000001"), VehicleType.CAR, "Seat", "Leon", 2019, FuelType.PETROL, null, null);
+        long start = lastChangeSeq() - 1; // just before a's row
+        var b = adapter.create(new Vin("CHG00000000000002"), VehicleType.CAR, "Seat", "Ibiza", 2018, FuelType.PETROL, null, null);
+        adapter.update(a.id(), null, a.vin(), VehicleType.CAR, "Seat", "Leon", 2020, FuelType.PETROL, null, null);
+        adapter.delete(b.id(), null);
+
+        var changes = adapter.changesSince(start, 100);
+
+        assertThat(changes).extracting(VehicleChange::id).containsExactly(a.id(), b.id());
+        assertThat(changes.get(0).vehicle().year()).isEqualTo(2020);
+        assertThat(changes.get(1).deleted()).isTrue();
+        assertThat(changes.get(1).seq()).isEqualTo(lastChangeSeq());
+        assertThat(adapter.changesSince(lastChangeSeq(), 100)).isEmpty();
+        // a small page still ends on a real position, so the next read resumes right after it
+        assertThat(adapter.changesSince(start, 1)).extracting(VehicleChange::seq).containsExactly(start + 1);
+    }
+
+    @Test
+    @DisplayName("create/update/delete each leave their event in the outbox, in the same transaction")
+    void writes_appendOutboxEvents() {
+        var v = adapter.create(new Vin("EVT00000000000001"), VehicleType.VAN, "Ford", "Transit", 2019, FuelType.DIESEL, null, null);
+        adapter.update(v.id(), null, v.vin(), VehicleType.VAN, "Ford", "Transit", 2020, FuelType.DIESEL, "White", null);
+        adapter.delete(v.id(), null);
+
+        var rows = jdbc.queryForList("select event_type, payload from vehicle_outbox where vehicle_id = :id order by id",
+                Map.of("id", v.id().value()));
+        assertThat(rows).extracting(r -> r.get("event_type"))
+                .containsExactly("VehicleCreated", "VehicleUpdated", "VehicleDeleted");
+        assertThat((String) rows.get(1).get("payload"))
+                .contains("\"id\":" + v.id().value(), "\"modelYear\":2020", "\"color\":\"White\"");
+        assertThat(rows.get(2).get("payload")).isNull();
+    }
+
+    private long lastChangeSeq() {
+        return jdbc.queryForObject("select coalesce(max(seq), 0) from vehicle_changes", Map.of(), Long.class);
     }
 
     @Test
@@ -126,7 +205,7 @@ class VehicleRepositoryJpaAdapterTest {
         var saved = jpa.save(new VehicleEntity(null, "1HGFA16506L000001", "CAR", "Toyota", "Yaris", 2022, "PETROL", "Blue", "TYR777"));
         var id = new VehicleId(saved.getId());
 
-        adapter.delete(id);
+        assertThat(adapter.delete(id, null)).isTrue();
 
         assertThat(adapter.findById(id)).isEmpty();
         assertThat(jpa.findById(saved.getId())).isEmpty();
@@ -136,7 +215,7 @@ class VehicleRepositoryJpaAdapterTest {
     @DisplayName("search is case-insensitive for make and model")
     void search_caseInsensitive() {
         jpa.save(new VehicleEntity(null, "88888888888888888", "CAR", "TOYOTA", "YARIS", 2022, "PETROL", "Black", "TYY888"));
-        var result = adapter.search("toyota", "yaris", 2022, VehicleType.CAR, FuelType.PETROL, null, null);
+        var result = search("toyota", "yaris", 2022, VehicleType.CAR, FuelType.PETROL);
         assertThat(result).hasSize(1);
     }
 
@@ -147,23 +226,251 @@ class VehicleRepositoryJpaAdapterTest {
         jpa.save(new VehicleEntity(null, "10101010101010101", "CAR", "BMW",   "i3",      2019, "ELECTRIC", "Gray",  "BMWi300"));
 
         // blank model should be ignored; only modelYear constrains
-        var r1 = adapter.search(" ", null, 2023, null, null, null, null);
+        var r1 = search(" ", null, 2023, null, null);
         assertThat(r1).extracting(Vehicle::make).containsExactly("Tesla");
 
         // all blank/null -> no constraints (returns all)
-        var r2 = adapter.search(" ", "  ", null, null, null, null, null);
+        var r2 = search(" ", "  ", null, null, null);
         assertThat(r2).hasSizeGreaterThanOrEqualTo(2);
     }
 
+    @Test
+    @DisplayName("PREFIX and CONTAINS match make/model case-insensitively; wildcards in input are literal")
+    void search_prefixAndContains() {
+        jpa.save(new VehicleEntity(null, "TXT00000000000001", "CAR", "Toyota", "Land Cruiser", 2021, "DIESEL", null, null));
+        jpa.save(new VehicleEntity(null, "TXT00000000000002", "CAR", "Tesla",  "Model_Y",      2022, "ELECTRIC", null, null));
+        jpa.save(new VehicleEntity(null, "TXT00000000000003", "CAR", "Seat",   "ModelXY",      2019, "PETROL", null, null));
+
+        assertThat(search(new VehicleFilter("to", null, null, null, null, null, null, TextMatch.PREFIX)))
+                .extracting(Vehicle::make).containsExactly("Toyota");
+        assertThat(search(new VehicleFilter(null, "CRUIS", null, null, null, null, null, TextMatch.CONTAINS)))
+                .extracting(Vehicle::model).containsExactly("Land Cruiser");
+        assertThat(search(new VehicleFilter(null, "model_", null, null, null, null, null, TextMatch.PREFIX)))
+                .extracting(Vehicle::model).containsExactly("Model_Y");
+        assertThat(search(new VehicleFilter("t", null, null, null, null, null, null, TextMatch.EXACT))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("suggest returns distinct values by prefix, alphabetically, up to the limit")
+    void suggest_distinctByPrefix() {
+        jpa.save(new VehicleEntity(null, "SUG00000000000001", "CAR", "Toyota",  "Yaris",  2020, "PETROL", null, null));
+        jpa.save(new VehicleEntity(null, "SUG00000000000002", "CAR", "Toyota",  "Corolla", 2021, "PETROL", null, null));
+        jpa.save(new VehicleEntity(null, "SUG00000000000003", "CAR", "Tesla",   "Model 3", 2022, "ELECTRIC", null, null));
+        jpa.save(new VehicleEntity(null, "SUG00000000000004", "CAR", "Triumph", "Spitfire", 1970, "PETROL", null, null));
+        jpa.save(new VehicleEntity(null, "SUG00000000000005", "CAR", "Skoda",   "Fabia",  2019, "PETROL", null, null));
+
+        assertThat(adapter.suggest(VehicleTextField.MAKE, "t", 10)).containsExactly("Tesla", "Toyota", "Triumph");
+        assertThat(adapter.suggest(VehicleTextField.MAKE, "T", 2)).containsExactly("Tesla", "Toyota");
+        assertThat(adapter.suggest(VehicleTextField.MODEL, "co", 10)).containsExactly("Corolla");
+        assertThat(adapter.suggest(VehicleTextField.MAKE, "x", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("facets counts matches per type, fuel type, make and year")
+    void facets_groupedCounts() {
+        jpa.save(new VehicleEntity(null, "FAC00000000000001", "CAR", "Facetta", "One", 2020, "PETROL", null, null));
+        jpa.save(new VehicleEntity(null, "FAC00000000000002", "SUV", "Facetta", "One", 2020, "DIESEL", null, null));
+        jpa.save(new VehicleEntity(null, "FAC00000000000003", "CAR", "Facetta", "Two", 2021, "PETROL", null, null));
+        jpa.save(new VehicleEntity(null, "FAC00000000000004", "CAR", "Facettino", "Two", 2021, "ELECTRIC", null, null));
+
+        var all = adapter.facets(new VehicleFilter("facet", null, null, null, null, null, null, TextMatch.PREFIX));
+        assertThat(all.total()).isEqualTo(4);
+        assertThat(all.types()).containsExactlyInAnyOrderEntriesOf(Map.of(VehicleType.CAR, 3L, VehicleType.SUV, 1L));
+        assertThat(all.fuelTypes()).containsExactlyInAnyOrderEntriesOf(
+                Map.of(FuelType.PETROL, 2L, FuelType.DIESEL, 1L, FuelType.ELECTRIC, 1L));
+        assertThat(all.makes()).containsExactlyInAnyOrderEntriesOf(Map.of("Facetta", 3L, "Facettino", 1L));
+        assertThat(all.modelYears()).containsExactlyInAnyOrderEntriesOf(Map.of(2020, 2L, 2021, 2L));
+
+        var petrol = adapter.facets(new VehicleFilter("Facetta", null, null, null, FuelType.PETROL, null, null));
+        assertThat(petrol.total()).isEqualTo(2);
+        assertThat(petrol.modelYears()).containsExactlyInAnyOrderEntriesOf(Map.of(2020, 1L, 2021, 1L));
+
+        var one = adapter.facets(new VehicleFilter(null, null, null, null, null, "fac00000000000004", null));
+        assertThat(one.makes()).containsExactly(Map.entry("Facettino", 1L));
+    }
+
     @Test
     @DisplayName("search works with any subset of filters")
     void search_subsetOfFilters() {
         jpa.save(new VehicleEntity(null, "12121212121212121", "CAR", "VW", "Golf", 2018, "PETROL", "Blue",  "VWG018"));
         jpa.save(new VehicleEntity(null, "13131313131313131", "CAR", "VW", "Golf", 2020, "PETROL", "Black", "VWG020"));
 
-        assertThat(adapter.search("VW",   null, null, null, null, null, null)).hasSizeGreaterThanOrEqualTo(2);
-        assertThat(adapter.search(null, "Golf", null, null, null, null, null)).hasSizeGreaterThanOrEqualTo(2);
-        assertThat(adapter.search(null,  null, 2018, null, null, null, null)).extracting(Vehicle::year).containsExactly(2018);
+        assertThat(search("VW",   null, null, null, null)).hasSizeGreaterThanOrEqualTo(2);
+        assertThat(search(null, "Golf", null, null, null)).hasSizeGreaterThanOrEqualTo(2);
+        assertThat(search(null,  null, 2018, null, null)).extracting(Vehicle::year).containsExactly(2018);
+    }
+
+    @Test
+    @DisplayName("search pages by id: cursor continues strictly after the last row, no overlap")
+    void search_keysetPagesById() {
+        for (int i = 0; i < 5; i++) {
+            jpa.save(new VehicleEntity(null, "PAGE0000000000" + (100 + i), "CAR", "Skoda", "Octavia", 2020 + i, "PETROL", null, "SKO" + i));
+        }
+        var filter = new VehicleFilter("Skoda", null, null, null, null, null, null);
+
+        var first = adapter.search(filter, VehicleSort.ID, null, 2);
+        assertThat(first.items()).hasSize(2);
+        assertThat(first.hasNext()).isTrue();
+
+        var second = adapter.search(filter, VehicleSort.ID, first.next(), 2);
+        var third = adapter.search(filter, VehicleSort.ID, second.next(), 2);
+        assertThat(third.items()).hasSize(1);
+        assertThat(third.hasNext()).isFalse();
+
+        var ids = new java.util.ArrayList<Long>();
+        for (var page : List.of(first, second, third)) page.items().forEach(v -> ids.add(v.id().value()));
+        assertThat(ids).hasSize(5).doesNotHaveDuplicates().isSorted();
+    }
+
+    @Test
+    @DisplayName("search pages by modelYear: ties on the sort key are broken by id")
+    void search_keysetPagesBySortKeyWithTies() {
+        jpa.save(new VehicleEntity(null, "TXES0000000000001", "VAN", "Renault", "Kangoo", 2021, "DIESEL", null, "REN1"));
+        jpa.save(new VehicleEntity(null, "TXES0000000000002", "VAN", "Renault", "Kangoo", 2019, "DIESEL", null, "REN2"));
+        jpa.save(new VehicleEntity(null, "TXES0000000000003", "VAN", "Renault", "Kangoo", 2021, "DIESEL", null, "REN3"));
+        jpa.save(new VehicleEntity(null, "TXES0000000000004", "VAN", "Renault", "Kangoo", 2020, "DIESEL", null, "REN4"));
+        var filter = new VehicleFilter("Renault", null, null, null, null, null, null);
+
+        var collected = new java.util.ArrayList<Vehicle>();
+        VehicleCursor after = null;
+        do {
+            var page = adapter.search(filter, VehicleSort.MODEL_YEAR, after, 1);
+            collected.addAll(page.items());
+            after = page.next();
+        } while (after != null);
+
+        assertThat(collected).extracting(Vehicle::year).containsExactly(2019, 2020, 2021, 2021);
+        assertThat(collected).extracting(v -> v.vin().value())
+                .containsExactly("TXES0000000000002", "TXES0000000000004", "TXES0000000000001", "TXES0000000000003");
+    }
+
+    @Test
+    @DisplayName("search and export read projections: nothing enters the persistence context")
+    void search_and_export_load_no_entities() {
+        for (int i = 0; i < 3; i++) {
+            jpa.save(new VehicleEntity(null, "PRJCT000000000" + (100 + i), "CAR", "Lada", "Niva", 2015 + i, "PETROL", "Green", null));
+        }
+        em.flush();
+        em.clear();
+        var session = em.unwrap(org.hibernate.Session.class);
+        var filter = new VehicleFilter("Lada", null, null, null, null, null, null);
+
+        var page = adapter.search(filter, VehicleSort.MODEL_YEAR, null, 2);
+        assertThat(session.getStatistics().getEntityCount()).isZero();
+        var exported = new java.util.ArrayList<Vehicle>();
+        adapter.exportAll(filter, exported::add);
+        assertThat(session.getStatistics().getEntityCount()).isZero();
+
+        assertThat(page.items()).extracting(Vehicle::year).containsExactly(2015, 2016);
+        assertThat(page.items().getFirst().color()).isEqualTo("Green");
+        assertThat(page.items().getFirst().updatedAt()).isNotNull();
+        assertThat(exported).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("search by vin returns a single page without a next cursor")
+    void search_byVin_singlePage() {
+        jpa.save(new VehicleEntity(null, "VNLKUP00000000001", "CAR", "Mazda", "3", 2021, "PETROL", null, "MAZ1"));
+
+        var page = adapter.search(new VehicleFilter(null, null, null, null, null, "VNLKUP00000000001", null), VehicleSort.ID, null, 10);
+
+        assertThat(page.items()).extracting(Vehicle::make).containsExactly("Mazda");
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("findAll resolves ids, VINs and plates together, each vehicle once, across IN-list chunks")
+    void findAll_mixedKeys() {
+        var a = jpa.save(new VehicleEntity(null, "MLTGT000000000001", "CAR", "Mazda", "3", 2021, "PETROL", null, "mg1abc"));
+        var b = jpa.save(new VehicleEntity(null, "MLTGT000000000002", "CAR", "Mazda", "6", 2022, "PETROL", null, null));
+        jpa.save(new VehicleEntity(null, "MLTGT000000000003", "CAR", "Mazda", "2", 2020, "PETROL", null, "MG3")); // not asked for
+        var keys = new java.util.ArrayList<VehicleKey>();
+        for (long missing = 1_000_000; keys.size() < VehicleRepositoryJpaAdapter.LOOKUP_CHUNK; missing++) {
+            keys.add(VehicleKey.of(new VehicleId(missing)));
+        }
+        keys.add(VehicleKey.ofRegistrationNumber(" MG1ABC ")); // stored lower-case
+        keys.add(VehicleKey.of(new VehicleId(a.getId())));     // same vehicle again
+        keys.add(VehicleKey.of(new Vin("MLTGT000000000002")));
+        keys.add(VehicleKey.of(new Vin("MLTGT000000000009")));
+
+        var found = adapter.findAll(keys);
+
+        assertThat(found).extracting(v -> v.id().value()).containsExactlyInAnyOrder(a.getId(), b.getId());
+        assertThat(adapter.findAll(List.of())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("exportAll streams every match across several fetch batches")
+    void exportAll_streamsAllMatches() {
+        for (int i = 0; i < 5; i++) {
+            jpa.save(new VehicleEntity(null, "EXPRT000000000" + (100 + i), "TRUCK", "Scania", "R450", 2018, i % 2 == 0 ? "DIESEL" : "CNG", null, "SCA" + i));
+        }
+        var exported = new java.util.ArrayList<Vehicle>();
+
+        adapter.exportAll(new VehicleFilter("Scania", null, null, null, FuelType.DIESEL, null, null), exported::add);
+
+        assertThat(exported).hasSize(3).allSatisfy(v -> assertThat(v.fuelType()).isEqualTo(FuelType.DIESEL));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // the upserter commits its own transactions
+    @DisplayName("upsertAll inserts new VINs, updates existing ones and reports per-item outcomes")
+    void upsertAll_insertsAndUpdatesByVin() {
+        var existing = jpa.save(new VehicleEntity(null, "BATCH000000000001", "CAR", "Opel", "Astra", 2015, "PETROL", null, "BAT001"));
+        try {
+            var results = adapter.upsertAll(List.of(
+                    draft("BATCH000000000001", "Astra", 2016, "BAT001"),
+                    draft("BATCH000000000002", "Corsa", 2020, "BAT002"),
+                    draft("BATCH000000000002", "Corsa", 2021, "BAT003")
+            ));
+
+            assertThat(results).extracting(VehicleUpsertResult::outcome).containsExactly(
+                    VehicleUpsertResult.Outcome.UPDATED, VehicleUpsertResult.Outcome.CREATED, VehicleUpsertResult.Outcome.FAILED);
+            assertThat(results.get(0).id().value()).isEqualTo(existing.getId());
+            assertThat(results.get(2).error()).contains("Duplicate VIN");
+
+            assertThat(jpa.findById(existing.getId()).orElseThrow().getModelYear()).isEqualTo(2016);
+            var created = adapter.findById(results.get(1).id()).orElseThrow();
+            assertThat(created.model()).isEqualTo("Corsa");
+            assertThat(created.year()).isEqualTo(2020);
+        } finally {
+            jpa.deleteAll(jpa.findAllById(List.of(existing.getId())));
+            jpa.findByVin("BATCH000000000002").ifPresent(jpa::delete);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("upsertAll isolates a constraint violation to the offending item")
+    void upsertAll_isolatesConstraintViolation() {
+        var owner = jpa.save(new VehicleEntity(null, "BATCH000000000010", "CAR", "Opel", "Astra", 2015, "PETROL", null, "PLATE10"));
+        try {
+            var results = adapter.upsertAll(List.of(
+                    draft("BATCH000000000011", "Corsa", 2020, "PLATE11"),
+                    draft("BATCH000000000012", "Corsa", 2020, "PLATE10") // plate already taken
+            ));
+
+            assertThat(results.get(0).outcome()).isEqualTo(VehicleUpsertResult.Outcome.CREATED);
+            assertThat(results.get(1).outcome()).isEqualTo(VehicleUpsertResult.Outcome.FAILED);
+            assertThat(results.get(1).error()).isEqualTo("Registration number already exists");
+            assertThat(jpa.findByVin("BATCH000000000011")).isPresent();
+            assertThat(jpa.findByVin("BATCH000000000012")).isEmpty();
+        } finally {
+            jpa.delete(owner);
+            jpa.findByVin("BATCH000000000011").ifPresent(jpa::delete);
+        }
+    }
+
+    private static VehicleDraft draft(String vin, String model, int year, String plate) {
+        return new VehicleDraft(new Vin(vin), VehicleType.CAR, "Opel", model, year, FuelType.PETROL, null, plate);
+    }
+
+    private List<Vehicle> search(String make, String model, Integer year, VehicleType type, FuelType fuelType) {
+        return search(new VehicleFilter(make, model, year, type, fuelType, null, null));
+    }
+
+    private List<Vehicle> search(VehicleFilter filter) {
+        return adapter.search(filter, VehicleSort.ID, null, 100).items();
     }
 
     @Configuration
@@ -171,8 +478,13 @@ class VehicleRepositoryJpaAdapterTest {
     @EntityScan(basePackageClasses = VehicleEntity.class)
     static class ScanConfig {
         @Bean
-        VehicleRepository vehicleRepositoryAdapter(VehicleJpaRepository repo) {
-            return new VehicleRepositoryJpaAdapter(repo);
+        VehicleRepository vehicleRepositoryAdapter(VehicleJpaRepository repo, EntityManager em,
+                                                   NamedParameterJdbcTemplate jdbc, PlatformTransactionManager tx,
+                                                   @Value("${vehicles.facets.summary-table:false}") boolean summary) {
+            var changes = new VehicleChangeLog(jdbc);
+            var outbox = new VehicleOutbox(jdbc);
+            return new VehicleRepositoryJpaAdapter(repo, em, new VehicleBatchUpserter(jdbc, changes, outbox, tx),
+                    changes, outbox, jdbc, 2, summary);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,320 @@
+package io.github.albi.vehicles.adapters.persistence.vehicle;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.albi.vehicles.domain.vehicle.*;
+import io.github.albi.vehicles.support.PostgresTestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the adapter's real search SQL against Postgres with a seeded fleet and checks
+ * {@code EXPLAIN} for every supported filter combination: the combinations V6 was
+ * built for must use their composite/partial index, and nothing may fall back to a
+ * sequential scan.
+ */
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=io.github.albi.vehicles.adapters.persistence.vehicle.SqlCapture")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = VehicleRepositoryJpaAdapterTest.ScanConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class VehicleSearchPlanTest {
+
+    private static final int ROWS = 200_000;
+    private static final int LIMIT = 50;
+    private static boolean seeded;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    @Autowired private VehicleRepository adapter;
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private PlatformTransactionManager transactions;
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    @BeforeEach
+    void seed() {
+        if (seeded) return;
+        jdbc.update("""
+                insert into vehicles (vin, type, make, model, model_year, fuel_type, color, registration_number)
+                select 'EXPL' || lpad(i::text, 13, '0'),
+                       case when i % 100 < 60 then 'CAR' when i % 100 < 75 then 'SUV' when i % 100 < 85 then 'VAN'
+                            when i % 100 < 93 then 'TRUCK' when i % 100 < 98 then 'MOTORCYCLE' else 'BUS' end,
+                       (array['Toyota','Volkswagen','Ford','Honda','Opel','Skoda','Renault','Peugeot','BMW','Audi',
+                              'Mercedes','Kia','Hyundai','Nissan','Mazda','Fiat','Seat','Volvo','Tesla','Dacia',
+                              'Citroen','Suzuki','Mitsubishi','Subaru','Jeep'])[1 + i % 25],
+                       (array['Corolla','Golf','Focus','Civic','Astra','Octavia','Clio','Polo'])[1 + (i / 25) % 8],
+                       1990 + i % 35,
+                       case when (i / 7) % 100 < 50 then 'PETROL' when (i / 7) % 100 < 80 then 'DIESEL'
+                            when (i / 7) % 100 < 90 then 'HYBRID' when (i / 7) % 100 < 97 then 'ELECTRIC'
+                            when (i / 7) % 100 < 99 then 'LPG' else 'HYDROGEN' end,
+                       null, null
+                from generate_series(1, ?) as i
+                """, ROWS);
+        jdbc.execute("analyze vehicles");
+        seeded = true;
+    }
+
+    @Test
+    @DisplayName("make + model + year uses the (lower(make), lower(model), model_year, id) index")
+    void makeModelYear() {
+        var plan = explain(filter("Toyota", "Corolla", 2005, null, null, TextMatch.EXACT), VehicleSort.ID);
+        assertThat(indexesUsed(plan)).contains("idx_vehicles_make_model_year_id");
+        assertNoSeqScan(plan);
+    }
+
+    @Test
+    @DisplayName("every filter at once still starts from the make/model/year index")
+    void allFilters() {
+        var plan = explain(filter("Toyota", "Corolla", 2005, VehicleType.CAR, FuelType.PETROL, TextMatch.EXACT), VehicleSort.ID);
+        assertThat(indexesUsed(plan)).contains("idx_vehicles_make_model_year_id");
+        assertNoSeqScan(plan);
+    }
+
+    @Test
+    @DisplayName("type + fuelType uses the (type, fuel_type, id) index")
+    void typeAndFuel() {
+        for (var fuel : List.of(FuelType.PETROL, FuelType.ELECTRIC)) {
+            var plan = explain(filter(null, null, null, VehicleType.VAN, fuel, TextMatch.EXACT), VehicleSort.ID);
+            assertThat(indexesUsed(plan)).as("VAN + %s", fuel).contains("idx_vehicles_type_fuel_id");
+            assertNoSeqScan(plan);
+        }
+    }
+
+    @Test
+    @DisplayName("a minority fuel type alone uses the partial index")
+    void alternativeFuel() {
+        var plan = explain(filter(null, null, null, null, FuelType.ELECTRIC, TextMatch.EXACT), VehicleSort.ID);
+        assertThat(indexesUsed(plan)).contains("idx_vehicles_alt_fuel_id");
+        assertNoSeqScan(plan);
+    }
+
+    @Test
+    @DisplayName("year alone uses the (model_year, id) index")
+    void yearOnly() {
+        var plan = explain(filter(null, null, 2005, null, null, TextMatch.EXACT), VehicleSort.ID);
+        assertThat(indexesUsed(plan)).contains("idx_vehicles_model_year_id");
+        assertNoSeqScan(plan);
+    }
+
+    @Test
+    @DisplayName("common make/model values and PREFIX/CONTAINS matches read ids in order, never the whole table")
+    void textFilters() {
+        assertNoSeqScan(explain(filter(null, "Corolla", null, null, null, TextMatch.EXACT), VehicleSort.ID));
+        assertNoSeqScan(explain(filter("toy", null, null, null, null, TextMatch.PREFIX), VehicleSort.ID));
+        assertNoSeqScan(explain(filter(null, "oll", null, null, null, TextMatch.CONTAINS), VehicleSort.ID));
+        // 1 row in 25 or more matches: 51 of them are found long before a lookup would pay off
+        assertThat(indexesUsed(explain(filter("Toyota", null, null, null, null, TextMatch.EXACT), VehicleSort.ID)))
+                .containsExactly("vehicles_pkey");
+    }
+
+    @Test
+    @DisplayName("a selective make/model filter looks its rows up in the lower() and trigram indexes")
+    void selectiveTextFilters() {
+        // no seeded vehicle matches: walking the primary key in order would read all of them.
+        // A make alone takes the smaller of the two indexes leading with lower(make).
+        assertThat(indexesUsed(explain(filter("Lada", null, null, null, null, TextMatch.EXACT), VehicleSort.ID)))
+                .contains("idx_vehicles_make_spelling");
+        assertThat(indexesUsed(explain(filter("lad", null, null, null, null, TextMatch.PREFIX), VehicleSort.ID)))
+                .contains("idx_vehicles_make_spelling");
+        assertThat(indexesUsed(explain(filter(null, "Yaris", null, null, null, TextMatch.EXACT), VehicleSort.ID)))
+                .contains("idx_vehicles_model_spelling");
+        assertThat(indexesUsed(explain(filter("ada", null, null, null, null, TextMatch.CONTAINS), VehicleSort.ID)))
+                .contains("idx_vehicles_make_trgm");
+        assertThat(indexesUsed(explain(filter(null, "ari", null, null, null, TextMatch.CONTAINS), VehicleSort.ID)))
+                .contains("idx_vehicles_model_trgm");
+    }
+
+    @Test
+    @DisplayName("suggest seeks from value to value and reads each spelling off the (lower(x), x) index")
+    void suggest() {
+        for (var field : VehicleTextField.values()) {
+            SqlCapture.clear();
+            adapter.suggest(field, "co", 10);
+            // prefix, pattern, limit, pattern: the order the named parameters appear in
+            var plan = explain(SqlCapture.last(), List.of("co", "co%", 10, "co%"));
+            // 1 row in 8 is a Corolla: without the spelling as second key, every one of them is visited
+            assertThat(indexesUsed(plan)).as("%s", field)
+                    .contains(field == VehicleTextField.MAKE ? "idx_vehicles_make_spelling" : "idx_vehicles_model_spelling");
+            assertNoSeqScan(plan);
+        }
+    }
+
+    @Test
+    @DisplayName("sorting by make reads the (make, id) index in order")
+    void sortByMake() {
+        var plan = explain(VehicleFilter.none(), VehicleSort.MAKE);
+        assertThat(indexesUsed(plan)).contains("idx_vehicles_make_id");
+        assertNoSeqScan(plan);
+    }
+
+    @Test
+    @DisplayName("a multi-get of ids, VINs and plates ORs three index lookups")
+    void multiGet() {
+        SqlCapture.clear();
+        adapter.findAll(List.of(
+                VehicleKey.of(new VehicleId(17L)), VehicleKey.of(new VehicleId(4_242L)),
+                VehicleKey.of(new Vin("EXPL0000000000099")), VehicleKey.of(new Vin("EXPL0000000012345")),
+                VehicleKey.ofRegistrationNumber("AB123"), VehicleKey.ofRegistrationNumber("XY987")));
+        // anyKey binds ids, then VINs, then plates
+        var plan = explain(SqlCapture.last(),
+                List.of(17L, 4_242L, "EXPL0000000000099", "EXPL0000000012345", "AB123", "XY987"));
+        assertThat(indexesUsed(plan)).contains("uk_vehicles_vin", "idx_vehicles_registration_upper");
+        assertNoSeqScan(plan);
+    }
+
+    @Test
+    @DisplayName("ranked free text is a lookup in the search_vector GIN index; by id it may walk the primary key")
+    void freeText() {
+        var filter = new VehicleFilter(null, null, null, null, null, null, null, null, "toyota corolla");
+        var ranked = VehicleSearchSql.selectSql(filter, VehicleSort.RELEVANCE, null, LIMIT + 1);
+        var plan = explain(ranked.text(), ranked.binds());
+        assertThat(indexesUsed(plan)).contains("idx_vehicles_search_vector");
+        assertNoSeqScan(plan);
+
+        // 1 row in 200 matches: reading ids in order until 51 of them do beats sorting all 1000
+        var byId = VehicleSearchSql.selectSql(filter, VehicleSort.ID, null, LIMIT + 1);
+        var idPlan = explain(byId.text(), byId.binds());
+        assertThat(indexesUsed(idPlan)).contains("vehicles_pkey");
+        assertNoSeqScan(idPlan);
+    }
+
+    @Test
+    @DisplayName("a common word ranks only the first matches by id; a missing one never walks the primary key")
+    void freeTextBounded() {
+        // 1 row in 25 is a Toyota: 8000 matches, of which the first MAX_RANKED are ranked
+        var common = analyze(new VehicleFilter(null, null, null, null, null, null, null, null, "toyota"));
+        assertThat(rowsRanked(common)).isEqualTo(VehicleSearchSql.MAX_RANKED);
+
+        // no statistics for a word no vehicle has: the planner guesses thousands of matches,
+        // so the primary key branch is planned, but the probe finds none in the GIN index
+        var missing = analyze(new VehicleFilter(null, null, null, null, null, null, null, null, "lada"));
+        assertThat(rowsRanked(missing)).isZero();
+        assertThat(indexesRead(missing)).contains("idx_vehicles_search_vector").doesNotContain("vehicles_pkey");
+        assertNoSeqScan(missing);
+    }
+
+    // --- harness ---
+
+    private static VehicleFilter filter(String make, String model, Integer year, VehicleType type, FuelType fuel,
+                                        TextMatch match) {
+        return new VehicleFilter(make, model, year, type, fuel, null, null, match);
+    }
+
+    /** Runs the search through the adapter to capture its SQL, then EXPLAINs that SQL with the same binds. */
+    private JsonNode explain(VehicleFilter filter, VehicleSort sort) {
+        SqlCapture.clear();
+        adapter.search(filter, sort, null, LIMIT);
+        return explain(SqlCapture.last(), binds(filter));
+    }
+
+    /** The JDBC path of free-text searches: named parameters, as the adapter runs them. */
+    private JsonNode explain(String sql, Map<String, Object> binds) {
+        return plan(sql, () -> new NamedParameterJdbcTemplate(jdbc).queryForObject("explain (format json) " + sql,
+                binds, String.class));
+    }
+
+    /** Runs a ranked free-text page with {@code EXPLAIN ANALYZE}, to see which branch did the work. */
+    private JsonNode analyze(VehicleFilter filter) {
+        var sql = VehicleSearchSql.selectSql(filter, VehicleSort.RELEVANCE, null, LIMIT + 1);
+        return plan(sql.text(), () -> new NamedParameterJdbcTemplate(jdbc).queryForObject(
+                "explain (analyze, format json) " + sql.text(), sql.binds(), String.class));
+    }
+
+    private JsonNode explain(String sql, List<?> binds) {
+        return plan(sql, () -> jdbc.queryForObject("explain (format json) " + sql, String.class, binds.toArray()));
+    }
+
+    /**
+     * Plans the way production (SSD storage) does: the default random_page_cost of 4 models
+     * spinning disks. Set for the EXPLAIN's transaction only, never server-wide.
+     */
+    private JsonNode plan(String sql, Supplier<String> explain) {
+        try {
+            var plan = new TransactionTemplate(transactions).execute(status -> {
+                jdbc.execute("set local random_page_cost = 1.1");
+                return explain.get();
+            });
+            return json.readTree(plan).get(0).get("Plan");
+        } catch (Exception e) {
+            throw new AssertionError("Could not explain: " + sql, e);
+        }
+    }
+
+    /** Bind values in the order filterSpec renders its predicates, then the limit (+1 probe row). */
+    private static List<Object> binds(VehicleFilter f) {
+        var binds = new ArrayList<>();
+        for (var text : new String[] { f.make(), f.model() }) {
+            if (text == null) continue;
+            var needle = VehicleSearchSql.escapeLike(text.toLowerCase(Locale.ROOT));
+            binds.add(switch (f.match()) {
+                case EXACT -> text.toLowerCase(Locale.ROOT);
+                case PREFIX -> needle + "%";
+                case CONTAINS -> "%" + needle + "%";
+            });
+        }
+        if (f.year() != null) binds.add(f.year());
+        if (f.type() != null) binds.add(f.type().name());
+        if (f.fuelType() != null) binds.add(f.fuelType().name());
+        binds.add(LIMIT + 1);
+        return binds;
+    }
+
+    private static List<String> indexesUsed(JsonNode plan) {
+        var names = new ArrayList<String>();
+        walk(plan, n -> { if (n.has("Index Name")) names.add(n.get("Index Name").asText()); });
+        return names;
+    }
+
+    /** Indexes of the nodes that actually ran: a branch switched off by its one-time filter never loops. */
+    private static List<String> indexesRead(JsonNode plan) {
+        var names = new ArrayList<String>();
+        walk(plan, n -> {
+            if (n.has("Index Name") && n.get("Actual Loops").asLong() > 0) names.add(n.get("Index Name").asText());
+        });
+        return names;
+    }
+
+    /** Rows the two candidate branches produced, each ranked once. */
+    private static long rowsRanked(JsonNode plan) {
+        var rows = new ArrayList<Long>();
+        walk(plan, n -> { if ("Append".equals(n.get("Node Type").asText())) rows.add(n.get("Actual Rows").asLong()); });
+        assertThat(rows).as("candidate branches in plan %s", plan).hasSize(1);
+        return rows.get(0);
+    }
+
+    private static void assertNoSeqScan(JsonNode plan) {
+        var scans = new ArrayList<String>();
+        walk(plan, n -> { if ("Seq Scan".equals(n.get("Node Type").asText())) scans.add(n.toString()); });
+        assertThat(scans).as("sequential scans in plan %s", plan).isEmpty();
+    }
+
+    private static void walk(JsonNode node, java.util.function.Consumer<JsonNode> visitor) {
+        visitor.accept(node);
+        if (node.has("Plans")) node.get("Plans").forEach(child -> walk(child, visitor));
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.albi.vehicles.adapters.persistence.vehicle;
+
+import io.github.albi.vehicles.domain.vehicle.*;
+import io.github.albi.vehicles.support.PostgresTestDatabase;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pinning audit for the virtual-thread mode: runs the adapter's read and write paths
+ * on many virtual threads against Postgres, more of them than the pool has
+ * connections so they really park, and fails on any {@code jdk.VirtualThreadPinned}
+ * event (a virtual thread that blocked while holding a monitor).
+ */
+@DataJpaTest(properties = "spring.datasource.hikari.maximum-pool-size=4")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = VehicleRepositoryJpaAdapterTest.ScanConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class VirtualThreadPinningTest {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    @Autowired private VehicleRepository adapter;
+
+    @Test
+    @DisplayName("request paths never pin a virtual thread")
+    void noPinning(@TempDir Path dir) throws Exception {
+        var seed = adapter.create(new Vin("VTPNS000000000000"), VehicleType.CAR, "Skoda", "Fabia", 2020,
+                FuelType.PETROL, null, null);
+        var recordingFile = dir.resolve("pinning.jfr");
+
+        try (var recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> calls = new ArrayList<>();
+                for (int i = 0; i < 64; i++) {
+                    final int n = i;
+                    calls.add(executor.submit(() -> {
+                        adapter.findById(seed.id());
+                        adapter.search(new VehicleFilter("Skoda", null, null, null, null, null, null), VehicleSort.ID, null, 20);
+                        adapter.changesSince(0, 50);
+                        var v = adapter.create(new Vin(String.format("VTPNS%012d", n + 1)), VehicleType.CAR, "Skoda",
+                                "Fabia", 2021, FuelType.PETROL, null, null);
+                        adapter.update(v.id(), null, v.vin(), VehicleType.CAR, "Skoda", "Fabia", 2022,
+                                FuelType.PETROL, null, null);
+                        adapter.delete(v.id(), null);
+                        return null;
+                    }));
+                }
+                for (var call : calls) call.get();
+            }
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        var pinned = RecordingFile.readAllEvents(recordingFile).stream()
+                .filter(e -> e.getEventType().getName().equals("jdk.VirtualThreadPinned"))
+                .map(VirtualThreadPinningTest::describe)
+                .toList();
+        assertThat(pinned).as("pinned virtual threads").isEmpty();
+    }
+
+    private static String describe(RecordedEvent e) {
+        var stack = e.getStackTrace();
+        if (stack == null) return e.toString();
+        var frames = stack.getFrames().stream().limit(25)
+                .map(f -> f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber())
+                .toList();
+        return e.getDuration() + " at " + String.join(" <- ", frames);
+    }
+}
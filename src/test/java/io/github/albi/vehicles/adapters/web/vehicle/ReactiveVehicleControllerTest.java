@@ -0,0 +1,132 @@
+package io.github.albi.vehicles.adapters.web.vehicle;
+
+import io.github.albi.vehicles.application.vehicle.ReactiveVehicleService;
+import io.github.albi.vehicles.domain.vehicle.*;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.adapter.JdkFlowAdapter;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReactiveVehicleController")
+class ReactiveVehicleControllerTest {
+
+    private static final String BASE = "/reactive/vehicles";
+
+    @Mock private ReactiveVehicleService service;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setup() {
+        mvc = MockMvcBuilders
+                .standaloneSetup(new ReactiveVehicleController(service))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    private static Vehicle vehicle(long id) {
+        return new Vehicle(new VehicleId(id), new Vin("WDB11111111111111"), VehicleType.CAR, "Toyota", "Yaris",
+                2022, FuelType.PETROL, "Blue", "ABC123", 3, null);
+    }
+
+    @Test
+    @DisplayName("GET /{id} answers asynchronously with the vehicle and its ETag")
+    void getById() throws Exception {
+        when(service.getById(new VehicleId(1L))).thenReturn(CompletableFuture.completedFuture(vehicle(1)));
+
+        var started = mvc.perform(get(BASE + "/{id}", 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.make").value("Toyota"));
+    }
+
+    @Test
+    @DisplayName("GET /{id} of an unknown vehicle is a 404, as under /vehicles")
+    void notFound() throws Exception {
+        when(service.getById(new VehicleId(9L)))
+                .thenReturn(CompletableFuture.failedFuture(new VehicleNotFoundException(new VehicleId(9L))));
+
+        var started = mvc.perform(get(BASE + "/{id}", 9)).andExpect(request().asyncStarted()).andReturn();
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("NOT_FOUND"));
+    }
+
+    @Test
+    @DisplayName("GET /{id} is a 503 with Retry-After when no R2DBC connection frees up in time")
+    void noConnection() throws Exception {
+        when(service.getById(new VehicleId(1L))).thenReturn(CompletableFuture.failedFuture(
+                new DataAccessResourceFailureException("Failed to obtain R2DBC Connection",
+                        new R2dbcTimeoutException("Connection acquisition timed out after 5000ms"))));
+
+        var started = mvc.perform(get(BASE + "/{id}", 1)).andExpect(request().asyncStarted()).andReturn();
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.code").value("UNAVAILABLE"));
+    }
+
+    @Test
+    @DisplayName("GET search links the next page; bad arguments fail before anything is started")
+    void search() throws Exception {
+        var page = new VehiclePage(List.of(vehicle(1), vehicle(2)), new VehicleCursor(VehicleSort.ID, "2", 2));
+        when(service.search(any(), isNull(), isNull(), eq(2))).thenReturn(CompletableFuture.completedFuture(page));
+
+        var started = mvc.perform(get(BASE + "?make=Toyota&limit=2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().string("Link",
+                        endsWith("/reactive/vehicles?make=Toyota&limit=2&cursor=" + page.next().encode() + ">; rel=\"next\"")));
+
+        when(service.search(any(), isNull(), isNull(), eq(0))).thenThrow(new IllegalArgumentException("limit must be positive"));
+        mvc.perform(get(BASE).param("limit", "0"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /export streams NDJSON, one vehicle per line")
+    void export() throws Exception {
+        when(service.export(any())).thenReturn(JdkFlowAdapter.publisherToFlowPublisher(Flux.just(vehicle(1), vehicle(2))));
+
+        var started = mvc.perform(get(BASE + "/export").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        var body = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines().toList())
+                .hasSize(2)
+                .allSatisfy(line -> assertThat(line).startsWith("{\"id\":"));
+    }
+}
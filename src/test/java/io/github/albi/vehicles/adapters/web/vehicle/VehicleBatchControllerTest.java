@@ -0,0 +1,149 @@
+package io.github.albi.vehicles.adapters.web.vehicle;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.albi.vehicles.application.vehicle.VehicleService;
+import io.github.albi.vehicles.domain.vehicle.*;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VehicleBatchController")
+class VehicleBatchControllerTest {
+
+    @Mock private VehicleService vehicleService;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setup() {
+        var validator = Validation.buildDefaultValidatorFactory().getValidator();
+        mvc = MockMvcBuilders
+                .standaloneSetup(new VehicleBatchController(vehicleService, new ObjectMapper(), validator, 2, 10, 3))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    private static String item(String vin, String plate) {
+        return """
+                {"vin":"%s","type":"CAR","make":"Toyota","model":"Yaris","modelYear":2022,"fuelType":"PETROL","registrationNumber":"%s"}"""
+                .formatted(vin, plate);
+    }
+
+    @Test
+    @DisplayName("JSON array: writes in chunks of the batch size and returns per-item results in order")
+    void jsonArray() throws Exception {
+        when(vehicleService.upsertAll(anyList())).thenAnswer(inv -> {
+            List<VehicleDraft> drafts = inv.getArgument(0);
+            return drafts.stream()
+                    .map(d -> d.vin().value().endsWith("1")
+                            ? VehicleUpsertResult.updated(new VehicleId(1L))
+                            : VehicleUpsertResult.created(new VehicleId(9L)))
+                    .toList();
+        });
+
+        mvc.perform(post("/vehicles:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + item("WDB11111111111111", "A1") + ","
+                                + item("WDB11111111111112", "A2") + ","
+                                + item("WDB11111111111113", "A3") + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.failed").value(0))
+                .andExpect(jsonPath("$.items[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[2].index").value(2))
+                .andExpect(jsonPath("$.items[2].vin").value("WDB11111111111113"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<VehicleDraft>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(vehicleService, times(2)).upsertAll(chunks.capture());
+        assertThat(chunks.getAllValues()).extracting(List::size).containsExactly(2, 1);
+    }
+
+    @Test
+    @DisplayName("NDJSON: invalid items fail individually and never reach the service")
+    void ndjsonWithInvalidItems() throws Exception {
+        when(vehicleService.upsertAll(anyList()))
+                .thenReturn(List.of(VehicleUpsertResult.created(new VehicleId(5L))));
+
+        mvc.perform(post("/vehicles:batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(item("WDB11111111111111", "A1") + "\n"
+                                + "{\"vin\":\"BAD\",\"type\":\"CAR\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.items[1].status").value("FAILED"))
+                .andExpect(jsonPath("$.items[1].error", containsString("vin:")))
+                .andExpect(jsonPath("$.items[1].error", containsString("make:")));
+
+        verify(vehicleService).upsertAll(argThat(l -> l.size() == 1));
+    }
+
+    @Test
+    @DisplayName("malformed body is a 400")
+    void malformed() throws Exception {
+        mvc.perform(post("/vehicles:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"vin\": "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_ARGUMENT"));
+
+        verifyNoInteractions(vehicleService);
+    }
+
+    @Test
+    @DisplayName("batchGet: one lookup for all valid keys, results in request order with not-found and invalid markers")
+    void batchGet() throws Exception {
+        var found = new Vehicle(new VehicleId(7L), new Vin("WDB11111111111111"), VehicleType.CAR, "Toyota", "Yaris",
+                2022, FuelType.PETROL, null, "AB123");
+        when(vehicleService.getAll(anyList())).thenReturn(List.of(Optional.empty(), Optional.of(found)));
+
+        mvc.perform(post("/vehicles:batchGet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\": 99}, {\"vin\": \"BAD\"}, {\"registrationNumber\": \"ab123\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found").value(1))
+                .andExpect(jsonPath("$.notFound").value(1))
+                .andExpect(jsonPath("$.invalid").value(1))
+                .andExpect(jsonPath("$.items[0].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$.items[1].status").value("INVALID"))
+                .andExpect(jsonPath("$.items[1].error").isNotEmpty())
+                .andExpect(jsonPath("$.items[2].index").value(2))
+                .andExpect(jsonPath("$.items[2].status").value("FOUND"))
+                .andExpect(jsonPath("$.items[2].vehicle.id").value(7));
+
+        verify(vehicleService).getAll(List.of(VehicleKey.of(new VehicleId(99L)), VehicleKey.ofRegistrationNumber("AB123")));
+    }
+
+    @Test
+    @DisplayName("batchGet: more keys than the cap is a 400")
+    void batchGetTooMany() throws Exception {
+        mvc.perform(post("/vehicles:batchGet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\": 1}, {\"id\": 2}, {\"id\": 3}, {\"id\": 4}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_ARGUMENT"));
+
+        verifyNoInteractions(vehicleService);
+    }
+}
@@ -2,19 +2,28 @@ package io.github.albi.vehicles.adapters.web.vehicle;
 
 import io.github.albi.vehicles.application.vehicle.VehicleService;
 import io.github.albi.vehicles.domain.vehicle.*;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.CannotCreateTransactionException;
 
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -29,6 +38,8 @@ class VehicleControllerTest {
     private static final String BASE = "/vehicles";
 
     @Mock private VehicleService vehicleService;
+    private VehicleChangePolls changePolls;
+    private VehicleExports exports;
     private MockMvc mvc;
 
     private static Vehicle sampleVehicle(long id, int year) {
@@ -47,12 +58,19 @@ class VehicleControllerTest {
 
     @BeforeEach
     void setup() {
+        changePolls = new VehicleChangePolls(1, java.time.Duration.ofMillis(10), 1);
+        exports = new VehicleExports(1, false);
         mvc = MockMvcBuilders
-                .standaloneSetup(new VehicleController(vehicleService))
+                .standaloneSetup(new VehicleController(vehicleService, new ObjectMapper(), changePolls, exports))
                 .setControllerAdvice(new GlobalExceptionHandler())
                 .build();
     }
 
+    @AfterEach
+    void stopPolls() {
+        changePolls.destroy();
+    }
+
     @Nested
     @DisplayName("GET /vehicles/{id}")
     class GetById {
@@ -72,12 +90,44 @@ class VehicleControllerTest {
                     .andExpect(jsonPath("$.modelYear").value(2022))
                     .andExpect(jsonPath("$.fuelType").value("PETROL"))
                     .andExpect(jsonPath("$.color").value("Blue"))
-                    .andExpect(jsonPath("$.registrationNumber").value("ABC123"));
+                    .andExpect(jsonPath("$.registrationNumber").value("ABC123"))
+                    .andExpect(header().string("ETag", "\"0\""));
 
             verify(vehicleService).getById(new VehicleId(1L));
             verifyNoMoreInteractions(vehicleService);
         }
 
+        @Test
+        @DisplayName("answers 304 from the version alone while the client's copy is current")
+        void notModified() throws Exception {
+            var modified = java.time.Instant.parse("2025-01-02T03:04:05.678Z");
+            when(vehicleService.getVersion(new VehicleId(1L))).thenReturn(new VehicleVersion(4, modified));
+
+            mvc.perform(get(BASE + "/{id}", 1).header("If-None-Match", "\"4\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", "\"4\""))
+                    .andExpect(content().string(""));
+            mvc.perform(get(BASE + "/{id}", 1).header("If-Modified-Since", "Thu, 02 Jan 2025 03:04:05 GMT"))
+                    .andExpect(status().isNotModified());
+
+            verify(vehicleService, never()).getById(any());
+        }
+
+        @Test
+        @DisplayName("loads the vehicle when the client's copy is stale")
+        void modified() throws Exception {
+            var v = new Vehicle(new VehicleId(1L), new Vin("WDB11111111111111"), VehicleType.CAR, "Toyota", "Yaris",
+                    2022, FuelType.PETROL, null, null, 5, java.time.Instant.parse("2025-01-02T03:04:05Z"));
+            when(vehicleService.getVersion(new VehicleId(1L))).thenReturn(new VehicleVersion(5, v.updatedAt()));
+            when(vehicleService.getById(new VehicleId(1L))).thenReturn(v);
+
+            mvc.perform(get(BASE + "/{id}", 1).header("If-None-Match", "\"4\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "\"5\""))
+                    .andExpect(header().string("Last-Modified", "Thu, 02 Jan 2025 03:04:05 GMT"))
+                    .andExpect(jsonPath("$.id").value(1));
+        }
+
         @Test
         @DisplayName("returns 404 when not found")
         void notFound() throws Exception {
@@ -90,6 +140,18 @@ class VehicleControllerTest {
             verify(vehicleService).getById(new VehicleId(999L));
             verifyNoMoreInteractions(vehicleService);
         }
+
+        @Test
+        @DisplayName("returns 503 with Retry-After when no database connection is free")
+        void noConnection() throws Exception {
+            when(vehicleService.getById(new VehicleId(1L))).thenThrow(new CannotCreateTransactionException(
+                    "Could not open JPA EntityManager", new SQLTransientConnectionException("all 10 in use")));
+
+            mvc.perform(get(BASE + "/{id}", 1).accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(jsonPath("$.code").value("UNAVAILABLE"));
+        }
     }
 
     @Nested
@@ -100,12 +162,11 @@ class VehicleControllerTest {
         void ok() throws Exception {
             var v1 = sampleVehicle(1L, 2022);
 
-            // ✅ stub the 7-arg signature, with vin & registrationNumber = null
+            // ✅ stub the filter + keyset page signature (no vin / registrationNumber)
             when(vehicleService.search(
-                    eq("Toyota"), eq("Yaris"), eq(2022),
-                    eq(VehicleType.CAR), eq(FuelType.PETROL),
-                    isNull(), isNull())
-            ).thenReturn(java.util.List.of(v1));
+                    eq(new VehicleFilter("Toyota", "Yaris", 2022, VehicleType.CAR, FuelType.PETROL, null, null)),
+                    isNull(), isNull(), isNull())
+            ).thenReturn(new VehiclePage(java.util.List.of(v1), null));
 
             mvc.perform(get(BASE)
                             .param("make", "Toyota")
@@ -121,7 +182,265 @@ class VehicleControllerTest {
                     .andExpect(jsonPath("$[0].model").value("Yaris"))
                     .andExpect(jsonPath("$[0].modelYear").value(2022))
                     .andExpect(jsonPath("$[0].type").value("CAR"))
-                    .andExpect(jsonPath("$[0].fuelType").value("PETROL"));
+                    .andExpect(jsonPath("$[0].fuelType").value("PETROL"))
+                    .andExpect(header().doesNotExist("Link"));
+        }
+
+        @Test
+        @DisplayName("a page the client already holds comes back as an empty 304")
+        void notModified() throws Exception {
+            when(vehicleService.search(any(), isNull(), isNull(), isNull()))
+                    .thenReturn(new VehiclePage(java.util.List.of(sampleVehicle(1L, 2022)), null));
+
+            var etag = mvc.perform(get(BASE).param("make", "Toyota"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader("ETag");
+
+            mvc.perform(get(BASE).param("make", "Toyota").header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+        }
+
+        @Test
+        @DisplayName("returns next link carrying the cursor when more results exist")
+        void nextLink() throws Exception {
+            var next = new VehicleCursor(VehicleSort.ID, "1", 1L);
+            when(vehicleService.search(eq(VehicleFilter.none()), isNull(), isNull(), eq(1)))
+                    .thenReturn(new VehiclePage(java.util.List.of(sampleVehicle(1L, 2022)), next));
+
+            mvc.perform(get(BASE + "?limit=1").accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(header().string("Link",
+                            containsString("cursor=" + next.encode() + ">; rel=\"next\"")))
+                    .andExpect(header().string("Link", containsString("limit=1")));
+        }
+
+        @Test
+        @DisplayName("returns 400 for a malformed cursor")
+        void badCursor() throws Exception {
+            mvc.perform(get(BASE).param("cursor", "garbage").accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.code").value("INVALID_ARGUMENT"));
+
+            verifyNoInteractions(vehicleService);
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /vehicles/suggest")
+    class Suggest {
+        @Test
+        @DisplayName("returns the service's suggestions as a JSON array")
+        void ok() throws Exception {
+            when(vehicleService.suggest(VehicleTextField.MAKE, "to", null)).thenReturn(java.util.List.of("Toyota"));
+
+            mvc.perform(get(BASE + "/suggest").param("field", "MAKE").param("prefix", "to"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0]").value("Toyota"));
+        }
+
+        @Test
+        @DisplayName("passes match mode through to the search filter")
+        void matchMode() throws Exception {
+            when(vehicleService.search(
+                    eq(new VehicleFilter("toy", null, null, null, null, null, null, TextMatch.PREFIX)),
+                    isNull(), isNull(), isNull())
+            ).thenReturn(VehiclePage.empty());
+
+            mvc.perform(get(BASE).param("make", "toy").param("match", "PREFIX"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(0)));
+        }
+
+        @Test
+        @DisplayName("passes q through as free text, and a relevance cursor back in the next link")
+        void freeText() throws Exception {
+            var v = new Vehicle(new VehicleId(8L), new Vin("5YJ3E1EA7KF317000"), VehicleType.CAR, "Tesla", "Model 3",
+                    2019, FuelType.ELECTRIC, "Red", null);
+            var next = new VehicleCursor(VehicleSort.RELEVANCE, "0.6079271", 8L);
+            when(vehicleService.search(
+                    eq(new VehicleFilter(null, null, null, null, null, null, null, null, "red tesla \"model 3\"")),
+                    isNull(), isNull(), eq(1))
+            ).thenReturn(new VehiclePage(List.of(v), next));
+
+            mvc.perform(get(BASE).param("q", "red tesla \"model 3\"").param("limit", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].model").value("Model 3"))
+                    .andExpect(header().string("Link", containsString("cursor=" + next.encode())));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /vehicles/facets")
+    class Facets {
+        @Test
+        @DisplayName("returns counts per facet for the given filters")
+        void ok() throws Exception {
+            when(vehicleService.facets(new VehicleFilter(null, null, null, VehicleType.CAR, null, null, null)))
+                    .thenReturn(new VehicleFacets(3,
+                            java.util.Map.of(VehicleType.CAR, 3L),
+                            java.util.Map.of(FuelType.PETROL, 2L, FuelType.ELECTRIC, 1L),
+                            java.util.Map.of("Toyota", 2L, "Tesla", 1L),
+                            java.util.Map.of(2020, 3L)));
+
+            mvc.perform(get(BASE + "/facets").param("type", "CAR"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.total").value(3))
+                    .andExpect(jsonPath("$.type.CAR").value(3))
+                    .andExpect(jsonPath("$.fuelType.ELECTRIC").value(1))
+                    .andExpect(jsonPath("$.make.Tesla").value(1))
+                    .andExpect(jsonPath("$.modelYear.2020").value(3));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /vehicles/export (NDJSON)")
+    class Export {
+        @Test
+        @DisplayName("streams one JSON object per line, applying the search filters")
+        void streamsNdjson() throws Exception {
+            doAnswer(inv -> {
+                Consumer<Vehicle> sink = inv.getArgument(1);
+                sink.accept(sampleVehicle(1L, 2020));
+                sink.accept(sampleVehicle(2L, 2021));
+                return null;
+            }).when(vehicleService).export(eq(new VehicleFilter(null, null, null, null, FuelType.PETROL, null, null)), any());
+
+            var started = mvc.perform(get(BASE + "/export").param("fuelType", "PETROL"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            var body = mvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                    .andReturn().getResponse().getContentAsString();
+
+            var lines = body.lines().toList();
+            org.assertj.core.api.Assertions.assertThat(lines).hasSize(2);
+            org.assertj.core.api.Assertions.assertThat(lines.get(0)).startsWith("{\"id\":1,").endsWith("}");
+            org.assertj.core.api.Assertions.assertThat(lines.get(1)).contains("\"modelYear\":2021");
+        }
+
+        @Test
+        @DisplayName("a filter the export refuses is 400, before any of the body is committed")
+        void rejectsBeforeStreaming() throws Exception {
+            doCallRealMethod().when(vehicleService).requireExportable(any());
+
+            mvc.perform(get(BASE + "/export").param("make", "ab").param("match", "CONTAINS"))
+                    .andExpect(request().asyncNotStarted())
+                    .andExpect(status().isBadRequest());
+            verify(vehicleService, never()).export(any(), any());
+        }
+
+        @Test
+        @DisplayName("runs on its own thread; past vehicles.export.max-concurrent it is 503 until one finishes")
+        void tooManyExports() throws Exception {
+            var release = new java.util.concurrent.CountDownLatch(1);
+            var thread = new java.util.concurrent.atomic.AtomicReference<String>();
+            doAnswer(inv -> {
+                thread.set(Thread.currentThread().getName());
+                release.await();
+                Consumer<Vehicle> sink = inv.getArgument(1);
+                sink.accept(sampleVehicle(1L, 2020));
+                return null;
+            }).when(vehicleService).export(any(), any());
+
+            var running = mvc.perform(get(BASE + "/export"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mvc.perform(get(BASE + "/export").accept(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON))
+                    .andExpect(request().asyncNotStarted())
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(jsonPath("$.code").value("UNAVAILABLE"));
+
+            release.countDown();
+            mvc.perform(asyncDispatch(running))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(containsString("\"id\":1,")));
+            org.assertj.core.api.Assertions.assertThat(thread.get()).startsWith("vehicle-export-");
+            org.assertj.core.api.Assertions.assertThat(exports.running()).isZero();
+            verify(vehicleService, times(1)).export(any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /vehicles/changes (NDJSON)")
+    class Changes {
+        @Test
+        @DisplayName("streams upserts and tombstones, each with its resume token")
+        void streamsChanges() throws Exception {
+            when(vehicleService.changes(40L, 2, java.time.Duration.ZERO)).thenReturn(List.of(
+                    VehicleChange.upsert(41L, sampleVehicle(1L, 2020)),
+                    VehicleChange.deletion(43L, new VehicleId(2L))));
+
+            var started = mvc.perform(get(BASE + "/changes").param("since", "40").param("limit", "2"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            var lines = mvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                    .andReturn().getResponse().getContentAsString().lines().toList();
+
+            org.assertj.core.api.Assertions.assertThat(lines).containsExactly(
+                    "{\"token\":\"41\",\"id\":1,\"deleted\":false,\"vehicle\":{\"id\":1,\"vin\":\"WDB11111111111111\","
+                            + "\"type\":\"CAR\",\"make\":\"Toyota\",\"model\":\"Yaris\",\"modelYear\":2020,"
+                            + "\"fuelType\":\"PETROL\",\"color\":\"Blue\",\"registrationNumber\":\"ABC123\"}}",
+                    "{\"token\":\"43\",\"id\":2,\"deleted\":true,\"vehicle\":null}");
+        }
+
+        @Test
+        @DisplayName("with nothing new, ?wait parks the request until a later look finds changes")
+        void longPolls() throws Exception {
+            when(vehicleService.changes(7L, null, java.time.Duration.ZERO)).thenReturn(List.of(), List.of(),
+                    List.of(VehicleChange.deletion(8L, new VehicleId(3L))));
+
+            var started = mvc.perform(get(BASE + "/changes").param("since", "7").param("wait", "20"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(containsString("\"token\":\"8\"")));
+            verify(vehicleService, times(3)).changes(7L, null, java.time.Duration.ZERO);
+        }
+
+        @Test
+        @DisplayName("a wait that finds nothing ends with an empty body")
+        void longPollTimesOut() throws Exception {
+            when(vehicleService.changes(7L, null, java.time.Duration.ZERO)).thenReturn(List.of());
+
+            var started = mvc.perform(get(BASE + "/changes").param("since", "7").param("wait", "1"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(""));
+        }
+
+        @Test
+        @DisplayName("beyond vehicles.changes.max-waiting parked polls, the next one is 503")
+        void tooManyWaiting() throws Exception {
+            when(vehicleService.changes(7L, null, java.time.Duration.ZERO)).thenReturn(List.of());
+
+            mvc.perform(get(BASE + "/changes").param("since", "7").param("wait", "20"))
+                    .andExpect(request().asyncStarted());
+            mvc.perform(get(BASE + "/changes").param("since", "7").param("wait", "20"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"));
+            // a catch-up read that needs no wait still gets through
+            mvc.perform(get(BASE + "/changes").param("since", "7"))
+                    .andExpect(request().asyncStarted());
+        }
+
+        @Test
+        @DisplayName("a token the feed never issued is 400")
+        void badToken() throws Exception {
+            mvc.perform(get(BASE + "/changes").param("since", "abc"))
+                    .andExpect(status().isBadRequest());
+            mvc.perform(get(BASE + "/changes").param("wait", "-1"))
+                    .andExpect(status().isBadRequest());
+            verifyNoInteractions(vehicleService);
         }
     }
 
@@ -173,6 +492,7 @@ class VehicleControllerTest {
             var updated = sampleVehicle(42L, 2023);
             when(vehicleService.update(
                     eq(new VehicleId(42L)),
+                    isNull(),
                     eq(new Vin("WDB11111111111111")),
                     eq(VehicleType.CAR),
                     eq("Toyota"),
@@ -201,5 +521,38 @@ class VehicleControllerTest {
                     .andExpect(jsonPath("$.id").value(42))
                     .andExpect(jsonPath("$.modelYear").value(2023));
         }
+
+        @Test
+        @DisplayName("passes If-Match as the expected version; a stale one is 412")
+        void ifMatch() throws Exception {
+            when(vehicleService.update(eq(new VehicleId(42L)), eq(3L), any(), any(), any(), any(), any(), any(), any(), any()))
+                    .thenThrow(new VehicleVersionConflictException(new VehicleId(42L), 3L));
+
+            mvc.perform(put(BASE + "/{id}", 42)
+                            .header("If-Match", "W/\"3\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                        {"vin": "WDB11111111111111", "type": "CAR", "make": "Toyota", "model": "Yaris",
+                         "modelYear": 2023, "fuelType": "PETROL"}
+                    """))
+                    .andExpect(status().isPreconditionFailed())
+                    .andExpect(jsonPath("$.code").value("PRECONDITION_FAILED"));
+        }
+    }
+
+    @Nested
+    @DisplayName("DELETE /vehicles/{id}")
+    class Delete {
+        @Test
+        @DisplayName("returns 204; If-Match * is unconditional and foreign tags can never match")
+        void ifMatch() throws Exception {
+            mvc.perform(delete(BASE + "/{id}", 42).header("If-Match", "*"))
+                    .andExpect(status().isNoContent());
+            verify(vehicleService).delete(new VehicleId(42L), null);
+
+            mvc.perform(delete(BASE + "/{id}", 42).header("If-Match", "\"abc\""))
+                    .andExpect(status().isNoContent());
+            verify(vehicleService).delete(new VehicleId(42L), -1L);
+        }
     }
-}
\ No newline at end of file
+}
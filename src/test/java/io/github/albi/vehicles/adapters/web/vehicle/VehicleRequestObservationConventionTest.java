@@ -0,0 +1,43 @@
+package io.github.albi.vehicles.adapters.web.vehicle;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+final class VehicleRequestObservationConventionTest {
+
+    private final VehicleRequestObservationConvention convention = new VehicleRequestObservationConvention();
+
+    private static ServerRequestObservationContext context(String pattern, String... params) {
+        var request = new MockHttpServletRequest("GET", pattern == null ? "/vehicles" : pattern);
+        for (int i = 0; i < params.length; i += 2) request.setParameter(params[i], params[i + 1]);
+        var context = new ServerRequestObservationContext(request, new MockHttpServletResponse());
+        context.setPathPattern(pattern);
+        return context;
+    }
+
+    @Test
+    void tags_filtered_endpoints_with_the_filters_used() {
+        var keyValues = convention.getLowCardinalityKeyValues(
+                context("/vehicles", "make", "Skoda", "year", "2020", "limit", "20"));
+
+        assertThat(keyValues.stream().filter(kv -> kv.getKey().equals("filter")))
+                .singleElement().satisfies(kv -> assertThat(kv.getValue()).isEqualTo("make+year"));
+        assertThat(keyValues.stream().map(kv -> kv.getKey())).contains("uri", "status", "method");
+    }
+
+    @Test
+    void other_endpoints_get_a_constant_tag() {
+        assertThat(VehicleRequestObservationConvention.filterTag(context("/vehicles/{id}", "make", "Skoda")))
+                .isEqualTo("n/a");
+        assertThat(VehicleRequestObservationConvention.filterTag(context(null, "make", "Skoda")))
+                .as("before a handler matched").isEqualTo("n/a");
+        assertThat(VehicleRequestObservationConvention.filterTag(context("/reactive/vehicles/export",
+                "model", "Oct", "match", "PREFIX"))).isEqualTo("model:prefix");
+        assertThat(VehicleRequestObservationConvention.filterTag(context("/vehicles/facets", "match", "bogus")))
+                .isEqualTo("none");
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.albi.vehicles.bootstrap;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+final class ConcurrencyLimitedDataSourceTest {
+
+    private final DataSource pool = mock(DataSource.class);
+
+    @Test
+    void holds_a_permit_from_checkout_until_close() throws Exception {
+        var target = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(target);
+        var limited = new ConcurrencyLimitedDataSource(pool, 2, Duration.ofMillis(50));
+
+        var a = limited.getConnection();
+        var b = limited.getConnection();
+        assertThat(limited.inUse()).isEqualTo(2);
+        assertThatThrownBy(limited::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("all 2 in use");
+
+        a.close();
+        a.close(); // a second close must not hand out an extra permit
+        assertThat(limited.inUse()).isEqualTo(1);
+        verify(target, times(1)).close();
+
+        b.close();
+        assertThat(limited.inUse()).isZero();
+    }
+
+    @Test
+    void counts_waits_and_timeouts() throws Exception {
+        when(pool.getConnection()).thenAnswer(i -> mock(Connection.class));
+        var limited = new ConcurrencyLimitedDataSource(pool, 1, Duration.ofMillis(50));
+
+        var held = limited.getConnection();
+        assertThatThrownBy(limited::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        held.close();
+        limited.getConnection().close();
+
+        assertThat(limited.acquired()).isEqualTo(2);
+        assertThat(limited.timeouts()).isEqualTo(1);
+        assertThat(limited.waiting()).isZero();
+        assertThat(limited.waitNanos()).isLessThan(Duration.ofMillis(50).toNanos()); // the timed-out wait is not counted
+    }
+
+    @Test
+    void gives_the_permit_back_when_the_pool_fails() throws Exception {
+        when(pool.getConnection()).thenThrow(new SQLException("pool down"));
+        var limited = new ConcurrencyLimitedDataSource(pool, 1, Duration.ofMillis(50));
+
+        assertThatThrownBy(limited::getConnection).hasMessage("pool down");
+        assertThat(limited.inUse()).isZero();
+    }
+
+    @Test
+    void forwards_everything_else_to_the_pooled_connection() throws Exception {
+        var target = mock(Connection.class);
+        when(target.unwrap(String.class)).thenReturn("driver connection");
+        when(target.getAutoCommit()).thenReturn(true);
+        when(pool.getConnection()).thenReturn(target);
+        var limited = new ConcurrencyLimitedDataSource(pool, 1, Duration.ofMillis(50));
+
+        try (var con = limited.getConnection()) {
+            assertThat(con.unwrap(String.class)).isEqualTo("driver connection");
+            assertThat(con.getAutoCommit()).isTrue();
+            doThrow(new SQLException("boom")).when(target).commit();
+            assertThatThrownBy(con::commit).isInstanceOf(SQLException.class).hasMessage("boom");
+        }
+    }
+}
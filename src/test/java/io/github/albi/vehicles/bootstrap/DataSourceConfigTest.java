@@ -0,0 +1,16 @@
+package io.github.albi.vehicles.bootstrap;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+final class DataSourceConfigTest {
+
+    @Test
+    void sizes_the_pool_from_database_cores() {
+        assertThat(DataSourceConfig.autoPoolSize(1)).isEqualTo(3);
+        assertThat(DataSourceConfig.autoPoolSize(8)).isEqualTo(17);
+        assertThatThrownBy(() -> DataSourceConfig.autoPoolSize(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.albi.vehicles.bootstrap;
+
+import io.github.albi.vehicles.adapters.persistence.vehicle.VehicleChangeEntity;
+import io.github.albi.vehicles.adapters.persistence.vehicle.VehicleEntity;
+import io.github.albi.vehicles.adapters.persistence.vehicle.VehicleOutboxEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.jdbc.batch_size=50")
+@ActiveProfiles("test")
+@ContextConfiguration(classes = JdbcBatchingCheckTest.Entities.class)
+class JdbcBatchingCheckTest {
+
+    @Autowired private EntityManagerFactory emf;
+
+    @Test
+    void finds_the_identity_id_entities() {
+        assertThat(JdbcBatchingCheck.unbatchableInserts(emf.unwrap(SessionFactoryImplementor.class)))
+                .containsExactlyInAnyOrder(VehicleEntity.class, VehicleChangeEntity.class, VehicleOutboxEntity.class);
+    }
+
+    @Test
+    void rejects_batching_with_identity_ids_unless_acknowledged() {
+        assertThatThrownBy(() -> new JdbcBatchingCheck(emf, List.of("VehicleChangeEntity", "VehicleOutboxEntity"))
+                .afterSingletonsInstantiated())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("hibernate.jdbc.batch_size=50")
+                .hasMessageContaining("[" + VehicleEntity.class.getName() + "]");
+
+        assertThatCode(() -> new JdbcBatchingCheck(emf, List.of(
+                VehicleEntity.class.getName(), "VehicleChangeEntity", "VehicleOutboxEntity")).afterSingletonsInstantiated())
+                .doesNotThrowAnyException();
+    }
+
+    @Configuration
+    @AutoConfigurationPackage(basePackageClasses = VehicleEntity.class)
+    static class Entities {}
+}
@@ -0,0 +1,65 @@
+package io.github.albi.vehicles.domain.vehicle;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class VehicleCursorTest {
+
+    @Test
+    void encodeDecode_roundTrips() {
+        var cursor = new VehicleCursor(VehicleSort.MAKE, "Rolls|Royce", 42L);
+
+        var decoded = VehicleCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void encode_isUrlSafe() {
+        var token = new VehicleCursor(VehicleSort.MAKE, "Škoda?&=/", 7L).encode();
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void decode_rejectsGarbage() {
+        assertThrows(IllegalArgumentException.class, () -> VehicleCursor.decode("not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> VehicleCursor.decode("%%%"));
+    }
+
+    @Test
+    void decode_rejectsNonNumericYear() {
+        var token = new VehicleCursor(VehicleSort.MODEL_YEAR, "abc", 1L).encode();
+        assertThrows(IllegalArgumentException.class, () -> VehicleCursor.decode(token));
+    }
+
+    @Test
+    void decode_acceptsOnlyAFiniteRank() {
+        var rank = new VehicleCursor(VehicleSort.RELEVANCE, Float.toString(0.0607927f), 9L);
+        assertEquals(rank, VehicleCursor.decode(rank.encode()));
+        assertEquals(0.0607927f, Float.parseFloat(VehicleCursor.decode(rank.encode()).sortValue()));
+
+        for (var bad : new String[] { "high", "NaN", "Infinity" }) {
+            var token = new VehicleCursor(VehicleSort.RELEVANCE, bad, 1L).encode();
+            assertThrows(IllegalArgumentException.class, () -> VehicleCursor.decode(token), bad);
+        }
+    }
+
+    @Test
+    void page_ofLimitPlusOne_exposesCursorOfLastReturnedItem() {
+        var a = vehicle(1L, 2019);
+        var b = vehicle(2L, 2020);
+        var c = vehicle(3L, 2021);
+
+        var page = VehiclePage.of(java.util.List.of(a, b, c), 2, VehicleSort.MODEL_YEAR);
+
+        assertEquals(2, page.items().size());
+        assertEquals(new VehicleCursor(VehicleSort.MODEL_YEAR, "2020", 2L), page.next());
+        assertFalse(VehiclePage.of(java.util.List.of(a, b), 2, VehicleSort.ID).hasNext());
+    }
+
+    private static Vehicle vehicle(long id, int year) {
+        return new Vehicle(new VehicleId(id), new Vin("1HGCM82633A123456"), VehicleType.CAR,
+                "Toyota", "Corolla", year, FuelType.PETROL, null, null);
+    }
+}
@@ -1,9 +1,11 @@
 package io.github.albi.vehicles.domain.vehicle;
 
+import io.github.albi.vehicles.application.vehicle.ServiceTimer;
 import io.github.albi.vehicles.application.vehicle.VehicleService;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -13,9 +15,18 @@ final class VehicleServiceTest {
     private static final class FakeRepo implements VehicleRepository {
         private final Set<Long> deleted = new HashSet<>();
 
+        VehicleSort lastSearchSort;
+        int lastSearchLimit;
+        String lastSuggestPrefix;
+        int lastSuggestLimit;
         Vehicle lastCreated;
         Vehicle lastUpdated;
+        List<VehicleDraft> lastUpserted;
         VehicleId lastDeleted;
+        int lastChangesLimit;
+        int changeReads;
+        int changesAppearOnRead = 1;
+        int findAllCalls;
 
         @Override
         public Optional<Vehicle> findById(VehicleId id) {
@@ -36,24 +47,41 @@ final class VehicleServiceTest {
             return Optional.empty();
         }
 
+        @Override
+        public Optional<VehicleVersion> findVersionById(VehicleId id) {
+            return findById(id).map(v -> new VehicleVersion(v.version(), v.updatedAt()));
+        }
+
         @Override
         public Optional<Vehicle> findByVin(Vin vin) { return Optional.empty(); }
 
         @Override
         public Optional<Vehicle> findByRegistrationNumber(String registrationNumber) { return Optional.empty(); }
 
-        // ✅ Single source of truth: 7-arg search only
         @Override
-        public List<Vehicle> search(String make, String model, Integer year,
-                                    VehicleType type, FuelType fuelType,
-                                    String vin, String registrationNumber) {
+        public List<Vehicle> findAll(List<VehicleKey> keys) {
+            findAllCalls++;
+            var names = findById(new VehicleId(1L)).filter(v -> VehicleKey.allOf(v).stream().anyMatch(keys::contains));
+            return names.map(List::of).orElse(List.of());
+        }
+
+        // ✅ Single source of truth: filter + keyset page
+        @Override
+        public VehiclePage search(VehicleFilter filter, VehicleSort sort, VehicleCursor after, int limit) {
+            lastSearchSort = sort;
+            lastSearchLimit = limit;
+            var make = filter.make();
+            var model = filter.model();
+            var year = filter.year();
+            var type = filter.type();
+            var fuelType = filter.fuelType();
 
             // If VIN provided, simulate exact match or empty
-            if (vin != null && !vin.isBlank()) {
-                if ("22222222222222222".equals(vin)) {
-                    return List.of(new Vehicle(
+            if (filter.hasVin()) {
+                if ("22222222222222222".equals(filter.vin())) {
+                    return page(new Vehicle(
                             new VehicleId(2L),
-                            new Vin(vin),
+                            new Vin(filter.vin()),
                             type != null ? type : VehicleType.CAR,
                             make != null ? make : "Honda",
                             model != null ? model : "Civic",
@@ -63,13 +91,13 @@ final class VehicleServiceTest {
                             "XYZ987"
                     ));
                 }
-                return List.of();
+                return VehiclePage.empty();
             }
 
             // If registration provided, simulate exact (case-insensitive) or empty
-            if (registrationNumber != null && !registrationNumber.isBlank()) {
-                if ("xyz987".equalsIgnoreCase(registrationNumber)) {
-                    return List.of(new Vehicle(
+            if (filter.hasRegistrationNumber()) {
+                if ("xyz987".equalsIgnoreCase(filter.registrationNumber())) {
+                    return page(new Vehicle(
                             new VehicleId(2L),
                             new Vin("22222222222222222"),
                             type != null ? type : VehicleType.CAR,
@@ -81,11 +109,11 @@ final class VehicleServiceTest {
                             "XYZ987"
                     ));
                 }
-                return List.of();
+                return VehiclePage.empty();
             }
 
             // Fallback: behave like the old 5-arg path for filter-only searches
-            return List.of(new Vehicle(
+            return page(new Vehicle(
                     new VehicleId(2L),
                     new Vin("22222222222222222"),
                     type != null ? type : VehicleType.CAR,
@@ -98,6 +126,35 @@ final class VehicleServiceTest {
             ));
         }
 
+        @Override
+        public void exportAll(VehicleFilter filter, Consumer<? super Vehicle> sink) {
+            search(filter, VehicleSort.ID, null, 1).items().forEach(sink);
+        }
+
+        @Override
+        public List<String> suggest(VehicleTextField field, String prefix, int limit) {
+            lastSuggestPrefix = prefix;
+            lastSuggestLimit = limit;
+            return field == VehicleTextField.MAKE ? List.of("Toyota") : List.of();
+        }
+
+        @Override
+        public VehicleFacets facets(VehicleFilter filter) {
+            return VehicleFacets.empty();
+        }
+
+        @Override
+        public List<VehicleChange> changesSince(long since, int limit) {
+            lastChangesLimit = limit;
+            return ++changeReads < changesAppearOnRead
+                    ? List.of()
+                    : List.of(VehicleChange.deletion(since + 1, new VehicleId(7L)));
+        }
+
+        private static VehiclePage page(Vehicle v) {
+            return new VehiclePage(List.of(v), null);
+        }
+
         @Override
         public Vehicle create(Vin vin, VehicleType type, String make, String model,
                               Integer year, FuelType fuelType,
@@ -117,9 +174,19 @@ final class VehicleServiceTest {
         }
 
         @Override
-        public Vehicle update(VehicleId id, Vin vin, VehicleType type, String make, String model,
-                              Integer year, FuelType fuelType,
-                              String color, String registrationNumber) {
+        public List<VehicleUpsertResult> upsertAll(List<VehicleDraft> drafts) {
+            lastUpserted = drafts;
+            var results = new ArrayList<VehicleUpsertResult>();
+            for (int i = 0; i < drafts.size(); i++) results.add(VehicleUpsertResult.created(new VehicleId(100L + i)));
+            return results;
+        }
+
+        @Override
+        public Optional<Vehicle> update(VehicleId id, Long expectedVersion, Vin vin, VehicleType type, String make,
+                                        String model, Integer year, FuelType fuelType,
+                                        String color, String registrationNumber) {
+            if (findById(id).isEmpty()) return Optional.empty();
+            if (expectedVersion != null && expectedVersion != 0) throw new VehicleVersionConflictException(id, expectedVersion);
             lastUpdated = new Vehicle(
                     id,
                     vin,
@@ -129,15 +196,19 @@ final class VehicleServiceTest {
                     year,
                     fuelType,
                     color,
-                    registrationNumber
+                    registrationNumber,
+                    1,
+                    null
             );
-            return lastUpdated;
+            return Optional.of(lastUpdated);
         }
 
         @Override
-        public void delete(VehicleId id) {
+        public boolean delete(VehicleId id, Long expectedVersion) {
+            if (findById(id).isEmpty()) return false;
             lastDeleted = id;
             deleted.add(id.value());
+            return true;
         }
     }
 
@@ -156,6 +227,26 @@ final class VehicleServiceTest {
         assertEquals("ABC123", v.registrationNumber());
     }
 
+    @Test
+    void getAll_answersEveryKeyInRequestOrder_withOneRepositoryCall() {
+        var repo = new FakeRepo();
+        var service = new VehicleService(repo);
+
+        var results = service.getAll(List.of(
+                VehicleKey.of(new VehicleId(2L)),
+                VehicleKey.of(new VehicleId(1L)),
+                VehicleKey.of(new Vin("11111111111111111")),
+                VehicleKey.ofRegistrationNumber(" abc123 "),
+                VehicleKey.ofRegistrationNumber("ZZZ999")));
+
+        assertEquals(List.of(false, true, true, true, false), results.stream().map(Optional::isPresent).toList());
+        assertEquals(1L, results.get(3).orElseThrow().id().value());
+        assertEquals(1, repo.findAllCalls);
+
+        assertEquals(List.of(), service.getAll(List.of()));
+        assertEquals(1, repo.findAllCalls); // nothing asked, nothing read
+    }
+
     @Test
     void getById_throwsVehicleNotFound_whenAbsent() {
         var service = new VehicleService(new FakeRepo());
@@ -166,7 +257,9 @@ final class VehicleServiceTest {
     @Test
     void search_returnsFilteredResults() {
         var service = new VehicleService(new FakeRepo());
-        var results = service.search("Honda", "Civic", 2021, VehicleType.CAR, FuelType.DIESEL, null, null);
+        var results = service.search(
+                new VehicleFilter("Honda", "Civic", 2021, VehicleType.CAR, FuelType.DIESEL, null, null),
+                null, null, null).items();
 
         assertFalse(results.isEmpty());
         var v = results.getFirst();
@@ -177,6 +270,72 @@ final class VehicleServiceTest {
         assertEquals(FuelType.DIESEL, v.fuelType());
     }
 
+    @Test
+    void search_appliesDefaultSortAndPageSize() {
+        var repo = new FakeRepo();
+        var service = new VehicleService(repo, 20, 100);
+
+        service.search(VehicleFilter.none(), null, null, null);
+
+        assertEquals(VehicleSort.ID, repo.lastSearchSort);
+        assertEquals(20, repo.lastSearchLimit);
+    }
+
+    @Test
+    void search_capsLimitAtMaxPageSize() {
+        var repo = new FakeRepo();
+        var service = new VehicleService(repo, 20, 100);
+
+        service.search(VehicleFilter.none(), VehicleSort.MAKE, null, 10_000);
+
+        assertEquals(100, repo.lastSearchLimit);
+    }
+
+    @Test
+    void search_rejectsNonPositiveLimit() {
+        var service = new VehicleService(new FakeRepo());
+        assertThrows(IllegalArgumentException.class,
+                () -> service.search(VehicleFilter.none(), null, null, 0));
+    }
+
+    @Test
+    void search_rejectsCursorIssuedForAnotherSort() {
+        var service = new VehicleService(new FakeRepo());
+        var cursor = new VehicleCursor(VehicleSort.MAKE, "Honda", 2L);
+        assertThrows(IllegalArgumentException.class,
+                () -> service.search(VehicleFilter.none(), VehicleSort.MODEL_YEAR, cursor, null));
+    }
+
+    @Test
+    void freeTextSearch_isRankedUnlessSortedOtherwise_andOnlyForSearch() {
+        var repo = new FakeRepo();
+        var service = new VehicleService(repo, 20, 100);
+        var text = new VehicleFilter(null, null, null, null, null, null, null, null, "red tesla");
+
+        service.search(text, null, null, null);
+        assertEquals(VehicleSort.RELEVANCE, repo.lastSearchSort);
+        service.search(text, VehicleSort.MODEL_YEAR, null, null);
+        assertEquals(VehicleSort.MODEL_YEAR, repo.lastSearchSort);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.search(VehicleFilter.none(), VehicleSort.RELEVANCE, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.search(VehicleFilter.none(), null, new VehicleCursor(VehicleSort.RELEVANCE, "0.1", 3L), null));
+        assertThrows(IllegalArgumentException.class, () -> service.facets(text));
+        assertThrows(IllegalArgumentException.class, () -> service.export(text, v -> { }));
+    }
+
+    @Test
+    void export_streamsRepositoryMatchesToSink() {
+        var service = new VehicleService(new FakeRepo());
+        var seen = new ArrayList<Vehicle>();
+
+        service.export(new VehicleFilter(null, null, null, null, null, "22222222222222222", null), seen::add);
+
+        assertEquals(1, seen.size());
+        assertEquals("22222222222222222", seen.getFirst().vin().value());
+    }
+
     @Test
     void create_persistsAndReturnsVehicle() {
         var repo = new FakeRepo();
@@ -204,6 +363,71 @@ final class VehicleServiceTest {
         assertEquals(repo.lastCreated, created);
     }
 
+    @Test
+    void upsertAll_delegatesAndSkipsEmptyBatches() {
+        var repo = new FakeRepo();
+        var service = new VehicleService(repo);
+
+        assertTrue(service.upsertAll(List.of()).isEmpty());
+        assertNull(repo.lastUpserted);
+
+        var draft = new VehicleDraft(new Vin("33333333333333333"), VehicleType.CAR, "BMW", "i3", 2022,
+                FuelType.ELECTRIC, null, null);
+        var results = service.upsertAll(List.of(draft));
+
+        assertEquals(List.of(draft), repo.lastUpserted);
+        assertEquals(VehicleUpsertResult.Outcome.CREATED, results.getFirst().outcome());
+    }
+
+    @Test
+    void suggest_defaultsAndCapsLimit_andTrimsPrefix() {
+        var repo = new FakeRepo();
+        var service = new VehicleService(repo);
+
+        assertEquals(List.of("Toyota"), service.suggest(VehicleTextField.MAKE, " to ", null));
+        assertEquals("to", repo.lastSuggestPrefix);
+        assertEquals(VehicleService.DEFAULT_SUGGESTIONS, repo.lastSuggestLimit);
+
+        service.suggest(VehicleTextField.MODEL, null, 10_000);
+        assertEquals("", repo.lastSuggestPrefix);
+        assertEquals(VehicleService.MAX_SUGGESTIONS, repo.lastSuggestLimit);
+
+        assertThrows(IllegalArgumentException.class, () -> service.suggest(VehicleTextField.MAKE, "to", 0));
+    }
+
+    @Test
+    void containsSearch_needsThreeCharacters() {
+        var service = new VehicleService(new FakeRepo());
+        var tooShort = new VehicleFilter("yo", null, null, null, null, null, null, TextMatch.CONTAINS);
+
+        assertThrows(IllegalArgumentException.class, () -> service.search(tooShort, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.export(tooShort, v -> { }));
+        assertThrows(IllegalArgumentException.class, () -> service.facets(tooShort));
+    }
+
+    @Test
+    void checkDigitMode_rejectsBadVinsOnWrites_andFailsOnlyThoseBatchItems() {
+        var repo = new FakeRepo();
+        var service = new VehicleService(repo, 50, 500, true);
+        var bad = new Vin("1HGCM82643A004352");
+        var good = new Vin("1HGCM82633A004352");
+
+        assertThrows(IllegalArgumentException.class, () -> service.create(
+                bad, VehicleType.CAR, "Honda", "Accord", 2003, FuelType.PETROL, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.update(
+                new VehicleId(1L), bad, VehicleType.CAR, "Honda", "Accord", 2003, FuelType.PETROL, null, null));
+        assertNull(repo.lastCreated);
+        assertNull(repo.lastUpdated);
+
+        var goodDraft = new VehicleDraft(good, VehicleType.CAR, "Honda", "Accord", 2003, FuelType.PETROL, null, null);
+        var badDraft = new VehicleDraft(bad, VehicleType.CAR, "Honda", "Accord", 2003, FuelType.PETROL, null, null);
+        var results = service.upsertAll(List.of(badDraft, goodDraft));
+
+        assertEquals(List.of(goodDraft), repo.lastUpserted);
+        assertEquals(VehicleUpsertResult.Outcome.FAILED, results.get(0).outcome());
+        assertEquals(VehicleUpsertResult.Outcome.CREATED, results.get(1).outcome());
+    }
+
     @Test
     void update_modifiesAndReturnsVehicle() {
         var repo = new FakeRepo();
@@ -243,5 +467,83 @@ final class VehicleServiceTest {
 
         assertEquals(id, repo.lastDeleted);
         assertThrows(VehicleNotFoundException.class, () -> service.getById(id));
+        assertThrows(VehicleNotFoundException.class, () -> service.delete(id));
+    }
+
+    @Test
+    void getVersion_throwsNotFound_whenMissing() {
+        var service = new VehicleService(new FakeRepo());
+
+        assertEquals(0, service.getVersion(new VehicleId(1L)).version());
+        assertThrows(VehicleNotFoundException.class, () -> service.getVersion(new VehicleId(404L)));
+    }
+
+    @Test
+    void update_missingOrStaleVersion_isReportedByTheRepositoryWrite() {
+        var repo = new FakeRepo();
+        var service = new VehicleService(repo);
+        var vin = new Vin("44444444444444444");
+
+        assertThrows(VehicleNotFoundException.class, () -> service.update(
+                new VehicleId(404L), null, vin, VehicleType.CAR, "Tesla", "Model S", 2023, FuelType.ELECTRIC, null, null));
+        assertThrows(VehicleVersionConflictException.class, () -> service.update(
+                new VehicleId(1L), 7L, vin, VehicleType.CAR, "Tesla", "Model S", 2023, FuelType.ELECTRIC, null, null));
+        assertEquals(1, service.update(
+                new VehicleId(1L), 0L, vin, VehicleType.CAR, "Tesla", "Model S", 2023, FuelType.ELECTRIC, null, null)
+                .version());
+    }
+
+    @Test
+    void changes_defaultsAndCapsLimit_andRejectsBadArguments() {
+        var repo = new FakeRepo();
+        var service = new VehicleService(repo);
+
+        var changes = service.changes(10, null, null);
+        assertEquals(11, changes.getFirst().seq());
+        assertTrue(changes.getFirst().deleted());
+        assertEquals(VehicleService.DEFAULT_CHANGES, repo.lastChangesLimit);
+
+        service.changes(0, 1_000_000, java.time.Duration.ZERO);
+        assertEquals(VehicleService.MAX_CHANGES, repo.lastChangesLimit);
+
+        assertThrows(IllegalArgumentException.class, () -> service.changes(-1, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.changes(0, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> service.changes(0, null, java.time.Duration.ofSeconds(-1)));
+    }
+
+    @Test
+    void changes_longPollsUntilSomethingChanges_orTheWaitRunsOut() {
+        var repo = new FakeRepo();
+        repo.changesAppearOnRead = 3;
+        var service = new VehicleService(repo);
+
+        assertEquals(1, service.changes(0, null, java.time.Duration.ofSeconds(5)).size());
+        assertEquals(3, repo.changeReads);
+
+        repo.changeReads = 0;
+        repo.changesAppearOnRead = Integer.MAX_VALUE;
+        long started = System.nanoTime();
+        assertTrue(service.changes(0, null, java.time.Duration.ofMillis(300)).isEmpty());
+        assertTrue(System.nanoTime() - started >= 300_000_000L);
+        assertTrue(repo.changeReads >= 2);
+    }
+
+    @Test
+    void every_operation_goes_through_the_timer_with_its_filter_even_when_it_fails() {
+        var timed = new ArrayList<String>();
+        var timer = new ServiceTimer() {
+            @Override
+            public <T> T time(String operation, VehicleFilter filter, java.util.function.Supplier<T> call) {
+                timed.add(operation + (filter == null ? "" : "(" + filter.make() + ")"));
+                return call.get();
+            }
+        };
+        var service = new VehicleService(new FakeRepo(), 50, 500, false, timer);
+
+        service.getById(new VehicleId(1L));
+        service.search(new VehicleFilter("Toyota", null, null, null, null, null, null), null, null, null);
+        assertThrows(VehicleNotFoundException.class, () -> service.delete(new VehicleId(99L)));
+
+        assertEquals(List.of("getById", "search(Toyota)", "delete"), timed);
     }
-}
\ No newline at end of file
+}
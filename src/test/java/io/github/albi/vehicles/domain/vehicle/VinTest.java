@@ -0,0 +1,41 @@
+package io.github.albi.vehicles.domain.vehicle;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class VinTest {
+
+    @Test
+    void keepsNormalizedInputAsIs() {
+        var raw = "1HGCM82633A004352";
+        assertSame(raw, new Vin(raw).value());
+    }
+
+    @Test
+    void trimsAndUppercases() {
+        assertEquals("1HGCM82633A004352", new Vin("  1hgcm82633a004352\t").value());
+    }
+
+    @Test
+    void rejectsWrongLengthAndForbiddenCharacters() {
+        assertThrows(IllegalArgumentException.class, () -> new Vin("1HGCM82633A00435"));
+        assertThrows(IllegalArgumentException.class, () -> new Vin("1HGCM82633A0043521"));
+        assertThrows(IllegalArgumentException.class, () -> new Vin("1HGCM82633A00435I"));
+        assertThrows(IllegalArgumentException.class, () -> new Vin("1HGCM82633A00435o"));
+        assertThrows(IllegalArgumentException.class, () -> new Vin("1HGCM82633A00435-"));
+        assertThrows(IllegalArgumentException.class, () -> new Vin("1HGCM82633A00435É"));
+        assertThrows(IllegalArgumentException.class, () -> new Vin("1HGCM826 3A004352"));
+        assertThrows(NullPointerException.class, () -> new Vin(null));
+    }
+
+    @Test
+    void verifiesCheckDigit() {
+        assertTrue(new Vin("1HGCM82633A004352").hasValidCheckDigit());
+        assertTrue(new Vin("1M8GDM9AXKP042788").hasValidCheckDigit()); // remainder 10 -> 'X'
+        assertFalse(new Vin("1HGCM82643A004352").hasValidCheckDigit());
+
+        assertEquals("1M8GDM9AXKP042788", Vin.checked("1m8gdm9axkp042788").value());
+        assertThrows(IllegalArgumentException.class, () -> Vin.checked("1HGCM82643A004352"));
+    }
+}
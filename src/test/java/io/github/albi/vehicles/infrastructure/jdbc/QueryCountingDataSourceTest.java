@@ -0,0 +1,88 @@
+package io.github.albi.vehicles.infrastructure.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+final class QueryCountingDataSourceTest {
+
+    private final JdbcDataSource h2 = new JdbcDataSource();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        h2.setURL("jdbc:h2:mem:query_counting;DB_CLOSE_DELAY=-1");
+        try (var con = h2.getConnection(); var st = con.createStatement()) {
+            st.execute("create table if not exists t (id int)");
+            st.execute("delete from t");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestQueries.end();
+    }
+
+    @Test
+    void attributes_every_execution_to_the_request_on_the_thread() throws Exception {
+        var counting = new QueryCountingDataSource(h2, Duration.ofSeconds(10));
+
+        var queries = RequestQueries.begin("GET /t");
+        try (var con = counting.getConnection()) {
+            try (var insert = con.prepareStatement("insert into t values (?)")) {
+                insert.setInt(1, 1);
+                insert.executeUpdate();
+                insert.setInt(1, 2);
+                insert.addBatch();
+                insert.setInt(1, 3);
+                insert.addBatch();
+                insert.executeBatch(); // one round trip, one statement
+            }
+            try (var st = con.createStatement(); var rs = st.executeQuery("select count(*) from t")) {
+                rs.next();
+                assertThat(rs.getInt(1)).isEqualTo(3);
+            }
+        } finally {
+            RequestQueries.end();
+        }
+
+        assertThat(queries.count()).isEqualTo(3);
+        assertThat(queries.statements()).containsExactly(
+                "insert into t values (?)", "insert into t values (?)", "select count(*) from t");
+        assertThat(queries.time()).isPositive();
+        assertThat(counting.statements()).isEqualTo(3);
+        assertThat(counting.slowStatements()).isZero();
+    }
+
+    @Test
+    void counts_outside_a_request_without_attributing_it() throws Exception {
+        var counting = new QueryCountingDataSource(h2, Duration.ofSeconds(10));
+        var queries = RequestQueries.begin("GET /t");
+        RequestQueries.end();
+
+        try (var con = counting.getConnection(); var st = con.prepareStatement("select 1")) {
+            st.executeQuery().close();
+            assertThat(st.getConnection()).isSameAs(con);
+            assertThat(st).isInstanceOf(PreparedStatement.class);
+        }
+
+        assertThat(queries.count()).isZero();
+        assertThat(counting.statements()).isEqualTo(1);
+    }
+
+    @Test
+    void counts_statements_at_the_threshold_as_slow() throws Exception {
+        var counting = new QueryCountingDataSource(h2, Duration.ZERO);
+
+        try (var con = counting.getConnection(); var st = con.createStatement()) {
+            st.execute("select 1");
+        }
+
+        assertThat(counting.slowStatements()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,151 @@
+package io.github.albi.vehicles.infrastructure.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Three H2 databases that each know their own name: a primary and two replicas. */
+final class ReplicaRoutingDataSourceTest {
+
+    private final JdbcDataSource primary = h2("primary");
+    private final JdbcDataSource replica1 = h2("replica-1");
+    private final JdbcDataSource replica2 = h2("replica-2");
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    private static JdbcDataSource h2(String name) {
+        var ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:routing_" + name.replace('-', '_') + ";DB_CLOSE_DELAY=-1");
+        return ds;
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (var entry : new Object[][] { { primary, "primary" }, { replica1, "replica-1" }, { replica2, "replica-2" } }) {
+            try (var con = ((JdbcDataSource) entry[0]).getConnection(); var st = con.createStatement()) {
+                st.execute("create table if not exists whoami (name varchar(20))");
+                st.execute("create table if not exists replica_lag (seconds double)");
+                st.execute("delete from whoami");
+                st.execute("delete from replica_lag");
+                st.execute("insert into whoami values ('" + entry[1] + "')");
+                st.execute("insert into replica_lag values (0)");
+            }
+        }
+        var replicas = new LinkedHashMap<String, javax.sql.DataSource>();
+        replicas.put("replica-1", replica1);
+        replicas.put("replica-2", replica2);
+        routing = new ReplicaRoutingDataSource(primary, replicas, Duration.ofSeconds(1), "select seconds from replica_lag");
+        jdbc = new JdbcTemplate(routing);
+        var tx = new DataSourceTransactionManager(routing);
+        readOnly = new TransactionTemplate(tx);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(tx);
+    }
+
+    private String readOnlyServer() {
+        return readOnly.execute(s -> jdbc.queryForObject("select name from whoami", String.class));
+    }
+
+    private void lag(JdbcDataSource replica, double seconds) {
+        new JdbcTemplate(replica).update("update replica_lag set seconds = ?", seconds);
+    }
+
+    @Test
+    void read_only_transactions_go_to_the_replicas_in_turn_and_the_rest_to_the_primary() {
+        routing.checkLag();
+
+        assertThat(readOnlyServer()).isEqualTo("replica-1");
+        assertThat(readOnlyServer()).isEqualTo("replica-2");
+        assertThat(jdbc.queryForObject("select name from whoami", String.class)).isEqualTo("primary");
+        String inReadWrite = readWrite.execute(s -> jdbc.queryForObject("select name from whoami", String.class));
+        assertThat(inReadWrite).isEqualTo("primary");
+        assertThat(routing.replicaConnections("replica-1")).isEqualTo(1);
+        assertThat(routing.replicaConnections("replica-2")).isEqualTo(1);
+    }
+
+    @Test
+    void a_replica_with_connections_checked_out_is_passed_over() throws Exception {
+        routing.checkLag();
+
+        try (var held = routing.getConnection()) {
+            held.setReadOnly(true);
+            try (var st = held.createStatement(); var rs = st.executeQuery("select name from whoami")) {
+                rs.next();
+                assertThat(rs.getString(1)).isEqualTo("replica-1");
+            }
+            for (int i = 0; i < 3; i++) assertThat(readOnlyServer()).isEqualTo("replica-2");
+        }
+    }
+
+    @Test
+    void replicas_serve_nothing_until_checked() {
+        assertThat(readOnlyServer()).isEqualTo("primary");
+        assertThat(routing.inRotation("replica-1")).isFalse();
+        assertThat(routing.primaryReads()).isEqualTo(1);
+    }
+
+    @Test
+    void a_lagging_or_unreachable_replica_leaves_rotation_until_it_has_caught_up() {
+        lag(replica1, 5);
+        replica2.setURL("jdbc:h2:mem:routing_missing;IFEXISTS=TRUE");
+        routing.checkLag();
+
+        assertThat(routing.inRotation("replica-1")).isFalse();
+        assertThat(routing.lagSeconds("replica-1")).isEqualTo(5);
+        assertThat(routing.inRotation("replica-2")).isFalse();
+        assertThat(routing.lagSeconds("replica-2")).isNaN();
+        assertThat(readOnlyServer()).isEqualTo("primary");
+
+        lag(replica1, 0.2);
+        routing.checkLag();
+        assertThat(readOnlyServer()).isEqualTo("replica-1");
+        assertThat(readOnlyServer()).isEqualTo("replica-1");
+    }
+
+    @Test
+    void reads_after_a_write_stay_on_the_primary_for_that_thread_only() throws Exception {
+        routing.checkLag();
+
+        readWrite.executeWithoutResult(s -> jdbc.update("insert into replica_lag values (0)"));
+
+        assertThat(readOnlyServer()).isEqualTo("primary");
+        try (var other = Executors.newSingleThreadExecutor()) {
+            assertThat(other.submit(this::readOnlyServer).get()).startsWith("replica-");
+        }
+    }
+
+    @Test
+    void on_primary_sends_that_read_alone_to_the_primary_while_writes_continue() throws Exception {
+        routing.checkLag();
+        var writing = new java.util.concurrent.atomic.AtomicBoolean(true);
+
+        try (var writer = Executors.newSingleThreadExecutor(); var reader = Executors.newSingleThreadExecutor()) {
+            var writes = writer.submit(() -> {
+                int n = 0;
+                while (writing.get()) {
+                    readWrite.executeWithoutResult(s -> jdbc.update("update whoami set name = name"));
+                    n++;
+                }
+                return n;
+            });
+            for (int i = 0; i < 20; i++) {
+                assertThat(reader.submit(this::readOnlyServer).get()).startsWith("replica-");
+                assertThat(reader.submit(() -> routing.onPrimary(this::readOnlyServer)).get()).isEqualTo("primary");
+            }
+            writing.set(false);
+            assertThat(writes.get()).isPositive();
+        }
+        assertThat(routing.primaryReads()).isEqualTo(20);
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.albi.vehicles.support;
+
+import io.github.albi.vehicles.infrastructure.jdbc.RequestQueries;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * MockMvc assertions on the JDBC statements a request executed, so an N+1 or an extra
+ * lookup fails the endpoint's test: {@code .andExpect(QueryBudget.atMost(2))}.
+ *
+ * <p>Needs {@code QueryCountFilter} in the MockMvc setup and a {@code QueryCountingDataSource}
+ * around the test's data source. The failure message lists the SQL that ran.</p>
+ */
+public final class QueryBudget {
+
+    private QueryBudget() {}
+
+    public static ResultMatcher atMost(int statements) {
+        return result -> {
+            var queries = queries(result);
+            if (queries.count() > statements) {
+                throw new AssertionError(describe(queries, "at most " + statements));
+            }
+        };
+    }
+
+    public static ResultMatcher exactly(int statements) {
+        return result -> {
+            var queries = queries(result);
+            if (queries.count() != statements) {
+                throw new AssertionError(describe(queries, "exactly " + statements));
+            }
+        };
+    }
+
+    private static RequestQueries queries(MvcResult result) {
+        if (!(result.getRequest().getAttribute(RequestQueries.REQUEST_ATTRIBUTE) instanceof RequestQueries queries)) {
+            throw new AssertionError("No statement count on the request; add QueryCountFilter to the MockMvc setup");
+        }
+        return queries;
+    }
+
+    private static String describe(RequestQueries queries, String budget) {
+        var message = new StringBuilder(queries.request()).append(" executed ").append(queries.count())
+                .append(" statements, expected ").append(budget).append(':');
+        queries.statements().forEach(sql -> message.append("\n  ").append(sql));
+        return message.toString();
+    }
+}